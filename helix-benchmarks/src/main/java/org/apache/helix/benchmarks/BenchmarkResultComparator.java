@@ -0,0 +1,137 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compare the JMH JSON results of two runs, typically the checked-in baseline of the previous
+ * release and the result of the current build.
+ *
+ * Usage: BenchmarkResultComparator [baseline result] [current result] [threshold percentage]
+ *
+ * For every benchmark, mode and parameter combination that exists in both results, the primary
+ * score and the normalized allocation rate are compared. A change that is worse than the
+ * threshold is reported as a regression, and the process exits with a non-zero code.
+ */
+public class BenchmarkResultComparator {
+  private static final String ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm";
+  private static final double DEFAULT_THRESHOLD_PERCENTAGE = 10.0;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println(
+          "Usage: BenchmarkResultComparator <baseline result> <current result> [threshold %]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENTAGE;
+    List<String> regressions =
+        compare(readResults(new File(args[0])), readResults(new File(args[1])), threshold);
+    if (!regressions.isEmpty()) {
+      System.out.println("Regressions beyond " + threshold + "%:");
+      regressions.forEach(System.out::println);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Compare the results and print the changes.
+   * @return The descriptions of the regressions that are beyond the threshold.
+   */
+  static List<String> compare(Map<String, JsonNode> baseline, Map<String, JsonNode> current,
+      double thresholdPercentage) {
+    List<String> regressions = new ArrayList<>();
+    for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+      JsonNode baselineResult = baseline.get(entry.getKey());
+      if (baselineResult == null) {
+        System.out.println(String.format("%s: no baseline", entry.getKey()));
+        continue;
+      }
+      JsonNode currentResult = entry.getValue();
+      // For the throughput, the higher the better. For the time modes, the lower the better.
+      boolean higherIsBetter = "thrpt".equals(currentResult.path("mode").asText());
+      double scoreChange = getChangePercentage(baselineResult.path("primaryMetric"),
+          currentResult.path("primaryMetric"));
+      double scoreRegression = higherIsBetter ? -scoreChange : scoreChange;
+      System.out.println(String.format("%s: score %+.2f%% (%s)", entry.getKey(), scoreChange,
+          currentResult.path("primaryMetric").path("scoreUnit").asText()));
+      if (scoreRegression > thresholdPercentage) {
+        regressions.add(String.format("%s: score %+.2f%%", entry.getKey(), scoreChange));
+      }
+
+      JsonNode baselineAllocation = baselineResult.path("secondaryMetrics").path(ALLOCATION_METRIC);
+      JsonNode currentAllocation = currentResult.path("secondaryMetrics").path(ALLOCATION_METRIC);
+      if (!baselineAllocation.isMissingNode() && !currentAllocation.isMissingNode()) {
+        double allocationChange = getChangePercentage(baselineAllocation, currentAllocation);
+        System.out.println(
+            String.format("%s: allocation per operation %+.2f%%", entry.getKey(),
+                allocationChange));
+        if (allocationChange > thresholdPercentage) {
+          regressions.add(String
+              .format("%s: allocation per operation %+.2f%%", entry.getKey(), allocationChange));
+        }
+      }
+    }
+    return regressions;
+  }
+
+  /**
+   * Read the JMH JSON result file.
+   * @return <benchmark, mode and parameters, result>
+   */
+  static Map<String, JsonNode> readResults(File resultFile) throws IOException {
+    Map<String, JsonNode> results = new LinkedHashMap<>();
+    for (JsonNode result : new ObjectMapper().readTree(resultFile)) {
+      results.put(getResultKey(result), result);
+    }
+    return results;
+  }
+
+  private static String getResultKey(JsonNode result) {
+    // Sort the parameters so the key does not depend on the field order in the file.
+    Map<String, String> params = new TreeMap<>();
+    Iterator<Map.Entry<String, JsonNode>> paramIter = result.path("params").fields();
+    while (paramIter.hasNext()) {
+      Map.Entry<String, JsonNode> param = paramIter.next();
+      params.put(param.getKey(), param.getValue().asText());
+    }
+    return String.format("%s [%s] %s", result.path("benchmark").asText(),
+        result.path("mode").asText(), params);
+  }
+
+  private static double getChangePercentage(JsonNode baselineMetric, JsonNode currentMetric) {
+    double baselineScore = baselineMetric.path("score").asDouble();
+    double currentScore = currentMetric.path("score").asDouble();
+    if (baselineScore == 0) {
+      return currentScore == 0 ? 0 : Double.POSITIVE_INFINITY;
+    }
+    return (currentScore - baselineScore) * 100 / baselineScore;
+  }
+}
@@ -0,0 +1,122 @@
+package org.apache.helix.benchmarks;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.zookeeper.compression.CompressionCodec;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordJacksonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the compression codecs on the serialized ZNRecords that are shaped like the
+ * IdealStates and the ExternalViews of a large resource. The records are serialized without the
+ * size limit, so the large records are not compressed by the serializer in advance.
+ * The compression ratio of each codec is printed in the setup, since JMH only reports the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionCodecBenchmark {
+  @Param({"gzip", "deflate:1", "deflate", "lz4"})
+  public String codec;
+
+  @Param({"IdealState", "ExternalView"})
+  public String recordType;
+
+  @Param({"1024", "8192"})
+  public int partitionCount;
+
+  @Param({"100"})
+  public int instanceCount;
+
+  private CompressionCodec _codec;
+  private byte[] _serializedRecord;
+  private byte[] _compressedRecord;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    _codec = CompressionCodecs.getCodec(codec);
+    _serializedRecord = new ZNRecordJacksonSerializer().serialize(createRecord());
+    _compressedRecord = CompressionCodecs.compress(_serializedRecord, _codec);
+    System.out.println(String
+        .format("%s %s with %d partitions: %d bytes compressed to %d bytes, ratio %.2f", codec,
+            recordType, partitionCount, _serializedRecord.length, _compressedRecord.length,
+            (double) _serializedRecord.length / _compressedRecord.length));
+  }
+
+  @Benchmark
+  public byte[] compress() throws IOException {
+    return CompressionCodecs.compress(_serializedRecord, _codec);
+  }
+
+  @Benchmark
+  public byte[] uncompress() throws IOException {
+    return CompressionCodecs.uncompress(_compressedRecord);
+  }
+
+  private ZNRecord createRecord() {
+    String resource = SyntheticCluster.RESOURCE_PREFIX + 0;
+    ZNRecord record = new ZNRecord(resource);
+    Random random = new Random(partitionCount);
+    record.setSimpleField("NUM_PARTITIONS", Integer.toString(partitionCount));
+    record.setSimpleField("STATE_MODEL_DEF_REF", "MasterSlave");
+    for (int p = 0; p < partitionCount; p++) {
+      String partition = resource + "_" + p;
+      List<String> preferenceList = new ArrayList<>();
+      Map<String, String> stateMap = new TreeMap<>();
+      while (preferenceList.size() < 3) {
+        String instance = SyntheticCluster.INSTANCE_PREFIX + random.nextInt(instanceCount);
+        if (!preferenceList.contains(instance)) {
+          stateMap.put(instance, preferenceList.isEmpty() ? "MASTER" : "SLAVE");
+          preferenceList.add(instance);
+        }
+      }
+      if ("IdealState".equals(recordType)) {
+        record.setListField(partition, preferenceList);
+      }
+      record.setMapField(partition, stateMap);
+    }
+    return record;
+  }
+}
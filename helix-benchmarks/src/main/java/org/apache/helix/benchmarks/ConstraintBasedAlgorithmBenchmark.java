@@ -0,0 +1,110 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.rebalancer.waged.RebalanceAlgorithm;
+import org.apache.helix.controller.rebalancer.waged.constraints.ConstraintBasedAlgorithmFactory;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterModel;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterModelProvider;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the WAGED constraint based algorithm, which places all the replicas of the cluster
+ * in the order of the replica queue. The partition count scales the number of the replicas to
+ * show how the placement cost grows with the cluster size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ConstraintBasedAlgorithmBenchmark {
+  @Param({"20"})
+  public int instanceCount;
+
+  @Param({"10"})
+  public int resourceCount;
+
+  @Param({"16", "64", "256"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  private SyntheticCluster _cluster;
+  private ResourceControllerDataProvider _dataProvider;
+  private Map<String, Resource> _resourceMap;
+  private RebalanceAlgorithm _algorithm;
+  private ClusterModel _clusterModel;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount)
+        .setResourceCount(resourceCount).setPartitionCount(partitionCount)
+        .setReplicaCount(replicaCount).setWaged(true).build();
+    ClusterEvent event = _cluster.newEvent();
+    _dataProvider = event.getAttribute(AttributeName.ControllerDataProvider.name());
+    _resourceMap = event.getAttribute(AttributeName.RESOURCES_TO_REBALANCE.name());
+    _algorithm = ConstraintBasedAlgorithmFactory
+        .getInstance(_dataProvider.getClusterConfig().getGlobalRebalancePreference());
+  }
+
+  /**
+   * The algorithm assigns the replicas into the cluster model, so each invocation needs a new one.
+   */
+  @Setup(Level.Invocation)
+  public void setUpClusterModel() {
+    // Without a previous baseline, all the replicas are to be assigned.
+    _clusterModel = ClusterModelProvider.generateClusterModelForBaseline(_dataProvider,
+        _resourceMap, _dataProvider.getAllInstances(), Collections.emptyMap(),
+        Collections.emptyMap());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _cluster.close();
+  }
+
+  @Benchmark
+  public Object calculate() throws Exception {
+    return _algorithm.calculate(_clusterModel);
+  }
+}
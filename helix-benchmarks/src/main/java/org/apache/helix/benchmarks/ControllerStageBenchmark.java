@@ -0,0 +1,113 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.BestPossibleStateCalcStage;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.IntermediateStateCalcStage;
+import org.apache.helix.controller.stages.MessageGenerationPhase;
+import org.apache.helix.controller.stages.MessageSelectionStage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the controller rebalance pipeline stages. The resources are rebalanced by the
+ * DelayedAutoRebalancer with the CrushEd strategy.
+ * Each stage is evaluated against the output of the previous stages, which are calculated once in
+ * the setup. So the result reflects the cost of the stage alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ControllerStageBenchmark {
+  @Param({"20", "100"})
+  public int instanceCount;
+
+  @Param({"10", "100"})
+  public int resourceCount;
+
+  @Param({"64"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  @Param({"0", "5"})
+  public int faultZoneCount;
+
+  private SyntheticCluster _cluster;
+  private ClusterEvent _event;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount)
+        .setResourceCount(resourceCount).setPartitionCount(partitionCount)
+        .setReplicaCount(replicaCount).setFaultZoneCount(faultZoneCount).build();
+    _event = _cluster.newEvent();
+    SyntheticCluster.runStage(_event, new BestPossibleStateCalcStage());
+    SyntheticCluster.runStage(_event, new MessageGenerationPhase());
+    SyntheticCluster.runStage(_event, new MessageSelectionStage());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _cluster.close();
+  }
+
+  @Benchmark
+  public Object bestPossibleStateCalc() throws Exception {
+    // Clear the cached ideal mappings, otherwise the rebalancer won't recalculate the mappings.
+    ResourceControllerDataProvider dataProvider =
+        _event.getAttribute(AttributeName.ControllerDataProvider.name());
+    dataProvider.clearCachedResourceAssignments();
+    SyntheticCluster.runStage(_event, new BestPossibleStateCalcStage());
+    return _event.getAttribute(AttributeName.BEST_POSSIBLE_STATE.name());
+  }
+
+  @Benchmark
+  public Object messageGeneration() throws Exception {
+    SyntheticCluster.runStage(_event, new MessageGenerationPhase());
+    return _event.getAttribute(AttributeName.MESSAGES_ALL.name());
+  }
+
+  @Benchmark
+  public Object intermediateStateCalc() throws Exception {
+    SyntheticCluster.runStage(_event, new IntermediateStateCalcStage());
+    return _event.getAttribute(AttributeName.INTERMEDIATE_STATE.name());
+  }
+}
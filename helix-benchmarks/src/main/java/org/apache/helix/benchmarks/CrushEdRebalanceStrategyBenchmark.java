@@ -0,0 +1,106 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.rebalancer.strategy.CrushEdRebalanceStrategy;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the CrushEd rebalance strategy, which calculates the partition assignment of a
+ * single resource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrushEdRebalanceStrategyBenchmark {
+  @Param({"20", "100", "500"})
+  public int instanceCount;
+
+  @Param({"64", "1024"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  @Param({"0", "5"})
+  public int faultZoneCount;
+
+  private SyntheticCluster _cluster;
+  private ResourceControllerDataProvider _dataProvider;
+  private List<String> _partitions;
+  private LinkedHashMap<String, Integer> _stateCountMap;
+  private List<String> _instances;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount).setResourceCount(1)
+        .setPartitionCount(partitionCount).setReplicaCount(replicaCount)
+        .setFaultZoneCount(faultZoneCount).build();
+    ClusterEvent event = _cluster.newEvent();
+    _dataProvider = event.getAttribute(AttributeName.ControllerDataProvider.name());
+    _partitions = new ArrayList<>();
+    for (int p = 0; p < partitionCount; p++) {
+      _partitions.add(SyntheticCluster.RESOURCE_PREFIX + 0 + "_" + p);
+    }
+    _stateCountMap = new LinkedHashMap<>();
+    _stateCountMap.put("MASTER", 1);
+    _stateCountMap.put("SLAVE", replicaCount - 1);
+    _instances = new ArrayList<>(_dataProvider.getAllInstances());
+    Collections.sort(_instances);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _cluster.close();
+  }
+
+  @Benchmark
+  public Object computePartitionAssignment() {
+    CrushEdRebalanceStrategy strategy = new CrushEdRebalanceStrategy();
+    strategy.init(SyntheticCluster.RESOURCE_PREFIX + 0, _partitions, _stateCountMap,
+        Integer.MAX_VALUE);
+    return strategy.computePartitionAssignment(new ArrayList<>(_instances),
+        new ArrayList<>(_instances), Collections.emptyMap(), _dataProvider);
+  }
+}
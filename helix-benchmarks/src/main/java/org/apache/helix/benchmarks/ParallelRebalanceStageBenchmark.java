@@ -0,0 +1,119 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.api.config.StateTransitionThrottleConfig;
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.BestPossibleStateCalcStage;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.IntermediateStateCalcStage;
+import org.apache.helix.controller.stages.MessageGenerationPhase;
+import org.apache.helix.controller.stages.MessageSelectionStage;
+import org.apache.helix.model.ClusterConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the rebalance stages with the different resource rebalance parallelism. The
+ * state transitions are throttled per resource, so the intermediate state of each resource can be
+ * calculated independently.
+ * The parallelism of 1 is the serial calculation, which is the baseline of the comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelRebalanceStageBenchmark {
+  @Param({"1", "2", "4", "8"})
+  public int resourceRebalanceParallelism;
+
+  @Param({"100"})
+  public int instanceCount;
+
+  @Param({"100", "500"})
+  public int resourceCount;
+
+  @Param({"64"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  private SyntheticCluster _cluster;
+  private ClusterEvent _event;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount)
+        .setResourceCount(resourceCount).setPartitionCount(partitionCount)
+        .setReplicaCount(replicaCount).build();
+    HelixDataAccessor accessor = _cluster.getManager().getHelixDataAccessor();
+    ClusterConfig clusterConfig = accessor.getProperty(accessor.keyBuilder().clusterConfig());
+    clusterConfig.setResourceRebalanceParallelism(resourceRebalanceParallelism);
+    clusterConfig.setStateTransitionThrottleConfigs(Collections.singletonList(
+        new StateTransitionThrottleConfig(StateTransitionThrottleConfig.RebalanceType.ANY,
+            StateTransitionThrottleConfig.ThrottleScope.RESOURCE, partitionCount)));
+    accessor.setProperty(accessor.keyBuilder().clusterConfig(), clusterConfig);
+
+    _event = _cluster.newEvent();
+    SyntheticCluster.runStage(_event, new BestPossibleStateCalcStage());
+    SyntheticCluster.runStage(_event, new MessageGenerationPhase());
+    SyntheticCluster.runStage(_event, new MessageSelectionStage());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _cluster.close();
+  }
+
+  @Benchmark
+  public Object bestPossibleStateCalc() throws Exception {
+    // Clear the cached ideal mappings, otherwise the rebalancer won't recalculate the mappings.
+    ResourceControllerDataProvider dataProvider =
+        _event.getAttribute(AttributeName.ControllerDataProvider.name());
+    dataProvider.clearCachedResourceAssignments();
+    SyntheticCluster.runStage(_event, new BestPossibleStateCalcStage());
+    return _event.getAttribute(AttributeName.BEST_POSSIBLE_STATE.name());
+  }
+
+  @Benchmark
+  public Object intermediateStateCalc() throws Exception {
+    SyntheticCluster.runStage(_event, new IntermediateStateCalcStage());
+    return _event.getAttribute(AttributeName.INTERMEDIATE_STATE.name());
+  }
+}
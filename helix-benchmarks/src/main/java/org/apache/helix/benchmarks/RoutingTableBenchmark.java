@@ -0,0 +1,146 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.NotificationContext;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.spectator.RoutingTableProvider;
+import org.apache.helix.spectator.RoutingTableSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the spectator routing lookups, which are called for every request that a router
+ * serves. The ExternalViews place the replicas of the synthetic cluster round-robin, with one
+ * MASTER and the other replicas in the SLAVE state.
+ * Every invocation looks up the next partition, so the lookups are not served from a single
+ * cached entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RoutingTableBenchmark {
+  @Param({"100"})
+  public int instanceCount;
+
+  @Param({"10", "100"})
+  public int resourceCount;
+
+  @Param({"1024"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  private SyntheticCluster _cluster;
+  private RoutingTableProvider _routingTableProvider;
+  private String[] _resourceNames;
+  private String[] _partitionNames;
+  private int _cursor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount)
+        .setResourceCount(resourceCount).setPartitionCount(partitionCount)
+        .setReplicaCount(replicaCount).build();
+    List<ExternalView> externalViews = new ArrayList<>(resourceCount);
+    _resourceNames = new String[resourceCount * partitionCount];
+    _partitionNames = new String[resourceCount * partitionCount];
+    for (int r = 0; r < resourceCount; r++) {
+      String resourceName = SyntheticCluster.RESOURCE_PREFIX + r;
+      ExternalView externalView = new ExternalView(resourceName);
+      for (int p = 0; p < partitionCount; p++) {
+        String partitionName = resourceName + "_" + p;
+        for (int replica = 0; replica < Math.min(replicaCount, instanceCount); replica++) {
+          externalView.setState(partitionName,
+              SyntheticCluster.INSTANCE_PREFIX + (r + p + replica) % instanceCount,
+              replica == 0 ? "MASTER" : "SLAVE");
+        }
+        _resourceNames[r * partitionCount + p] = resourceName;
+        _partitionNames[r * partitionCount + p] = partitionName;
+      }
+      externalViews.add(externalView);
+    }
+    _routingTableProvider = new RoutingTableProvider();
+    // The ExternalViews are supplied directly, so the routing table is refreshed synchronously.
+    _routingTableProvider
+        .onExternalViewChange(externalViews, new NotificationContext(_cluster.getManager()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _routingTableProvider.shutdown();
+    _cluster.close();
+  }
+
+  /**
+   * The lookup through RoutingTableProvider#getInstancesForResource.
+   */
+  @Benchmark
+  public Object getInstancesForResource() {
+    int index = nextIndex();
+    return _routingTableProvider
+        .getInstancesForResource(_resourceNames[index], _partitionNames[index], "SLAVE");
+  }
+
+  /**
+   * The lookup through the allocation-free RoutingTableProvider#lookupInstances.
+   */
+  @Benchmark
+  public Object lookupInstances() {
+    int index = nextIndex();
+    return _routingTableProvider
+        .lookupInstances(_resourceNames[index], _partitionNames[index], "SLAVE");
+  }
+
+  /**
+   * The lookup through a RoutingTableSnapshot that is taken for every request.
+   */
+  @Benchmark
+  public Object snapshotGetInstancesForResource() {
+    int index = nextIndex();
+    RoutingTableSnapshot snapshot = _routingTableProvider.getRoutingTableSnapshot();
+    return snapshot.getInstancesForResource(_resourceNames[index], _partitionNames[index], "SLAVE");
+  }
+
+  private int nextIndex() {
+    int index = _cursor;
+    _cursor = index + 1 == _resourceNames.length ? 0 : index + 1;
+    return index;
+  }
+}
@@ -0,0 +1,256 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.pipeline.Stage;
+import org.apache.helix.controller.pipeline.StageContext;
+import org.apache.helix.controller.rebalancer.DelayedAutoRebalancer;
+import org.apache.helix.controller.rebalancer.strategy.CrushEdRebalanceStrategy;
+import org.apache.helix.controller.rebalancer.waged.WagedRebalancer;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.ClusterEventType;
+import org.apache.helix.controller.stages.CurrentStateComputationStage;
+import org.apache.helix.controller.stages.ReadClusterDataStage;
+import org.apache.helix.controller.stages.ResourceComputationStage;
+import org.apache.helix.mock.MockManager;
+import org.apache.helix.model.BuiltInStateModelDefinitions;
+import org.apache.helix.model.ClusterConfig;
+import org.apache.helix.model.CurrentState;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.LiveInstance;
+import org.apache.helix.model.StateModelDefinition;
+
+/**
+ * A synthetic cluster that is built in memory, so the controller stages and rebalancers can be
+ * benchmarked without ZooKeeper.
+ *
+ * The resources use the MasterSlave state model. The current states are initialized with a
+ * round-robin placement, which differs from the placement calculated by the rebalancers. So the
+ * benchmarked stages always have movements to calculate.
+ */
+public class SyntheticCluster {
+  public static final String INSTANCE_PREFIX = "instance_";
+  public static final String RESOURCE_PREFIX = "resource_";
+  public static final String FAULT_ZONE_PREFIX = "zone_";
+  public static final String CAPACITY_KEY = "PARTITION";
+  private static final String SESSION_PREFIX = "session_";
+
+  private final int _instanceCount;
+  private final int _resourceCount;
+  private final int _partitionCount;
+  private final int _replicaCount;
+  private final int _faultZoneCount;
+  private final boolean _waged;
+  private final HelixManager _manager;
+  private final ExecutorService _asyncTasksThreadPool = Executors.newSingleThreadExecutor();
+
+  private SyntheticCluster(Builder builder) {
+    _instanceCount = builder._instanceCount;
+    _resourceCount = builder._resourceCount;
+    _partitionCount = builder._partitionCount;
+    _replicaCount = builder._replicaCount;
+    _faultZoneCount = builder._faultZoneCount;
+    _waged = builder._waged;
+    _manager = new MockManager("SyntheticCluster");
+    populate(_manager.getHelixDataAccessor());
+  }
+
+  public HelixManager getManager() {
+    return _manager;
+  }
+
+  /**
+   * Create a new event with a fully refreshed data provider. The resources and the current state
+   * output are computed as well, so the event is ready for the rebalance stages.
+   */
+  public ClusterEvent newEvent() throws Exception {
+    ClusterEvent event = new ClusterEvent("SyntheticCluster", ClusterEventType.Unknown);
+    event.addAttribute(AttributeName.helixmanager.name(), _manager);
+    ResourceControllerDataProvider dataProvider =
+        new ResourceControllerDataProvider("SyntheticCluster");
+    dataProvider.setAsyncTasksThreadPool(_asyncTasksThreadPool);
+    event.addAttribute(AttributeName.ControllerDataProvider.name(), dataProvider);
+    runStage(event, new ReadClusterDataStage());
+    runStage(event, new ResourceComputationStage());
+    runStage(event, new CurrentStateComputationStage());
+    return event;
+  }
+
+  /**
+   * Run a single stage in the same way as the controller pipeline does.
+   */
+  public static void runStage(ClusterEvent event, Stage stage) throws Exception {
+    StageContext context = new StageContext();
+    stage.init(context);
+    stage.preProcess();
+    stage.process(event);
+    stage.postProcess();
+  }
+
+  public void close() {
+    _asyncTasksThreadPool.shutdownNow();
+  }
+
+  private void populate(HelixDataAccessor accessor) {
+    PropertyKey.Builder keyBuilder = accessor.keyBuilder();
+    StateModelDefinition masterSlave = BuiltInStateModelDefinitions.MasterSlave
+        .getStateModelDefinition();
+    accessor.setProperty(keyBuilder.stateModelDef(masterSlave.getId()), masterSlave);
+
+    ClusterConfig clusterConfig = new ClusterConfig(_manager.getClusterName());
+    clusterConfig.setPersistBestPossibleAssignment(true);
+    if (_faultZoneCount > 0) {
+      clusterConfig.setTopology("/zone/instance");
+      clusterConfig.setFaultZoneType("zone");
+      clusterConfig.setTopologyAwareEnabled(true);
+    }
+    // Every partition weighs 1, so the WAGED rebalancer evens the partition count.
+    clusterConfig.setInstanceCapacityKeys(Collections.singletonList(CAPACITY_KEY));
+    clusterConfig.setDefaultInstanceCapacityMap(ImmutableMap.of(CAPACITY_KEY,
+        _resourceCount * _partitionCount * _replicaCount));
+    clusterConfig.setDefaultPartitionWeightMap(ImmutableMap.of(CAPACITY_KEY, 1));
+    accessor.setProperty(keyBuilder.clusterConfig(), clusterConfig);
+
+    List<String> instances = new ArrayList<>(_instanceCount);
+    for (int i = 0; i < _instanceCount; i++) {
+      String instanceName = INSTANCE_PREFIX + i;
+      instances.add(instanceName);
+      InstanceConfig instanceConfig = new InstanceConfig(instanceName);
+      instanceConfig.setHostName(instanceName);
+      instanceConfig.setPort("12918");
+      if (_faultZoneCount > 0) {
+        instanceConfig.setDomain(
+            String.format("zone=%s%d,instance=%s", FAULT_ZONE_PREFIX, i % _faultZoneCount,
+                instanceName));
+      }
+      accessor.setProperty(keyBuilder.instanceConfig(instanceName), instanceConfig);
+      LiveInstance liveInstance = new LiveInstance(instanceName);
+      liveInstance.setSessionId(SESSION_PREFIX + i);
+      accessor.setProperty(keyBuilder.liveInstance(instanceName), liveInstance);
+    }
+
+    for (int r = 0; r < _resourceCount; r++) {
+      String resourceName = RESOURCE_PREFIX + r;
+      IdealState idealState = new IdealState(resourceName);
+      idealState.setStateModelDefRef(masterSlave.getId());
+      idealState.setRebalanceMode(IdealState.RebalanceMode.FULL_AUTO);
+      idealState.setNumPartitions(_partitionCount);
+      idealState.setReplicas(String.valueOf(_replicaCount));
+      if (_waged) {
+        idealState.setRebalancerClassName(WagedRebalancer.class.getName());
+      } else {
+        idealState.setRebalancerClassName(DelayedAutoRebalancer.class.getName());
+        idealState.setRebalanceStrategy(CrushEdRebalanceStrategy.class.getName());
+      }
+
+      Map<String, CurrentState> currentStates = new HashMap<>();
+      for (int p = 0; p < _partitionCount; p++) {
+        String partitionName = resourceName + "_" + p;
+        idealState.setPreferenceList(partitionName, Collections.emptyList());
+        for (int replica = 0; replica < Math.min(_replicaCount, _instanceCount); replica++) {
+          int instanceIndex = (r + p + replica) % _instanceCount;
+          CurrentState currentState =
+              currentStates.computeIfAbsent(instances.get(instanceIndex), instanceName -> {
+                CurrentState state = new CurrentState(resourceName);
+                state.setSessionId(SESSION_PREFIX + instanceIndex);
+                state.setStateModelDefRef(masterSlave.getId());
+                return state;
+              });
+          currentState.setState(partitionName, replica == 0 ? "MASTER" : "SLAVE");
+        }
+      }
+      accessor.setProperty(keyBuilder.idealStates(resourceName), idealState);
+      for (Map.Entry<String, CurrentState> entry : currentStates.entrySet()) {
+        accessor.setProperty(keyBuilder
+                .currentState(entry.getKey(), entry.getValue().getSessionId(), resourceName),
+            entry.getValue());
+      }
+    }
+  }
+
+  public static class Builder {
+    private int _instanceCount = 10;
+    private int _resourceCount = 10;
+    private int _partitionCount = 16;
+    private int _replicaCount = 3;
+    private int _faultZoneCount = 0;
+    private boolean _waged = false;
+
+    public Builder setInstanceCount(int instanceCount) {
+      _instanceCount = instanceCount;
+      return this;
+    }
+
+    public Builder setResourceCount(int resourceCount) {
+      _resourceCount = resourceCount;
+      return this;
+    }
+
+    public Builder setPartitionCount(int partitionCount) {
+      _partitionCount = partitionCount;
+      return this;
+    }
+
+    public Builder setReplicaCount(int replicaCount) {
+      _replicaCount = replicaCount;
+      return this;
+    }
+
+    /**
+     * @param faultZoneCount The count of the fault zones. 0 to disable the topology awareness.
+     */
+    public Builder setFaultZoneCount(int faultZoneCount) {
+      _faultZoneCount = faultZoneCount;
+      return this;
+    }
+
+    /**
+     * @param waged True to configure the resources with the WAGED rebalancer. Otherwise, the
+     *              resources use the DelayedAutoRebalancer with the CrushEd strategy.
+     */
+    public Builder setWaged(boolean waged) {
+      _waged = waged;
+      return this;
+    }
+
+    public SyntheticCluster build() {
+      if (_instanceCount <= 0 || _resourceCount <= 0 || _partitionCount <= 0
+          || _replicaCount <= 0 || _faultZoneCount < 0) {
+        throw new IllegalArgumentException("Invalid synthetic cluster size.");
+      }
+      return new SyntheticCluster(this);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.HelixManager;
+import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.rebalancer.waged.WagedRebalancer;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.CurrentStateOutput;
+import org.apache.helix.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the WAGED rebalancer. The rebalancer is created without the assignment metadata
+ * store, so the previous assignment is read from the current states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class WagedRebalancerBenchmark {
+  @Param({"20", "100"})
+  public int instanceCount;
+
+  @Param({"10", "50"})
+  public int resourceCount;
+
+  @Param({"64"})
+  public int partitionCount;
+
+  @Param({"3"})
+  public int replicaCount;
+
+  @Param({"0", "5"})
+  public int faultZoneCount;
+
+  private SyntheticCluster _cluster;
+  private ResourceControllerDataProvider _dataProvider;
+  private Map<String, Resource> _resourceMap;
+  private CurrentStateOutput _currentStateOutput;
+  private WagedRebalancer _rebalancer;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _cluster = new SyntheticCluster.Builder().setInstanceCount(instanceCount)
+        .setResourceCount(resourceCount).setPartitionCount(partitionCount)
+        .setReplicaCount(replicaCount).setFaultZoneCount(faultZoneCount).setWaged(true).build();
+    ClusterEvent event = _cluster.newEvent();
+    _dataProvider = event.getAttribute(AttributeName.ControllerDataProvider.name());
+    _resourceMap = event.getAttribute(AttributeName.RESOURCES_TO_REBALANCE.name());
+    _currentStateOutput = event.getAttribute(AttributeName.CURRENT_STATE.name());
+    _rebalancer = new WagedRebalancer((HelixManager) null);
+    // Calculate the baseline in the benchmark thread so it is measured.
+    _rebalancer.setGlobalRebalanceAsyncMode(false);
+    // Initialize the baseline for the partial rebalance benchmark.
+    _rebalancer.computeNewIdealStates(_dataProvider, _resourceMap, _currentStateOutput);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _rebalancer.close();
+    _cluster.close();
+  }
+
+  /**
+   * The global rebalance, which calculates the baseline and then the best possible assignment.
+   */
+  @Benchmark
+  public Object globalRebalance() throws Exception {
+    // Reset the change detector, so all the resources and instances are considered as changed.
+    _rebalancer.reset();
+    return _rebalancer.computeNewIdealStates(_dataProvider, _resourceMap, _currentStateOutput);
+  }
+
+  /**
+   * The partial rebalance, which only calculates the best possible assignment.
+   */
+  @Benchmark
+  public Object partialRebalance() throws Exception {
+    return _rebalancer.computeNewIdealStates(_dataProvider, _resourceMap, _currentStateOutput);
+  }
+}
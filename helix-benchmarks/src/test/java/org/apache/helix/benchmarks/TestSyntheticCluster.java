@@ -0,0 +1,62 @@
+package org.apache.helix.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Map;
+
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.BestPossibleStateCalcStage;
+import org.apache.helix.controller.stages.BestPossibleStateOutput;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.CurrentStateOutput;
+import org.apache.helix.model.Partition;
+import org.apache.helix.model.Resource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestSyntheticCluster {
+  @Test
+  public void testNewEvent() throws Exception {
+    SyntheticCluster cluster =
+        new SyntheticCluster.Builder().setInstanceCount(6).setResourceCount(2).setPartitionCount(4)
+            .setReplicaCount(3).setFaultZoneCount(3).build();
+    try {
+      ClusterEvent event = cluster.newEvent();
+      Map<String, Resource> resourceMap =
+          event.getAttribute(AttributeName.RESOURCES_TO_REBALANCE.name());
+      Assert.assertEquals(resourceMap.size(), 2);
+      CurrentStateOutput currentStateOutput = event.getAttribute(AttributeName.CURRENT_STATE.name());
+      for (Resource resource : resourceMap.values()) {
+        Assert.assertEquals(resource.getPartitions().size(), 4);
+        for (Partition partition : resource.getPartitions()) {
+          Assert.assertEquals(currentStateOutput
+              .getCurrentStateMap(resource.getResourceName(), partition).size(), 3);
+        }
+      }
+
+      SyntheticCluster.runStage(event, new BestPossibleStateCalcStage());
+      BestPossibleStateOutput bestPossibleStateOutput =
+          event.getAttribute(AttributeName.BEST_POSSIBLE_STATE.name());
+      Assert.assertEquals(bestPossibleStateOutput.getResourceStatesMap().size(), 2);
+    } finally {
+      cluster.close();
+    }
+  }
+}
@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class CompressionCodecBenchmark_jmhType extends CompressionCodecBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class ConstraintBasedAlgorithmBenchmark_jmhType extends ConstraintBasedAlgorithmBenchmark_jmhType_B3 {
+}
+
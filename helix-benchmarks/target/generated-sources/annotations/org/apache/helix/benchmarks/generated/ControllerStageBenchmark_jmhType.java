@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class ControllerStageBenchmark_jmhType extends ControllerStageBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class CrushEdRebalanceStrategyBenchmark_jmhType extends CrushEdRebalanceStrategyBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class ParallelRebalanceStageBenchmark_jmhType extends ParallelRebalanceStageBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class RoutingTableBenchmark_jmhType extends RoutingTableBenchmark_jmhType_B3 {
+}
+
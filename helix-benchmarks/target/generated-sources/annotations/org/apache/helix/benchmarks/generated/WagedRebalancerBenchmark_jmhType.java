@@ -0,0 +1,4 @@
+package org.apache.helix.benchmarks.generated;
+public class WagedRebalancerBenchmark_jmhType extends WagedRebalancerBenchmark_jmhType_B3 {
+}
+
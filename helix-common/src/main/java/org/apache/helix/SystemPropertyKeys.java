@@ -37,6 +37,11 @@ public class SystemPropertyKeys {
   // ZKHelixManager
   public static final String CLUSTER_MANAGER_VERSION = "cluster-manager-version.properties";
 
+  // Comma separated property types, e.g. "EXTERNALVIEW,CURRENTSTATES", that are written to ZK in
+  // the compact binary ZNRecord format instead of JSON.
+  public static final String ZK_SERIALIZER_BINARY_PROPERTY_TYPES =
+      "helixmanager.zkSerializer.binaryPropertyTypes";
+
   // soft constraints weight definitions
   public static final String SOFT_CONSTRAINT_WEIGHTS = "soft-constraint-weight.properties";
 
@@ -55,6 +60,18 @@ public class SystemPropertyKeys {
 
   public static final String ZK_WAIT_CONNECTED_TIMEOUT = "helixmanager.waitForConnectedTimeout";
 
+  // The max number of the async ZK requests of a batch read that are in flight at the same time
+  public static final String ZK_BASE_DATA_ACCESSOR_MAX_ASYNC_REQUESTS_IN_FLIGHT =
+      "helix.zkBaseDataAccessor.maxAsyncRequestsInFlight";
+
+  // If enabled, the batch writes of the base data accessor are packed into ZK multi-ops
+  public static final String ZK_BASE_DATA_ACCESSOR_MULTI_OP_BATCH_ENABLED =
+      "helix.zkBaseDataAccessor.multiOpBatch.enabled";
+
+  // The max estimated size in bytes of a multi-op of the batch writes
+  public static final String ZK_BASE_DATA_ACCESSOR_MULTI_OP_MAX_BYTES =
+      "helix.zkBaseDataAccessor.multiOpBatch.maxBytes";
+
   public static final String PARTICIPANT_HEALTH_REPORT_LATENCY =
       "helixmanager.participantHealthReport.reportLatency";
 
@@ -69,6 +86,26 @@ public class SystemPropertyKeys {
   // Controller
   public static final String CONTROLLER_MESSAGE_PURGE_DELAY = "helix.controller.stages.MessageGenerationPhase.messagePurgeDelay";
 
+  // The window to debounce the bursts of the cluster events of the same type, 0 to disable
+  public static final String CONTROLLER_EVENT_DEBOUNCE_WINDOW_MS =
+      "helix.controller.event.debounceWindow.ms";
+
+  // Spectator
+  // If true, the routing data cache patches the changed external views with the change feed that
+  // is published by the controller, instead of re-reading the views.
+  public static final String SPECTATOR_EXTERNAL_VIEW_CHANGE_FEED_ENABLED =
+      "helix.spectator.externalViewChangeFeed.enabled";
+
+  // The min interval between two routing table refreshes of a RoutingTableProvider. The changes
+  // that arrive within the interval are coalesced into one refresh. 0 to refresh on every change.
+  public static final String ROUTING_TABLE_REFRESH_MIN_INTERVAL_MS =
+      "helix.spectator.routingTableRefresh.minInterval.ms";
+
+  // The max time that a change may wait for the routing table refresh because of the min
+  // interval, measured from the change notification. 0 for no bound other than the min interval.
+  public static final String ROUTING_TABLE_REFRESH_MAX_STALENESS_MS =
+      "helix.spectator.routingTableRefresh.maxStaleness.ms";
+
   // Message
   public static final String MESSAGE_EXPECTED_COMPLETION_PERIOD = "helix.controller.message.ExpectMessageCompletionPeriod";
 
@@ -19,6 +19,7 @@ package org.apache.helix;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.helix.zookeeper.zkclient.DataUpdater;
@@ -195,6 +196,22 @@ public interface BaseDataAccessor<T> {
    */
   List<String> getChildNames(String parentPath, int options);
 
+  /**
+   * Returns the child names of each of the parent paths. The implementation could list the
+   * children of all the parent paths in a batch.
+   * @param parentPaths paths to the immediate parent ZNodes
+   * @param options Set the type of ZNode see the valid values in {@link AccessOption}
+   * @return a list of the child names for each parent path, which is null if the parent ZNode
+   *         does not exist
+   */
+  default List<List<String>> getChildNames(List<String> parentPaths, int options) {
+    List<List<String>> childNamesList = new ArrayList<>(parentPaths.size());
+    for (String parentPath : parentPaths) {
+      childNamesList.add(getChildNames(parentPath, options));
+    }
+    return childNamesList;
+  }
+
   /**
    * checks if the path exists in zk
    * @param path path to the ZNode to test
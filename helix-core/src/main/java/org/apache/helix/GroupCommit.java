@@ -19,12 +19,9 @@ package org.apache.helix;
  * under the License.
  */
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
 
+import org.apache.helix.manager.zk.GroupCommitEngine;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.helix.zookeeper.zkclient.exception.ZkNoNodeException;
 import org.slf4j.Logger;
@@ -39,37 +36,7 @@ public class GroupCommit {
   private static Logger LOG = LoggerFactory.getLogger(GroupCommit.class);
   private static int MAX_RETRY = 3;
 
-  private static class Queue {
-    final AtomicReference<Thread> _running = new AtomicReference<Thread>();
-    final ConcurrentLinkedQueue<Entry> _pending = new ConcurrentLinkedQueue<Entry>();
-  }
-
-  private static class Entry {
-    final String _key;
-    final ZNRecord _record;
-    AtomicBoolean _sent = new AtomicBoolean(false);
-
-    Entry(String key, ZNRecord record) {
-      _key = key;
-      _record = record;
-    }
-  }
-
-  private final Queue[] _queues = new Queue[100];
-
-  /**
-   * Set up a group committer and its associated queues
-   */
-  public GroupCommit() {
-    // Don't use Arrays.fill();
-    for (int i = 0; i < _queues.length; ++i) {
-      _queues[i] = new Queue();
-    }
-  }
-
-  private Queue getQueue(String key) {
-    return _queues[(key.hashCode() & Integer.MAX_VALUE) % _queues.length];
-  }
+  private final GroupCommitEngine<ZNRecord> _engine = new GroupCommitEngine<>();
 
   /**
    * Do a group update for data associated with a given key
@@ -86,105 +53,67 @@ public class GroupCommit {
 
   public boolean commit(BaseDataAccessor<ZNRecord> accessor, int options, String key,
       ZNRecord record, boolean removeIfEmpty) {
-    Queue queue = getQueue(key);
-    Entry entry = new Entry(key, record);
-
-    boolean success = true;
-    queue._pending.add(entry);
-
-    while (!entry._sent.get()) {
-      if (queue._running.compareAndSet(null, Thread.currentThread())) {
-        ArrayList<Entry> processed = new ArrayList<>();
-        try {
-          if (queue._pending.peek() == null) {
-            return true;
-          }
-
-          // remove from queue
-          Entry first = queue._pending.poll();
-          processed.add(first);
-
-          String mergedKey = first._key;
-          ZNRecord merged = null;
+    return _engine.commit(key, record,
+        (mergedKey, records) -> write(accessor, options, mergedKey, records, removeIfEmpty));
+  }
 
-          try {
-            // accessor will fallback to zk if not found in cache
-            merged = accessor.get(mergedKey, null, options);
-          } catch (ZkNoNodeException e) {
-            // OK.
-          } catch (Exception e) {
-            LOG.error("Fail to get " + mergedKey + " from ZK", e);
-            return false;
-          }
+  /**
+   * @return the average number of the records that are merged into a ZK write
+   */
+  public double getAverageUpdatesPerWrite() {
+    return _engine.getAverageUpdatesPerWrite();
+  }
 
-          /**
-           * If the local cache does not contain a value, need to check if there is a
-           * value in ZK; use it as initial value if exists
-           */
-          if (merged == null) {
-            merged = new ZNRecord(first._record);
-          }
-          merged.merge(first._record);
+  private boolean write(BaseDataAccessor<ZNRecord> accessor, int options, String mergedKey,
+      List<ZNRecord> records, boolean removeIfEmpty) {
+    ZNRecord first = records.get(0);
+    ZNRecord merged = null;
+
+    try {
+      // accessor will fallback to zk if not found in cache
+      merged = accessor.get(mergedKey, null, options);
+    } catch (ZkNoNodeException e) {
+      // OK.
+    } catch (Exception e) {
+      LOG.error("Fail to get " + mergedKey + " from ZK", e);
+      return false;
+    }
 
-          Iterator<Entry> it = queue._pending.iterator();
-          while (it.hasNext()) {
-            Entry ent = it.next();
-            if (!ent._key.equals(mergedKey)) {
-              continue;
-            }
-            processed.add(ent);
-            merged.merge(ent._record);
-            // System.out.println("After merging:" + merged);
-            it.remove();
-          }
+    /**
+     * If the local cache does not contain a value, need to check if there is a
+     * value in ZK; use it as initial value if exists
+     */
+    if (merged == null) {
+      merged = new ZNRecord(first);
+    }
+    for (ZNRecord record : records) {
+      merged.merge(record);
+    }
 
-          int retry = 0;
+    int retry = 0;
+    boolean success = false;
+    while (++retry <= MAX_RETRY && !success) {
+      if (removeIfEmpty && merged.getMapFields().isEmpty()) {
+        try {
+          success = accessor.remove(mergedKey, options);
+        } catch (Exception e) {
+          LOG.error("Fails to remove " + mergedKey + " from ZK due to ZK issue.", e);
           success = false;
-          while (++retry <= MAX_RETRY && !success) {
-            if (removeIfEmpty && merged.getMapFields().isEmpty()) {
-              try {
-                success = accessor.remove(mergedKey, options);
-              } catch (Exception e) {
-                LOG.error("Fails to remove " + mergedKey + " from ZK due to ZK issue.", e);
-                success = false;
-              }
-              if (!success) {
-                LOG.error("Fails to remove " + mergedKey + " from ZK, retry it!");
-              } else {
-                LOG.info("Removed " + mergedKey);
-              }
-            } else {
-              try {
-                success = accessor.set(mergedKey, merged, options);
-              } catch (Exception e) {
-                LOG.error("Fails to update " + mergedKey + " to ZK due to ZK issue.", e);
-                success = false;
-              }
-              if (!success) {
-                LOG.error("Fails to update " + mergedKey + " to ZK, retry it! ");
-              }
-            }
-          }
-        } finally {
-          queue._running.set(null);
-          for (Entry e : processed) {
-            synchronized (e) {
-              e._sent.set(true);
-              e.notify();
-            }
-          }
+        }
+        if (!success) {
+          LOG.error("Fails to remove " + mergedKey + " from ZK, retry it!");
+        } else {
+          LOG.info("Removed " + mergedKey);
         }
       } else {
-        synchronized (entry) {
-          try {
-            entry.wait(10);
-          } catch (InterruptedException e) {
-            LOG.error("Interrupted while committing change, key: " + key + ", record: " + record,
-                e);
-            // Restore interrupt status
-            Thread.currentThread().interrupt();
-            return false;
-          }
+        try {
+          success = accessor.set(mergedKey, merged, options);
+        } catch (Exception e) {
+          LOG.error("Fails to update " + mergedKey + " to ZK due to ZK issue.", e);
+          success = false;
+        }
+        if (!success) {
+          LOG.error("Fails to update " + mergedKey + " to ZK, retry it! ");
         }
       }
     }
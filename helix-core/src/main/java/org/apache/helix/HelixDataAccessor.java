@@ -19,6 +19,7 @@ package org.apache.helix;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -136,6 +137,20 @@ public interface HelixDataAccessor {
    */
   List<String> getChildNames(PropertyKey key);
 
+  /**
+   * Return the child names for each of the properties. The implementation could list the children
+   * of all the properties in a batch.
+   * @param keys the keys that refer to collections
+   * @return SubPropertyNames for each key, in the same order as the keys
+   */
+  default List<List<String>> getChildNames(List<PropertyKey> keys) {
+    List<List<String>> childNamesList = new ArrayList<>(keys.size());
+    for (PropertyKey key : keys) {
+      childNamesList.add(getChildNames(key));
+    }
+    return childNamesList;
+  }
+
   /**
    * Get the child values for a property. PropertyKey needs to refer to just one
    * level above the non leaf. PropertyKey.isCollection must be true.
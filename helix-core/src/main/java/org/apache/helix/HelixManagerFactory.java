@@ -77,4 +77,22 @@ public final class HelixManagerFactory {
     return new ZKHelixManager(clusterName, instanceName, type, null, stateListener,
         helixManagerProperty);
   }
+
+  /**
+   * Construct a ZkHelixManager using the ZK address or the ZkConnectionConfig of the
+   * HelixManagerProperty given. Only one of them can be set.
+   * @param clusterName
+   * @param instanceName
+   * @param type
+   * @param zkAddr
+   * @param stateListener
+   * @param helixManagerProperty
+   * @return
+   */
+  public static HelixManager getZKHelixManager(String clusterName, String instanceName,
+      InstanceType type, String zkAddr, HelixManagerStateListener stateListener,
+      HelixManagerProperty helixManagerProperty) {
+    return new ZKHelixManager(clusterName, instanceName, type, zkAddr, stateListener,
+        helixManagerProperty);
+  }
 }
@@ -19,8 +19,11 @@ package org.apache.helix;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Metadata associated with a notification event and the current state of the cluster
@@ -41,6 +44,9 @@ public class NotificationContext {
   private Type _type;
   private HelixConstants.ChangeType _changeType;
   private String _pathChanged;
+  // All the paths that have changed, which has more than one path if the notifications of the
+  // same listener are merged before they are handled.
+  private Set<String> _dirtyPaths = new LinkedHashSet<>();
   private String _eventName;
   private long _creationTime;
   private boolean _isChildChange;
@@ -86,6 +92,7 @@ public class NotificationContext {
     copy.setType(_type);
     copy.setChangeType(_changeType);
     copy.setPathChanged(_pathChanged);
+    copy._dirtyPaths.addAll(_dirtyPaths);
     copy.setEventName(_eventName);
     copy.setCreationTime(_creationTime);
     copy._map.putAll(_map);
@@ -209,6 +216,27 @@ public class NotificationContext {
    */
   public void setPathChanged(String pathChanged) {
     this._pathChanged = pathChanged;
+    if (pathChanged != null) {
+      _dirtyPaths.add(pathChanged);
+    }
+  }
+
+  /**
+   * Get all the paths that have changed. For a child change, the path is the parent path.
+   *
+   * @return the changed paths, which is empty if the paths are unknown
+   */
+  public Set<String> getDirtyPaths() {
+    return Collections.unmodifiableSet(_dirtyPaths);
+  }
+
+  /**
+   * Merge the changed paths of another notification, which is replaced by this notification.
+   *
+   * @param context the replaced notification
+   */
+  public void mergeDirtyPaths(NotificationContext context) {
+    _dirtyPaths.addAll(context._dirtyPaths);
   }
 
   /**
@@ -32,6 +32,7 @@ import org.apache.helix.model.CustomizedState;
 import org.apache.helix.model.CustomizedView;
 import org.apache.helix.model.Error;
 import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.ExternalViewChange;
 import org.apache.helix.model.HealthStat;
 import org.apache.helix.model.HelixConfigScope.ConfigScopeProperty;
 import org.apache.helix.model.IdealState;
@@ -59,6 +60,7 @@ import static org.apache.helix.PropertyType.CUSTOMIZEDSTATES;
 import static org.apache.helix.PropertyType.ERRORS;
 import static org.apache.helix.PropertyType.ERRORS_CONTROLLER;
 import static org.apache.helix.PropertyType.EXTERNALVIEW;
+import static org.apache.helix.PropertyType.EXTERNALVIEWCHANGES;
 import static org.apache.helix.PropertyType.CUSTOMIZEDVIEW;
 import static org.apache.helix.PropertyType.HISTORY;
 import static org.apache.helix.PropertyType.IDEALSTATES;
@@ -705,6 +707,27 @@ public class PropertyKey {
       return new PropertyKey(EXTERNALVIEW, ExternalView.class, _clusterName, resourceName);
     }
 
+    /**
+     * Get a property key associated with the {@link ExternalViewChange} log of a resource
+     * @param resourceName
+     * @return {@link PropertyKey}
+     */
+    public PropertyKey externalViewChanges(String resourceName) {
+      return new PropertyKey(EXTERNALVIEWCHANGES, ExternalViewChange.class, _clusterName,
+          resourceName);
+    }
+
+    /**
+     * Get a property key associated with an {@link ExternalViewChange} of a resource
+     * @param resourceName
+     * @param sequence the change sequence of the {@link ExternalView} that the change produces
+     * @return {@link PropertyKey}
+     */
+    public PropertyKey externalViewChange(String resourceName, long sequence) {
+      return new PropertyKey(EXTERNALVIEWCHANGES, ExternalViewChange.class, _clusterName,
+          resourceName, ExternalViewChange.getChangeId(sequence));
+    }
+
     /**
      * Get a property key associated with all {@link CustomizedView}
      * @return {@link PropertyKey}
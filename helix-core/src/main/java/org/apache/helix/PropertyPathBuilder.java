@@ -19,8 +19,10 @@ package org.apache.helix;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,6 +52,8 @@ public class PropertyPathBuilder {
 
   static final Map<PropertyType, Map<Integer, String>> templateMap =
       new HashMap<PropertyType, Map<Integer, String>>();
+  // The templates of every property type in the regex form, which match the paths of any cluster.
+  static final Map<PropertyType, List<Pattern>> pathPatternMap = new HashMap<>();
   @Deprecated // typeToClassMapping is not being used anywhere
   static final Map<PropertyType, Class<? extends HelixProperty>> typeToClassMapping =
       new HashMap<PropertyType, Class<? extends HelixProperty>>();
@@ -83,6 +87,11 @@ public class PropertyPathBuilder {
     addEntry(PropertyType.IDEALSTATES, 2, "/{clusterName}/IDEALSTATES/{resourceName}");
     addEntry(PropertyType.EXTERNALVIEW, 1, "/{clusterName}/EXTERNALVIEW");
     addEntry(PropertyType.EXTERNALVIEW, 2, "/{clusterName}/EXTERNALVIEW/{resourceName}");
+    addEntry(PropertyType.EXTERNALVIEWCHANGES, 1, "/{clusterName}/EXTERNALVIEWCHANGES");
+    addEntry(PropertyType.EXTERNALVIEWCHANGES, 2,
+        "/{clusterName}/EXTERNALVIEWCHANGES/{resourceName}");
+    addEntry(PropertyType.EXTERNALVIEWCHANGES, 3,
+        "/{clusterName}/EXTERNALVIEWCHANGES/{resourceName}/{changeId}");
     addEntry(PropertyType.CUSTOMIZEDVIEW, 1, "/{clusterName}/CUSTOMIZEDVIEW");
     addEntry(PropertyType.CUSTOMIZEDVIEW, 2, "/{clusterName}/CUSTOMIZEDVIEW/{customizedStateType}");
     addEntry(PropertyType.CUSTOMIZEDVIEW, 3, "/{clusterName}/CUSTOMIZEDVIEW/{customizedStateType}/{resourceName}");
@@ -175,6 +184,14 @@ public class PropertyPathBuilder {
         + TaskConstants.REBALANCER_CONTEXT_ROOT + "/{workflowName}/Context");
     addEntry(PropertyType.JOB_CONTEXT, 3, "/{clusterName}/PROPERTYSTORE"
         + TaskConstants.REBALANCER_CONTEXT_ROOT + "/{workflowName}" + "_" + "{jobName}/Context");
+
+    for (Map.Entry<PropertyType, Map<Integer, String>> entry : templateMap.entrySet()) {
+      List<Pattern> patterns = new ArrayList<>();
+      for (String template : entry.getValue().values()) {
+        patterns.add(toPathPattern(template));
+      }
+      pathPatternMap.put(entry.getKey(), patterns);
+    }
   }
   static Pattern pattern = Pattern.compile("(\\{.+?\\})");
 
@@ -231,6 +248,37 @@ public class PropertyPathBuilder {
     return result;
   }
 
+  private static Pattern toPathPattern(String template) {
+    StringBuilder regex = new StringBuilder();
+    String[] literals = template.split("\\{.+?\\}", -1);
+    for (int i = 0; i < literals.length; i++) {
+      if (i > 0) {
+        regex.append("[^/]+");
+      }
+      regex.append(Pattern.quote(literals[i]));
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  /**
+   * Check if the path is a path of the given property type, in any cluster.
+   * @param type
+   * @param path
+   * @return true if the path matches any template of the property type
+   */
+  public static boolean isPathOfType(PropertyType type, String path) {
+    List<Pattern> patterns = pathPatternMap.get(type);
+    if (patterns == null || path == null) {
+      return false;
+    }
+    for (Pattern pathPattern : patterns) {
+      if (pathPattern.matcher(path).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Given a path, find the name of an instance at that path
    * @param path
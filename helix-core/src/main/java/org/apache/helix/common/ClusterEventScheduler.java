@@ -0,0 +1,251 @@
+package org.apache.helix.common;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.helix.SystemPropertyKeys;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.ClusterEventType;
+import org.apache.helix.util.HelixUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A blocking queue of ClusterEvent objects to be used by the controller pipeline. Unlike
+ * {@link ClusterEventBlockingQueue}, the pending events are not taken in the arrival order.
+ *
+ * 1. Coalescing: there is at most one pending event of each type. A new event replaces the pending
+ * event of the same type and merges it, see {@link ClusterEvent#merge(ClusterEvent)}. So the
+ * changed paths of all the notifications are kept, and the queue latency is measured from the
+ * first notification.
+ * 2. Priority: the events that unblock the top state recovery, such as the live instance and the
+ * current state changes, are taken before the other changes, which are taken before the periodic
+ * events. The events of the same priority are taken in the arrival order. An event that has been
+ * pending for longer than the max priority delay is taken as a high priority event, so the low
+ * priority events are not starved.
+ * 3. Debouncing: an event that has been merged, which means the events of the type come in a
+ * burst, is held until no new event of the type arrives within the debounce window, or it has been
+ * pending for {@link #MAX_DEBOUNCE_WINDOWS} windows. A single event is never delayed.
+ */
+public class ClusterEventScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterEventScheduler.class);
+
+  public static final long DEFAULT_DEBOUNCE_WINDOW_MS = HelixUtil
+      .getSystemPropertyAsLong(SystemPropertyKeys.CONTROLLER_EVENT_DEBOUNCE_WINDOW_MS, 0L);
+  public static final long DEFAULT_MAX_PRIORITY_DELAY_MS = 30 * 1000L;
+  // The max time to debounce a burst, in the number of debounce windows.
+  public static final int MAX_DEBOUNCE_WINDOWS = 4;
+
+  public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+  }
+
+  private static final Map<ClusterEventType, Priority> EVENT_PRIORITIES =
+      new EnumMap<>(ClusterEventType.class);
+
+  static {
+    // The changes that may unblock the top state recovery or the pending state transitions.
+    EVENT_PRIORITIES.put(ClusterEventType.LiveInstanceChange, Priority.HIGH);
+    EVENT_PRIORITIES.put(ClusterEventType.CurrentStateChange, Priority.HIGH);
+    EVENT_PRIORITIES.put(ClusterEventType.TaskCurrentStateChange, Priority.HIGH);
+    EVENT_PRIORITIES.put(ClusterEventType.MessageChange, Priority.HIGH);
+    // The periodic checks, which only matter if nothing else triggers the pipeline.
+    EVENT_PRIORITIES.put(ClusterEventType.PeriodicalRebalance, Priority.LOW);
+    EVENT_PRIORITIES.put(ClusterEventType.StateVerifier, Priority.LOW);
+  }
+
+  private final Map<ClusterEventType, PendingEvent> _pendingEvents =
+      new EnumMap<>(ClusterEventType.class);
+  private final long _debounceWindowMs;
+  private final long _maxPriorityDelayMs;
+  private long _sequence = 0;
+
+  private static class PendingEvent {
+    private final long _sequence;
+    private final long _firstQueuedTime;
+    private ClusterEvent _event;
+    private long _lastQueuedTime;
+    private int _mergeCount = 0;
+
+    PendingEvent(ClusterEvent event, long queuedTime, long sequence) {
+      _event = event;
+      _firstQueuedTime = queuedTime;
+      _lastQueuedTime = queuedTime;
+      _sequence = sequence;
+    }
+
+    void merge(ClusterEvent event, long queuedTime) {
+      event.merge(_event);
+      _event = event;
+      _lastQueuedTime = queuedTime;
+      _mergeCount++;
+    }
+
+    long getReadyTime(long debounceWindowMs) {
+      if (_mergeCount == 0 || debounceWindowMs <= 0) {
+        return _firstQueuedTime;
+      }
+      return Math.min(_lastQueuedTime + debounceWindowMs,
+          _firstQueuedTime + MAX_DEBOUNCE_WINDOWS * debounceWindowMs);
+    }
+
+    Priority getPriority(long currentTime, long maxPriorityDelayMs) {
+      if (currentTime - _firstQueuedTime >= maxPriorityDelayMs) {
+        return Priority.HIGH;
+      }
+      return getEventPriority(_event.getEventType());
+    }
+  }
+
+  /**
+   * Instantiate the scheduler with the default debounce window and max priority delay
+   */
+  public ClusterEventScheduler() {
+    this(DEFAULT_DEBOUNCE_WINDOW_MS, DEFAULT_MAX_PRIORITY_DELAY_MS);
+  }
+
+  /**
+   * Instantiate the scheduler
+   * @param debounceWindowMs the window to debounce the bursts of events, 0 to disable debouncing
+   * @param maxPriorityDelayMs the time after which a pending event is taken as high priority
+   */
+  public ClusterEventScheduler(long debounceWindowMs, long maxPriorityDelayMs) {
+    if (debounceWindowMs < 0 || maxPriorityDelayMs < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid debounce window %d ms or max priority delay %d ms", debounceWindowMs,
+          maxPriorityDelayMs));
+    }
+    _debounceWindowMs = debounceWindowMs;
+    _maxPriorityDelayMs = maxPriorityDelayMs;
+  }
+
+  /**
+   * Get the scheduling priority of an event type
+   * @param eventType the event type
+   * @return the priority
+   */
+  public static Priority getEventPriority(ClusterEventType eventType) {
+    return EVENT_PRIORITIES.getOrDefault(eventType, Priority.NORMAL);
+  }
+
+  /**
+   * Remove all events from the queue
+   */
+  public synchronized void clear() {
+    _pendingEvents.clear();
+  }
+
+  /**
+   * Add a single event to the queue, merging the pending event of the same type
+   * @param event ClusterEvent event to add
+   */
+  public synchronized void put(ClusterEvent event) {
+    long currentTime = System.currentTimeMillis();
+    PendingEvent pendingEvent = _pendingEvents.get(event.getEventType());
+    if (pendingEvent == null) {
+      _pendingEvents.put(event.getEventType(), new PendingEvent(event, currentTime, _sequence++));
+    } else {
+      pendingEvent.merge(event, currentTime);
+    }
+    notifyAll();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Putting event {}, event queue size: {}", event.getEventType(),
+          _pendingEvents.size());
+    }
+  }
+
+  /**
+   * Remove the next event from the queue, blocking if none is available or all the pending events
+   * are being debounced.
+   * @return the pending ClusterEvent with the highest priority
+   * @throws InterruptedException if the wait for elements was interrupted
+   */
+  public synchronized ClusterEvent take() throws InterruptedException {
+    while (true) {
+      long currentTime = System.currentTimeMillis();
+      PendingEvent nextEvent = null;
+      long nextReadyTime = Long.MAX_VALUE;
+      for (PendingEvent pendingEvent : _pendingEvents.values()) {
+        long readyTime = pendingEvent.getReadyTime(_debounceWindowMs);
+        if (readyTime > currentTime) {
+          nextReadyTime = Math.min(nextReadyTime, readyTime);
+        } else if (nextEvent == null || isPrior(pendingEvent, nextEvent, currentTime)) {
+          nextEvent = pendingEvent;
+        }
+      }
+      if (nextEvent != null) {
+        ClusterEvent event = nextEvent._event;
+        _pendingEvents.remove(event.getEventType());
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Taking event {} merged from {} events, event queue size: {}",
+              event.getEventType(), nextEvent._mergeCount + 1, _pendingEvents.size());
+        }
+        return event;
+      }
+      if (nextReadyTime == Long.MAX_VALUE) {
+        wait();
+      } else {
+        wait(nextReadyTime - currentTime);
+      }
+    }
+  }
+
+  /**
+   * Get the pending event with the highest priority without removing it. Note that the event
+   * may not be the next one to be taken if it is being debounced.
+   * @return the pending ClusterEvent with the highest priority, or null if none available
+   */
+  public synchronized ClusterEvent peek() {
+    long currentTime = System.currentTimeMillis();
+    PendingEvent nextEvent = null;
+    for (PendingEvent pendingEvent : _pendingEvents.values()) {
+      if (nextEvent == null || isPrior(pendingEvent, nextEvent, currentTime)) {
+        nextEvent = pendingEvent;
+      }
+    }
+    return nextEvent == null ? null : nextEvent._event;
+  }
+
+  /**
+   * Get the queue size
+   * @return integer size of the queue
+   */
+  public synchronized int size() {
+    return _pendingEvents.size();
+  }
+
+  /**
+   * Check if the queue is empty
+   * @return true if events are not present, false otherwise
+   */
+  public synchronized boolean isEmpty() {
+    return _pendingEvents.isEmpty();
+  }
+
+  private boolean isPrior(PendingEvent event, PendingEvent otherEvent, long currentTime) {
+    int priorityDiff = event.getPriority(currentTime, _maxPriorityDelayMs).compareTo(
+        otherEvent.getPriority(currentTime, _maxPriorityDelayMs));
+    return priorityDiff < 0 || (priorityDiff == 0 && event._sequence < otherEvent._sequence);
+  }
+}
@@ -91,6 +91,16 @@ public class DedupEventBlockingQueue<T, E> {
     notify();
   }
 
+  /**
+   * Get the event of the given type in the queue without removing it
+   * @param type the event type
+   * @return the event, or null if there is no event of the type
+   */
+  public synchronized E get(T type) {
+    Entry<T, E> entry = _eventMap.get(type);
+    return entry == null ? null : entry.getEvent();
+  }
+
   /**
    * Remove an element from the front of the queue, blocking if none is available. This method
    * will return the most recent event seen with the oldest enqueued event name.
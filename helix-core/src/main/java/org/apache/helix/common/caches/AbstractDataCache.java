@@ -60,10 +60,22 @@ public abstract class AbstractDataCache<T extends HelixProperty> {
   protected Map<PropertyKey, T> refreshProperties(
       HelixDataAccessor accessor, Set<PropertyKey> reloadKeysIn, List<PropertyKey> cachedKeys,
       Map<PropertyKey, T> cachedPropertyMap, Set<PropertyKey> reloadedKeys) {
+    return refreshProperties(accessor, reloadKeysIn, cachedKeys,
+        accessor.getPropertyStats(cachedKeys), cachedPropertyMap, reloadedKeys);
+  }
+
+  /**
+   * Same as {@link #refreshProperties(HelixDataAccessor, Set, List, Map, Set)}, but with the stats
+   * of the cached keys that have already been read from ZK, so they are not read again.
+   * @param stats the stats of the cachedKeys, in the same order
+   */
+  protected Map<PropertyKey, T> refreshProperties(
+      HelixDataAccessor accessor, Set<PropertyKey> reloadKeysIn, List<PropertyKey> cachedKeys,
+      List<HelixProperty.Stat> stats, Map<PropertyKey, T> cachedPropertyMap,
+      Set<PropertyKey> reloadedKeys) {
     // All new entries from zk not cached locally yet should be read from ZK.
     List<PropertyKey> reloadKeys = new ArrayList<>(reloadKeysIn);
     Map<PropertyKey, T> refreshedPropertyMap = Maps.newHashMap();
-    List<HelixProperty.Stat> stats = accessor.getPropertyStats(cachedKeys);
     for (int i = 0; i < cachedKeys.size(); i++) {
       PropertyKey key = cachedKeys.get(i);
       HelixProperty.Stat stat = stats.get(i);
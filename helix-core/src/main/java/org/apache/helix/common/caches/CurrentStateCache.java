@@ -19,7 +19,11 @@ package org.apache.helix.common.caches;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +45,9 @@ public class CurrentStateCache extends ParticipantStateCache<CurrentState> {
   // If the snapshot is already refreshed with current state data.
   private boolean _initialized = false;
   private CurrentStateSnapshot _snapshot;
+  // The current state keys listed under each current states path of a session.
+  // <current states path, current state keys>
+  private Map<String, Set<PropertyKey>> _listedKeyMap = new HashMap<>();
 
   public CurrentStateCache(String clusterName) {
     this(createDefaultControlContextProvider(clusterName));
@@ -54,21 +61,98 @@ public class CurrentStateCache extends ParticipantStateCache<CurrentState> {
   @Override
   protected Set<PropertyKey> PopulateParticipantKeys(HelixDataAccessor accessor,
       Map<String, LiveInstance> liveInstanceMap) {
+    _listedKeyMap = listCurrentStateKeys(accessor, liveInstanceMap.values());
     Set<PropertyKey> participantStateKeys = new HashSet<>();
+    for (Set<PropertyKey> keys : _listedKeyMap.values()) {
+      participantStateKeys.addAll(keys);
+    }
+    return participantStateKeys;
+  }
+
+  /**
+   * Only list the current states of a session again if the session is new or current states are
+   * created or deleted. The current states under the changed paths are reported as changed.
+   */
+  @Override
+  protected Set<PropertyKey> populateChangedParticipantKeys(HelixDataAccessor accessor,
+      Map<String, LiveInstance> liveInstanceMap, Set<String> changedPaths,
+      Set<PropertyKey> changedKeys) {
+    Map<String, Set<PropertyKey>> listedKeyMap = new HashMap<>();
+    List<LiveInstance> instancesToList = new ArrayList<>();
     PropertyKey.Builder keyBuilder = accessor.keyBuilder();
-    for (String instanceName : liveInstanceMap.keySet()) {
-      LiveInstance liveInstance = liveInstanceMap.get(instanceName);
+    for (LiveInstance liveInstance : liveInstanceMap.values()) {
+      String sessionPath = keyBuilder
+          .currentStates(liveInstance.getInstanceName(), liveInstance.getEphemeralOwner())
+          .getPath();
+      Set<PropertyKey> keys = _listedKeyMap.get(sessionPath);
+      if (keys == null || changedPaths.contains(sessionPath)) {
+        instancesToList.add(liveInstance);
+      } else {
+        listedKeyMap.put(sessionPath, keys);
+      }
+    }
+    Map<String, Set<PropertyKey>> newlyListedKeyMap =
+        listCurrentStateKeys(accessor, instancesToList);
+    for (Set<PropertyKey> keys : newlyListedKeyMap.values()) {
+      // A current state might be deleted and created again, which is only notified as a child
+      // change of the session. So check all the current states of the session.
+      changedKeys.addAll(keys);
+    }
+    listedKeyMap.putAll(newlyListedKeyMap);
+
+    for (LiveInstance liveInstance : liveInstanceMap.values()) {
+      String instanceName = liveInstance.getInstanceName();
       String sessionId = liveInstance.getEphemeralOwner();
-      List<String> currentStateNames =
-          accessor.getChildNames(keyBuilder.currentStates(instanceName, sessionId));
-      for (String currentStateName : currentStateNames) {
-        participantStateKeys
-            .add(keyBuilder.currentState(instanceName, sessionId, currentStateName));
+      String sessionPath = keyBuilder.currentStates(instanceName, sessionId).getPath();
+      for (String path : changedPaths) {
+        if (path.startsWith(sessionPath + "/")) {
+          // The current state itself or one of its buckets has changed.
+          String resourceName = path.substring(sessionPath.length() + 1);
+          int end = resourceName.indexOf('/');
+          if (end >= 0) {
+            resourceName = resourceName.substring(0, end);
+          }
+          changedKeys.add(keyBuilder.currentState(instanceName, sessionId, resourceName));
+        }
       }
     }
+
+    _listedKeyMap = listedKeyMap;
+    Set<PropertyKey> participantStateKeys = new HashSet<>();
+    for (Set<PropertyKey> keys : listedKeyMap.values()) {
+      participantStateKeys.addAll(keys);
+    }
     return participantStateKeys;
   }
 
+  /**
+   * List the current states of the sessions of the live instances in a batch.
+   * @return <current states path of a session, current state keys>
+   */
+  private Map<String, Set<PropertyKey>> listCurrentStateKeys(HelixDataAccessor accessor,
+      Collection<LiveInstance> liveInstances) {
+    PropertyKey.Builder keyBuilder = accessor.keyBuilder();
+    List<PropertyKey> sessionKeys = new ArrayList<>(liveInstances.size());
+    for (LiveInstance liveInstance : liveInstances) {
+      sessionKeys.add(keyBuilder
+          .currentStates(liveInstance.getInstanceName(), liveInstance.getEphemeralOwner()));
+    }
+    List<List<String>> currentStateNamesList = accessor.getChildNames(sessionKeys);
+
+    Map<String, Set<PropertyKey>> listedKeyMap = new HashMap<>();
+    Iterator<LiveInstance> liveInstanceIter = liveInstances.iterator();
+    for (int i = 0; i < sessionKeys.size(); i++) {
+      LiveInstance liveInstance = liveInstanceIter.next();
+      Set<PropertyKey> keys = new HashSet<>();
+      for (String currentStateName : currentStateNamesList.get(i)) {
+        keys.add(keyBuilder.currentState(liveInstance.getInstanceName(),
+            liveInstance.getEphemeralOwner(), currentStateName));
+      }
+      listedKeyMap.put(sessionKeys.get(i).getPath(), keys);
+    }
+    return listedKeyMap;
+  }
+
   protected void refreshSnapshot(Map<PropertyKey, CurrentState> newStateCache,
       Map<PropertyKey, CurrentState> participantStateCache, Set<PropertyKey> reloadedKeys) {
     if (_initialized) {
@@ -26,13 +26,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import com.google.common.collect.Maps;
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixException;
+import org.apache.helix.HelixProperty;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.PropertyType;
 import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.ExternalViewChange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +54,9 @@ public class ExternalViewCache extends AbstractDataCache<ExternalView> {
 
   private PropertyType _type;
 
+  // If true, the changed views are patched with the published ExternalViewChanges when possible.
+  private boolean _changeFeedEnabled;
+
   public ExternalViewCache(String clusterName) {
     this(clusterName, PropertyType.EXTERNALVIEW);
   }
@@ -90,12 +96,18 @@ public class ExternalViewCache extends AbstractDataCache<ExternalView> {
       cachedExternalViewMap.put(key, _externalViewCache.get(resource));
     }
     cachedKeys.retainAll(currentPropertyKeys);
+    List<PropertyKey> cachedKeyList = new ArrayList<>(cachedKeys);
+    // The stats are read once, and shared by the change feed and the refresh.
+    List<HelixProperty.Stat> cachedKeyStats = accessor.getPropertyStats(cachedKeyList);
+    if (_changeFeedEnabled && _type.equals(PropertyType.EXTERNALVIEW)) {
+      applyExternalViewChanges(accessor, cachedKeyList, cachedKeyStats, cachedExternalViewMap);
+    }
 
     Set<PropertyKey> reloadKeys = new HashSet<>(currentPropertyKeys);
     reloadKeys.removeAll(cachedKeys);
 
     Map<PropertyKey, ExternalView> updatedMap =
-        refreshProperties(accessor, reloadKeys, new ArrayList<>(cachedKeys),
+        refreshProperties(accessor, reloadKeys, cachedKeyList, cachedKeyStats,
             cachedExternalViewMap, new HashSet<>());
     Map<String, ExternalView> newExternalViewMap = Maps.newHashMap();
     for (ExternalView externalView : updatedMap.values()) {
@@ -110,6 +122,83 @@ public class ExternalViewCache extends AbstractDataCache<ExternalView> {
         + ", took " + (endTime - startTime) + " ms");
   }
 
+  /**
+   * Enable or disable patching the cached views with the published ExternalViewChanges instead
+   * of re-reading the changed views.
+   * @param changeFeedEnabled
+   */
+  public void setChangeFeedEnabled(boolean changeFeedEnabled) {
+    _changeFeedEnabled = changeFeedEnabled;
+  }
+
+  /**
+   * Patch the cached views that have been changed with the changes published since their change
+   * sequences. A view is left for the full read if any of its changes is missing.
+   * @param stats the current stats of the cachedKeys, in the same order
+   */
+  private void applyExternalViewChanges(HelixDataAccessor accessor, List<PropertyKey> cachedKeys,
+      List<HelixProperty.Stat> stats, Map<PropertyKey, ExternalView> cachedExternalViewMap) {
+    PropertyKey.Builder keyBuilder = accessor.keyBuilder();
+    List<PropertyKey> changedKeys = new ArrayList<>();
+    List<HelixProperty.Stat> changedStats = new ArrayList<>();
+    List<PropertyKey> changeLogKeys = new ArrayList<>();
+    for (int i = 0; i < cachedKeys.size(); i++) {
+      ExternalView cachedView = cachedExternalViewMap.get(cachedKeys.get(i));
+      HelixProperty.Stat stat = stats.get(i);
+      if (stat != null && cachedView.getBucketSize() == 0 && cachedView.getChangeSequence() > 0
+          && !cachedView.getStat().equals(stat)) {
+        changedKeys.add(cachedKeys.get(i));
+        changedStats.add(stat);
+        changeLogKeys.add(keyBuilder.externalViewChanges(cachedView.getResourceName()));
+      }
+    }
+    if (changedKeys.isEmpty()) {
+      return;
+    }
+
+    List<List<String>> changeIdLists = accessor.getChildNames(changeLogKeys);
+    List<Integer> changeCounts = new ArrayList<>();
+    List<PropertyKey> changeKeys = new ArrayList<>();
+    for (int i = 0; i < changedKeys.size(); i++) {
+      ExternalView cachedView = cachedExternalViewMap.get(changedKeys.get(i));
+      TreeMap<Long, String> newChangeIds = new TreeMap<>();
+      for (String changeId : changeIdLists.get(i)) {
+        long sequence = ExternalViewChange.parseChangeId(changeId);
+        if (sequence > cachedView.getChangeSequence()) {
+          newChangeIds.put(sequence, changeId);
+        }
+      }
+      // The new changes must continue from the cached view without any gap.
+      if (newChangeIds.isEmpty() || newChangeIds.firstKey() != cachedView.getChangeSequence() + 1
+          || newChangeIds.lastKey() - newChangeIds.firstKey() + 1 != newChangeIds.size()) {
+        changeCounts.add(0);
+        continue;
+      }
+      changeCounts.add(newChangeIds.size());
+      for (long sequence : newChangeIds.keySet()) {
+        changeKeys.add(keyBuilder.externalViewChange(cachedView.getResourceName(), sequence));
+      }
+    }
+
+    List<ExternalViewChange> changes = accessor.getProperty(changeKeys, false);
+    int changeIndex = 0;
+    for (int i = 0; i < changedKeys.size(); i++) {
+      ExternalView view = cachedExternalViewMap.get(changedKeys.get(i));
+      int changeCount = changeCounts.get(i);
+      for (int j = 0; j < changeCount && view != null; j++) {
+        ExternalViewChange change = changes.get(changeIndex + j);
+        // The change might be trimmed after it is listed.
+        view = change == null || change.getSequence() != view.getChangeSequence() + 1 ? null
+            : change.applyTo(view);
+      }
+      changeIndex += changeCount;
+      if (view != null && changeCount > 0) {
+        view.setStat(changedStats.get(i));
+        cachedExternalViewMap.put(changedKeys.get(i), view);
+      }
+    }
+  }
+
   private PropertyKey externalViewsKey(PropertyKey.Builder keyBuilder) {
     PropertyKey evPropertyKey;
     if (_type.equals(PropertyType.EXTERNALVIEW)) {
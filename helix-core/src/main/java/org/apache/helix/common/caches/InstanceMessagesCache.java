@@ -19,6 +19,7 @@ package org.apache.helix.common.caches;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -92,13 +93,31 @@ public class InstanceMessagesCache {
    * @return
    */
   public boolean refresh(HelixDataAccessor accessor, Map<String, LiveInstance> liveInstanceMap) {
+    return refresh(accessor, liveInstanceMap, null);
+  }
+
+  /**
+   * This refreshes the pending messages in the cluster. The messages of an instance are only
+   * listed again if the messages path of the instance has changed or the instance has just become
+   * live.
+   *
+   * @param accessor
+   * @param liveInstanceMap
+   * @param changedPaths the paths changed since the last refresh, null if unknown, in which case
+   *                     the messages of all the instances are listed.
+   *
+   * @return
+   */
+  public boolean refresh(HelixDataAccessor accessor, Map<String, LiveInstance> liveInstanceMap,
+      Set<String> changedPaths) {
     LOG.info("START: InstanceMessagesCache.refresh()");
     long startTime = System.currentTimeMillis();
 
     PropertyKey.Builder keyBuilder = accessor.keyBuilder();
     Map<String, Map<String, Message>> msgMap = new HashMap<>();
     List<PropertyKey> newMessageKeys = Lists.newLinkedList();
-    long purgeSum = 0;
+    List<String> instancesToList = new ArrayList<>();
+    List<PropertyKey> messagesKeys = new ArrayList<>();
     for (String instanceName : liveInstanceMap.keySet()) {
       // get the cache
       Map<String, Message> cachedMap = _messageCache.get(instanceName);
@@ -108,9 +127,22 @@ public class InstanceMessagesCache {
       }
       msgMap.put(instanceName, cachedMap);
 
-      // get the current names
-      Set<String> messageNames =
-          Sets.newHashSet(accessor.getChildNames(keyBuilder.messages(instanceName)));
+      if (changedPaths != null && _messageMap != null && _messageMap.containsKey(instanceName)
+          && !changedPaths.contains(keyBuilder.messages(instanceName).getPath())) {
+        // No message is created or deleted since the last refresh.
+        continue;
+      }
+      instancesToList.add(instanceName);
+      messagesKeys.add(keyBuilder.messages(instanceName));
+    }
+
+    // get the current names of all the instances in a batch
+    List<List<String>> messageNamesList = accessor.getChildNames(messagesKeys);
+    long purgeSum = 0;
+    for (int i = 0; i < instancesToList.size(); i++) {
+      String instanceName = instancesToList.get(i);
+      Map<String, Message> cachedMap = _messageCache.get(instanceName);
+      Set<String> messageNames = Sets.newHashSet(messageNamesList.get(i));
 
       long purgeStart = System.currentTimeMillis();
       // clear stale names
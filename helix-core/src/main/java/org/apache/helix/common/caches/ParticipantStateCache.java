@@ -57,9 +57,23 @@ public abstract class ParticipantStateCache<T> extends AbstractDataCache {
    * @return
    */
   public boolean refresh(HelixDataAccessor accessor, Map<String, LiveInstance> liveInstanceMap) {
+    return refresh(accessor, liveInstanceMap, null);
+  }
+
+  /**
+   * This refreshes the participant state cache data by only checking the participant states
+   * under the changed paths, if the cache supports it. The other cached participant states are
+   * kept without checking their stats.
+   * @param accessor
+   * @param liveInstanceMap map of all liveInstances in cluster
+   * @param changedPaths the paths changed since the last refresh, null if unknown
+   * @return
+   */
+  public boolean refresh(HelixDataAccessor accessor, Map<String, LiveInstance> liveInstanceMap,
+      Set<String> changedPaths) {
     long startTime = System.currentTimeMillis();
 
-    refreshParticipantStatesCacheFromZk(accessor, liveInstanceMap);
+    refreshParticipantStatesCacheFromZk(accessor, liveInstanceMap, changedPaths);
     Map<String, Map<String, Map<String, T>>> allParticipantStateMap = new HashMap<>();
     // There should be 4 levels of keys. The first one is the cluster name, the second one is the
     // instance name, the third one is a customized key (could be session Id or customized state
@@ -104,11 +118,16 @@ public abstract class ParticipantStateCache<T> extends AbstractDataCache {
 
   // reload participant states that has been changed from zk to local cache.
   private void refreshParticipantStatesCacheFromZk(HelixDataAccessor accessor,
-      Map<String, LiveInstance> liveInstanceMap) {
+      Map<String, LiveInstance> liveInstanceMap, Set<String> changedPaths) {
 
     long start = System.currentTimeMillis();
-    Set<PropertyKey> participantStateKeys =
-        PopulateParticipantKeys(accessor, liveInstanceMap);
+    Set<PropertyKey> changedKeys = new HashSet<>();
+    Set<PropertyKey> participantStateKeys = changedPaths == null ? null
+        : populateChangedParticipantKeys(accessor, liveInstanceMap, changedPaths, changedKeys);
+    boolean incremental = participantStateKeys != null;
+    if (!incremental) {
+      participantStateKeys = PopulateParticipantKeys(accessor, liveInstanceMap);
+    }
 
     // All new entries from zk not cached locally yet should be read from ZK.
     Set<PropertyKey> reloadKeys = new HashSet<>(participantStateKeys);
@@ -117,10 +136,24 @@ public abstract class ParticipantStateCache<T> extends AbstractDataCache {
     Set<PropertyKey> cachedKeys = new HashSet<>(_participantStateCache.keySet());
     cachedKeys.retainAll(participantStateKeys);
 
+    Map<PropertyKey, T> unchangedStates = new HashMap<>();
+    if (incremental) {
+      // Only the stats of the changed participant states are checked, the others are kept as
+      // they are.
+      for (PropertyKey key : cachedKeys) {
+        if (!changedKeys.contains(key)) {
+          unchangedStates.put(key, _participantStateCache.get(key));
+        }
+      }
+      cachedKeys.removeAll(unchangedStates.keySet());
+    }
+
     Set<PropertyKey> reloadedKeys = new HashSet<>();
-    Map<PropertyKey, T> newStateCache = Collections.unmodifiableMap(
-        refreshProperties(accessor, reloadKeys, new ArrayList<>(cachedKeys), _participantStateCache,
-            reloadedKeys));
+    Map<PropertyKey, T> refreshedStates =
+        refreshProperties(accessor, reloadKeys, new ArrayList<>(cachedKeys),
+            _participantStateCache, reloadedKeys);
+    refreshedStates.putAll(unchangedStates);
+    Map<PropertyKey, T> newStateCache = Collections.unmodifiableMap(refreshedStates);
 
     refreshSnapshot(newStateCache, _participantStateCache, reloadedKeys);
 
@@ -139,6 +172,23 @@ public abstract class ParticipantStateCache<T> extends AbstractDataCache {
   protected abstract Set<PropertyKey> PopulateParticipantKeys(HelixDataAccessor accessor,
       Map<String, LiveInstance> liveInstanceMap);
 
+  /**
+   * Populate the keys of the participant states based on the changed paths, without listing the
+   * participant states that are not changed. This method is optional for child class to extend.
+   * @param accessor
+   * @param liveInstanceMap map of all liveInstances in cluster
+   * @param changedPaths the paths changed since the last refresh
+   * @param changedKeys output, the keys of the participant states that might have been changed,
+   * whose stats are checked
+   * @return the keys of all the participant states, or null if the keys cannot be populated
+   * incrementally, in which case all the participant states are listed and checked.
+   */
+  protected Set<PropertyKey> populateChangedParticipantKeys(HelixDataAccessor accessor,
+      Map<String, LiveInstance> liveInstanceMap, Set<String> changedPaths,
+      Set<PropertyKey> changedKeys) {
+    return null;
+  }
+
   /**
    * Refresh the snapshot of the cache. This method is optional for child class to extend. If the
    * child class does not need to refresh snapshot, it just does nothing.
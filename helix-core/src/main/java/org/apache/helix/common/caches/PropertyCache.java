@@ -81,6 +81,11 @@ public class PropertyCache<T extends HelixProperty> extends AbstractDataCache<T>
 
   // Used for serving user operations
   private Map<String, T> _objMap;
+  // True if _objMap has been handed out by getPropertyMapSnapshot(), so it must be copied before
+  // the next in-place modification.
+  private boolean _objMapShared;
+  // True if _objMap has been modified in place since the last refresh.
+  private boolean _objMapModified;
 
   // Used for caching data from object store - this makes it possible to have async
   // data refresh from object store
@@ -164,9 +169,72 @@ public class PropertyCache<T extends HelixProperty> extends AbstractDataCache<T>
             _propertyDescription, System.currentTimeMillis() - start, _useSelectiveUpdate));
   }
 
+  /**
+   * Refresh the cache with the given data accessor, only reloading the objects under the changed
+   * paths. The other cached objects are kept without checking their stats, unless the objects
+   * under the root are created or deleted.
+   * If the changed paths are unknown or the cache does not use selective update, this is the same
+   * as {@link #refresh(HelixDataAccessor)}.
+   * @param accessor helix data accessor provided by caller
+   * @param changedPaths the paths changed since the last refresh, null if unknown
+   */
+  public void refresh(final HelixDataAccessor accessor, Set<String> changedPaths) {
+    if (changedPaths == null || !_useSelectiveUpdate) {
+      refresh(accessor);
+      return;
+    }
+    long start = System.currentTimeMillis();
+    doIncrementalRefresh(accessor, changedPaths);
+    LogUtil.logInfo(LOG, genEventInfo(), String
+        .format("Incrementally refreshed %s property %s took %s ms. Changed paths: %s",
+            _objMap.size(), _propertyDescription, System.currentTimeMillis() - start,
+            changedPaths.size()));
+  }
+
+  private void doIncrementalRefresh(final HelixDataAccessor accessor, Set<String> changedPaths) {
+    String rootPath = _keyFuncs.getRootKey(accessor).getPath();
+    if (changedPaths.contains(rootPath)) {
+      // Objects are created or deleted. Since an object might be deleted and created again, which
+      // is only notified as a child change of the root, check all the objects.
+      doRefreshWithSelectiveUpdate(accessor);
+      return;
+    }
+
+    Set<String> changedObjNames = new HashSet<>();
+    for (String path : changedPaths) {
+      if (path.startsWith(rootPath + "/")) {
+        // The object itself or one of its buckets has changed.
+        String objName = path.substring(rootPath.length() + 1);
+        int end = objName.indexOf('/');
+        changedObjNames.add(end < 0 ? objName : objName.substring(0, end));
+      }
+    }
+
+    // The children are not changed, so only reload the changed objects that are cached.
+    Map<PropertyKey, T> cachedObjs = new HashMap<>();
+    Set<PropertyKey> reloadKeys = new HashSet<>();
+    for (Map.Entry<String, T> entry : _objCache.entrySet()) {
+      PropertyKey objKey = _keyFuncs.getObjPropertyKey(accessor, entry.getKey());
+      if (changedObjNames.contains(entry.getKey())) {
+        reloadKeys.add(objKey);
+      } else {
+        cachedObjs.put(objKey, entry.getValue());
+      }
+    }
+    if (reloadKeys.isEmpty() && !_objMapModified) {
+      // Nothing is changed, keep the current map so the snapshots taken from it are still valid.
+      return;
+    }
+    Map<PropertyKey, T> updatedData = refreshProperties(accessor, reloadKeys,
+        Collections.emptyList(), cachedObjs, new HashSet<>());
+    updatedData.putAll(cachedObjs);
+    _objCache = propertyKeyMapToStringMap(updatedData, _keyFuncs);
+    resetObjMap(new HashMap<>(_objCache));
+  }
+
   private void doSimpleCacheRefresh(final HelixDataAccessor accessor) {
     _objCache = accessor.getChildValuesMap(_keyFuncs.getRootKey(accessor), true);
-    _objMap = new HashMap<>(_objCache);
+    resetObjMap(new HashMap<>(_objCache));
   }
 
   private void doRefreshWithSelectiveUpdate(final HelixDataAccessor accessor) {
@@ -178,7 +246,24 @@ public class PropertyCache<T extends HelixProperty> extends AbstractDataCache<T>
 
     // need to separate keys so we can potentially update cache map asynchronously while
     // keeping snapshot unchanged
-    _objMap = new HashMap<>(_objCache);
+    resetObjMap(new HashMap<>(_objCache));
+  }
+
+  private void resetObjMap(Map<String, T> objMap) {
+    _objMap = objMap;
+    _objMapShared = false;
+    _objMapModified = false;
+  }
+
+  /**
+   * Copy the map before modifying it in place if it is shared by a snapshot.
+   */
+  private void prepareObjMapModification() {
+    if (_objMapShared) {
+      _objMap = new HashMap<>(_objMap);
+      _objMapShared = false;
+    }
+    _objMapModified = true;
   }
 
   private Map<String, T> propertyKeyMapToStringMap(Map<PropertyKey, T> propertyKeyMap,
@@ -194,6 +279,18 @@ public class PropertyCache<T extends HelixProperty> extends AbstractDataCache<T>
     return Collections.unmodifiableMap(_objMap);
   }
 
+  /**
+   * Get an immutable snapshot of the current property map. Unlike {@link #getPropertyMap()}, the
+   * snapshot is not affected by the later refresh or modification of this cache, so it can be
+   * read by other threads without lock. The map is copied lazily on the next modification only,
+   * so taking a snapshot of an unchanged cache is free.
+   * @return an unmodifiable map of the object name to the object
+   */
+  public Map<String, T> getPropertyMapSnapshot() {
+    _objMapShared = true;
+    return Collections.unmodifiableMap(_objMap);
+  }
+
   public T getPropertyByName(String name) {
     if (name == null) {
       return null;
@@ -205,13 +302,17 @@ public class PropertyCache<T extends HelixProperty> extends AbstractDataCache<T>
     // make a copy in case objMap is modified by the caller later on
     // not updating the cache as cache is for data from data store
     _objMap = new HashMap<>(objMap);
+    _objMapShared = false;
+    _objMapModified = true;
   }
 
   public void setProperty(T obj) {
+    prepareObjMapModification();
     _objMap.put(_keyFuncs.getObjName(obj), obj);
   }
 
   public void deletePropertyByName(String name) {
+    prepareObjMapModification();
     _objMap.remove(name);
   }
 }
@@ -19,6 +19,7 @@ package org.apache.helix.common.caches;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -44,12 +45,18 @@ public class TaskCurrentStateCache extends ParticipantStateCache<CurrentState> {
       Map<String, LiveInstance> liveInstanceMap) {
     Set<PropertyKey> participantStateKeys = new HashSet<>();
     PropertyKey.Builder keyBuilder = accessor.keyBuilder();
-    for (String instanceName : liveInstanceMap.keySet()) {
-      LiveInstance liveInstance = liveInstanceMap.get(instanceName);
-      String sessionId = liveInstance.getEphemeralOwner();
-      List<String> currentStateNames =
-          accessor.getChildNames(keyBuilder.taskCurrentStates(instanceName, sessionId));
-      for (String currentStateName : currentStateNames) {
+    List<String> instanceNames = new ArrayList<>(liveInstanceMap.keySet());
+    List<PropertyKey> sessionKeys = new ArrayList<>(instanceNames.size());
+    for (String instanceName : instanceNames) {
+      sessionKeys.add(keyBuilder.taskCurrentStates(instanceName,
+          liveInstanceMap.get(instanceName).getEphemeralOwner()));
+    }
+    // List the task current states of all the instances in a batch.
+    List<List<String>> currentStateNamesList = accessor.getChildNames(sessionKeys);
+    for (int i = 0; i < instanceNames.size(); i++) {
+      String instanceName = instanceNames.get(i);
+      String sessionId = liveInstanceMap.get(instanceName).getEphemeralOwner();
+      for (String currentStateName : currentStateNamesList.get(i)) {
         participantStateKeys
             .add(keyBuilder.taskCurrentState(instanceName, sessionId, currentStateName));
       }
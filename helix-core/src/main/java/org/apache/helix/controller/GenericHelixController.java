@@ -60,7 +60,7 @@ import org.apache.helix.api.listeners.MessageListener;
 import org.apache.helix.api.listeners.PreFetch;
 import org.apache.helix.api.listeners.ResourceConfigChangeListener;
 import org.apache.helix.api.listeners.TaskCurrentStateChangeListener;
-import org.apache.helix.common.ClusterEventBlockingQueue;
+import org.apache.helix.common.ClusterEventScheduler;
 import org.apache.helix.common.DedupEventProcessor;
 import org.apache.helix.controller.dataproviders.BaseControllerDataProvider;
 import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
@@ -157,10 +157,10 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
   /**
    * A queue for controller events and a thread that will consume it
    */
-  private final ClusterEventBlockingQueue _eventQueue;
+  private final ClusterEventScheduler _eventQueue;
   private final ClusterEventProcessor _eventThread;
 
-  private final ClusterEventBlockingQueue _taskEventQueue;
+  private final ClusterEventScheduler _taskEventQueue;
   private final ClusterEventProcessor _taskEventThread;
 
   private final Map<AsyncWorkerType, DedupEventProcessor<String, Runnable>> _asyncFIFOWorkerPool;
@@ -664,7 +664,7 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
     if (_enabledPipelineTypes.contains(Pipeline.Type.DEFAULT)) {
       logger.info("Initializing {} pipeline", Pipeline.Type.DEFAULT.name());
       _resourceControlDataProvider = new ResourceControllerDataProvider(clusterName);
-      _eventQueue = new ClusterEventBlockingQueue();
+      _eventQueue = new ClusterEventScheduler();
       _eventThread = new ClusterEventProcessor(_resourceControlDataProvider, _eventQueue,
           "default-" + clusterName);
       initPipeline(_eventThread, _resourceControlDataProvider);
@@ -678,7 +678,7 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
     if (_enabledPipelineTypes.contains(Pipeline.Type.TASK)) {
       logger.info("Initializing {} pipeline", Pipeline.Type.TASK.name());
       _workflowControlDataProvider = new WorkflowControllerDataProvider(clusterName);
-      _taskEventQueue = new ClusterEventBlockingQueue();
+      _taskEventQueue = new ClusterEventScheduler();
       _taskEventThread = new ClusterEventProcessor(_workflowControlDataProvider, _taskEventQueue,
           "task-" + clusterName);
       initPipeline(_taskEventThread, _workflowControlDataProvider);
@@ -905,6 +905,8 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
         _clusterStatusMonitor
             .updateClusterEventDuration(ClusterEventMonitor.PhaseName.InQueue.name(),
                 startTime - enqueueTime);
+        _clusterStatusMonitor.updateClusterEventDuration(event.getEventType().name(),
+            ClusterEventMonitor.PhaseName.InQueue.name(), startTime - enqueueTime);
         _clusterStatusMonitor
             .updateClusterEventDuration(ClusterEventMonitor.PhaseName.TotalProcessed.name(),
                 _lastPipelineEndTimestamp - startTime);
@@ -1190,17 +1192,17 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
     if (context == null || context.getType() != NotificationContext.Type.CALLBACK) {
       requestDataProvidersFullRefresh();
     } else {
-      updateDataChangeInProvider(changeType, context.getPathChanged());
+      updateDataChangeInProvider(changeType, context.getDirtyPaths());
     }
   }
 
-  private void updateDataChangeInProvider(ChangeType type, String path) {
+  private void updateDataChangeInProvider(ChangeType type, Set<String> paths) {
     if (_resourceControlDataProvider != null) {
-      _resourceControlDataProvider.notifyDataChange(type, path);
+      _resourceControlDataProvider.notifyDataChange(type, paths);
     }
 
     if (_workflowControlDataProvider != null) {
-      _workflowControlDataProvider.notifyDataChange(type, path);
+      _workflowControlDataProvider.notifyDataChange(type, paths);
     }
   }
 
@@ -1233,7 +1235,7 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
         event.clone(String.format("%s_%s", uid, Pipeline.Type.TASK.name())));
   }
 
-  private void enqueueEvent(ClusterEventBlockingQueue queue, ClusterEvent event) {
+  private void enqueueEvent(ClusterEventScheduler queue, ClusterEvent event) {
     if (event == null || queue == null) {
       return;
     }
@@ -1450,7 +1452,7 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
     }
   }
 
-  private void shutdownPipeline(Thread thread, ClusterEventBlockingQueue queue)
+  private void shutdownPipeline(Thread thread, ClusterEventScheduler queue)
       throws InterruptedException {
     if (queue != null) {
       queue.clear();
@@ -1503,11 +1505,11 @@ public class GenericHelixController implements IdealStateChangeListener, LiveIns
   @Deprecated
   private class ClusterEventProcessor extends Thread {
     private final BaseControllerDataProvider _cache;
-    private final ClusterEventBlockingQueue _eventBlockingQueue;
+    private final ClusterEventScheduler _eventBlockingQueue;
     private final String _processorName;
 
     ClusterEventProcessor(BaseControllerDataProvider cache,
-        ClusterEventBlockingQueue eventBlockingQueue, String processorName) {
+        ClusterEventScheduler eventBlockingQueue, String processorName) {
       _cache = cache;
       _eventBlockingQueue = eventBlockingQueue;
       _processorName = processorName;
@@ -56,6 +56,13 @@ public class ClusterConfigTrimmer extends HelixPropertyTrimmer<ClusterConfig> {
    * DELAY_REBALANCE_ENABLED,
    * DELAY_REBALANCE_TIME,
    * GLOBAL_REBALANCE_ASYNC_MODE,
+   * GLOBAL_REBALANCE_BASELINE_PARALLELISM,
+   * GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED,
+   * INCREMENTAL_DATA_REFRESH_ENABLED,
+   * INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL,
+   * RESOURCE_REBALANCE_PARALLELISM,
+   * EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED,
+   * EXTERNAL_VIEW_CHANGE_FEED_ENABLED,
    * P2P_MESSAGE_ENABLED,
    * All StateTransitionTimeoutConfig,
    * All StateTransitionThrottleConfig
@@ -0,0 +1,99 @@
+package org.apache.helix.controller.common;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the names of the cluster entities, such as the resources, partitions, instances and
+ * states, into integer ids. So the pipeline outputs can keep the ids in compact arrays instead of
+ * the nested maps keyed by the names.
+ * The ids are dense and never reassigned, so the outputs that are computed with the same
+ * dictionary share the same id space.
+ *
+ * The dictionary is thread safe. The ids are assigned with a lock, while the lookups are lock free.
+ */
+public class NameDictionary {
+  public static final int NO_ID = -1;
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final Map<String, Integer> _nameToId = new ConcurrentHashMap<>();
+  private volatile String[] _names = new String[INITIAL_CAPACITY];
+  private volatile int _size = 0;
+
+  /**
+   * Get the id of the name, and assign a new id if the name is not in the dictionary yet.
+   * @param name the name, which must not be null
+   * @return the id of the name
+   */
+  public int getOrCreateId(String name) {
+    Integer id = _nameToId.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = _nameToId.get(name);
+      if (id == null) {
+        String[] names = _names;
+        if (_size == names.length) {
+          names = Arrays.copyOf(names, names.length * 2);
+        }
+        id = _size;
+        names[id] = name;
+        // Publish the name before the id, so any reader that gets the id can find the name.
+        _names = names;
+        _size = id + 1;
+        _nameToId.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Get the id of the name without assigning a new one.
+   * @param name the name
+   * @return the id of the name, or {@link #NO_ID} if the name is not in the dictionary
+   */
+  public int getId(String name) {
+    if (name == null) {
+      return NO_ID;
+    }
+    Integer id = _nameToId.get(name);
+    return id == null ? NO_ID : id;
+  }
+
+  /**
+   * Get the name of an id.
+   * @param id the id that is returned by this dictionary
+   * @return the name
+   */
+  public String getName(int id) {
+    return _names[id];
+  }
+
+  /**
+   * @return the number of the names in the dictionary
+   */
+  public int size() {
+    return _size;
+  }
+}
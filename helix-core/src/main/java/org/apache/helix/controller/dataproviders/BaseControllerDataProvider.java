@@ -47,6 +47,7 @@ import org.apache.helix.common.caches.PropertyCache;
 import org.apache.helix.common.caches.TaskCurrentStateCache;
 import org.apache.helix.common.controllers.ControlContextProvider;
 import org.apache.helix.controller.LogUtil;
+import org.apache.helix.controller.common.NameDictionary;
 import org.apache.helix.controller.rebalancer.constraint.MonitoredAbnormalResolver;
 import org.apache.helix.model.ClusterConfig;
 import org.apache.helix.model.ClusterConstraints;
@@ -93,6 +94,12 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
   // A map recording what data has changed
   protected Map<HelixConstants.ChangeType, AtomicBoolean> _propertyDataChangedMap;
+  // A map recording the paths that have changed, which are used by the incremental refresh
+  private final Map<HelixConstants.ChangeType, ChangedPaths> _changedPathsMap;
+  // If the changed paths are notified, the incremental refresh could be used
+  private volatile boolean _changedPathsNotified = false;
+  private boolean _incrementalRefresh = false;
+  private long _lastFullRefreshTime = 0L;
 
   // Property caches
   private final PropertyCache<ResourceConfig> _resourceConfigCache;
@@ -116,6 +123,15 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   private Set<String> _timedOutInstanceDuringMaintenance = new HashSet<>();
   private Map<String, LiveInstance> _liveInstanceExcludeTimedOutForMaintenance = new HashMap<>();
 
+  // The snapshot of the latest refreshed data, null if it needs to be taken again.
+  private ControllerDataSnapshot _dataSnapshot;
+  private long _dataSnapshotVersion = 0L;
+
+  // The names of the removed entities are never released from the dictionary, so it is replaced
+  // once it grows beyond the limit.
+  private static final int MAX_NAME_DICTIONARY_SIZE = 1 << 20;
+  private NameDictionary _nameDictionary = new NameDictionary();
+
   public BaseControllerDataProvider() {
     this(AbstractDataCache.UNKNOWN_CLUSTER, AbstractDataCache.UNKNOWN_PIPELINE);
   }
@@ -124,10 +140,12 @@ public class BaseControllerDataProvider implements ControlContextProvider {
     _clusterName = clusterName;
     _pipelineName = pipelineName;
     _propertyDataChangedMap = new ConcurrentHashMap<>();
+    _changedPathsMap = new ConcurrentHashMap<>();
     for (HelixConstants.ChangeType type : HelixConstants.ChangeType.values()) {
       // refresh every type when it is initialized
       _propertyDataChangedMap
           .put(type, new AtomicBoolean(true));
+      _changedPathsMap.put(type, new ChangedPaths());
     }
 
     // initialize caches
@@ -248,7 +266,8 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   private void refreshIdealState(final HelixDataAccessor accessor,
       Set<HelixConstants.ChangeType> refreshedType) {
     if (_propertyDataChangedMap.get(HelixConstants.ChangeType.IDEAL_STATE).getAndSet(false)) {
-      _idealStateCache.refresh(accessor);
+      _idealStateCache.refresh(accessor,
+          drainChangedPaths(HelixConstants.ChangeType.IDEAL_STATE));
       refreshedType.add(HelixConstants.ChangeType.IDEAL_STATE);
     } else {
       LogUtil.logInfo(logger, getClusterEventId(), String
@@ -260,7 +279,8 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   private void refreshLiveInstances(final HelixDataAccessor accessor,
       Set<HelixConstants.ChangeType> refreshedType) {
     if (_propertyDataChangedMap.get(HelixConstants.ChangeType.LIVE_INSTANCE).getAndSet(false)) {
-      _liveInstanceCache.refresh(accessor);
+      _liveInstanceCache.refresh(accessor,
+          drainChangedPaths(HelixConstants.ChangeType.LIVE_INSTANCE));
       _updateInstanceOfflineTime = true;
       refreshedType.add(HelixConstants.ChangeType.LIVE_INSTANCE);
     } else {
@@ -273,7 +293,8 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   private void refreshInstanceConfigs(final HelixDataAccessor accessor,
       Set<HelixConstants.ChangeType> refreshedType) {
     if (_propertyDataChangedMap.get(HelixConstants.ChangeType.INSTANCE_CONFIG).getAndSet(false)) {
-      _instanceConfigCache.refresh(accessor);
+      _instanceConfigCache.refresh(accessor,
+          drainChangedPaths(HelixConstants.ChangeType.INSTANCE_CONFIG));
       LogUtil.logInfo(logger, getClusterEventId(), String
           .format("Reloaded InstanceConfig for cluster %s, %s pipeline. Keys: %s", _clusterName,
               getPipelineName(), _instanceConfigCache.getPropertyMap().keySet()));
@@ -288,7 +309,8 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   private void refreshResourceConfig(final HelixDataAccessor accessor,
       Set<HelixConstants.ChangeType> refreshedType) {
     if (_propertyDataChangedMap.get(HelixConstants.ChangeType.RESOURCE_CONFIG).getAndSet(false)) {
-      _resourceConfigCache.refresh(accessor);
+      _resourceConfigCache.refresh(accessor,
+          drainChangedPaths(HelixConstants.ChangeType.RESOURCE_CONFIG));
       LogUtil.logInfo(logger, getClusterEventId(), String
           .format("Reloaded ResourceConfig for cluster %s, %s pipeline. Cnt: %s", _clusterName,
               getPipelineName(), _resourceConfigCache.getPropertyMap().keySet().size()));
@@ -367,6 +389,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
     // Refresh raw data
     refreshClusterConfig(accessor, refreshedTypes);
+    updateIncrementalRefresh();
     refreshIdealState(accessor, refreshedTypes);
     refreshLiveInstances(accessor, refreshedTypes);
     refreshInstanceConfigs(accessor, refreshedTypes);
@@ -380,8 +403,10 @@ public class BaseControllerDataProvider implements ControlContextProvider {
     updateOfflineInstanceHistory(accessor);
 
     // Refresh derived data
-    _instanceMessagesCache.refresh(accessor, _liveInstanceCache.getPropertyMap());
-    _currentStateCache.refresh(accessor, _liveInstanceCache.getPropertyMap());
+    _instanceMessagesCache.refresh(accessor, _liveInstanceCache.getPropertyMap(),
+        drainChangedPaths(HelixConstants.ChangeType.MESSAGE));
+    _currentStateCache.refresh(accessor, _liveInstanceCache.getPropertyMap(),
+        drainChangedPaths(HelixConstants.ChangeType.CURRENT_STATE));
 
     // current state must be refreshed before refreshing relay messages
     // because we need to use current state to validate all relay messages.
@@ -390,10 +415,75 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
     updateIdealRuleMap(getClusterConfig());
     updateDisabledInstances(getInstanceConfigMap().values(), getClusterConfig());
+    _dataSnapshot = takeDataSnapshot();
 
     return refreshedTypes;
   }
 
+  /**
+   * Get the immutable snapshot of the cluster data. The snapshot is taken at the end of each
+   * refresh, and again after the data is reset by the setters. Since it shares the maps with the
+   * caches, taking a snapshot does not copy any data.
+   * The snapshot can be read by the async workers safely while the next refresh is in progress.
+   * @return the snapshot of the cluster data
+   */
+  public synchronized ControllerDataSnapshot getDataSnapshot() {
+    if (_dataSnapshot == null) {
+      _dataSnapshot = takeDataSnapshot();
+    }
+    return _dataSnapshot;
+  }
+
+  /**
+   * Get the dictionary that interns the names of the cluster entities for the pipeline outputs. The
+   * dictionary is kept across the pipeline runs, so the names are not interned again.
+   * @return the name dictionary
+   */
+  public synchronized NameDictionary getNameDictionary() {
+    if (_nameDictionary.size() > MAX_NAME_DICTIONARY_SIZE) {
+      _nameDictionary = new NameDictionary();
+    }
+    return _nameDictionary;
+  }
+
+  private ControllerDataSnapshot takeDataSnapshot() {
+    return new ControllerDataSnapshot(++_dataSnapshotVersion, _clusterConfig,
+        _idealStateCache.getPropertyMapSnapshot(), _liveInstanceCache.getPropertyMapSnapshot(),
+        _instanceConfigCache.getPropertyMapSnapshot(),
+        _resourceConfigCache.getPropertyMapSnapshot(),
+        _stateModelDefinitionCache.getPropertyMapSnapshot(),
+        _clusterConstraintsCache.getPropertyMapSnapshot(),
+        _currentStateCache.getParticipantStatesMap());
+  }
+
+  private synchronized void invalidateDataSnapshot() {
+    _dataSnapshot = null;
+  }
+
+  /**
+   * Decide if the current refresh only reloads the data under the changed paths. A full refresh is
+   * done periodically to reconcile any change that might not be notified.
+   */
+  private void updateIncrementalRefresh() {
+    long currentTime = System.currentTimeMillis();
+    _incrementalRefresh = _changedPathsNotified && _clusterConfig != null
+        && _clusterConfig.isIncrementalDataRefreshEnabled()
+        && currentTime - _lastFullRefreshTime < _clusterConfig
+        .getIncrementalDataRefreshReconciliationInterval();
+    if (!_incrementalRefresh) {
+      _lastFullRefreshTime = currentTime;
+    }
+  }
+
+  /**
+   * @return the paths of the given type that have changed since the last refresh, or null if the
+   * paths are unknown or the current refresh is a full refresh.
+   */
+  private Set<String> drainChangedPaths(HelixConstants.ChangeType changeType) {
+    Set<String> changedPaths = _changedPathsMap.get(changeType).drain();
+    return _incrementalRefresh ? changedPaths : null;
+  }
+
   protected void dumpDebugInfo() {
     if (logger.isDebugEnabled()) {
       LogUtil.logDebug(logger, getClusterEventId(),
@@ -421,6 +511,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
   public void setClusterConfig(ClusterConfig clusterConfig) {
     _clusterConfig = clusterConfig;
+    invalidateDataSnapshot();
     refreshAbnormalStateResolverMap(_clusterConfig);
     updateIdealRuleMap(_clusterConfig);
     updateDisabledInstances(getInstanceConfigMap().values(), _clusterConfig);
@@ -465,6 +556,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
   public synchronized void setIdealStates(List<IdealState> idealStates) {
     _idealStateCache.setPropertyMap(HelixProperty.convertListToMap(idealStates));
+    invalidateDataSnapshot();
   }
 
   public Map<String, Map<String, String>> getIdealStateRules() {
@@ -571,6 +663,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
 
   public synchronized void setLiveInstances(List<LiveInstance> liveInstances) {
     _liveInstanceCache.setPropertyMap(HelixProperty.convertListToMap(liveInstances));
+    invalidateDataSnapshot();
     _updateInstanceOfflineTime = true;
   }
 
@@ -691,6 +784,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
    */
   public void setInstanceConfigMap(Map<String, InstanceConfig> instanceConfigMap) {
     _instanceConfigCache.setPropertyMap(instanceConfigMap);
+    invalidateDataSnapshot();
     updateDisabledInstances(instanceConfigMap.values(), getClusterConfig());
   }
 
@@ -708,6 +802,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
    */
   public void setResourceConfigMap(Map<String, ResourceConfig> resourceConfigMap) {
     _resourceConfigCache.setPropertyMap(resourceConfigMap);
+    invalidateDataSnapshot();
   }
 
   public ResourceConfig getResourceConfig(String resource) {
@@ -739,6 +834,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
    * In this case, the delayed notification processing might cause performance issue.
    */
   public void notifyDataChange(HelixConstants.ChangeType changeType) {
+    _changedPathsMap.get(changeType).markUnknown();
     _propertyDataChangedMap.get(changeType).set(true);
   }
 
@@ -746,7 +842,24 @@ public class BaseControllerDataProvider implements ControlContextProvider {
    * Notify the cache that some part of the cluster data has been changed.
    */
   public void notifyDataChange(HelixConstants.ChangeType changeType, String pathChanged) {
-    notifyDataChange(changeType);
+    notifyDataChange(changeType, pathChanged == null ? Collections.<String>emptySet()
+        : Collections.singleton(pathChanged));
+  }
+
+  /**
+   * Notify the cache that the cluster data under the given paths has been changed.
+   * @param changeType the type of the changed data
+   * @param pathsChanged the changed paths. If empty, the changed data is unknown.
+   */
+  public void notifyDataChange(HelixConstants.ChangeType changeType, Set<String> pathsChanged) {
+    if (pathsChanged.isEmpty()) {
+      notifyDataChange(changeType);
+      return;
+    }
+    _changedPathsNotified = true;
+    // Record the paths before setting the flag, so the paths are always refreshed with the flag.
+    _changedPathsMap.get(changeType).add(pathsChanged);
+    _propertyDataChangedMap.get(changeType).set(true);
   }
 
   private void updateOfflineInstanceHistory(HelixDataAccessor accessor) {
@@ -864,6 +977,7 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   public void requireFullRefresh() {
     for (HelixConstants.ChangeType type : HelixConstants.ChangeType.values()) {
       if (!_noFullRefreshProperty.contains(type)) {
+        _changedPathsMap.get(type).markUnknown();
         _propertyDataChangedMap.get(type).set(true);
       }
     }
@@ -989,4 +1103,35 @@ public class BaseControllerDataProvider implements ControlContextProvider {
   public String toString() {
     return genCacheContentStringBuilder().toString();
   }
+
+  /**
+   * The paths of a type of data that have changed since the last refresh. If too many paths have
+   * changed, or the change is notified without the paths, the changed paths are unknown.
+   */
+  private static class ChangedPaths {
+    private static final int MAX_CHANGED_PATHS = 10000;
+    private Set<String> _paths = null;
+
+    synchronized void add(Collection<String> paths) {
+      if (_paths != null) {
+        _paths.addAll(paths);
+        if (_paths.size() > MAX_CHANGED_PATHS) {
+          _paths = null;
+        }
+      }
+    }
+
+    synchronized void markUnknown() {
+      _paths = null;
+    }
+
+    /**
+     * @return the changed paths, or null if unknown. The paths are then reset to empty.
+     */
+    synchronized Set<String> drain() {
+      Set<String> paths = _paths;
+      _paths = new HashSet<>();
+      return paths;
+    }
+  }
 }
@@ -0,0 +1,135 @@
+package org.apache.helix.controller.dataproviders;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.helix.model.ClusterConfig;
+import org.apache.helix.model.ClusterConstraints;
+import org.apache.helix.model.CurrentState;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.LiveInstance;
+import org.apache.helix.model.ResourceConfig;
+import org.apache.helix.model.StateModelDefinition;
+
+/**
+ * An immutable view of the cluster data cached by {@link BaseControllerDataProvider} at the end of
+ * a refresh.
+ *
+ * The snapshot shares the maps of the caches instead of copying them. A cache copies its map
+ * before the next in-place modification, and replaces it on the next refresh, so the snapshot is
+ * never changed afterwards. This allows the async stages to read the data of the event that
+ * triggered them, while the pipeline refreshes the cache for the next event without any lock.
+ *
+ * Note that the snapshot only protects the maps. The HelixProperty objects in the maps shall
+ * still be treated as read-only.
+ */
+public final class ControllerDataSnapshot {
+  private final long _version;
+  private final ClusterConfig _clusterConfig;
+  private final Map<String, IdealState> _idealStateMap;
+  private final Map<String, LiveInstance> _liveInstanceMap;
+  private final Map<String, InstanceConfig> _instanceConfigMap;
+  private final Map<String, ResourceConfig> _resourceConfigMap;
+  private final Map<String, StateModelDefinition> _stateModelDefMap;
+  private final Map<String, ClusterConstraints> _constraintMap;
+  // <instance, <session, <resource, current state>>>
+  private final Map<String, Map<String, Map<String, CurrentState>>> _currentStateMap;
+
+  ControllerDataSnapshot(long version, ClusterConfig clusterConfig,
+      Map<String, IdealState> idealStateMap, Map<String, LiveInstance> liveInstanceMap,
+      Map<String, InstanceConfig> instanceConfigMap,
+      Map<String, ResourceConfig> resourceConfigMap,
+      Map<String, StateModelDefinition> stateModelDefMap,
+      Map<String, ClusterConstraints> constraintMap,
+      Map<String, Map<String, Map<String, CurrentState>>> currentStateMap) {
+    _version = version;
+    _clusterConfig = clusterConfig;
+    _idealStateMap = idealStateMap;
+    _liveInstanceMap = liveInstanceMap;
+    _instanceConfigMap = instanceConfigMap;
+    _resourceConfigMap = resourceConfigMap;
+    _stateModelDefMap = stateModelDefMap;
+    _constraintMap = constraintMap;
+    _currentStateMap = currentStateMap;
+  }
+
+  /**
+   * @return the version of the snapshot, which increases every time a new snapshot is taken by
+   * the same data provider.
+   */
+  public long getVersion() {
+    return _version;
+  }
+
+  public ClusterConfig getClusterConfig() {
+    return _clusterConfig;
+  }
+
+  public Map<String, IdealState> getIdealStates() {
+    return _idealStateMap;
+  }
+
+  public IdealState getIdealState(String resourceName) {
+    return resourceName == null ? null : _idealStateMap.get(resourceName);
+  }
+
+  public Map<String, LiveInstance> getLiveInstances() {
+    return _liveInstanceMap;
+  }
+
+  public Map<String, InstanceConfig> getInstanceConfigMap() {
+    return _instanceConfigMap;
+  }
+
+  public Map<String, ResourceConfig> getResourceConfigMap() {
+    return _resourceConfigMap;
+  }
+
+  public ResourceConfig getResourceConfig(String resourceName) {
+    return resourceName == null ? null : _resourceConfigMap.get(resourceName);
+  }
+
+  public Map<String, StateModelDefinition> getStateModelDefMap() {
+    return _stateModelDefMap;
+  }
+
+  public StateModelDefinition getStateModelDef(String stateModelDefRef) {
+    return stateModelDefRef == null ? null : _stateModelDefMap.get(stateModelDefRef);
+  }
+
+  public Map<String, ClusterConstraints> getConstraintMap() {
+    return _constraintMap;
+  }
+
+  /**
+   * @return the current states of the given instance and session, keyed by the resource name.
+   * This does not include the task current states.
+   */
+  public Map<String, CurrentState> getCurrentState(String instanceName, String clientSessionId) {
+    Map<String, Map<String, CurrentState>> sessionMap = _currentStateMap.get(instanceName);
+    if (sessionMap == null || !sessionMap.containsKey(clientSessionId)) {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(sessionMap.get(clientSessionId));
+  }
+}
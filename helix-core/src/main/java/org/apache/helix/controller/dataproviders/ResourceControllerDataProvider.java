@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.helix.HelixConstants;
 import org.apache.helix.HelixDataAccessor;
@@ -37,6 +38,7 @@ import org.apache.helix.common.caches.CustomizedViewCache;
 import org.apache.helix.common.caches.PropertyCache;
 import org.apache.helix.controller.LogUtil;
 import org.apache.helix.controller.pipeline.Pipeline;
+import org.apache.helix.controller.stages.CurrentStateOutput;
 import org.apache.helix.controller.stages.MissingTopStateRecord;
 import org.apache.helix.model.CustomizedState;
 import org.apache.helix.model.CustomizedStateConfig;
@@ -64,6 +66,10 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
   private final CustomizedStateCache _customizedStateCache;
   // a map from customized state type to customized view cache
   private final Map<String, CustomizedViewCache> _customizedViewCacheMap;
+  // The current states that the cached external views are computed from, so the next computation
+  // only patches the changed partitions. Null if the external views are not computed yet, or have
+  // been reloaded.
+  private CurrentStateOutput _externalViewCurrentStateOutput;
 
   // maintain a cache of bestPossible assignment across pipeline runs
   // TODO: this is only for customRebalancer, remove it and merge it with _idealMappingCache.
@@ -89,6 +95,9 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
   // TODO: cause shuffling. So it is not backward compatible.
   private final Map<String, List<String>> _stablePartitionListCache = new HashMap<>();
 
+  // To calculate the resources concurrently in the rebalance stages. Created on demand.
+  private ForkJoinPool _resourceRebalancePool;
+
   public ResourceControllerDataProvider() {
     this(AbstractDataCache.UNKNOWN_CLUSTER);
   }
@@ -127,8 +136,9 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
         return obj.getResourceName();
       }
     }, true);
-    _resourceAssignmentCache = new HashMap<>();
-    _idealMappingCache = new HashMap<>();
+    // The rebalancers update the caches concurrently if the resources are calculated in parallel.
+    _resourceAssignmentCache = new ConcurrentHashMap<>();
+    _idealMappingCache = new ConcurrentHashMap<>();
     _missingTopStateMap = new HashMap<>();
     _lastTopStateLocationMap = new HashMap<>();
     _refreshedChangeTypes = ConcurrentHashMap.newKeySet();
@@ -207,6 +217,7 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
     if (_propertyDataChangedMap.get(HelixConstants.ChangeType.EXTERNAL_VIEW).getAndSet(false)) {
       synchronized (_externalViewCache) {
         _externalViewCache.refresh(accessor);
+        _externalViewCurrentStateOutput = null;
       }
     }
   }
@@ -288,6 +299,27 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
     }
   }
 
+  /**
+   * Get the current states that the cached external views are computed from.
+   * @return the current state output, or null if the cached external views are not computed by
+   * the controller
+   */
+  public CurrentStateOutput getExternalViewCurrentStateOutput() {
+    synchronized (_externalViewCache) {
+      return _externalViewCurrentStateOutput;
+    }
+  }
+
+  /**
+   * Record the current states that the cached external views are computed from.
+   * @param currentStateOutput
+   */
+  public void setExternalViewCurrentStateOutput(CurrentStateOutput currentStateOutput) {
+    synchronized (_externalViewCache) {
+      _externalViewCurrentStateOutput = currentStateOutput;
+    }
+  }
+
   /**
    * Update the cached customized view map
    * @param customizedViews
@@ -447,6 +479,24 @@ public class ResourceControllerDataProvider extends BaseControllerDataProvider {
     _lastTopStateLocationMap.clear();
   }
 
+  /**
+   * Get the pool to calculate the resources concurrently in the rebalance stages. The pool is
+   * recreated if the parallelism is changed. Note that the idle worker threads of the pool are
+   * terminated automatically.
+   * @param parallelism the max number of threads of the pool
+   * @return the pool with the given parallelism
+   */
+  public synchronized ForkJoinPool getResourceRebalancePool(int parallelism) {
+    if (_resourceRebalancePool == null || _resourceRebalancePool.getParallelism() != parallelism) {
+      if (_resourceRebalancePool != null) {
+        // The previous stage has collected all the results, so no task is running in the old pool.
+        _resourceRebalancePool.shutdown();
+      }
+      _resourceRebalancePool = new ForkJoinPool(parallelism);
+    }
+    return _resourceRebalancePool;
+  }
+
   /**
    * This is for a backward compatible workaround to fix https://github.com/apache/helix/issues/940.
    *
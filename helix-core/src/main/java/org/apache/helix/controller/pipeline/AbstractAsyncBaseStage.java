@@ -20,6 +20,8 @@ package org.apache.helix.controller.pipeline;
  */
 
 import org.apache.helix.common.DedupEventProcessor;
+import org.apache.helix.controller.dataproviders.BaseControllerDataProvider;
+import org.apache.helix.controller.dataproviders.ControllerDataSnapshot;
 import org.apache.helix.controller.stages.AttributeName;
 import org.apache.helix.controller.stages.ClusterEvent;
 import org.slf4j.Logger;
@@ -37,6 +39,14 @@ public abstract class AbstractAsyncBaseStage extends AbstractBaseStage {
     if (worker == null) {
       throw new StageException("No async worker found for " + taskType);
     }
+    // Take the snapshot in the pipeline thread, so the async execution is not affected by the
+    // refresh of the data provider for the next event.
+    BaseControllerDataProvider dataProvider =
+        event.getAttribute(AttributeName.ControllerDataProvider.name());
+    if (dataProvider != null) {
+      event.addAttribute(AttributeName.ControllerDataSnapshot.name(),
+          dataProvider.getDataSnapshot());
+    }
 
     worker.queueEvent(taskType, () -> {
       long startTimestamp = System.currentTimeMillis();
@@ -70,6 +80,27 @@ public abstract class AbstractAsyncBaseStage extends AbstractBaseStage {
    */
   public abstract void execute(final ClusterEvent event) throws Exception;
 
+  /**
+   * Get the snapshot of the cluster data taken when the async stage was submitted. Since the data
+   * provider might have been refreshed for the next event when the async stage is executed, the
+   * stage shall read the cluster data from this snapshot instead of the data provider.
+   * @param event ClusterEvent
+   * @return the data snapshot, or null if the event has no data provider
+   */
+  protected ControllerDataSnapshot getDataSnapshot(final ClusterEvent event) {
+    ControllerDataSnapshot snapshot =
+        event.getAttribute(AttributeName.ControllerDataSnapshot.name());
+    if (snapshot == null) {
+      // The stage is executed without being submitted, use the current data.
+      BaseControllerDataProvider dataProvider =
+          event.getAttribute(AttributeName.ControllerDataProvider.name());
+      if (dataProvider != null) {
+        snapshot = dataProvider.getDataSnapshot();
+      }
+    }
+    return snapshot;
+  }
+
   private String getAsyncTaskDedupType(String pipelineType) {
     return String
         .format("%s::%s", pipelineType, getClass().getSimpleName());
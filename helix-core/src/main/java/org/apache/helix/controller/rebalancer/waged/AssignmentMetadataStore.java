@@ -20,9 +20,15 @@ package org.apache.helix.controller.rebalancer.waged;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
 import org.apache.helix.BucketDataAccessor;
 import org.apache.helix.HelixException;
@@ -33,21 +39,45 @@ import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordJacksonSerializer;
 import org.apache.helix.zookeeper.zkclient.exception.ZkNoNodeException;
 import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * A placeholder before we have the real assignment metadata store.
+ * The store of the WAGED rebalancer assignments, which are the global baseline and the best
+ * possible assignment.
+ *
+ * By default, each change rewrites the complete assignment. If the delta persist mode is enabled,
+ * the assignment is persisted as a checkpoint plus a delta log. The delta log contains the
+ * resource assignments that have been changed or removed since the checkpoint, so a partial
+ * rebalance that only changes a few resources writes a small record. Once the delta log grows
+ * beyond the thresholds, it is compacted into a new checkpoint.
+ * Each checkpoint has a unique ID, and a delta log is only applied to the checkpoint with the
+ * same ID. So a stale delta log, for example one that was left by a failed compaction or a write
+ * in the full persist mode, is ignored by the readers.
  */
 public class AssignmentMetadataStore {
+  private static final Logger LOG = LoggerFactory.getLogger(AssignmentMetadataStore.class);
+
   private static final String ASSIGNMENT_METADATA_KEY = "ASSIGNMENT_METADATA";
   private static final String BASELINE_TEMPLATE = "/%s/%s/BASELINE";
   private static final String BEST_POSSIBLE_TEMPLATE = "/%s/%s/BEST_POSSIBLE";
   private static final String BASELINE_KEY = "BASELINE";
   private static final String BEST_POSSIBLE_KEY = "BEST_POSSIBLE";
+  private static final String DELTA_SUFFIX = "_DELTA";
+  private static final String DELTA_LOG_METADATA_KEY = "DELTA_LOG_METADATA";
+  private static final String CHECKPOINT_ID_KEY = "CHECKPOINT_ID";
+  private static final String DELTA_SEQUENCE_KEY = "DELTA_SEQUENCE";
+  private static final String REMOVED_RESOURCES_KEY = "REMOVED_RESOURCES";
+  // Compact the delta log if it contains more resources than this ratio of the whole assignment.
+  static final float DELTA_COMPACTION_RATIO = 0.5f;
+  // Compact the delta log after this number of delta writes since the last checkpoint.
+  static final int MAX_DELTA_SEQUENCE = 100;
   private static final ZkSerializer SERIALIZER = new ZNRecordJacksonSerializer();
 
   private BucketDataAccessor _dataAccessor;
-  private String _baselinePath;
-  private String _bestPossiblePath;
+  private final AssignmentLog _baselineLog;
+  private final AssignmentLog _bestPossibleLog;
+  private boolean _deltaPersistEnabled = false;
   protected Map<String, ResourceAssignment> _globalBaseline;
   protected Map<String, ResourceAssignment> _bestPossibleAssignment;
 
@@ -57,21 +87,25 @@ public class AssignmentMetadataStore {
 
   protected AssignmentMetadataStore(BucketDataAccessor bucketDataAccessor, String clusterName) {
     _dataAccessor = bucketDataAccessor;
-    _baselinePath = String.format(BASELINE_TEMPLATE, clusterName, ASSIGNMENT_METADATA_KEY);
-    _bestPossiblePath = String.format(BEST_POSSIBLE_TEMPLATE, clusterName, ASSIGNMENT_METADATA_KEY);
+    _baselineLog = new AssignmentLog(BASELINE_KEY,
+        String.format(BASELINE_TEMPLATE, clusterName, ASSIGNMENT_METADATA_KEY));
+    _bestPossibleLog = new AssignmentLog(BEST_POSSIBLE_KEY,
+        String.format(BEST_POSSIBLE_TEMPLATE, clusterName, ASSIGNMENT_METADATA_KEY));
+  }
+
+  /**
+   * Enable or disable the delta persist mode. Note that the persisted assignments can be read no
+   * matter which mode is enabled.
+   * @param enabled true to persist the assignment changes as a delta log.
+   */
+  public synchronized void setDeltaPersistEnabled(boolean enabled) {
+    _deltaPersistEnabled = enabled;
   }
 
   public synchronized Map<String, ResourceAssignment> getBaseline() {
     // Return the in-memory baseline. If null, read from ZK. This is to minimize reads from ZK
     if (_globalBaseline == null) {
-      try {
-        HelixProperty baseline =
-            _dataAccessor.compressedBucketRead(_baselinePath, HelixProperty.class);
-        _globalBaseline = splitAssignments(baseline);
-      } catch (ZkNoNodeException ex) {
-        // Metadata does not exist, so return an empty map
-        _globalBaseline = new HashMap<>();
-      }
+      _globalBaseline = readAssignment(_baselineLog);
     }
     return _globalBaseline;
   }
@@ -79,14 +113,7 @@ public class AssignmentMetadataStore {
   public synchronized Map<String, ResourceAssignment> getBestPossibleAssignment() {
     // Return the in-memory baseline. If null, read from ZK. This is to minimize reads from ZK
     if (_bestPossibleAssignment == null) {
-      try {
-        HelixProperty baseline =
-            _dataAccessor.compressedBucketRead(_bestPossiblePath, HelixProperty.class);
-        _bestPossibleAssignment = splitAssignments(baseline);
-      } catch (ZkNoNodeException ex) {
-        // Metadata does not exist, so return an empty map
-        _bestPossibleAssignment = new HashMap<>();
-      }
+      _bestPossibleAssignment = readAssignment(_bestPossibleLog);
     }
     return _bestPossibleAssignment;
   }
@@ -96,7 +123,7 @@ public class AssignmentMetadataStore {
    * @throws HelixException if the method failed to persist the baseline.
    */
   public synchronized boolean persistBaseline(Map<String, ResourceAssignment> globalBaseline) {
-    return persistAssignment(globalBaseline, getBaseline(), _baselinePath, BASELINE_KEY);
+    return persistAssignment(globalBaseline, getBaseline(), _baselineLog);
   }
 
   /**
@@ -105,47 +132,133 @@ public class AssignmentMetadataStore {
    */
   public synchronized boolean persistBestPossibleAssignment(
       Map<String, ResourceAssignment> bestPossibleAssignment) {
-    return persistAssignment(bestPossibleAssignment, getBestPossibleAssignment(), _bestPossiblePath,
-        BEST_POSSIBLE_KEY);
+    return persistAssignment(bestPossibleAssignment, getBestPossibleAssignment(),
+        _bestPossibleLog);
   }
 
   public synchronized void clearAssignmentMetadata() {
-    persistAssignment(Collections.emptyMap(), getBaseline(), _baselinePath, BASELINE_KEY);
-    persistAssignment(Collections.emptyMap(), getBestPossibleAssignment(), _bestPossiblePath,
-        BEST_POSSIBLE_KEY);
+    persistAssignment(Collections.emptyMap(), getBaseline(), _baselineLog);
+    persistAssignment(Collections.emptyMap(), getBestPossibleAssignment(), _bestPossibleLog);
+  }
+
+  /**
+   * Read the checkpoint, and apply the delta log if it belongs to the checkpoint.
+   * @param log the assignment log to be read
+   * @return the assignment. Empty if the metadata does not exist.
+   */
+  private Map<String, ResourceAssignment> readAssignment(AssignmentLog log) {
+    HelixProperty checkpoint;
+    try {
+      checkpoint = _dataAccessor.compressedBucketRead(log._checkpointPath, HelixProperty.class);
+    } catch (ZkNoNodeException ex) {
+      // Metadata does not exist, so return an empty map
+      log.resetCheckpoint(null, Collections.emptyMap());
+      return new HashMap<>();
+    }
+    Map<String, ResourceAssignment> assignment = splitAssignments(checkpoint);
+    String checkpointId = getDeltaLogMetadata(checkpoint, CHECKPOINT_ID_KEY);
+    log.resetCheckpoint(checkpointId, assignment);
+    if (checkpointId != null) {
+      HelixProperty delta;
+      try {
+        delta = _dataAccessor.compressedBucketRead(log._deltaPath, HelixProperty.class);
+      } catch (ZkNoNodeException ex) {
+        // No change since the checkpoint
+        return assignment;
+      }
+      if (checkpointId.equals(getDeltaLogMetadata(delta, CHECKPOINT_ID_KEY))) {
+        assignment.putAll(splitAssignments(delta));
+        List<String> removedResources = delta.getRecord().getListField(REMOVED_RESOURCES_KEY);
+        if (removedResources != null) {
+          assignment.keySet().removeAll(removedResources);
+        }
+        log._deltaSequence =
+            Integer.parseInt(getDeltaLogMetadata(delta, DELTA_SEQUENCE_KEY));
+      } else {
+        LOG.info("Ignore the stale {} delta log that does not belong to the checkpoint {}.",
+            log._key, checkpointId);
+      }
+    }
+    return assignment;
   }
 
   /**
    * @param newAssignment
    * @param cachedAssignment
-   * @param path the path of the assignment record
-   * @param key  the key of the assignment in the record
+   * @param log the assignment log to be written
    * @return true if a new assignment was persisted.
    */
   // TODO: Enhance the return value so it is more intuitive to understand when the persist fails and
   // TODO: when it is skipped.
   private boolean persistAssignment(Map<String, ResourceAssignment> newAssignment,
-      Map<String, ResourceAssignment> cachedAssignment, String path,
-      String key) {
+      Map<String, ResourceAssignment> cachedAssignment, AssignmentLog log) {
     // TODO: Make the write async?
     // If the assignment hasn't changed, skip writing to metadata store
     if (compareAssignments(cachedAssignment, newAssignment)) {
       return false;
     }
     // Persist to ZK
-    HelixProperty combinedAssignments = combineAssignments(key, newAssignment);
+    if (_deltaPersistEnabled && log._checkpointId != null) {
+      Map<String, ResourceAssignment> changedAssignments = new HashMap<>();
+      newAssignment.forEach((resource, assignment) -> {
+        if (!Objects.equals(log._checkpoint.get(resource), assignment)) {
+          changedAssignments.put(resource, assignment);
+        }
+      });
+      Set<String> removedResources = new HashSet<>(log._checkpoint.keySet());
+      removedResources.removeAll(newAssignment.keySet());
+      if (!log.shouldCompact(changedAssignments.size() + removedResources.size(),
+          newAssignment.size())) {
+        writeDelta(log, changedAssignments, removedResources);
+        updateCache(cachedAssignment, newAssignment);
+        return true;
+      }
+    }
+    writeCheckpoint(log, newAssignment);
+    updateCache(cachedAssignment, newAssignment);
+    return true;
+  }
+
+  private void writeCheckpoint(AssignmentLog log, Map<String, ResourceAssignment> newAssignment) {
+    HelixProperty combinedAssignments = combineAssignments(log._key, newAssignment);
+    // Only a checkpoint with an ID can be extended by the delta log.
+    String checkpointId = _deltaPersistEnabled ? UUID.randomUUID().toString() : null;
+    if (checkpointId != null) {
+      combinedAssignments.getRecord().setMapField(DELTA_LOG_METADATA_KEY,
+          Collections.singletonMap(CHECKPOINT_ID_KEY, checkpointId));
+    }
+    write(log._checkpointPath, log._key, combinedAssignments);
+    log.resetCheckpoint(checkpointId, newAssignment);
+  }
+
+  private void writeDelta(AssignmentLog log, Map<String, ResourceAssignment> changedAssignments,
+      Set<String> removedResources) {
+    int deltaSequence = log._deltaSequence + 1;
+    HelixProperty delta = combineAssignments(log._key + DELTA_SUFFIX, changedAssignments);
+    delta.getRecord().setListField(REMOVED_RESOURCES_KEY, new ArrayList<>(removedResources));
+    Map<String, String> metadata = new HashMap<>();
+    metadata.put(CHECKPOINT_ID_KEY, log._checkpointId);
+    metadata.put(DELTA_SEQUENCE_KEY, Integer.toString(deltaSequence));
+    delta.getRecord().setMapField(DELTA_LOG_METADATA_KEY, metadata);
+    write(log._deltaPath, log._key, delta);
+    log._deltaSequence = deltaSequence;
+  }
+
+  private void write(String path, String key, HelixProperty property) {
     try {
-      _dataAccessor.compressedBucketWrite(path, combinedAssignments);
+      _dataAccessor.compressedBucketWrite(path, property);
     } catch (IOException e) {
       // TODO: Improve failure handling
       throw new HelixException(
           String.format("Failed to persist %s assignment to path %s", key, path), e);
     }
+  }
 
+  private void updateCache(Map<String, ResourceAssignment> cachedAssignment,
+      Map<String, ResourceAssignment> newAssignment) {
     // Update the in-memory reference
     cachedAssignment.clear();
     cachedAssignment.putAll(newAssignment);
-    return true;
   }
 
   protected synchronized void reset() {
@@ -200,6 +313,11 @@ public class AssignmentMetadataStore {
     return assignmentMap;
   }
 
+  private static String getDeltaLogMetadata(HelixProperty property, String key) {
+    Map<String, String> metadata = property.getRecord().getMapField(DELTA_LOG_METADATA_KEY);
+    return metadata == null ? null : metadata.get(key);
+  }
+
   /**
    * Returns whether two assignments are same.
    * @param oldAssignment
@@ -212,4 +330,41 @@ public class AssignmentMetadataStore {
     // the metadata store yet. In that case, we return false so that we write to metadata store.
     return oldAssignment != null && oldAssignment.equals(newAssignment);
   }
+
+  /**
+   * The persisted state of one type of assignment.
+   */
+  private static class AssignmentLog {
+    private final String _key;
+    private final String _checkpointPath;
+    private final String _deltaPath;
+    // The ID of the persisted checkpoint. Null if the checkpoint cannot be extended by deltas.
+    private String _checkpointId;
+    // The assignment in the persisted checkpoint
+    private Map<String, ResourceAssignment> _checkpoint = Collections.emptyMap();
+    // The number of the delta writes since the checkpoint
+    private int _deltaSequence;
+
+    AssignmentLog(String key, String checkpointPath) {
+      _key = key;
+      _checkpointPath = checkpointPath;
+      _deltaPath = checkpointPath + DELTA_SUFFIX;
+    }
+
+    void resetCheckpoint(String checkpointId, Map<String, ResourceAssignment> checkpoint) {
+      _checkpointId = checkpointId;
+      _checkpoint = new HashMap<>(checkpoint);
+      _deltaSequence = 0;
+    }
+
+    /**
+     * @param deltaSize the number of the resources in the delta log
+     * @param assignmentSize the number of the resources in the whole assignment
+     * @return true if the delta log should be compacted into a new checkpoint.
+     */
+    boolean shouldCompact(int deltaSize, int assignmentSize) {
+      return _deltaSequence >= MAX_DELTA_SEQUENCE
+          || deltaSize > assignmentSize * DELTA_COMPACTION_RATIO;
+    }
+  }
 }
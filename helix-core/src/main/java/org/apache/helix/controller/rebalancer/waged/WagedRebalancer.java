@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
@@ -48,6 +49,7 @@ import org.apache.helix.controller.rebalancer.util.DelayedRebalanceUtil;
 import org.apache.helix.controller.rebalancer.util.WagedValidationUtil;
 import org.apache.helix.controller.rebalancer.waged.constraints.ConstraintBasedAlgorithmFactory;
 import org.apache.helix.controller.rebalancer.waged.model.ClusterModel;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterModelPartitioner;
 import org.apache.helix.controller.rebalancer.waged.model.ClusterModelProvider;
 import org.apache.helix.controller.rebalancer.waged.model.OptimalAssignment;
 import org.apache.helix.controller.stages.CurrentStateOutput;
@@ -114,6 +116,10 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
   private final BaselineDivergenceGauge _baselineDivergenceGauge;
 
   private boolean _asyncGlobalRebalanceEnabled;
+  private volatile int _baselineParallelism =
+      ClusterConfig.DEFAULT_GLOBAL_REBALANCE_BASELINE_PARALLELISM;
+  // To calculate the independent parts of the baseline concurrently. Created on demand.
+  private ForkJoinPool _baselineCalculatePool;
 
   // Note, the rebalance algorithm field is mutable so it should not be directly referred except for
   // the public method computeNewIdealStates.
@@ -224,6 +230,18 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
     _asyncGlobalRebalanceEnabled = isAsyncGlobalRebalanceEnabled;
   }
 
+  // Update the max number of threads that are used to calculate the baseline.
+  public void setGlobalRebalanceBaselineParallelism(int baselineParallelism) {
+    _baselineParallelism = baselineParallelism;
+  }
+
+  // Update the assignment metadata store to persist the assignment changes as a delta log or not.
+  public void setAssignmentDeltaPersistEnabled(boolean isDeltaPersistEnabled) {
+    if (_assignmentMetadataStore != null) {
+      _assignmentMetadataStore.setDeltaPersistEnabled(isDeltaPersistEnabled);
+    }
+  }
+
   // Update the rebalancer preference if the new options are different from the current preference.
   public synchronized void updateRebalancePreference(
       Map<ClusterConfig.GlobalRebalancePreferenceKey, Integer> newPreference) {
@@ -249,6 +267,11 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
     if (_baselineCalculateExecutor != null) {
       _baselineCalculateExecutor.shutdownNow();
     }
+    synchronized (this) {
+      if (_baselineCalculatePool != null) {
+        _baselineCalculatePool.shutdownNow();
+      }
+    }
     if (_assignmentMetadataStore != null) {
       _assignmentMetadataStore.close();
     }
@@ -439,6 +462,7 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
       }
 
       final boolean waitForGlobalRebalance = !_asyncGlobalRebalanceEnabled;
+      final int baselineParallelism = _baselineParallelism;
       final String clusterName = clusterData.getClusterName();
       // Calculate the Baseline assignment for global rebalance.
       Future<Boolean> result = _baselineCalculateExecutor.submit(() -> {
@@ -447,7 +471,8 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
           // the planned partial rebalance in the current rebalance pipeline won't wait for the new
           // baseline being calculated.
           // So set shouldSchedulePartialRebalance to be !waitForGlobalRebalance
-          calculateAndUpdateBaseline(clusterModel, algorithm, !waitForGlobalRebalance, clusterName);
+          calculateAndUpdateBaseline(clusterModel, algorithm, baselineParallelism,
+              !waitForGlobalRebalance, clusterName);
         } catch (HelixRebalanceException e) {
           LOG.error("Failed to calculate baseline assignment!", e);
           return false;
@@ -472,20 +497,22 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
    * Calculate and update the Baseline assignment
    * @param clusterModel
    * @param algorithm
+   * @param parallelism  The max number of threads that are used in the calculation.
    * @param shouldSchedulePartialRebalance True if the call should trigger a following partial rebalance
    *                                   so the new Baseline could be applied to cluster.
    * @param clusterName
    * @throws HelixRebalanceException
    */
   private void calculateAndUpdateBaseline(ClusterModel clusterModel, RebalanceAlgorithm algorithm,
-      boolean shouldSchedulePartialRebalance, String clusterName)
+      int parallelism, boolean shouldSchedulePartialRebalance, String clusterName)
       throws HelixRebalanceException {
     LOG.info("Start calculating the new baseline.");
     _baselineCalcCounter.increment(1L);
     _baselineCalcLatency.startMeasuringLatency();
 
     boolean isBaselineChanged = false;
-    Map<String, ResourceAssignment> newBaseline = calculateAssignment(clusterModel, algorithm);
+    Map<String, ResourceAssignment> newBaseline =
+        calculateBaselineAssignment(clusterModel, algorithm, parallelism);
     // Write the new baseline to metadata store
     if (_assignmentMetadataStore != null) {
       try {
@@ -565,6 +592,64 @@ public class WagedRebalancer implements StatefulRebalancer<ResourceControllerDat
     return newAssignment;
   }
 
+  /**
+   * Calculate the baseline assignment. If the parallelism is larger than 1, the cluster model is
+   * split into the independent sub-models, which are calculated concurrently.
+   * @param clusterModel the cluster model that contains all the cluster status for the purpose of
+   *                     rebalancing.
+   * @param parallelism  the max number of threads that are used in the calculation.
+   * @return the new baseline assignment for the resources.
+   */
+  private Map<String, ResourceAssignment> calculateBaselineAssignment(ClusterModel clusterModel,
+      RebalanceAlgorithm algorithm, int parallelism) throws HelixRebalanceException {
+    if (parallelism <= 1) {
+      return calculateAssignment(clusterModel, algorithm);
+    }
+    List<ClusterModel> subModels = ClusterModelPartitioner.partition(clusterModel);
+    if (subModels.size() == 1) {
+      return calculateAssignment(subModels.get(0), algorithm);
+    }
+    LOG.info("Calculate the baseline in {} independent parts with parallelism {}.",
+        subModels.size(), parallelism);
+    ForkJoinPool pool = getBaselineCalculatePool(parallelism);
+    List<Future<Map<String, ResourceAssignment>>> results = new ArrayList<>(subModels.size());
+    for (ClusterModel subModel : subModels) {
+      results.add(pool.submit(() -> calculateAssignment(subModel, algorithm)));
+    }
+    // The sub-models never share a resource, so the results can be merged directly.
+    Map<String, ResourceAssignment> newAssignment = new HashMap<>();
+    try {
+      for (Future<Map<String, ResourceAssignment>> result : results) {
+        newAssignment.putAll(result.get());
+      }
+    } catch (ExecutionException e) {
+      results.forEach(result -> result.cancel(true));
+      if (e.getCause() instanceof HelixRebalanceException) {
+        throw (HelixRebalanceException) e.getCause();
+      }
+      throw new HelixRebalanceException("Failed to calculate the baseline assignment.",
+          HelixRebalanceException.Type.FAILED_TO_CALCULATE, e.getCause());
+    } catch (InterruptedException e) {
+      results.forEach(result -> result.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new HelixRebalanceException("Baseline calculation is interrupted.",
+          HelixRebalanceException.Type.FAILED_TO_CALCULATE, e);
+    }
+    return newAssignment;
+  }
+
+  // Get the pool for the baseline calculation. Re-create the pool if the parallelism is changed.
+  private synchronized ForkJoinPool getBaselineCalculatePool(int parallelism) {
+    if (_baselineCalculatePool == null || _baselineCalculatePool.getParallelism() != parallelism) {
+      if (_baselineCalculatePool != null) {
+        // The previous calculation has finished, so no task is running in the old pool.
+        _baselineCalculatePool.shutdown();
+      }
+      _baselineCalculatePool = new ForkJoinPool(parallelism);
+    }
+    return _baselineCalculatePool;
+  }
+
   /**
    * @param clusterModel the cluster model that contains all the cluster status for the purpose of
    *                     rebalancing.
@@ -0,0 +1,269 @@
+package org.apache.helix.controller.rebalancer.waged.constraints;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+
+/**
+ * The queue that decides which replica shall be placed next by the ConstraintBasedAlgorithm.
+ * The polling order is exactly the order defined by AssignableReplicaWithScore#compareTo, given
+ * that the scores are evaluated against the current overall cluster remaining capacity.
+ *
+ * Instead of re-scoring every pending replica after each placement, the queue relies on the
+ * following observations:
+ * 1. A replica's score only depends on its own capacity usage and the remaining capacity of the
+ * capacity keys that it uses. So the replicas which have the same priority attributes (best
+ * possible, baseline, state priority) and the same capacity usage always have the same score, and
+ * their relative order never changes. They are kept in one group sorted once.
+ * 2. A placement only changes the remaining capacity of the keys that the placed replica uses. So
+ * only the groups that use one of those keys need to be re-scored.
+ * The groups are kept in an indexed binary heap so a re-scored group can be re-positioned in place.
+ *
+ * Note that this class is not thread safe.
+ */
+class AssignableReplicaQueue {
+  // Capacity key -> the groups that have non-zero usage of the key.
+  private final Map<String, List<ReplicaGroup>> _groupsByCapacityKey = new HashMap<>();
+  // Capacity key -> total remaining capacity of the cluster.
+  private final Map<String, Integer> _overallClusterRemainingCapacity;
+  private final ReplicaGroup[] _heap;
+  private int _heapSize;
+  // Used to deduplicate the groups that are touched more than once during one re-scoring round.
+  private long _rescoreRound = 0;
+
+  /**
+   * @param replicas                        All the replicas to be placed.
+   * @param overallClusterRemainingCapacity The total remaining capacity of the cluster. The queue
+   *                                        takes the ownership of the map and updates it when
+   *                                        {@link #updateRemainingCapacity} is called.
+   */
+  AssignableReplicaQueue(Collection<AssignableReplicaWithScore> replicas,
+      Map<String, Integer> overallClusterRemainingCapacity) {
+    _overallClusterRemainingCapacity = overallClusterRemainingCapacity;
+
+    Map<List<Object>, ReplicaGroup> groups = new HashMap<>();
+    for (AssignableReplicaWithScore replica : replicas) {
+      groups.computeIfAbsent(getGroupKey(replica), key -> new ReplicaGroup()).add(replica);
+    }
+
+    _heap = new ReplicaGroup[groups.size()];
+    for (ReplicaGroup group : groups.values()) {
+      group.init(_overallClusterRemainingCapacity);
+      for (Map.Entry<String, Integer> capacity : group.head().getCapacity().entrySet()) {
+        if (capacity.getValue() != 0) {
+          _groupsByCapacityKey.computeIfAbsent(capacity.getKey(), key -> new ArrayList<>())
+              .add(group);
+        }
+      }
+      group._heapIndex = _heapSize;
+      _heap[_heapSize++] = group;
+    }
+    heapify();
+  }
+
+  boolean isEmpty() {
+    return _heapSize == 0;
+  }
+
+  /**
+   * Remove and return the replica that shall be placed next.
+   */
+  AssignableReplica poll() {
+    if (_heapSize == 0) {
+      return null;
+    }
+    ReplicaGroup group = _heap[0];
+    AssignableReplicaWithScore replica = group.poll();
+    if (group.isEmpty()) {
+      removeAt(0);
+    } else {
+      // The next replica in the group has the same score but a lower priority. Move the group
+      // toward the bottom of the heap if necessary.
+      group.head().computeScore(_overallClusterRemainingCapacity);
+      siftDown(0);
+    }
+    return replica.getAssignableReplica();
+  }
+
+  /**
+   * Update the overall cluster remaining capacity with the newly placed replica, then re-score the
+   * pending replicas that are impacted by the change.
+   */
+  void updateRemainingCapacity(AssignableReplica placedReplica) {
+    List<ReplicaGroup> impactedGroups = new ArrayList<>();
+    _rescoreRound++;
+    for (Map.Entry<String, Integer> resourceUsage : placedReplica.getCapacity().entrySet()) {
+      _overallClusterRemainingCapacity.put(resourceUsage.getKey(),
+          _overallClusterRemainingCapacity.get(resourceUsage.getKey()) - resourceUsage
+              .getValue());
+      if (resourceUsage.getValue() == 0) {
+        // The remaining capacity is not changed, so no score is impacted.
+        continue;
+      }
+      for (ReplicaGroup group : _groupsByCapacityKey
+          .getOrDefault(resourceUsage.getKey(), Collections.emptyList())) {
+        if (group._heapIndex >= 0 && group._rescoreRound != _rescoreRound) {
+          group._rescoreRound = _rescoreRound;
+          impactedGroups.add(group);
+        }
+      }
+    }
+
+    for (ReplicaGroup group : impactedGroups) {
+      group.head().computeScore(_overallClusterRemainingCapacity);
+    }
+    if (impactedGroups.size() * 2 > _heapSize) {
+      // Rebuilding the whole heap is cheaper than re-positioning the groups one by one.
+      heapify();
+    } else {
+      for (ReplicaGroup group : impactedGroups) {
+        if (!siftUp(group._heapIndex)) {
+          siftDown(group._heapIndex);
+        }
+      }
+    }
+  }
+
+  /**
+   * The replicas with the same key are guaranteed to have the same score during the calculation.
+   * Note that the capacity entries are compared in the iteration order, so the float sum in the
+   * score calculation is evaluated in exactly the same way for all the replicas in the group.
+   */
+  private static List<Object> getGroupKey(AssignableReplicaWithScore replica) {
+    return Arrays.asList(replica.isInBestPossibleAssignment(), replica.isInBaselineAssignment(),
+        replica.getAssignableReplica().getStatePriority(),
+        new ArrayList<>(replica.getCapacity().entrySet()));
+  }
+
+  private void heapify() {
+    for (int i = (_heapSize >>> 1) - 1; i >= 0; i--) {
+      siftDown(i);
+    }
+  }
+
+  private void removeAt(int index) {
+    ReplicaGroup removed = _heap[index];
+    removed._heapIndex = -1;
+    _heapSize--;
+    if (index == _heapSize) {
+      _heap[_heapSize] = null;
+      return;
+    }
+    ReplicaGroup last = _heap[_heapSize];
+    _heap[_heapSize] = null;
+    place(last, index);
+    if (!siftUp(index)) {
+      siftDown(index);
+    }
+  }
+
+  /**
+   * @return true if the group at the index has been moved.
+   */
+  private boolean siftUp(int index) {
+    ReplicaGroup group = _heap[index];
+    int current = index;
+    while (current > 0) {
+      int parent = (current - 1) >>> 1;
+      if (group.compareTo(_heap[parent]) >= 0) {
+        break;
+      }
+      place(_heap[parent], current);
+      current = parent;
+    }
+    place(group, current);
+    return current != index;
+  }
+
+  private void siftDown(int index) {
+    ReplicaGroup group = _heap[index];
+    int current = index;
+    int half = _heapSize >>> 1;
+    while (current < half) {
+      int child = (current << 1) + 1;
+      int right = child + 1;
+      if (right < _heapSize && _heap[right].compareTo(_heap[child]) < 0) {
+        child = right;
+      }
+      if (group.compareTo(_heap[child]) <= 0) {
+        break;
+      }
+      place(_heap[child], current);
+      current = child;
+    }
+    place(group, current);
+  }
+
+  private void place(ReplicaGroup group, int index) {
+    _heap[index] = group;
+    group._heapIndex = index;
+  }
+
+  /**
+   * The replicas that are always evaluated with the same score. They are sorted once in the
+   * order of AssignableReplicaWithScore#compareTo, and the group is represented by its head.
+   */
+  private static class ReplicaGroup implements Comparable<ReplicaGroup> {
+    private final List<AssignableReplicaWithScore> _replicas = new ArrayList<>();
+    private int _next = 0;
+    private int _heapIndex = -1;
+    private long _rescoreRound = -1;
+
+    void add(AssignableReplicaWithScore replica) {
+      _replicas.add(replica);
+    }
+
+    void init(Map<String, Integer> overallClusterRemainingCapacity) {
+      // All the replicas in the group have the same score, so they are sorted by the hash and name.
+      for (AssignableReplicaWithScore replica : _replicas) {
+        replica.computeScore(overallClusterRemainingCapacity);
+      }
+      Collections.sort(_replicas);
+    }
+
+    AssignableReplicaWithScore head() {
+      return _replicas.get(_next);
+    }
+
+    AssignableReplicaWithScore poll() {
+      AssignableReplicaWithScore replica = _replicas.get(_next);
+      // Release the reference so the placed replica is not held by the queue.
+      _replicas.set(_next++, null);
+      return replica;
+    }
+
+    boolean isEmpty() {
+      return _next >= _replicas.size();
+    }
+
+    @Override
+    public int compareTo(ReplicaGroup group) {
+      return head().compareTo(group.head());
+    }
+  }
+}
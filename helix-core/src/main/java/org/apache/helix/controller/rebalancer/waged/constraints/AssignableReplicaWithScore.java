@@ -0,0 +1,154 @@
+package org.apache.helix.controller.rebalancer.waged.constraints;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Map;
+
+import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterModel;
+
+/**
+ * A wrapper of the AssignableReplica that carries the information used to decide the order in
+ * which the replicas are placed by the ConstraintBasedAlgorithm.
+ */
+class AssignableReplicaWithScore implements Comparable<AssignableReplicaWithScore> {
+  private final AssignableReplica _replica;
+  private final Map<String, Integer> _capacity;
+  private float _score = 0;
+  private final boolean _isInBestPossibleAssignment;
+  private final boolean _isInBaselineAssignment;
+  private final Integer _replicaHash;
+
+  AssignableReplicaWithScore(AssignableReplica replica, ClusterModel clusterModel) {
+    this(replica, clusterModel, clusterModel.getAssignableNodes().keySet().hashCode());
+  }
+
+  /**
+   * @param replica           The replica to be wrapped.
+   * @param clusterModel      The cluster model that the replica belongs to.
+   * @param instanceNamesHash The hash code of the assignable instance name set. It is the same for
+   *                          all the replicas in one cluster model, so the caller may compute it
+   *                          once instead of hashing all the instance names for every replica.
+   */
+  AssignableReplicaWithScore(AssignableReplica replica, ClusterModel clusterModel,
+      int instanceNamesHash) {
+    _replica = replica;
+    _capacity = replica.getCapacity();
+    _isInBestPossibleAssignment = clusterModel.getContext().getBestPossibleAssignment()
+        .containsKey(replica.getResourceName());
+    _isInBaselineAssignment =
+        clusterModel.getContext().getBaselineAssignment().containsKey(replica.getResourceName());
+    // Equivalent to Objects.hash(replica.toString(), assignableNodes.keySet()).
+    _replicaHash = 31 * (31 + replica.toString().hashCode()) + instanceNamesHash;
+  }
+
+  public void computeScore(Map<String, Integer> overallClusterRemainingCapMap) {
+    float score = 0;
+    // score = SUM(weight * (resource_capacity/cluster_capacity) where weight = 1/(1-total_util%)
+    // it could be be simplified to "resource_capacity/cluster_remainingCapacity".
+    for (Map.Entry<String, Integer> resourceCapacity : _capacity.entrySet()) {
+      if (resourceCapacity.getValue() == 0) {
+        continue;
+      }
+      score = (overallClusterRemainingCapMap.get(resourceCapacity.getKey()) == 0
+          || resourceCapacity.getValue() > (overallClusterRemainingCapMap
+          .get(resourceCapacity.getKey()))) ? Float.MAX_VALUE
+          : score + (float) resourceCapacity.getValue() / (overallClusterRemainingCapMap
+              .get(resourceCapacity.getKey()));
+      if (Float.compare(score, Float.MAX_VALUE) == 0) {
+        break;
+      }
+    }
+    _score = score;
+  }
+
+  public AssignableReplica getAssignableReplica() {
+    return _replica;
+  }
+
+  /**
+   * @return The capacity usage of the replica, which is the only input of the score calculation.
+   */
+  Map<String, Integer> getCapacity() {
+    return _capacity;
+  }
+
+  boolean isInBestPossibleAssignment() {
+    return _isInBestPossibleAssignment;
+  }
+
+  boolean isInBaselineAssignment() {
+    return _isInBaselineAssignment;
+  }
+
+  @Override
+  public String toString() {
+    return _replica.toString();
+  }
+
+  @Override
+  public int compareTo(AssignableReplicaWithScore replica2) {
+    // 1. Sort according if the assignment exists in the best possible and/or baseline assignment
+    if (_isInBestPossibleAssignment != replica2._isInBestPossibleAssignment) {
+      // If the best possible assignment contains only one replica's assignment,
+      // prioritize the replica.
+      return _isInBestPossibleAssignment ? -1 : 1;
+    }
+
+    if (_isInBaselineAssignment != replica2._isInBaselineAssignment) {
+      // If the baseline assignment contains only one replica's assignment, prioritize the replica.
+      return _isInBaselineAssignment ? -1 : 1;
+    }
+
+    // 2. Sort according to the state priority. Or the greedy algorithm will unnecessarily shuffle
+    // the states between replicas.
+    int statePriority1 = _replica.getStatePriority();
+    int statePriority2 = replica2._replica.getStatePriority();
+    if (statePriority1 != statePriority2) {
+      // Note we shall prioritize the replica with a higher state priority,
+      // the smaller priority number means higher priority.
+      return statePriority1 - statePriority2;
+    }
+
+    // 3. Sort according to the replica impact based on the weight.
+    // So the greedy algorithm will place the replicas with larger impact first.
+    int result = Float.compare(replica2._score, _score);
+    if (result != 0) {
+      return result;
+    }
+
+    // 4. Sort according to the resource/partition name.
+    // If none of the above conditions is making a difference, try to randomize the replicas
+    // order.
+    // Otherwise, the same replicas might always be moved in each rebalancing. This is because
+    // their placement calculating will always happen at the critical moment while the cluster is
+    // almost close to the expected utilization.
+    //
+    // Note that to ensure the algorithm is deterministic with the same inputs, do not use
+    // Random functions here. Use hashcode based on the cluster topology information to get
+    // a controlled randomized order is good enough.
+    if (!_replicaHash.equals(replica2._replicaHash)) {
+      return _replicaHash.compareTo(replica2._replicaHash);
+    } else {
+      // In case of hash collision, return order according to the name.
+      return _replica.toString().compareTo(replica2.toString());
+    }
+  }
+}
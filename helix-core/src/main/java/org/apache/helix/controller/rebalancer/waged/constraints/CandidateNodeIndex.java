@@ -0,0 +1,193 @@
+package org.apache.helix.controller.rebalancer.waged.constraints;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.helix.controller.rebalancer.waged.model.AssignableNode;
+import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
+
+/**
+ * The index that pre-filters the candidate nodes of a replica by the hard constraints that can be
+ * resolved with lookups, so only the surviving nodes need to be evaluated by all the hard
+ * constraints. The nodes are identified by their ordinals in the node list, and the lookups are
+ * done with bitsets over the ordinals.
+ * - ValidGroupTagConstraint: the nodes that have the instance group tag.
+ * - SamePartitionOnInstanceConstraint: the nodes that have been assigned with the partition.
+ * - FaultZoneAwareConstraint: the nodes in the fault zones that contain the partition.
+ * - NodeMaxPartitionLimitConstraint: the nodes that have reached the partition count limits.
+ * A pruning rule is enabled only if the corresponding constraint is in use. The pruning never
+ * filters out a valid node, so the result is the same as evaluating all the nodes.
+ *
+ * Note that the index must be notified of every assignment that is made during the calculation.
+ * This class is not thread safe.
+ */
+class CandidateNodeIndex {
+  private final List<AssignableNode> _nodes;
+  private final Map<AssignableNode, Integer> _nodeOrdinals = new IdentityHashMap<>();
+  private final BitSet _allNodes = new BitSet();
+
+  private final boolean _pruneByTag;
+  private final boolean _pruneBySamePartition;
+  private final boolean _pruneByFaultZone;
+  private final boolean _pruneByPartitionLimit;
+
+  // <instance group tag, nodes with the tag>
+  private final Map<String, BitSet> _tagNodes = new HashMap<>();
+  // <fault zone, nodes in the zone>
+  private final Map<String, BitSet> _faultZoneNodes = new HashMap<>();
+  // <resource, <partition, nodes that have been assigned with the partition>>
+  private final Map<String, Map<String, BitSet>> _partitionNodes = new HashMap<>();
+  // The nodes that have reached the max partition count of the node.
+  private final BitSet _fullNodes = new BitSet();
+  // <resource, nodes that have reached the max partition count of the resource>
+  private final Map<String, BitSet> _resourceFullNodes = new HashMap<>();
+
+  /**
+   * @param nodes           All the assignable nodes. The list must not be changed afterward.
+   * @param hardConstraints The hard constraints that are used in the calculation.
+   */
+  CandidateNodeIndex(List<AssignableNode> nodes, Collection<HardConstraint> hardConstraints) {
+    _nodes = nodes;
+    _pruneByTag = containsConstraint(hardConstraints, ValidGroupTagConstraint.class);
+    _pruneBySamePartition =
+        containsConstraint(hardConstraints, SamePartitionOnInstanceConstraint.class);
+    _pruneByFaultZone = containsConstraint(hardConstraints, FaultZoneAwareConstraint.class);
+    _pruneByPartitionLimit =
+        containsConstraint(hardConstraints, NodeMaxPartitionLimitConstraint.class);
+
+    for (int ordinal = 0; ordinal < nodes.size(); ordinal++) {
+      AssignableNode node = nodes.get(ordinal);
+      _nodeOrdinals.put(node, ordinal);
+      _allNodes.set(ordinal);
+      for (String tag : node.getInstanceTags()) {
+        _tagNodes.computeIfAbsent(tag, key -> new BitSet()).set(ordinal);
+      }
+      if (node.hasFaultZone()) {
+        _faultZoneNodes.computeIfAbsent(node.getFaultZone(), key -> new BitSet()).set(ordinal);
+      }
+      if (_pruneBySamePartition) {
+        for (Map.Entry<String, Set<String>> resourceEntry : node.getAssignedPartitionsMap()
+            .entrySet()) {
+          for (String partition : resourceEntry.getValue()) {
+            getPartitionNodes(resourceEntry.getKey(), partition).set(ordinal);
+          }
+        }
+      }
+      if (_pruneByPartitionLimit && isNodeFull(node)) {
+        _fullNodes.set(ordinal);
+      }
+    }
+  }
+
+  /**
+   * @return The nodes that might be valid for the replica. The returned nodes still need to be
+   *         evaluated by all the hard constraints.
+   */
+  List<AssignableNode> getCandidateNodes(AssignableReplica replica,
+      ClusterContext clusterContext) {
+    BitSet candidates = (BitSet) _allNodes.clone();
+    if (_pruneByTag && replica.hasResourceInstanceGroupTag()) {
+      BitSet taggedNodes = _tagNodes.get(replica.getResourceInstanceGroupTag());
+      if (taggedNodes == null) {
+        return new ArrayList<>();
+      }
+      candidates.and(taggedNodes);
+    }
+    if (_pruneBySamePartition) {
+      BitSet assignedNodes = _partitionNodes
+          .getOrDefault(replica.getResourceName(), Collections.emptyMap())
+          .get(replica.getPartitionName());
+      if (assignedNodes != null) {
+        candidates.andNot(assignedNodes);
+      }
+    }
+    if (_pruneByFaultZone) {
+      for (Map.Entry<String, BitSet> faultZoneEntry : _faultZoneNodes.entrySet()) {
+        if (clusterContext
+            .getPartitionsForResourceAndFaultZone(replica.getResourceName(),
+                faultZoneEntry.getKey()).contains(replica.getPartitionName())) {
+          candidates.andNot(faultZoneEntry.getValue());
+        }
+      }
+    }
+    if (_pruneByPartitionLimit) {
+      candidates.andNot(_fullNodes);
+      BitSet resourceFullNodes = _resourceFullNodes.get(replica.getResourceName());
+      if (resourceFullNodes != null) {
+        candidates.andNot(resourceFullNodes);
+      }
+    }
+
+    List<AssignableNode> candidateNodes = new ArrayList<>(candidates.cardinality());
+    for (int ordinal = candidates.nextSetBit(0); ordinal >= 0;
+        ordinal = candidates.nextSetBit(ordinal + 1)) {
+      candidateNodes.add(_nodes.get(ordinal));
+    }
+    return candidateNodes;
+  }
+
+  /**
+   * Update the index after the replica has been assigned to the node.
+   */
+  void recordAssignment(AssignableReplica replica, AssignableNode node) {
+    int ordinal = _nodeOrdinals.get(node);
+    if (_pruneBySamePartition) {
+      getPartitionNodes(replica.getResourceName(), replica.getPartitionName()).set(ordinal);
+    }
+    if (_pruneByPartitionLimit) {
+      if (isNodeFull(node)) {
+        _fullNodes.set(ordinal);
+      }
+      int resourceLimit = replica.getResourceMaxPartitionsPerInstance();
+      if (resourceLimit >= 0
+          && node.getAssignedPartitionsByResource(replica.getResourceName()).size()
+          >= resourceLimit) {
+        _resourceFullNodes.computeIfAbsent(replica.getResourceName(), key -> new BitSet())
+            .set(ordinal);
+      }
+    }
+  }
+
+  private BitSet getPartitionNodes(String resource, String partition) {
+    return _partitionNodes.computeIfAbsent(resource, key -> new HashMap<>())
+        .computeIfAbsent(partition, key -> new BitSet());
+  }
+
+  // The same condition as the node level check in NodeMaxPartitionLimitConstraint.
+  private static boolean isNodeFull(AssignableNode node) {
+    return node.getMaxPartition() >= 0
+        && node.getAssignedReplicaCount() >= node.getMaxPartition();
+  }
+
+  private static boolean containsConstraint(Collection<HardConstraint> hardConstraints,
+      Class<? extends HardConstraint> constraintClass) {
+    return hardConstraints.stream().anyMatch(constraintClass::isInstance);
+  }
+}
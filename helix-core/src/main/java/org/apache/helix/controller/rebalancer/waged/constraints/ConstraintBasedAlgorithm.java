@@ -24,7 +24,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -75,18 +74,22 @@ class ConstraintBasedAlgorithm implements RebalanceAlgorithm {
         computeOverallClusterRemainingCapacity(nodes);
 
     // Create a wrapper for each AssignableReplica.
-    Set<AssignableReplicaWithScore> toBeAssignedReplicas =
+    int instanceNamesHash = clusterModel.getAssignableNodes().keySet().hashCode();
+    List<AssignableReplicaWithScore> toBeAssignedReplicas =
         clusterModel.getAssignableReplicaMap().values().stream()
             .flatMap(replicas -> replicas.stream())
-            .map(replica -> new AssignableReplicaWithScore(replica, clusterModel))
-            .collect(Collectors.toSet());
-
-    while (!toBeAssignedReplicas.isEmpty()) {
-      AssignableReplica replica =
-          getNextAssignableReplica(toBeAssignedReplicas, overallClusterRemainingCapacityMap);
+            .map(replica -> new AssignableReplicaWithScore(replica, clusterModel,
+                instanceNamesHash))
+            .collect(Collectors.toList());
+    AssignableReplicaQueue replicaQueue =
+        new AssignableReplicaQueue(toBeAssignedReplicas, overallClusterRemainingCapacityMap);
+    CandidateNodeIndex candidateNodeIndex = new CandidateNodeIndex(nodes, _hardConstraints);
+
+    while (!replicaQueue.isEmpty()) {
+      AssignableReplica replica = replicaQueue.poll();
       Optional<AssignableNode> maybeBestNode =
-          getNodeWithHighestPoints(replica, nodes, clusterModel.getContext(), busyInstances,
-              optimalAssignment);
+          getNodeWithHighestPoints(replica, nodes, candidateNodeIndex, clusterModel.getContext(),
+              busyInstances, optimalAssignment);
       // stop immediately if any replica cannot find best assignable node
       if (!maybeBestNode.isPresent() || optimalAssignment.hasAnyFailure()) {
         String errorMessage = String.format(
@@ -100,33 +103,29 @@ class ConstraintBasedAlgorithm implements RebalanceAlgorithm {
       clusterModel
           .assign(replica.getResourceName(), replica.getPartitionName(), replica.getReplicaState(),
               bestNode.getInstanceName());
-      updateOverallClusterRemainingCapacity(overallClusterRemainingCapacityMap, replica);
+      candidateNodeIndex.recordAssignment(replica, bestNode);
+      replicaQueue.updateRemainingCapacity(replica);
     }
     optimalAssignment.updateAssignments(clusterModel);
     return optimalAssignment;
   }
 
   private Optional<AssignableNode> getNodeWithHighestPoints(AssignableReplica replica,
-      List<AssignableNode> assignableNodes, ClusterContext clusterContext,
-      Set<String> busyInstances, OptimalAssignment optimalAssignment) {
-    Map<AssignableNode, List<HardConstraint>> hardConstraintFailures = new ConcurrentHashMap<>();
-    List<AssignableNode> candidateNodes = assignableNodes.parallelStream().filter(candidateNode -> {
-      boolean isValid = true;
-      // need to record all the failure reasons and it gives us the ability to debug/fix the runtime
-      // cluster environment
-      for (HardConstraint hardConstraint : _hardConstraints) {
-        if (!hardConstraint.isAssignmentValid(candidateNode, replica, clusterContext)) {
-          hardConstraintFailures.computeIfAbsent(candidateNode, node -> new ArrayList<>())
-              .add(hardConstraint);
-          isValid = false;
-        }
-      }
-      return isValid;
-    }).collect(Collectors.toList());
+      List<AssignableNode> assignableNodes, CandidateNodeIndex candidateNodeIndex,
+      ClusterContext clusterContext, Set<String> busyInstances,
+      OptimalAssignment optimalAssignment) {
+    // Only evaluate the nodes that survive the index lookups.
+    List<AssignableNode> candidateNodes =
+        candidateNodeIndex.getCandidateNodes(replica, clusterContext).parallelStream()
+            .filter(candidateNode -> _hardConstraints.stream().allMatch(
+                hardConstraint -> hardConstraint
+                    .isAssignmentValid(candidateNode, replica, clusterContext)))
+            .collect(Collectors.toList());
 
     if (candidateNodes.isEmpty()) {
-      optimalAssignment.recordAssignmentFailure(replica,
-          Maps.transformValues(hardConstraintFailures, this::convertFailureReasons));
+      optimalAssignment.recordAssignmentFailure(replica, Maps
+          .transformValues(getHardConstraintFailures(replica, assignableNodes, clusterContext),
+              this::convertFailureReasons));
       return Optional.empty();
     }
 
@@ -149,6 +148,26 @@ class ConstraintBasedAlgorithm implements RebalanceAlgorithm {
         }).map(Map.Entry::getKey);
   }
 
+  /**
+   * Evaluate all the hard constraints on all the nodes to find the failure reasons.
+   * Note this is only called when no valid node can be found. It records all the failure reasons
+   * so it gives us the ability to debug/fix the runtime cluster environment.
+   */
+  private Map<AssignableNode, List<HardConstraint>> getHardConstraintFailures(
+      AssignableReplica replica, List<AssignableNode> assignableNodes,
+      ClusterContext clusterContext) {
+    Map<AssignableNode, List<HardConstraint>> hardConstraintFailures = new ConcurrentHashMap<>();
+    assignableNodes.parallelStream().forEach(candidateNode -> {
+      for (HardConstraint hardConstraint : _hardConstraints) {
+        if (!hardConstraint.isAssignmentValid(candidateNode, replica, clusterContext)) {
+          hardConstraintFailures.computeIfAbsent(candidateNode, node -> new ArrayList<>())
+              .add(hardConstraint);
+        }
+      }
+    });
+    return hardConstraintFailures;
+  }
+
   private double getAssignmentNormalizedScore(AssignableNode node, AssignableReplica replica,
       ClusterContext clusterContext) {
     double sum = 0;
@@ -171,138 +190,16 @@ class ConstraintBasedAlgorithm implements RebalanceAlgorithm {
   private Map<String, Integer> computeOverallClusterRemainingCapacity(List<AssignableNode> nodes) {
     Map<String, Integer> utilizationMap = new HashMap<>();
     for (AssignableNode node : nodes) {
+      Map<String, Integer> remainingCapacity = node.getRemainingCapacity();
       for (String capacityKey : node.getMaxCapacity().keySet()) {
         utilizationMap.compute(capacityKey,
-            (k, v) -> v == null ? node.getRemainingCapacity().get(capacityKey)
-                : v + node.getRemainingCapacity().get(capacityKey));
+            (k, v) -> v == null ? remainingCapacity.get(capacityKey)
+                : v + remainingCapacity.get(capacityKey));
       }
     }
     return utilizationMap;
   }
 
-  /**
-   * Update the overallClusterUtilMap with newly placed replica
-   */
-  private void updateOverallClusterRemainingCapacity(
-      Map<String, Integer> overallClusterRemainingCapacityMap, AssignableReplica replica) {
-    for (Map.Entry<String, Integer> resourceUsage : replica.getCapacity().entrySet()) {
-      overallClusterRemainingCapacityMap.put(resourceUsage.getKey(),
-          overallClusterRemainingCapacityMap.get(resourceUsage.getKey()) - resourceUsage
-              .getValue());
-    }
-  }
-
-  private class AssignableReplicaWithScore implements Comparable<AssignableReplicaWithScore> {
-    private final AssignableReplica _replica;
-    private float _score = 0;
-    private final boolean _isInBestPossibleAssignment;
-    private final boolean _isInBaselineAssignment;
-    private final Integer  _replicaHash;
-
-    AssignableReplicaWithScore(AssignableReplica replica, ClusterModel clusterModel) {
-      _replica = replica;
-      _isInBestPossibleAssignment = clusterModel.getContext().getBestPossibleAssignment()
-          .containsKey(replica.getResourceName());
-      _isInBaselineAssignment =
-          clusterModel.getContext().getBaselineAssignment().containsKey(replica.getResourceName());
-      _replicaHash = Objects.hash(replica.toString(), clusterModel.getAssignableNodes().keySet());
-    }
-
-    public void computeScore(Map<String, Integer> overallClusterRemainingCapMap) {
-      float score = 0;
-      // score = SUM(weight * (resource_capacity/cluster_capacity) where weight = 1/(1-total_util%)
-      // it could be be simplified to "resource_capacity/cluster_remainingCapacity".
-      for (Map.Entry<String, Integer> resourceCapacity : _replica.getCapacity().entrySet()) {
-        if (resourceCapacity.getValue() == 0) {
-          continue;
-        }
-        score = (overallClusterRemainingCapMap.get(resourceCapacity.getKey()) == 0
-            || resourceCapacity.getValue() > (overallClusterRemainingCapMap
-            .get(resourceCapacity.getKey()))) ? Float.MAX_VALUE
-            : score + (float) resourceCapacity.getValue() / (overallClusterRemainingCapMap
-                .get(resourceCapacity.getKey()));
-        if (Float.compare(score, Float.MAX_VALUE) == 0) {
-          break;
-        }
-      }
-      _score = score;
-    }
-
-    public AssignableReplica getAssignableReplica() {
-      return _replica;
-    }
-
-
-    @Override
-    public String toString() {
-      return _replica.toString();
-    }
-
-    @Override
-    public int compareTo(AssignableReplicaWithScore replica2) {
-      // 1. Sort according if the assignment exists in the best possible and/or baseline assignment
-      if (_isInBestPossibleAssignment != replica2._isInBestPossibleAssignment) {
-        // If the best possible assignment contains only one replica's assignment,
-        // prioritize the replica.
-        return _isInBestPossibleAssignment ? -1 : 1;
-      }
-
-      if (_isInBaselineAssignment != replica2._isInBaselineAssignment) {
-        // If the baseline assignment contains only one replica's assignment, prioritize the replica.
-        return _isInBaselineAssignment ? -1 : 1;
-      }
-
-      // 2. Sort according to the state priority. Or the greedy algorithm will unnecessarily shuffle
-      // the states between replicas.
-      int statePriority1 = _replica.getStatePriority();
-      int statePriority2 = replica2._replica.getStatePriority();
-      if (statePriority1 != statePriority2) {
-        // Note we shall prioritize the replica with a higher state priority,
-        // the smaller priority number means higher priority.
-        return statePriority1 - statePriority2;
-      }
-
-      // 3. Sort according to the replica impact based on the weight.
-      // So the greedy algorithm will place the replicas with larger impact first.
-      int result = Float.compare(replica2._score, _score);
-      if (result != 0) {
-        return result;
-      }
-
-      // 4. Sort according to the resource/partition name.
-      // If none of the above conditions is making a difference, try to randomize the replicas
-      // order.
-      // Otherwise, the same replicas might always be moved in each rebalancing. This is because
-      // their placement calculating will always happen at the critical moment while the cluster is
-      // almost close to the expected utilization.
-      //
-      // Note that to ensure the algorithm is deterministic with the same inputs, do not use
-      // Random functions here. Use hashcode based on the cluster topology information to get
-      // a controlled randomized order is good enough.
-      if (!_replicaHash.equals(replica2._replicaHash)) {
-        return _replicaHash.compareTo(replica2._replicaHash);
-      } else {
-        // In case of hash collision, return order according to the name.
-        return _replica.toString().compareTo(replica2.toString());
-      }
-    }
-  }
-
-  private AssignableReplica getNextAssignableReplica(
-      Set<AssignableReplicaWithScore> allReplica,
-      Map<String, Integer> overallClusterRemainingCapMap) {
-    AssignableReplicaWithScore nextAssinableReplica = null;
-    // Compare every replica with current candidate, update candidate if needed
-    for (AssignableReplicaWithScore replica : allReplica) {
-      replica.computeScore(overallClusterRemainingCapMap);
-      if (nextAssinableReplica == null || replica.compareTo(nextAssinableReplica) < 0) {
-        nextAssinableReplica = replica;
-      }
-    }
-    allReplica.remove(nextAssinableReplica);
-    return nextAssinableReplica.getAssignableReplica();
-  }
-
   /**
    * @param assignments A collection of resource replicas assignment.
    * @return A set of instance names that have at least one replica assigned in the input assignments.
@@ -37,7 +37,8 @@ class MaxCapacityUsageInstanceConstraint extends UsageSoftConstraint {
       ClusterContext clusterContext) {
     float estimatedMaxUtilization = clusterContext.getEstimatedMaxUtilization();
     float projectedHighestUtilization =
-        node.getGeneralProjectedHighestUtilization(replica.getCapacity());
+        node.getGeneralProjectedHighestUtilization(
+            replica.getCapacity(node.getCapacityKeyIndex()));
     return computeUtilizationScore(estimatedMaxUtilization, projectedHighestUtilization);
   }
 }
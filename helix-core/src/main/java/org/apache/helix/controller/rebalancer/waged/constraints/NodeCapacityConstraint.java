@@ -19,8 +19,6 @@ package org.apache.helix.controller.rebalancer.waged.constraints;
  * under the License.
  */
 
-import java.util.Map;
-
 import org.apache.helix.controller.rebalancer.waged.model.AssignableNode;
 import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
 import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
@@ -30,14 +28,10 @@ class NodeCapacityConstraint extends HardConstraint {
   @Override
   boolean isAssignmentValid(AssignableNode node, AssignableReplica replica,
       ClusterContext clusterContext) {
-    Map<String, Integer> nodeCapacity = node.getRemainingCapacity();
-    Map<String, Integer> replicaCapacity = replica.getCapacity();
-
-    for (String key : replicaCapacity.keySet()) {
-      if (nodeCapacity.containsKey(key)) {
-        if (nodeCapacity.get(key) < replicaCapacity.get(key)) {
-          return false;
-        }
+    int[] replicaCapacity = replica.getCapacity(node.getCapacityKeyIndex());
+    for (int i = 0; i < replicaCapacity.length; i++) {
+      if (node.getRemainingCapacity(i) < replicaCapacity[i]) {
+        return false;
       }
     }
     return true;
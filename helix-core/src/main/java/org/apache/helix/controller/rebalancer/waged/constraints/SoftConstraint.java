@@ -32,6 +32,7 @@ import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
 abstract class SoftConstraint {
   private final double _maxScore;
   private final double _minScore;
+  private final NormalizeFunction _minMaxScaler;
 
   interface NormalizeFunction {
     /**
@@ -51,6 +52,7 @@ abstract class SoftConstraint {
   SoftConstraint(double maxScore, double minScore) {
     _maxScore = maxScore;
     _minScore = minScore;
+    _minMaxScaler = (score) -> (score - getMinScore()) / (getMaxScore() - getMinScore());
   }
 
   protected double getMaxScore() {
@@ -85,6 +87,6 @@ abstract class SoftConstraint {
    * @return The MinMaxScaler instance by default
    */
   protected NormalizeFunction getNormalizeFunction() {
-    return (score) -> (score - getMinScore()) / (getMaxScore() - getMinScore());
+    return _minMaxScaler;
   }
 }
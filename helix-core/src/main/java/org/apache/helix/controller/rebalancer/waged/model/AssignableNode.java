@@ -54,15 +54,18 @@ public class AssignableNode implements Comparable<AssignableNode> {
   private final int _maxPartition;
   private final ImmutableSet<String> _instanceTags;
   private final ImmutableMap<String, List<String>> _disabledPartitionsMap;
-  private final ImmutableMap<String, Integer> _maxAllowedCapacity;
+  private final ImmutableMap<String, Integer> _maxAllowedCapacityMap;
+  // The capacity arrays are indexed by the capacity key index.
+  private final CapacityKeyIndex _capacityKeyIndex;
+  private final int[] _maxAllowedCapacity;
 
   // Mutable (Dynamic) Instance Properties
   // A map of <resource name, <partition name, replica>> that tracks the replicas assigned to the
   // node.
   private Map<String, Map<String, AssignableReplica>> _currentAssignedReplicaMap;
-  // A map of <capacity key, capacity value> that tracks the current available node capacity
-  private Map<String, Integer> _remainingCapacity;
-  private Map<String, Integer> _remainingTopStateCapacity;
+  // The arrays that track the current available node capacity of each capacity key
+  private final int[] _remainingCapacity;
+  private final int[] _remainingTopStateCapacity;
 
   /**
    * Update the node with a ClusterDataCache. This resets the current assignment and recalculates
@@ -74,15 +77,29 @@ public class AssignableNode implements Comparable<AssignableNode> {
    * subject to change. If the assumption is no longer true, this function should become private.
    */
   AssignableNode(ClusterConfig clusterConfig, InstanceConfig instanceConfig, String instanceName) {
+    this(clusterConfig, CapacityKeyIndex.fromClusterConfig(clusterConfig), instanceConfig,
+        instanceName);
+  }
+
+  /**
+   * @param clusterConfig    The cluster config.
+   * @param capacityKeyIndex The capacity key index that is shared by the cluster model.
+   * @param instanceConfig   The instance config.
+   * @param instanceName     The instance name.
+   */
+  AssignableNode(ClusterConfig clusterConfig, CapacityKeyIndex capacityKeyIndex,
+      InstanceConfig instanceConfig, String instanceName) {
     _instanceName = instanceName;
     Map<String, Integer> instanceCapacity = fetchInstanceCapacity(clusterConfig, instanceConfig);
     _faultZone = computeFaultZone(clusterConfig, instanceConfig);
     _instanceTags = ImmutableSet.copyOf(instanceConfig.getTags());
     _disabledPartitionsMap = ImmutableMap.copyOf(instanceConfig.getDisabledPartitionsMap());
     // make a copy of max capacity
-    _maxAllowedCapacity = ImmutableMap.copyOf(instanceCapacity);
-    _remainingCapacity = new HashMap<>(instanceCapacity);
-    _remainingTopStateCapacity = new HashMap<>(instanceCapacity);
+    _maxAllowedCapacityMap = ImmutableMap.copyOf(instanceCapacity);
+    _capacityKeyIndex = capacityKeyIndex;
+    _maxAllowedCapacity = capacityKeyIndex.toArray(instanceCapacity);
+    _remainingCapacity = _maxAllowedCapacity.clone();
+    _remainingTopStateCapacity = _maxAllowedCapacity.clone();
     _maxPartition = clusterConfig.getMaxPartitionsPerInstance();
     _currentAssignedReplicaMap = new HashMap<>();
   }
@@ -94,21 +111,18 @@ public class AssignableNode implements Comparable<AssignableNode> {
    * Using this function avoids the overhead of updating capacity repeatedly.
    */
   void assignInitBatch(Collection<AssignableReplica> replicas) {
-    Map<String, Integer> totalTopStatePartitionCapacity = new HashMap<>();
-    Map<String, Integer> totalPartitionCapacity = new HashMap<>();
+    int[] totalTopStatePartitionCapacity = new int[_capacityKeyIndex.size()];
+    int[] totalPartitionCapacity = new int[_capacityKeyIndex.size()];
     for (AssignableReplica replica : replicas) {
       // TODO: the exception could occur in the middle of for loop and the previous added records cannot be reverted
       addToAssignmentRecord(replica);
       // increment the capacity requirement according to partition's capacity configuration.
-      for (Map.Entry<String, Integer> capacity : replica.getCapacity().entrySet()) {
+      int[] capacity = replica.getCapacity(_capacityKeyIndex);
+      for (int i = 0; i < capacity.length; i++) {
         if (replica.isReplicaTopState()) {
-          totalTopStatePartitionCapacity.compute(capacity.getKey(),
-              (key, totalValue) -> (totalValue == null) ? capacity.getValue()
-                  : totalValue + capacity.getValue());
+          totalTopStatePartitionCapacity[i] += capacity[i];
         }
-        totalPartitionCapacity.compute(capacity.getKey(),
-            (key, totalValue) -> (totalValue == null) ? capacity.getValue()
-                : totalValue + capacity.getValue());
+        totalPartitionCapacity[i] += capacity[i];
       }
     }
 
@@ -123,9 +137,10 @@ public class AssignableNode implements Comparable<AssignableNode> {
    */
   void assign(AssignableReplica assignableReplica) {
     addToAssignmentRecord(assignableReplica);
-    updateRemainingCapacity(assignableReplica.getCapacity(), _remainingCapacity, false);
+    int[] capacity = assignableReplica.getCapacity(_capacityKeyIndex);
+    updateRemainingCapacity(capacity, _remainingCapacity, false);
     if (assignableReplica.isReplicaTopState()) {
-      updateRemainingCapacity(assignableReplica.getCapacity(), _remainingTopStateCapacity, false);
+      updateRemainingCapacity(capacity, _remainingTopStateCapacity, false);
     }
   }
 
@@ -155,9 +170,10 @@ public class AssignableNode implements Comparable<AssignableNode> {
     }
 
     AssignableReplica removedReplica = partitionMap.remove(partitionName);
-    updateRemainingCapacity(removedReplica.getCapacity(), _remainingCapacity, true);
+    int[] capacity = removedReplica.getCapacity(_capacityKeyIndex);
+    updateRemainingCapacity(capacity, _remainingCapacity, true);
     if (removedReplica.isReplicaTopState()) {
-      updateRemainingCapacity(removedReplica.getCapacity(), _remainingTopStateCapacity, true);
+      updateRemainingCapacity(capacity, _remainingTopStateCapacity, true);
     }
   }
 
@@ -172,7 +188,7 @@ public class AssignableNode implements Comparable<AssignableNode> {
   /**
    * @return The current assignment in a map of <resource name, set of partition names>
    */
-  Map<String, Set<String>> getAssignedPartitionsMap() {
+  public Map<String, Set<String>> getAssignedPartitionsMap() {
     Map<String, Set<String>> assignmentMap = new HashMap<>();
     for (String resourceName : _currentAssignedReplicaMap.keySet()) {
       assignmentMap.put(resourceName, _currentAssignedReplicaMap.get(resourceName).keySet());
@@ -216,10 +232,20 @@ public class AssignableNode implements Comparable<AssignableNode> {
   }
 
   /**
-   * @return The current available capacity.
+   * @return A snapshot of the current available capacity in a map of <capacity category, capacity
+   *         number>. Note that the map is generated on every call, use
+   *         {@link #getRemainingCapacity(int)} in the performance critical logic.
    */
   public Map<String, Integer> getRemainingCapacity() {
-    return _remainingCapacity;
+    return _capacityKeyIndex.toMap(_remainingCapacity);
+  }
+
+  /**
+   * @param capacityKeyIndex The index of the capacity key in the node's capacity key index.
+   * @return The current available capacity of the capacity key.
+   */
+  public int getRemainingCapacity(int capacityKeyIndex) {
+    return _remainingCapacity[capacityKeyIndex];
   }
 
   /**
@@ -227,7 +253,14 @@ public class AssignableNode implements Comparable<AssignableNode> {
    *         node.
    */
   public Map<String, Integer> getMaxCapacity() {
-    return _maxAllowedCapacity;
+    return _maxAllowedCapacityMap;
+  }
+
+  /**
+   * @return The capacity key index that the node capacity arrays are aligned with.
+   */
+  public CapacityKeyIndex getCapacityKeyIndex() {
+    return _capacityKeyIndex;
   }
 
   /**
@@ -240,6 +273,16 @@ public class AssignableNode implements Comparable<AssignableNode> {
    * @return The highest utilization number of the node among all the capacity category.
    */
   public float getGeneralProjectedHighestUtilization(Map<String, Integer> newUsage) {
+    return getProjectedHighestUtilization(_capacityKeyIndex.toArray(newUsage), _remainingCapacity);
+  }
+
+  /**
+   * Same as {@link #getGeneralProjectedHighestUtilization(Map)}, but no allocation is required.
+   * @param newUsage the proposed new additional capacity usage that is aligned with the node's
+   *                 capacity key index.
+   * @return The highest utilization number of the node among all the capacity category.
+   */
+  public float getGeneralProjectedHighestUtilization(int[] newUsage) {
     return getProjectedHighestUtilization(newUsage, _remainingCapacity);
   }
 
@@ -254,16 +297,25 @@ public class AssignableNode implements Comparable<AssignableNode> {
    * @return The highest utilization number of the node among all the capacity category.
    */
   public float getTopStateProjectedHighestUtilization(Map<String, Integer> newUsage) {
+    return getProjectedHighestUtilization(_capacityKeyIndex.toArray(newUsage),
+        _remainingTopStateCapacity);
+  }
+
+  /**
+   * Same as {@link #getTopStateProjectedHighestUtilization(Map)}, but no allocation is required.
+   * @param newUsage the proposed new additional capacity usage that is aligned with the node's
+   *                 capacity key index.
+   * @return The highest utilization number of the node among all the capacity category.
+   */
+  public float getTopStateProjectedHighestUtilization(int[] newUsage) {
     return getProjectedHighestUtilization(newUsage, _remainingTopStateCapacity);
   }
 
-  private float getProjectedHighestUtilization(Map<String, Integer> newUsage,
-      Map<String, Integer> remainingCapacity) {
+  private float getProjectedHighestUtilization(int[] newUsage, int[] remainingCapacity) {
     float highestCapacityUtilization = 0;
-    for (String capacityKey : _maxAllowedCapacity.keySet()) {
-      float capacityValue = _maxAllowedCapacity.get(capacityKey);
-      float utilization = (capacityValue - remainingCapacity.get(capacityKey) + newUsage
-          .getOrDefault(capacityKey, 0)) / capacityValue;
+    for (int i = 0; i < _maxAllowedCapacity.length; i++) {
+      float capacityValue = _maxAllowedCapacity[i];
+      float utilization = (capacityValue - remainingCapacity[i] + newUsage[i]) / capacityValue;
       highestCapacityUtilization = Math.max(highestCapacityUtilization, utilization);
     }
     return highestCapacityUtilization;
@@ -341,12 +393,12 @@ public class AssignableNode implements Comparable<AssignableNode> {
     }
   }
 
-  private void updateRemainingCapacity(Map<String, Integer> usedCapacity, Map<String, Integer> remainingCapacity,
+  private void updateRemainingCapacity(int[] usedCapacity, int[] remainingCapacity,
       boolean isRelease) {
     int multiplier = isRelease ? -1 : 1;
-    // if the used capacity key does not exist in the node's capacity, ignore it
-    usedCapacity.forEach((capacityKey, capacityValue) -> remainingCapacity.compute(capacityKey,
-        (key, value) -> value == null ? null : value - multiplier * capacityValue));
+    for (int i = 0; i < remainingCapacity.length; i++) {
+      remainingCapacity[i] -= multiplier * usedCapacity[i];
+    }
   }
 
   /**
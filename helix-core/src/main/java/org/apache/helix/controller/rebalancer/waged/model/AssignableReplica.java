@@ -44,6 +44,9 @@ public class AssignableReplica implements Comparable<AssignableReplica> {
   private final String _resourceInstanceGroupTag;
   private final int _resourceMaxPartitionsPerInstance;
   private final Map<String, Integer> _capacityUsage;
+  // The capacity usage in the array form, indexed by the capacity key index.
+  private final CapacityKeyIndex _capacityKeyIndex;
+  private final int[] _capacityUsageArray;
   // The priority of the replica's state
   private final int _statePriority;
   // The state of the replica
@@ -58,11 +61,28 @@ public class AssignableReplica implements Comparable<AssignableReplica> {
    */
   AssignableReplica(ClusterConfig clusterConfig, ResourceConfig resourceConfig,
       String partitionName, String replicaState, int statePriority) {
+    this(clusterConfig, CapacityKeyIndex.fromClusterConfig(clusterConfig), resourceConfig,
+        partitionName, replicaState, statePriority);
+  }
+
+  /**
+   * @param clusterConfig    The cluster config.
+   * @param capacityKeyIndex The capacity key index that is shared by the cluster model.
+   * @param resourceConfig   The resource config for the resource which contains the replication.
+   * @param partitionName    The replication's partition name.
+   * @param replicaState     The state of the replication.
+   * @param statePriority    The priority of the replication's state.
+   */
+  AssignableReplica(ClusterConfig clusterConfig, CapacityKeyIndex capacityKeyIndex,
+      ResourceConfig resourceConfig, String partitionName, String replicaState,
+      int statePriority) {
     _partitionName = partitionName;
     _replicaState = replicaState;
     _statePriority = statePriority;
     _resourceName = resourceConfig.getResourceName();
     _capacityUsage = fetchCapacityUsage(partitionName, resourceConfig, clusterConfig);
+    _capacityKeyIndex = capacityKeyIndex;
+    _capacityUsageArray = capacityKeyIndex.toArray(_capacityUsage);
     _resourceInstanceGroupTag = resourceConfig.getInstanceGroupTag();
     _resourceMaxPartitionsPerInstance = resourceConfig.getMaxPartitionsPerInstance();
     _replicaKey = generateReplicaKey(_resourceName, _partitionName,_replicaState);
@@ -72,6 +92,19 @@ public class AssignableReplica implements Comparable<AssignableReplica> {
     return _capacityUsage;
   }
 
+  /**
+   * Get the capacity usage in the array form. The caller shall not modify the returned array.
+   * @param capacityKeyIndex The capacity key index that the returned array is aligned with.
+   * @return The capacity usage array. If the index is the one that the replica is created with,
+   *         the returned value is a shared array so no allocation is required.
+   */
+  public int[] getCapacity(CapacityKeyIndex capacityKeyIndex) {
+    if (capacityKeyIndex == _capacityKeyIndex || _capacityKeyIndex.equals(capacityKeyIndex)) {
+      return _capacityUsageArray;
+    }
+    return capacityKeyIndex.toArray(_capacityUsage);
+  }
+
   public String getPartitionName() {
     return _partitionName;
   }
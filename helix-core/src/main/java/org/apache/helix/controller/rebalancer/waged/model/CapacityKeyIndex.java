@@ -0,0 +1,122 @@
+package org.apache.helix.controller.rebalancer.waged.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.apache.helix.model.ClusterConfig;
+
+/**
+ * This class interns the capacity keys into dense indices. So the capacity of the assignable
+ * nodes and replicas can be tracked with primitive arrays, in which the i-th element is the
+ * capacity value of the i-th key.
+ * The index is created once for all the nodes and replicas of one cluster model. Two indices
+ * that are created with the same key list are equal and interchangeable.
+ */
+public class CapacityKeyIndex {
+  private final String[] _capacityKeys;
+  private final Map<String, Integer> _keyIndexMap;
+
+  /**
+   * @param capacityKeys The capacity keys. The duplicate keys are ignored.
+   */
+  public CapacityKeyIndex(Collection<String> capacityKeys) {
+    _capacityKeys = new LinkedHashSet<>(capacityKeys).toArray(new String[0]);
+    _keyIndexMap = new HashMap<>();
+    for (int i = 0; i < _capacityKeys.length; i++) {
+      _keyIndexMap.put(_capacityKeys[i], i);
+    }
+  }
+
+  /**
+   * @return The index of the required instance capacity keys that are configured in the cluster.
+   */
+  public static CapacityKeyIndex fromClusterConfig(ClusterConfig clusterConfig) {
+    return new CapacityKeyIndex(clusterConfig.getInstanceCapacityKeys());
+  }
+
+  /**
+   * @return The count of the capacity keys, which is also the length of the capacity arrays.
+   */
+  public int size() {
+    return _capacityKeys.length;
+  }
+
+  public String getCapacityKey(int index) {
+    return _capacityKeys[index];
+  }
+
+  /**
+   * @return The index of the capacity key, or -1 if the key is not indexed.
+   */
+  public int indexOf(String capacityKey) {
+    Integer index = _keyIndexMap.get(capacityKey);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Convert a capacity map to the capacity array. The keys that are not indexed are ignored, and
+   * the indexed keys that are missing in the map are filled with 0.
+   */
+  public int[] toArray(Map<String, Integer> capacityMap) {
+    int[] capacity = new int[_capacityKeys.length];
+    for (int i = 0; i < _capacityKeys.length; i++) {
+      capacity[i] = capacityMap.getOrDefault(_capacityKeys[i], 0);
+    }
+    return capacity;
+  }
+
+  /**
+   * Convert a capacity array to the capacity map.
+   */
+  public Map<String, Integer> toMap(int[] capacity) {
+    Map<String, Integer> capacityMap = new LinkedHashMap<>();
+    for (int i = 0; i < _capacityKeys.length; i++) {
+      capacityMap.put(_capacityKeys[i], capacity[i]);
+    }
+    return capacityMap;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CapacityKeyIndex)) {
+      return false;
+    }
+    return Arrays.equals(_capacityKeys, ((CapacityKeyIndex) obj)._capacityKeys);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(_capacityKeys);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(_capacityKeys);
+  }
+}
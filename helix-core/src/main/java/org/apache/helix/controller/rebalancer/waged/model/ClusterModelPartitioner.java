@@ -0,0 +1,195 @@
+package org.apache.helix.controller.rebalancer.waged.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class splits a cluster model into the independent sub-models that can be calculated
+ * separately, and potentially concurrently.
+ *
+ * A resource with an instance group tag can only be assigned to the nodes with the tag, and a
+ * resource without the tag can be assigned to any node. So the resources and nodes are split into
+ * the connected components of the following relationship:
+ * 1. A resource is connected to all the nodes that its replicas can be assigned to.
+ * 2. A resource is connected to all the nodes that currently hold its replicas.
+ * Two components never share a node or a resource. So the assignment of one component does not
+ * change the hard constraint evaluation of another.
+ *
+ * Note that the cluster context of each sub-model is re-created from the resources and nodes in
+ * the component. So the soft constraints are evaluated with the estimations of the component
+ * instead of the whole cluster.
+ */
+public class ClusterModelPartitioner {
+  private ClusterModelPartitioner() {
+  }
+
+  /**
+   * Split the cluster model into the independent sub-models. The sub-models share the assignable
+   * node and replica objects with the original model, so the original model must not be used
+   * once the sub-models are created.
+   * @param clusterModel The cluster model that has not been calculated yet.
+   * @return The sub-models. If the model cannot be split, a singleton list that contains the
+   *         original model is returned.
+   */
+  public static List<ClusterModel> partition(ClusterModel clusterModel) {
+    List<AssignableNode> nodes = new ArrayList<>(clusterModel.getAssignableNodes().values());
+    if (nodes.size() <= 1) {
+      return Collections.singletonList(clusterModel);
+    }
+    Map<String, List<Integer>> tagNodes = new HashMap<>();
+    for (int ordinal = 0; ordinal < nodes.size(); ordinal++) {
+      for (String tag : nodes.get(ordinal).getInstanceTags()) {
+        tagNodes.computeIfAbsent(tag, key -> new ArrayList<>()).add(ordinal);
+      }
+    }
+
+    // <resource name, all the replicas of the resource, including the assigned ones>
+    Map<String, Set<AssignableReplica>> resourceReplicas = new LinkedHashMap<>();
+    clusterModel.getAssignableReplicaMap().forEach((resourceName, replicas) -> resourceReplicas
+        .computeIfAbsent(resourceName, key -> new HashSet<>()).addAll(replicas));
+    // <resource name, the ordinals of the nodes that hold the replicas of the resource>
+    Map<String, Set<Integer>> resourceHolders = new HashMap<>();
+    for (int ordinal = 0; ordinal < nodes.size(); ordinal++) {
+      for (AssignableReplica replica : nodes.get(ordinal).getAssignedReplicas()) {
+        resourceReplicas.computeIfAbsent(replica.getResourceName(), key -> new HashSet<>())
+            .add(replica);
+        resourceHolders.computeIfAbsent(replica.getResourceName(), key -> new HashSet<>())
+            .add(ordinal);
+      }
+    }
+
+    UnionFind components = new UnionFind(nodes.size());
+    Map<String, Integer> resourceRoots = new HashMap<>();
+    for (Map.Entry<String, Set<AssignableReplica>> resourceEntry : resourceReplicas.entrySet()) {
+      String resourceName = resourceEntry.getKey();
+      // All the replicas of one resource share the same instance group tag.
+      AssignableReplica sampleReplica = resourceEntry.getValue().iterator().next();
+      int root;
+      if (sampleReplica.hasResourceInstanceGroupTag()) {
+        List<Integer> candidates = tagNodes
+            .getOrDefault(sampleReplica.getResourceInstanceGroupTag(), Collections.emptyList());
+        // If no node has the tag, the replicas cannot be assigned anywhere. Attach the resource to
+        // an arbitrary component so the failure is still reported by the calculation.
+        root = candidates.isEmpty() ? 0 : components.union(candidates);
+      } else {
+        root = components.unionAll();
+      }
+      for (int ordinal : resourceHolders.getOrDefault(resourceName, Collections.emptySet())) {
+        root = components.union(root, ordinal);
+      }
+      resourceRoots.put(resourceName, root);
+    }
+
+    // <component root, resource names>
+    Map<Integer, List<String>> componentResources = new LinkedHashMap<>();
+    resourceRoots.forEach((resourceName, root) -> componentResources
+        .computeIfAbsent(components.find(root), key -> new ArrayList<>()).add(resourceName));
+    if (componentResources.size() <= 1) {
+      return Collections.singletonList(clusterModel);
+    }
+    // <component root, nodes>
+    Map<Integer, Set<AssignableNode>> componentNodes = new HashMap<>();
+    for (int ordinal = 0; ordinal < nodes.size(); ordinal++) {
+      componentNodes.computeIfAbsent(components.find(ordinal), key -> new HashSet<>())
+          .add(nodes.get(ordinal));
+    }
+
+    ClusterContext clusterContext = clusterModel.getContext();
+    List<ClusterModel> subModels = new ArrayList<>(componentResources.size());
+    for (Map.Entry<Integer, List<String>> componentEntry : componentResources.entrySet()) {
+      Set<AssignableNode> subNodes = componentNodes.get(componentEntry.getKey());
+      Set<AssignableReplica> allReplicas = new HashSet<>();
+      Set<AssignableReplica> toBeAssignedReplicas = new HashSet<>();
+      for (String resourceName : componentEntry.getValue()) {
+        allReplicas.addAll(resourceReplicas.get(resourceName));
+        toBeAssignedReplicas.addAll(
+            clusterModel.getAssignableReplicaMap().getOrDefault(resourceName,
+                Collections.emptySet()));
+      }
+      ClusterContext subContext = new ClusterContext(allReplicas, subNodes,
+          clusterContext.getBaselineAssignment(), clusterContext.getBestPossibleAssignment());
+      subContext
+          .setAssignmentForFaultZoneMap(ClusterModelProvider.mapAssignmentToFaultZone(subNodes));
+      subModels.add(new ClusterModel(subContext, toBeAssignedReplicas, subNodes));
+    }
+    return subModels;
+  }
+
+  /**
+   * The disjoint sets of the node ordinals.
+   */
+  private static class UnionFind {
+    private final int[] _parents;
+
+    UnionFind(int size) {
+      _parents = new int[size];
+      for (int i = 0; i < size; i++) {
+        _parents[i] = i;
+      }
+    }
+
+    int find(int element) {
+      int root = element;
+      while (_parents[root] != root) {
+        root = _parents[root];
+      }
+      // Compress the path so the following lookups are cheaper.
+      while (_parents[element] != root) {
+        int next = _parents[element];
+        _parents[element] = root;
+        element = next;
+      }
+      return root;
+    }
+
+    int union(int element1, int element2) {
+      int root1 = find(element1);
+      int root2 = find(element2);
+      if (root1 != root2) {
+        _parents[root2] = root1;
+      }
+      return root1;
+    }
+
+    int union(List<Integer> elements) {
+      int root = elements.get(0);
+      for (int element : elements) {
+        root = union(root, element);
+      }
+      return root;
+    }
+
+    int unionAll() {
+      int root = 0;
+      for (int element = 1; element < _parents.length; element++) {
+        root = union(root, element);
+      }
+      return root;
+    }
+  }
+}
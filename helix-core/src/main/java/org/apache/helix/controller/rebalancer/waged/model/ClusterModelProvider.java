@@ -136,15 +136,19 @@ public class ClusterModelProvider {
       Map<HelixConstants.ChangeType, Set<String>> clusterChanges,
       Map<String, ResourceAssignment> idealAssignment,
       Map<String, ResourceAssignment> currentAssignment, RebalanceScopeType scopeType) {
+    // Intern the capacity keys once, so all the nodes and replicas share the same index.
+    CapacityKeyIndex capacityKeyIndex =
+        CapacityKeyIndex.fromClusterConfig(dataProvider.getClusterConfig());
+
     // Construct all the assignable nodes and initialize with the allocated replicas.
     Set<AssignableNode> assignableNodes =
-        getAllAssignableNodes(dataProvider.getClusterConfig(), dataProvider.getInstanceConfigMap(),
-            activeInstances);
+        getAllAssignableNodes(dataProvider.getClusterConfig(), capacityKeyIndex,
+            dataProvider.getInstanceConfigMap(), activeInstances);
 
     // Generate replica objects for all the resource partitions.
     // <resource, replica set>
     Map<String, Set<AssignableReplica>> replicaMap =
-        getAllAssignableReplicas(dataProvider, resourceMap, assignableNodes);
+        getAllAssignableReplicas(dataProvider, capacityKeyIndex, resourceMap, assignableNodes);
 
     // Check if the replicas need to be reassigned.
     Map<String, Set<AssignableReplica>> allocatedReplicas =
@@ -426,30 +430,33 @@ public class ClusterModelProvider {
    * Get all the nodes that can be assigned replicas based on the configurations.
    *
    * @param clusterConfig     The cluster configuration.
+   * @param capacityKeyIndex  The capacity key index shared by the cluster model.
    * @param instanceConfigMap A map of all the instance configuration.
    *                          If any active instance has no configuration, it will be ignored.
    * @param activeInstances   All the instances that are online and enabled.
    * @return A map of assignable node set, <InstanceName, node set>.
    */
   private static Set<AssignableNode> getAllAssignableNodes(ClusterConfig clusterConfig,
-      Map<String, InstanceConfig> instanceConfigMap, Set<String> activeInstances) {
+      CapacityKeyIndex capacityKeyIndex, Map<String, InstanceConfig> instanceConfigMap,
+      Set<String> activeInstances) {
     return activeInstances.parallelStream()
         .filter(instance -> instanceConfigMap.containsKey(instance)).map(
-            instanceName -> new AssignableNode(clusterConfig, instanceConfigMap.get(instanceName),
-                instanceName)).collect(Collectors.toSet());
+            instanceName -> new AssignableNode(clusterConfig, capacityKeyIndex,
+                instanceConfigMap.get(instanceName), instanceName)).collect(Collectors.toSet());
   }
 
   /**
    * Get all the replicas that need to be reallocated from the cluster data cache.
    *
    * @param dataProvider The cluster status cache that contains the current cluster status.
+   * @param capacityKeyIndex The capacity key index shared by the cluster model.
    * @param resourceMap  All the valid resources that are managed by the rebalancer.
    * @param assignableNodes All the active assignable nodes.
    * @return A map of assignable replica set, <ResourceName, replica set>.
    */
   private static Map<String, Set<AssignableReplica>> getAllAssignableReplicas(
-      ResourceControllerDataProvider dataProvider, Map<String, Resource> resourceMap,
-      Set<AssignableNode> assignableNodes) {
+      ResourceControllerDataProvider dataProvider, CapacityKeyIndex capacityKeyIndex,
+      Map<String, Resource> resourceMap, Set<AssignableNode> assignableNodes) {
     ClusterConfig clusterConfig = dataProvider.getClusterConfig();
     int activeFaultZoneCount = assignableNodes.stream().map(node -> node.getFaultZone())
         .collect(Collectors.toSet()).size();
@@ -479,8 +486,8 @@ public class ClusterModelProvider {
         for (Map.Entry<String, Integer> entry : stateCountMap.entrySet()) {
           String state = entry.getKey();
           for (int i = 0; i < entry.getValue(); i++) {
-            replicas.add(new AssignableReplica(clusterConfig, mergedResourceConfig, partition, state,
-                    def.getStatePriorityMap().get(state)));
+            replicas.add(new AssignableReplica(clusterConfig, capacityKeyIndex,
+                mergedResourceConfig, partition, state, def.getStatePriorityMap().get(state)));
           }
         }
       }
@@ -491,7 +498,7 @@ public class ClusterModelProvider {
   /**
    * @return A map containing the assignments for each fault zone. <fault zone, <resource, set of partitions>>
    */
-  private static Map<String, Map<String, Set<String>>> mapAssignmentToFaultZone(
+  static Map<String, Map<String, Set<String>>> mapAssignmentToFaultZone(
       Set<AssignableNode> assignableNodes) {
     Map<String, Map<String, Set<String>>> faultZoneAssignmentMap = new HashMap<>();
     assignableNodes.stream().forEach(node -> {
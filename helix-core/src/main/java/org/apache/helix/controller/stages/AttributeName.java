@@ -40,6 +40,9 @@ public enum AttributeName {
   PipelineType,
   LastRebalanceFinishTimeStamp,
   ControllerDataProvider,
+  // The immutable snapshot of the ControllerDataProvider data, taken when the async stages are
+  // submitted.
+  ControllerDataSnapshot,
   STATEFUL_REBALANCER,
 
   /** This is the cluster manager's session id when event is received. */
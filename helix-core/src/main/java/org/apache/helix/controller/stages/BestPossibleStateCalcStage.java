@@ -26,12 +26,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.helix.HelixException;
 import org.apache.helix.HelixManager;
 import org.apache.helix.HelixRebalanceException;
 import org.apache.helix.controller.LogUtil;
+import org.apache.helix.controller.common.PartitionStateMap;
 import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
 import org.apache.helix.controller.pipeline.AbstractBaseStage;
 import org.apache.helix.controller.pipeline.StageException;
@@ -41,6 +45,7 @@ import org.apache.helix.controller.rebalancer.MaintenanceRebalancer;
 import org.apache.helix.controller.rebalancer.Rebalancer;
 import org.apache.helix.controller.rebalancer.SemiAutoRebalancer;
 import org.apache.helix.controller.rebalancer.internal.MappingCalculator;
+import org.apache.helix.controller.rebalancer.strategy.RebalanceStrategy;
 import org.apache.helix.controller.rebalancer.util.WagedValidationUtil;
 import org.apache.helix.controller.rebalancer.waged.WagedRebalancer;
 import org.apache.helix.model.ClusterConfig;
@@ -174,13 +179,25 @@ public class BestPossibleStateCalcStage extends AbstractBaseStage {
     // Fallback to the original single resource rebalancer calculation.
     // This is required because we support mixed cluster that uses both WAGED rebalancer and the
     // older rebalancers.
+    // The resources that can be calculated concurrently are submitted first. Their results are
+    // merged in the same order as the other resources are calculated, so the output is the same
+    // as the serial calculation.
+    Map<String, Future<BestPossibleStateOutput>> parallelResults =
+        submitSingleResourceBestPossibleStates(event, cache, currentStateOutput,
+            remainingResourceMap);
     Iterator<Resource> itr = remainingResourceMap.values().iterator();
     while (itr.hasNext()) {
       Resource resource = itr.next();
       boolean result = false;
       try {
-        result = computeSingleResourceBestPossibleState(event, cache, currentStateOutput, resource,
-            output);
+        Future<BestPossibleStateOutput> parallelResult =
+            parallelResults.get(resource.getResourceName());
+        if (parallelResult == null) {
+          result = computeSingleResourceBestPossibleState(event, cache, currentStateOutput,
+              resource, output);
+        } else {
+          result = mergeSingleResourceBestPossibleState(resource, parallelResult, output);
+        }
       } catch (HelixException ex) {
         LogUtil.logError(logger, _eventId, String
             .format("Exception when calculating best possible states for %s",
@@ -274,6 +291,10 @@ public class BestPossibleStateCalcStage extends AbstractBaseStage {
       wagedRebalancer.updateRebalancePreference(clusterConfig.getGlobalRebalancePreference());
       wagedRebalancer
           .setGlobalRebalanceAsyncMode(clusterConfig.isGlobalRebalanceAsyncModeEnabled());
+      wagedRebalancer.setGlobalRebalanceBaselineParallelism(
+          clusterConfig.getGlobalRebalanceBaselineParallelism());
+      wagedRebalancer.setAssignmentDeltaPersistEnabled(
+          clusterConfig.isGlobalRebalanceAssignmentDeltaPersistEnabled());
     }
   }
 
@@ -353,6 +374,96 @@ public class BestPossibleStateCalcStage extends AbstractBaseStage {
     }
   }
 
+  /**
+   * Submit the calculation of the resources that use the built-in rebalancers to the resource
+   * rebalance pool, if the resource rebalance parallelism is larger than 1. Each resource is
+   * calculated into a separate output, since the output is not thread safe.
+   * @return the map of the resource name to the calculated output, which is null if the
+   * calculation fails.
+   */
+  private Map<String, Future<BestPossibleStateOutput>> submitSingleResourceBestPossibleStates(
+      ClusterEvent event, ResourceControllerDataProvider cache,
+      CurrentStateOutput currentStateOutput, Map<String, Resource> resourceMap) {
+    int parallelism = cache.getClusterConfig().getResourceRebalanceParallelism();
+    if (parallelism <= 1 || resourceMap.size() <= 1) {
+      return Collections.emptyMap();
+    }
+    ForkJoinPool pool = cache.getResourceRebalancePool(parallelism);
+    Map<String, Future<BestPossibleStateOutput>> results = new HashMap<>();
+    for (Resource resource : resourceMap.values()) {
+      if (!isParallelRebalanceSupported(cache.getIdealState(resource.getResourceName()),
+          cache.isMaintenanceModeEnabled())) {
+        continue;
+      }
+      results.put(resource.getResourceName(), pool.submit(() -> {
+        BestPossibleStateOutput resourceOutput = new BestPossibleStateOutput();
+        return computeSingleResourceBestPossibleState(event, cache, currentStateOutput, resource,
+            resourceOutput) ? resourceOutput : null;
+      }));
+    }
+    LogUtil.logDebug(logger, _eventId, String
+        .format("Calculate %d of %d resources with parallelism %d", results.size(),
+            resourceMap.size(), parallelism));
+    return results;
+  }
+
+  /**
+   * Only the resources that use the built-in rebalancers and rebalance strategies are calculated
+   * concurrently. The customized rebalancers are not necessarily thread safe.
+   */
+  private boolean isParallelRebalanceSupported(IdealState idealState,
+      boolean isMaintenanceModeEnabled) {
+    if (idealState == null
+        || TaskConstants.STATE_MODEL_NAME.equals(idealState.getStateModelDefRef())) {
+      return false;
+    }
+    switch (idealState.getRebalanceMode()) {
+    case SEMI_AUTO:
+    case CUSTOMIZED:
+      return true;
+    case FULL_AUTO:
+      if (isMaintenanceModeEnabled) {
+        return true;
+      }
+      String rebalancerClassName = idealState.getRebalancerClassName();
+      String strategyName = idealState.getRebalanceStrategy();
+      return (rebalancerClassName == null || rebalancerClassName
+          .equals(DelayedAutoRebalancer.class.getName())) && (strategyName == null || strategyName
+          .equalsIgnoreCase(RebalanceStrategy.DEFAULT_REBALANCE_STRATEGY) || strategyName
+          .startsWith(RebalanceStrategy.class.getPackage().getName()));
+    default:
+      return false;
+    }
+  }
+
+  private boolean mergeSingleResourceBestPossibleState(Resource resource,
+      Future<BestPossibleStateOutput> resourceResult, BestPossibleStateOutput output) {
+    String resourceName = resource.getResourceName();
+    BestPossibleStateOutput resourceOutput;
+    try {
+      resourceOutput = resourceResult.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HelixException(
+          "Interrupted while calculating best possible states for " + resourceName, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HelixException) {
+        throw (HelixException) e.getCause();
+      }
+      throw new HelixException(
+          "Failed to calculate best possible states for " + resourceName, e.getCause());
+    }
+    if (resourceOutput == null) {
+      return false;
+    }
+    output.setPreferenceLists(resourceName, resourceOutput.getPreferenceLists(resourceName));
+    PartitionStateMap partitionStateMap = resourceOutput.getResourceStatesMap().get(resourceName);
+    if (partitionStateMap != null) {
+      output.setState(resourceName, partitionStateMap);
+    }
+    return true;
+  }
+
   private boolean computeSingleResourceBestPossibleState(ClusterEvent event,
       ResourceControllerDataProvider cache, CurrentStateOutput currentStateOutput,
       Resource resource, BestPossibleStateOutput output) {
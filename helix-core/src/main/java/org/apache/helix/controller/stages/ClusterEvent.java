@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.helix.NotificationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,6 +106,36 @@ public class ClusterEvent {
     return ret == null ? defaultVal : (T) ret;
   }
 
+  /**
+   * Merge a pending event of the same type, which is replaced by this event.
+   * The attributes of this event take precedence, and the attributes that only exist in the
+   * replaced event are kept. The creation time is the earlier one, so the queue latency is
+   * measured from the first change. The changed paths of the notification contexts are combined.
+   * @param replacedEvent the pending event that is replaced by this event
+   */
+  public void merge(ClusterEvent replacedEvent) {
+    if (replacedEvent == null || replacedEvent == this) {
+      return;
+    }
+    for (Map.Entry<String, Object> attribute : replacedEvent._eventAttributeMap.entrySet()) {
+      _eventAttributeMap.putIfAbsent(attribute.getKey(), attribute.getValue());
+    }
+    _creationTime = Math.min(_creationTime, replacedEvent._creationTime);
+
+    Object context = _eventAttributeMap.get(AttributeName.changeContext.name());
+    Object replacedContext =
+        replacedEvent._eventAttributeMap.get(AttributeName.changeContext.name());
+    if (context instanceof NotificationContext && replacedContext instanceof NotificationContext
+        && context != replacedContext) {
+      // The context may be shared with the events in the other queues, so merge into a copy.
+      NotificationContext mergedContext = ((NotificationContext) context).clone();
+      mergedContext.mergeDirtyPaths((NotificationContext) replacedContext);
+      mergedContext.setCreationTime(Math.min(mergedContext.getCreationTime(),
+          ((NotificationContext) replacedContext).getCreationTime()));
+      _eventAttributeMap.put(AttributeName.changeContext.name(), mergedContext);
+    }
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -82,7 +82,8 @@ public class CurrentStateComputationStage extends AbstractBaseStage {
     }
 
     Map<String, LiveInstance> liveInstances = cache.getLiveInstances();
-    final CurrentStateOutput currentStateOutput = new CurrentStateOutput();
+    final CurrentStateOutput currentStateOutput =
+        new CurrentStateOutput(cache.getNameDictionary());
 
     for (LiveInstance instance : liveInstances.values()) {
       String instanceName = instance.getInstanceName();
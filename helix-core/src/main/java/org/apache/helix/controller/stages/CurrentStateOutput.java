@@ -21,11 +21,12 @@ package org.apache.helix.controller.stages;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
-import com.google.common.collect.Sets;
-import org.apache.helix.model.CurrentState;
+import org.apache.helix.controller.common.NameDictionary;
 import org.apache.helix.model.Message;
 import org.apache.helix.model.Partition;
 import org.apache.helix.model.ResourceAssignment;
@@ -35,42 +36,35 @@ import org.apache.helix.model.ResourceAssignment;
  * For pending messages, we consider both toState and fromState
  * Pending message prevents controller sending transitions that may potentially violate state
  * constraints @see HELIX-541
+ *
+ * The states and the messages of each resource are kept in the columnar arrays of a
+ * {@link ResourceStateTable}, with the instance and state names interned by a
+ * {@link NameDictionary}. The maps returned by the getters are read-only views.
  */
 public class CurrentStateOutput {
-  private final Map<String, Map<Partition, Map<String, String>>> _currentStateMap;
-  private final Map<String, Map<Partition, Map<String, Message>>> _pendingMessageMap;
-  private final Map<String, Map<Partition, Map<String, Message>>> _cancellationMessageMap;
-  private final Map<String, Map<Partition, Map<String, Message>>> _pendingRelayMessageMap;
-
-  // resourceName -> (Partition -> (instanceName -> endTime))
-  // Note that startTime / endTime in CurrentState marks that of state transition
-  // and therefore endTime is the starting timestamp of the partition being in the
-  // current state
-  private final Map<String, Map<Partition, Map<String, Long>>> _currentStateEndTimeMap;
-
-  // Contains per-resource maps of partition -> (instance, requested_state). This corresponds to the
-  // REQUESTED_STATE
-  // field in the CURRENTSTATES node.
-  private final Map<String, Map<Partition, Map<String, String>>> _requestedStateMap;
-  // Contains per-resource maps of partition -> (instance, info). This corresponds to the INFO field
-  // in the
-  // CURRENTSTATES node. This is information returned by state transition methods on the
-  // participants. It may be used
-  // by the rebalancer.
-  private final Map<String, Map<Partition, Map<String, String>>> _infoMap;
+  private final NameDictionary _nameDictionary;
+  private final Map<String, ResourceStateTable> _resourceTables;
   private final Map<String, String> _resourceStateModelMap;
-  private final Map<String, CurrentState> _curStateMetaMap;
 
   public CurrentStateOutput() {
-    _currentStateMap = new HashMap<>();
-    _pendingMessageMap = new HashMap<>();
-    _pendingRelayMessageMap = new HashMap<>();
-    _cancellationMessageMap = new HashMap<>();
-    _currentStateEndTimeMap = new HashMap<>();
+    this(new NameDictionary());
+  }
+
+  /**
+   * @param nameDictionary the dictionary to intern the names, which can be shared with the other
+   *          outputs and the later pipeline runs
+   */
+  public CurrentStateOutput(NameDictionary nameDictionary) {
+    _nameDictionary = nameDictionary;
+    _resourceTables = new HashMap<>();
     _resourceStateModelMap = new HashMap<>();
-    _curStateMetaMap = new HashMap<>();
-    _requestedStateMap = new HashMap<>();
-    _infoMap = new HashMap<>();
+  }
+
+  /**
+   * @return the dictionary that interns the names of this output
+   */
+  public NameDictionary getNameDictionary() {
+    return _nameDictionary;
   }
 
   public void setResourceStateModelDef(String resourceName, String stateModelDefName) {
@@ -82,70 +76,40 @@ public class CurrentStateOutput {
   }
 
   public void setBucketSize(String resource, int bucketSize) {
-    CurrentState curStateMeta = _curStateMetaMap.get(resource);
-    if (curStateMeta == null) {
-      curStateMeta = new CurrentState(resource);
-      _curStateMetaMap.put(resource, curStateMeta);
-    }
-    curStateMeta.setBucketSize(bucketSize);
+    getOrCreateTable(resource).setBucketSize(bucketSize);
   }
 
   public int getBucketSize(String resource) {
-    int bucketSize = 0;
-    CurrentState curStateMeta = _curStateMetaMap.get(resource);
-    if (curStateMeta != null) {
-      bucketSize = curStateMeta.getBucketSize();
-    }
-
-    return bucketSize;
+    ResourceStateTable table = _resourceTables.get(resource);
+    return table == null ? 0 : table.getBucketSize();
   }
 
   public void setCurrentState(String resourceName, Partition partition, String instanceName,
       String state) {
-    if (!_currentStateMap.containsKey(resourceName)) {
-      _currentStateMap.put(resourceName, new HashMap<Partition, Map<String, String>>());
-    }
-    if (!_currentStateMap.get(resourceName).containsKey(partition)) {
-      _currentStateMap.get(resourceName).put(partition, new HashMap<String, String>());
-    }
-    _currentStateMap.get(resourceName).get(partition).put(instanceName, state);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._currentState.set(partition, instanceName, state);
   }
 
   public void setEndTime(String resourceName, Partition partition, String instanceName,
       Long timestamp) {
-    if (!_currentStateEndTimeMap.containsKey(resourceName)) {
-      _currentStateEndTimeMap.put(resourceName, new HashMap<Partition, Map<String, Long>>());
-    }
-    if (!_currentStateEndTimeMap.get(resourceName).containsKey(partition)) {
-      _currentStateEndTimeMap.get(resourceName).put(partition, new HashMap<String, Long>());
-    }
-    _currentStateEndTimeMap.get(resourceName).get(partition).put(instanceName, timestamp);
+    getOrCreateTable(resourceName).setEndTime(partition, instanceName, timestamp);
   }
 
   public void setRequestedState(String resourceName, Partition partition, String instanceName,
       String state) {
-    if (!_requestedStateMap.containsKey(resourceName)) {
-      _requestedStateMap.put(resourceName, new HashMap<Partition, Map<String, String>>());
-    }
-    if (!_requestedStateMap.get(resourceName).containsKey(partition)) {
-      _requestedStateMap.get(resourceName).put(partition, new HashMap<String, String>());
-    }
-    _requestedStateMap.get(resourceName).get(partition).put(instanceName, state);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._requestedState.set(partition, instanceName, state);
   }
 
   public void setInfo(String resourceName, Partition partition, String instanceName, String state) {
-    if (!_infoMap.containsKey(resourceName)) {
-      _infoMap.put(resourceName, new HashMap<Partition, Map<String, String>>());
-    }
-    if (!_infoMap.get(resourceName).containsKey(partition)) {
-      _infoMap.get(resourceName).put(partition, new HashMap<String, String>());
-    }
-    _infoMap.get(resourceName).get(partition).put(instanceName, state);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._info.set(partition, instanceName, state);
   }
 
   public void setPendingMessage(String resourceName, Partition partition, String instanceName,
       Message message) {
-    setStateMessage(resourceName, partition, instanceName, message, _pendingMessageMap);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._pendingMessage.set(partition, instanceName, message);
   }
 
   /**
@@ -157,23 +121,23 @@ public class CurrentStateOutput {
    */
   public void setCancellationMessage(String resourceName, Partition partition, String instanceName,
       Message message) {
-    setStateMessage(resourceName, partition, instanceName, message, _cancellationMessageMap);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._cancellationMessage.set(partition, instanceName, message);
   }
 
   public void setPendingRelayMessage(String resourceName, Partition partition, String instanceName,
       Message message) {
-    setStateMessage(resourceName, partition, instanceName, message, _pendingRelayMessageMap);
+    ResourceStateTable table = getOrCreateTable(resourceName);
+    table._pendingRelayMessage.set(partition, instanceName, message);
   }
 
-  private void setStateMessage(String resourceName, Partition partition, String instanceName,
-      Message message, Map<String, Map<Partition, Map<String, Message>>> stateMessageMap) {
-    if (!stateMessageMap.containsKey(resourceName)) {
-      stateMessageMap.put(resourceName, new HashMap<Partition, Map<String, Message>>());
+  private ResourceStateTable getOrCreateTable(String resourceName) {
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    if (table == null) {
+      table = new ResourceStateTable(_nameDictionary);
+      _resourceTables.put(resourceName, table);
     }
-    if (!stateMessageMap.get(resourceName).containsKey(partition)) {
-      stateMessageMap.get(resourceName).put(partition, new HashMap<String, Message>());
-    }
-    stateMessageMap.get(resourceName).get(partition).put(instanceName, message);
+    return table;
   }
 
   /**
@@ -184,47 +148,23 @@ public class CurrentStateOutput {
    * @return
    */
   public String getCurrentState(String resourceName, Partition partition, String instanceName) {
-    Map<Partition, Map<String, String>> map = _currentStateMap.get(resourceName);
-    if (map != null) {
-      Map<String, String> instanceStateMap = map.get(partition);
-      if (instanceStateMap != null) {
-        return instanceStateMap.get(instanceName);
-      }
-    }
-    return null;
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? null : table._currentState.get(partition, instanceName);
   }
 
   public Long getEndTime(String resourceName, Partition partition, String instanceName) {
-    Map<Partition, Map<String, Long>> partitionInfo = _currentStateEndTimeMap.get(resourceName);
-    if (partitionInfo != null) {
-      Map<String, Long> instanceInfo = partitionInfo.get(partition);
-      if (instanceInfo != null && instanceInfo.get(instanceName) != null) {
-        return instanceInfo.get(instanceName);
-      }
-    }
-    return -1L;
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? -1L : table.getEndTime(partition, instanceName);
   }
 
   public String getRequestedState(String resourceName, Partition partition, String instanceName) {
-    Map<Partition, Map<String, String>> map = _requestedStateMap.get(resourceName);
-    if (map != null) {
-      Map<String, String> instanceStateMap = map.get(partition);
-      if (instanceStateMap != null) {
-        return instanceStateMap.get(instanceName);
-      }
-    }
-    return null;
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? null : table._requestedState.get(partition, instanceName);
   }
 
   public String getInfo(String resourceName, Partition partition, String instanceName) {
-    Map<Partition, Map<String, String>> map = _infoMap.get(resourceName);
-    if (map != null) {
-      Map<String, String> instanceStateMap = map.get(partition);
-      if (instanceStateMap != null) {
-        return instanceStateMap.get(instanceName);
-      }
-    }
-    return null;
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? null : table._info.get(partition, instanceName);
   }
 
   /**
@@ -235,17 +175,14 @@ public class CurrentStateOutput {
    * @return pending message
    */
   public Message getPendingMessage(String resourceName, Partition partition, String instanceName) {
-    return getStateMessage(resourceName, partition, instanceName, _pendingMessageMap);
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? null : table._pendingMessage.get(partition, instanceName);
   }
 
   public Map<String, Message> getPendingRelayMessageMap(String resourceName, Partition partition) {
-    if (_pendingRelayMessageMap.containsKey(resourceName)) {
-      Map<Partition, Map<String, Message>> map = _pendingRelayMessageMap.get(resourceName);
-      if (map.containsKey(partition)) {
-        return map.get(partition);
-      }
-    }
-    return Collections.emptyMap();
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? Collections.emptyMap()
+        : table.getPartitionView(table._pendingRelayMessage, partition);
   }
 
   /**
@@ -257,19 +194,8 @@ public class CurrentStateOutput {
    */
   public Message getCancellationMessage(String resourceName, Partition partition,
       String instanceName) {
-    return getStateMessage(resourceName, partition, instanceName, _cancellationMessageMap);
-  }
-
-  private Message getStateMessage(String resourceName, Partition partition, String instanceName,
-      Map<String, Map<Partition, Map<String, Message>>> stateMessageMap) {
-    Map<Partition, Map<String, Message>> map = stateMessageMap.get(resourceName);
-    if (map != null) {
-      Map<String, Message> instanceStateMap = map.get(partition);
-      if (instanceStateMap != null) {
-        return instanceStateMap.get(instanceName);
-      }
-    }
-    return null;
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? null : table._cancellationMessage.get(partition, instanceName);
   }
 
   /**
@@ -278,8 +204,9 @@ public class CurrentStateOutput {
    * @return
    */
   public Map<Partition, Map<String, String>> getCurrentStateMap(String resourceName) {
-    if (_currentStateMap.containsKey(resourceName)) {
-      return _currentStateMap.get(resourceName);
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    if (table != null && table.hasValue(table._currentState)) {
+      return table.getResourceView(table._currentState);
     }
     return Collections.emptyMap();
   }
@@ -291,13 +218,31 @@ public class CurrentStateOutput {
    * @return
    */
   public Map<String, String> getCurrentStateMap(String resourceName, Partition partition) {
-    if (_currentStateMap.containsKey(resourceName)) {
-      Map<Partition, Map<String, String>> map = _currentStateMap.get(resourceName);
-      if (map.containsKey(partition)) {
-        return map.get(partition);
-      }
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? Collections.emptyMap()
+        : table.getPartitionView(table._currentState, partition);
+  }
+
+  /**
+   * Check if the current states of the (resource, partition) differ from the ones in the previous
+   * output.
+   * @param resourceName
+   * @param partition
+   * @param previous the previous output
+   * @return true if the current states have changed, or if the previous output does not share the
+   * same name dictionary so the change cannot be told
+   */
+  public boolean isCurrentStateChanged(String resourceName, Partition partition,
+      CurrentStateOutput previous) {
+    if (previous == null || previous._nameDictionary != _nameDictionary) {
+      return true;
     }
-    return Collections.emptyMap();
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    ResourceStateTable previousTable = previous._resourceTables.get(resourceName);
+    if (table != null) {
+      return table.isCurrentStateChanged(partition, previousTable);
+    }
+    return previousTable != null && previousTable.isCurrentStateChanged(partition, null);
   }
 
   /**
@@ -307,18 +252,15 @@ public class CurrentStateOutput {
    * @return pending target state map
    */
   public Map<String, String> getPendingStateMap(String resourceName, Partition partition) {
-    if (_pendingMessageMap.containsKey(resourceName)) {
-      Map<Partition, Map<String, Message>> map = _pendingMessageMap.get(resourceName);
-      if (map.containsKey(partition)) {
-        Map<String, Message> pendingMsgMap = map.get(partition);
-        Map<String, String> pendingStateMap = new HashMap<String, String>();
-        for (String instance : pendingMsgMap.keySet()) {
-          pendingStateMap.put(instance, pendingMsgMap.get(instance).getToState());
-        }
-        return pendingStateMap;
-      }
+    Map<String, Message> pendingMsgMap = getPendingMessageMap(resourceName, partition);
+    if (pendingMsgMap.isEmpty()) {
+      return Collections.emptyMap();
     }
-    return Collections.emptyMap();
+    Map<String, String> pendingStateMap = new HashMap<String, String>();
+    for (Map.Entry<String, Message> pendingMsg : pendingMsgMap.entrySet()) {
+      pendingStateMap.put(pendingMsg.getKey(), pendingMsg.getValue().getToState());
+    }
+    return pendingStateMap;
   }
 
   /**
@@ -328,13 +270,9 @@ public class CurrentStateOutput {
    * @return pending messages map
    */
   public Map<String, Message> getPendingMessageMap(String resourceName, Partition partition) {
-    if (_pendingMessageMap.containsKey(resourceName)) {
-      Map<Partition, Map<String, Message>> map = _pendingMessageMap.get(resourceName);
-      if (map.containsKey(partition)) {
-        return map.get(partition);
-      }
-    }
-    return Collections.emptyMap();
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    return table == null ? Collections.emptyMap()
+        : table.getPartitionView(table._pendingMessage, partition);
   }
 
   /**
@@ -343,8 +281,9 @@ public class CurrentStateOutput {
    * @return
    */
   public Map<Partition, Map<String, Message>> getPendingMessageMap(String resourceName) {
-    if (_pendingMessageMap.containsKey(resourceName)) {
-      return _pendingMessageMap.get(resourceName);
+    ResourceStateTable table = _resourceTables.get(resourceName);
+    if (table != null && table.hasValue(table._pendingMessage)) {
+      return table.getResourceView(table._pendingMessage);
     }
     return Collections.emptyMap();
   }
@@ -355,16 +294,11 @@ public class CurrentStateOutput {
    * @return set of mapped partitions, or empty set if there are none
    */
   public Set<Partition> getCurrentStateMappedPartitions(String resourceId) {
-    Map<Partition, Map<String, String>> currentStateMap = _currentStateMap.get(resourceId);
-    Map<Partition, Map<String, Message>> pendingStateMap = _pendingMessageMap.get(resourceId);
-    Set<Partition> partitionSet = Sets.newHashSet();
-    if (currentStateMap != null) {
-      partitionSet.addAll(currentStateMap.keySet());
-    }
-    if (pendingStateMap != null) {
-      partitionSet.addAll(pendingStateMap.keySet());
+    ResourceStateTable table = _resourceTables.get(resourceId);
+    if (table == null) {
+      return new HashSet<>();
     }
-    return partitionSet;
+    return table.getPartitions(table._currentState, table._pendingMessage);
   }
 
   /**
@@ -376,7 +310,14 @@ public class CurrentStateOutput {
    */
   public Map<String, Integer> getPartitionCountWithPendingState(String resourceStateModel,
       String state) {
-    return getPartitionCountWithState(resourceStateModel, state, (Map) _pendingMessageMap);
+    Map<String, Integer> partitionCount = new HashMap<>();
+    for (Map.Entry<String, ResourceStateTable> tableEntry : _resourceTables.entrySet()) {
+      if (isStateModel(tableEntry.getKey(), resourceStateModel)) {
+        ResourceStateTable table = tableEntry.getValue();
+        table.countPartitionsWithState(table._pendingMessage, state, partitionCount);
+      }
+    }
+    return partitionCount;
   }
 
   /**
@@ -388,56 +329,36 @@ public class CurrentStateOutput {
    */
   public Map<String, Integer> getPartitionCountWithCurrentState(String resourceStateModel,
       String state) {
-    return getPartitionCountWithState(resourceStateModel, state, (Map) _currentStateMap);
-  }
-
-  /**
-   * Count partitions in pendingStates and currentStates.
-   * @param resourceStateModel
-   * @param state
-   * @param stateMap
-   * @return
-   */
-  private Map<String, Integer> getPartitionCountWithState(String resourceStateModel, String state,
-      Map<String, Map<Partition, Map<String, Object>>> stateMap) {
-    Map<String, Integer> currentPartitionCount = new HashMap<>();
-    for (String resource : stateMap.keySet()) {
-      String stateModel = _resourceStateModelMap.get(resource);
-      if ((stateModel != null && stateModel.equals(resourceStateModel))
-          || (stateModel == null && resourceStateModel == null)) {
-        for (Partition partition : stateMap.get(resource).keySet()) {
-          Map<String, Object> partitionMessage = stateMap.get(resource).get(partition);
-          for (Map.Entry<String, Object> participantMap : partitionMessage.entrySet()) {
-            String participant = participantMap.getKey();
-            if (!currentPartitionCount.containsKey(participant)) {
-              currentPartitionCount.put(participant, 0);
-            }
-
-            Object curStateObj = participantMap.getValue();
-            String currState = null;
-            if (curStateObj != null) {
-              if (curStateObj instanceof Message) {
-                currState = ((Message) curStateObj).getToState();
-              } else if (curStateObj instanceof String) {
-                currState = curStateObj.toString();
-              }
-            }
-            if ((currState != null && currState.equals(state))
-                || (currState == null && state == null)) {
-              currentPartitionCount.put(participant, currentPartitionCount.get(participant) + 1);
-            }
-          }
-        }
+    Map<String, Integer> partitionCount = new HashMap<>();
+    for (Map.Entry<String, ResourceStateTable> tableEntry : _resourceTables.entrySet()) {
+      if (isStateModel(tableEntry.getKey(), resourceStateModel)) {
+        ResourceStateTable table = tableEntry.getValue();
+        table.countPartitionsWithState(table._currentState, state, partitionCount);
       }
     }
-    return currentPartitionCount;
+    return partitionCount;
+  }
+
+  private boolean isStateModel(String resourceName, String resourceStateModel) {
+    String stateModel = _resourceStateModelMap.get(resourceName);
+    return stateModel == null ? resourceStateModel == null : stateModel.equals(resourceStateModel);
   }
 
   @Override
   public String toString() {
+    Map<String, Map<Partition, Map<String, String>>> currentStateMap = new LinkedHashMap<>();
+    Map<String, Map<Partition, Map<String, Message>>> pendingMessageMap = new LinkedHashMap<>();
+    for (String resourceName : _resourceTables.keySet()) {
+      if (!getCurrentStateMap(resourceName).isEmpty()) {
+        currentStateMap.put(resourceName, getCurrentStateMap(resourceName));
+      }
+      if (!getPendingMessageMap(resourceName).isEmpty()) {
+        pendingMessageMap.put(resourceName, getPendingMessageMap(resourceName));
+      }
+    }
     StringBuilder sb = new StringBuilder();
-    sb.append("current state= ").append(_currentStateMap);
-    sb.append(", pending state= ").append(_pendingMessageMap);
+    sb.append("current state= ").append(currentStateMap);
+    sb.append(", pending state= ").append(pendingMessageMap);
     return sb.toString();
   }
 
@@ -454,8 +375,9 @@ public class CurrentStateOutput {
       if (!currentStateMap.isEmpty()) {
         ResourceAssignment newResourceAssignment = new ResourceAssignment(resourceName);
         currentStateMap.entrySet().stream().forEach(currentStateEntry -> {
+          // Copy the view, since the assignment keeps the map.
           newResourceAssignment.addReplicaMap(currentStateEntry.getKey(),
-              currentStateEntry.getValue());
+              new HashMap<>(currentStateEntry.getValue()));
         });
         currentStateAssignment.put(resourceName, newResourceAssignment);
       }
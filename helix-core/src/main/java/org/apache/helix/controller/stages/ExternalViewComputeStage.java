@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.apache.helix.AccessOption;
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixDefinedState;
 import org.apache.helix.HelixException;
@@ -36,12 +37,15 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.PropertyKey.Builder;
 import org.apache.helix.controller.LogUtil;
+import org.apache.helix.controller.dataproviders.ControllerDataSnapshot;
 import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
 import org.apache.helix.controller.pipeline.AbstractAsyncBaseStage;
 import org.apache.helix.controller.pipeline.AsyncWorkerType;
 import org.apache.helix.controller.pipeline.StageException;
 import org.apache.helix.manager.zk.DefaultSchedulerMessageHandlerFactory;
+import org.apache.helix.model.ClusterConfig;
 import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.ExternalViewChange;
 import org.apache.helix.model.IdealState;
 import org.apache.helix.model.Message;
 import org.apache.helix.model.Message.MessageType;
@@ -75,6 +79,7 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
       throw new StageException("Missing attributes in event:" + event
           + ". Requires ClusterManager|RESOURCES|DataCache");
     }
+    ControllerDataSnapshot snapshot = getDataSnapshot(event);
 
     HelixDataAccessor dataAccessor = manager.getHelixDataAccessor();
     PropertyKey.Builder keyBuilder = dataAccessor.keyBuilder();
@@ -89,11 +94,23 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
 
     Map<String, ExternalView> curExtViews = cache.getExternalViews();
 
+    // In the delta computation, only the partitions whose current states have changed since the
+    // cached external views were computed are patched.
+    ClusterConfig clusterConfig = snapshot.getClusterConfig();
+    boolean deltaComputation =
+        clusterConfig != null && clusterConfig.isExternalViewDeltaComputationEnabled();
+    CurrentStateOutput previousCurrentStateOutput =
+        deltaComputation ? cache.getExternalViewCurrentStateOutput() : null;
+    boolean changeFeedEnabled =
+        clusterConfig != null && clusterConfig.isExternalViewChangeFeedEnabled();
+    boolean allComputed = true;
+
     for (Resource resource : resourceMap.values()) {
       try {
-        computeExternalView(resource, currentStateOutput, cache, clusterStatusMonitor, curExtViews,
-            manager, monitoringResources, newExtViews);
+        computeExternalView(resource, currentStateOutput, previousCurrentStateOutput, snapshot,
+            clusterStatusMonitor, curExtViews, manager, monitoringResources, newExtViews);
       } catch (HelixException ex) {
+        allComputed = false;
         LogUtil.logError(LOG, _eventId,
             "Failed to calculate external view for resource " + resource.getResourceName(), ex);
       }
@@ -114,7 +131,7 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
     for(Iterator<ExternalView> it = newExtViews.iterator(); it.hasNext(); ) {
       ExternalView view = it.next();
       String resourceName = view.getResourceName();
-      IdealState idealState = cache.getIdealState(resourceName);
+      IdealState idealState = snapshot.getIdealState(resourceName);
       if (idealState != null && idealState.isExternalViewDisabled()) {
         it.remove();
         // remove the external view if the external view exists
@@ -122,6 +139,7 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
           LogUtil
               .logInfo(LOG, _eventId, "Remove externalView for resource: " + resourceName);
           dataAccessor.removeProperty(keyBuilder.externalView(resourceName));
+          removeExternalViewChanges(dataAccessor, curExtViews.get(resourceName));
           externalViewsToRemove.add(resourceName);
         }
       } else {
@@ -131,6 +149,9 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
 
     // add/update external-views
     if (newExtViews.size() > 0) {
+      if (changeFeedEnabled) {
+        publishExternalViewChanges(dataAccessor, curExtViews, newExtViews);
+      }
       dataAccessor.setChildren(keys, newExtViews);
       cache.updateExternalViews(newExtViews);
     }
@@ -140,17 +161,73 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
       if (!resourceMap.keySet().contains(resourceName)) {
         LogUtil.logInfo(LOG, _eventId, "Remove externalView for resource: " + resourceName);
         dataAccessor.removeProperty(keyBuilder.externalView(resourceName));
+        removeExternalViewChanges(dataAccessor, curExtViews.get(resourceName));
         externalViewsToRemove.add(resourceName);
       }
     }
     cache.removeExternalViews(externalViewsToRemove);
+    // If any external view failed to be computed, its cached view is not updated, so the next
+    // computation cannot be a delta of this one.
+    cache.setExternalViewCurrentStateOutput(
+        deltaComputation && allComputed ? currentStateOutput : null);
+  }
+
+  /**
+   * Assign the next change sequence to each of the new external views, and publish the changed
+   * partitions. The changes are written before the views, so a spectator that sees a new view
+   * can always find the changes that produce it, unless it falls too far behind.
+   */
+  private void publishExternalViewChanges(HelixDataAccessor dataAccessor,
+      Map<String, ExternalView> curExtViews, List<ExternalView> newExtViews) {
+    PropertyKey.Builder keyBuilder = dataAccessor.keyBuilder();
+    List<PropertyKey> changeKeys = new ArrayList<>();
+    List<ExternalViewChange> changes = new ArrayList<>();
+    List<String> expiredChangePaths = new ArrayList<>();
+    for (ExternalView view : newExtViews) {
+      String resourceName = view.getResourceName();
+      ExternalView curExtView = curExtViews.get(resourceName);
+      // The bucketized views are always fully read. If any other field of the view is changed,
+      // no change is published for the sequence, and the spectators fully read the view when
+      // they find the gap.
+      boolean publishChange = view.getBucketSize() == 0 && curExtView != null
+          && curExtView.getRecord().getSimpleFields().equals(view.getRecord().getSimpleFields())
+          && curExtView.getRecord().getListFields().equals(view.getRecord().getListFields());
+      long sequence = view.getChangeSequence() + 1;
+      view.setChangeSequence(sequence);
+      if (publishChange) {
+        changeKeys.add(keyBuilder.externalViewChange(resourceName, sequence));
+        changes.add(ExternalViewChange.compute(curExtView, view));
+      }
+      if (sequence > ExternalViewChange.MAX_CHANGE_LOG_SIZE) {
+        expiredChangePaths.add(keyBuilder
+            .externalViewChange(resourceName, sequence - ExternalViewChange.MAX_CHANGE_LOG_SIZE)
+            .getPath());
+      }
+    }
+    if (!changes.isEmpty()) {
+      dataAccessor.setChildren(changeKeys, changes);
+    }
+    if (!expiredChangePaths.isEmpty()) {
+      dataAccessor.getBaseDataAccessor().remove(expiredChangePaths, AccessOption.PERSISTENT);
+    }
+  }
+
+  private void removeExternalViewChanges(HelixDataAccessor dataAccessor,
+      ExternalView curExtView) {
+    if (curExtView != null && curExtView.getChangeSequence() > 0) {
+      dataAccessor
+          .removeProperty(dataAccessor.keyBuilder().externalViewChanges(curExtView.getId()));
+    }
   }
 
   private void computeExternalView(final Resource resource,
-      final CurrentStateOutput currentStateOutput, final ResourceControllerDataProvider cache,
+      final CurrentStateOutput currentStateOutput,
+      final CurrentStateOutput previousCurrentStateOutput, final ControllerDataSnapshot snapshot,
       final ClusterStatusMonitor clusterStatusMonitor, final Map<String, ExternalView> curExtViews,
       final HelixManager manager, Set<String> monitoringResources, List<ExternalView> newExtViews) {
     String resourceName = resource.getResourceName();
+    IdealState idealState = snapshot.getIdealState(resourceName);
+    ExternalView curExtView = curExtViews.get(resourceName);
     ExternalView view = new ExternalView(resource.getResourceName());
     // if resource ideal state has bucket size, set it
     // otherwise resource has been dropped, use bucket size from current state instead
@@ -159,24 +236,69 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
     } else {
       view.setBucketSize(currentStateOutput.getBucketSize(resourceName));
     }
+    // copy simplefields from IS, in cases where IS is deleted copy it from existing ExternalView
+    if (idealState != null) {
+      view.getRecord().getSimpleFields().putAll(idealState.getRecord().getSimpleFields());
+    } else if (curExtView != null) {
+      view.getRecord().getSimpleFields().putAll(curExtView.getRecord().getSimpleFields());
+    }
+    // Keep the change sequence of the current view, so the views are compared by the content.
+    // The next sequence is assigned only if the view is changed.
+    if (curExtView != null && curExtView.getChangeSequence() > 0) {
+      view.setChangeSequence(curExtView.getChangeSequence());
+    }
 
     int totalPendingMessageCount = 0;
-
-    for (Partition partition : resource.getPartitions()) {
-      Map<String, String> currentStateMap =
-          currentStateOutput.getCurrentStateMap(resourceName, partition);
-      if (currentStateMap != null && currentStateMap.size() > 0) {
-        for (String instance : currentStateMap.keySet()) {
-          view.setState(partition.getPartitionName(), instance, currentStateMap.get(instance));
+    boolean changed;
+    if (previousCurrentStateOutput != null && curExtView != null && curExtView.getRecord()
+        .getSimpleFields().equals(view.getRecord().getSimpleFields())) {
+      List<Partition> changedPartitions = new ArrayList<>();
+      for (Partition partition : resource.getPartitions()) {
+        boolean partitionChanged = currentStateOutput
+            .isCurrentStateChanged(resourceName, partition, previousCurrentStateOutput);
+        // The partition might be added back to the resource without any current state change.
+        if (!partitionChanged && curExtView.getStateMap(partition.getPartitionName()) == null) {
+          partitionChanged =
+              !currentStateOutput.getCurrentStateMap(resourceName, partition).isEmpty();
+        }
+        if (partitionChanged) {
+          changedPartitions.add(partition);
         }
+        totalPendingMessageCount +=
+            currentStateOutput.getPendingMessageMap(resourceName, partition).size();
       }
-      totalPendingMessageCount +=
-          currentStateOutput.getPendingMessageMap(resource.getResourceName(), partition).size();
+      List<String> removedPartitions = new ArrayList<>();
+      for (String partitionName : curExtView.getPartitionSet()) {
+        if (resource.getPartition(partitionName) == null) {
+          removedPartitions.add(partitionName);
+        }
+      }
+      changed = !changedPartitions.isEmpty() || !removedPartitions.isEmpty();
+      if (changed) {
+        // The state maps of the unchanged partitions are shared with the cached external view,
+        // and the changed partitions are set with new maps.
+        Map<String, Map<String, String>> mapFields = view.getRecord().getMapFields();
+        mapFields.putAll(curExtView.getRecord().getMapFields());
+        mapFields.keySet().removeAll(removedPartitions);
+        for (Partition partition : changedPartitions) {
+          mapFields.remove(partition.getPartitionName());
+          setPartitionStates(view, partition,
+              currentStateOutput.getCurrentStateMap(resourceName, partition));
+        }
+      }
+    } else {
+      for (Partition partition : resource.getPartitions()) {
+        setPartitionStates(view, partition,
+            currentStateOutput.getCurrentStateMap(resourceName, partition));
+        totalPendingMessageCount +=
+            currentStateOutput.getPendingMessageMap(resource.getResourceName(), partition).size();
+      }
+      // compare the new external view with current one, set only on different
+      changed = curExtView == null || !curExtView.getRecord().equals(view.getRecord());
     }
 
     // Update cluster status monitor mbean
-    IdealState idealState = cache.getIdealState(resourceName);
-    ResourceConfig resourceConfig = cache.getResourceConfig(resourceName);
+    ResourceConfig resourceConfig = snapshot.getResourceConfig(resourceName);
     if (clusterStatusMonitor != null) {
       if (idealState != null // has ideal state
           && (resourceConfig == null || !resourceConfig.isMonitoringDisabled()) // monitoring not disabled
@@ -188,16 +310,7 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
       }
     }
 
-    ExternalView curExtView = curExtViews.get(resourceName);
-    // copy simplefields from IS, in cases where IS is deleted copy it from existing ExternalView
-    if (idealState != null) {
-      view.getRecord().getSimpleFields().putAll(idealState.getRecord().getSimpleFields());
-    } else if (curExtView != null) {
-      view.getRecord().getSimpleFields().putAll(curExtView.getRecord().getSimpleFields());
-    }
-
-    // compare the new external view with current one, set only on different
-    if (curExtView == null || !curExtView.getRecord().equals(view.getRecord())) {
+    if (changed) {
       // Add external view to the list which will be written to ZK later.
       newExtViews.add(view);
 
@@ -212,6 +325,15 @@ public class ExternalViewComputeStage extends AbstractAsyncBaseStage {
     }
   }
 
+  private void setPartitionStates(ExternalView view, Partition partition,
+      Map<String, String> currentStateMap) {
+    if (currentStateMap != null && currentStateMap.size() > 0) {
+      for (String instance : currentStateMap.keySet()) {
+        view.setState(partition.getPartitionName(), instance, currentStateMap.get(instance));
+      }
+    }
+  }
+
   private void updateScheduledTaskStatus(ExternalView ev, HelixManager manager,
       IdealState taskQueueIdealState) {
     HelixDataAccessor accessor = manager.getHelixDataAccessor();
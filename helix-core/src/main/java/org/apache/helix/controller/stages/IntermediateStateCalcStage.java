@@ -29,6 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.helix.HelixDefinedState;
@@ -150,6 +153,13 @@ public class IntermediateStateCalcStage extends AbstractBaseStage {
         event.getAttribute(AttributeName.clusterStatusMonitor.name());
     List<String> failedResources = new ArrayList<>();
 
+    // If the resources never share any throttle quota, each resource is calculated concurrently
+    // with its own partition of the quota. Otherwise, the resources are calculated one by one so
+    // the shared quota is consumed in the order of priority.
+    Map<String, Future<PartitionStateMap>> parallelResults =
+        submitResourceIntermediateStates(dataCache, clusterStatusMonitor, resourceMap,
+            currentStateOutput, bestPossibleStateOutput, messageOutput, throttleController);
+
     // Priority is applied in assignment computation because higher priority by looping in order of
     // decreasing priority
     for (ResourcePriority resourcePriority : prioritizedResourceList) {
@@ -162,24 +172,13 @@ public class IntermediateStateCalcStage extends AbstractBaseStage {
         continue;
       }
 
-      Resource resource = resourceMap.get(resourceName);
-      IdealState idealState = dataCache.getIdealState(resourceName);
-      if (idealState == null) {
-        // If IdealState is null, use an empty one
-        LogUtil.logInfo(logger, _eventId,
-            String.format(
-                "IdealState for resource %s does not exist; resource may not exist anymore",
-                resourceName));
-        idealState = new IdealState(resourceName);
-        idealState.setStateModelDefRef(resource.getStateModelDefRef());
-      }
-
       try {
-        output.setState(resourceName, computeIntermediatePartitionState(dataCache, clusterStatusMonitor, idealState,
-            resourceMap.get(resourceName), currentStateOutput,
-            bestPossibleStateOutput.getPartitionStateMap(resourceName),
-            bestPossibleStateOutput.getPreferenceLists(resourceName), throttleController,
-            messageOutput.getResourceMessageMap(resourceName)));
+        Future<PartitionStateMap> parallelResult = parallelResults.get(resourceName);
+        output.setState(resourceName, parallelResult == null
+            ? computeResourceIntermediateState(dataCache, clusterStatusMonitor,
+            resourceMap.get(resourceName), currentStateOutput, bestPossibleStateOutput,
+            messageOutput, throttleController)
+            : getResourceIntermediateState(resourceName, parallelResult));
       } catch (HelixException ex) {
         LogUtil.logInfo(logger, _eventId, "Failed to calculate intermediate partition states for resource " + resourceName, ex);
         failedResources.add(resourceName);
@@ -196,6 +195,80 @@ public class IntermediateStateCalcStage extends AbstractBaseStage {
     return output;
   }
 
+  /**
+   * Submit the intermediate state calculation of the resources to the resource rebalance pool, if
+   * the resource rebalance parallelism is larger than 1 and the resources are throttled
+   * independently.
+   * @return the map of the resource name to the calculated intermediate partition states
+   */
+  private Map<String, Future<PartitionStateMap>> submitResourceIntermediateStates(
+      ResourceControllerDataProvider dataCache, ClusterStatusMonitor clusterStatusMonitor,
+      Map<String, Resource> resourceMap, CurrentStateOutput currentStateOutput,
+      BestPossibleStateOutput bestPossibleStateOutput, MessageOutput messageOutput,
+      StateTransitionThrottleController throttleController) {
+    int parallelism = dataCache.getClusterConfig().getResourceRebalanceParallelism();
+    // Without throttling, the best possible states are returned directly, so it is not worth
+    // calculating concurrently.
+    if (parallelism <= 1 || resourceMap.size() <= 1 || !throttleController.isThrottleEnabled()
+        || !throttleController.isResourceQuotaIndependent()) {
+      return Collections.emptyMap();
+    }
+    ForkJoinPool pool = dataCache.getResourceRebalancePool(parallelism);
+    Map<String, Future<PartitionStateMap>> results = new HashMap<>();
+    for (Resource resource : resourceMap.values()) {
+      String resourceName = resource.getResourceName();
+      if (!bestPossibleStateOutput.containsResource(resourceName)) {
+        continue;
+      }
+      StateTransitionThrottleController resourceThrottleController =
+          throttleController.getResourcePartition(resourceName);
+      results.put(resourceName, pool.submit(
+          () -> computeResourceIntermediateState(dataCache, clusterStatusMonitor, resource,
+              currentStateOutput, bestPossibleStateOutput, messageOutput,
+              resourceThrottleController)));
+    }
+    return results;
+  }
+
+  private PartitionStateMap getResourceIntermediateState(String resourceName,
+      Future<PartitionStateMap> resourceResult) {
+    try {
+      return resourceResult.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HelixException(
+          "Interrupted while calculating intermediate partition states for " + resourceName, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HelixException) {
+        throw (HelixException) e.getCause();
+      }
+      throw new HelixException(
+          "Failed to calculate intermediate partition states for " + resourceName, e.getCause());
+    }
+  }
+
+  private PartitionStateMap computeResourceIntermediateState(
+      ResourceControllerDataProvider dataCache, ClusterStatusMonitor clusterStatusMonitor,
+      Resource resource, CurrentStateOutput currentStateOutput,
+      BestPossibleStateOutput bestPossibleStateOutput, MessageOutput messageOutput,
+      StateTransitionThrottleController throttleController) {
+    String resourceName = resource.getResourceName();
+    IdealState idealState = dataCache.getIdealState(resourceName);
+    if (idealState == null) {
+      // If IdealState is null, use an empty one
+      LogUtil.logInfo(logger, _eventId,
+          String.format(
+              "IdealState for resource %s does not exist; resource may not exist anymore",
+              resourceName));
+      idealState = new IdealState(resourceName);
+      idealState.setStateModelDefRef(resource.getStateModelDefRef());
+    }
+    return computeIntermediatePartitionState(dataCache, clusterStatusMonitor, idealState,
+        resource, currentStateOutput, bestPossibleStateOutput.getPartitionStateMap(resourceName),
+        bestPossibleStateOutput.getPreferenceLists(resourceName), throttleController,
+        messageOutput.getResourceMessageMap(resourceName));
+  }
+
   /**
    * Go through every instance in the assignment and check that each instance does NOT have more
    * replicas for partitions assigned to it than maxPartitionsPerInstance. If the assignment
@@ -32,7 +32,7 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.controller.LogUtil;
 import org.apache.helix.controller.common.PartitionStateMap;
-import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
+import org.apache.helix.controller.dataproviders.ControllerDataSnapshot;
 import org.apache.helix.controller.pipeline.AbstractAsyncBaseStage;
 import org.apache.helix.controller.pipeline.AsyncWorkerType;
 import org.apache.helix.model.BuiltInStateModelDefinitions;
@@ -58,8 +58,8 @@ public class PersistAssignmentStage extends AbstractAsyncBaseStage {
 
   @Override
   public void execute(final ClusterEvent event) throws Exception {
-    ResourceControllerDataProvider cache = event.getAttribute(AttributeName.ControllerDataProvider.name());
-    ClusterConfig clusterConfig = cache.getClusterConfig();
+    ControllerDataSnapshot snapshot = getDataSnapshot(event);
+    ClusterConfig clusterConfig = snapshot.getClusterConfig();
 
     if (!clusterConfig.isPersistBestPossibleAssignment() && !clusterConfig
         .isPersistIntermediateAssignment()) {
@@ -76,7 +76,7 @@ public class PersistAssignmentStage extends AbstractAsyncBaseStage {
 
     for (String resourceId : bestPossibleAssignment.resourceSet()) {
       try {
-        persistAssignment(resourceMap.get(resourceId), cache, event, bestPossibleAssignment,
+        persistAssignment(resourceMap.get(resourceId), snapshot, event, bestPossibleAssignment,
             clusterConfig, accessor, keyBuilder);
       } catch (HelixException ex) {
         LogUtil
@@ -85,13 +85,13 @@ public class PersistAssignmentStage extends AbstractAsyncBaseStage {
     }
   }
 
-  private void persistAssignment(final Resource resource, final ResourceControllerDataProvider cache,
+  private void persistAssignment(final Resource resource, final ControllerDataSnapshot snapshot,
       final ClusterEvent event, final BestPossibleStateOutput bestPossibleAssignment,
       final ClusterConfig clusterConfig, final HelixDataAccessor accessor,
       final PropertyKey.Builder keyBuilder) {
     String resourceId = resource.getResourceName();
     if (resource != null) {
-      final IdealState idealState = cache.getIdealState(resourceId);
+      final IdealState idealState = snapshot.getIdealState(resourceId);
       if (idealState == null) {
         LogUtil.logWarn(LOG, event.getEventId(), "IdealState not found for resource " + resourceId);
         return;
@@ -0,0 +1,533 @@
+package org.apache.helix.controller.stages;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.helix.controller.common.NameDictionary;
+import org.apache.helix.model.Message;
+import org.apache.helix.model.Partition;
+
+/**
+ * The current states and the pending messages of the partitions of a single resource, kept in
+ * columnar arrays. Each (partition, instance) pair that has any value is an entry, and each kind
+ * of value is a column indexed by the entry. The entries of a partition are chained in the
+ * insertion order, so a lookup only scans the replicas of the partition.
+ * The instance names and the state names are kept as the ids of the {@link NameDictionary}.
+ *
+ * The nested maps of {@link CurrentStateOutput} are read-only views of the columns.
+ */
+class ResourceStateTable {
+  private static final int INITIAL_CAPACITY = 8;
+  private static final int NO_ENTRY = -1;
+  // The value of the entries that are explicitly set to null.
+  private static final Object NULL_VALUE = new Object();
+
+  private final NameDictionary _dictionary;
+  private final List<Column<?>> _columns = new ArrayList<>();
+  private int _bucketSize = 0;
+
+  // The partition rows
+  private final Map<Partition, Integer> _partitionRows = new HashMap<>();
+  private Partition[] _partitions = new Partition[INITIAL_CAPACITY];
+  private int[] _firstEntry = new int[INITIAL_CAPACITY];
+  private int[] _lastEntry = new int[INITIAL_CAPACITY];
+  private int _partitionCount = 0;
+
+  // The entries
+  private int[] _entryInstance = new int[INITIAL_CAPACITY];
+  private int[] _nextEntry = new int[INITIAL_CAPACITY];
+  private int _entryCount = 0;
+  // The end time column, which is allocated on the first update.
+  private long[] _endTime;
+
+  final StateColumn _currentState = new StateColumn();
+  final StateColumn _requestedState = new StateColumn();
+  final ValueColumn<String> _info = new ValueColumn<>();
+  final ValueColumn<Message> _pendingMessage = new ValueColumn<>();
+  final ValueColumn<Message> _cancellationMessage = new ValueColumn<>();
+  final ValueColumn<Message> _pendingRelayMessage = new ValueColumn<>();
+
+  ResourceStateTable(NameDictionary dictionary) {
+    _dictionary = dictionary;
+  }
+
+  int getBucketSize() {
+    return _bucketSize;
+  }
+
+  void setBucketSize(int bucketSize) {
+    _bucketSize = bucketSize;
+  }
+
+  long getEndTime(Partition partition, String instanceName) {
+    int entry = findEntry(partition, instanceName);
+    return entry == NO_ENTRY || _endTime == null || entry >= _endTime.length ? -1L
+        : _endTime[entry];
+  }
+
+  void setEndTime(Partition partition, String instanceName, Long timestamp) {
+    int entry = getOrCreateEntry(partition, instanceName);
+    if (_endTime == null) {
+      _endTime = new long[_entryInstance.length];
+      Arrays.fill(_endTime, -1L);
+    }
+    _endTime[entry] = timestamp == null ? -1L : timestamp;
+  }
+
+  /**
+   * @return true if any partition has a value in the column
+   */
+  boolean hasValue(Column<?> column) {
+    return column._setCount > 0;
+  }
+
+  /**
+   * @return the partitions that have any value in one of the columns
+   */
+  Set<Partition> getPartitions(Column<?>... columns) {
+    Set<Partition> partitions = new HashSet<>();
+    for (int row = 0; row < _partitionCount; row++) {
+      for (Column<?> column : columns) {
+        if (hasValue(row, column)) {
+          partitions.add(_partitions[row]);
+          break;
+        }
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * Count the partitions of each instance that have a value of the given state in the column. An
+   * instance that has any value in the column is counted even if the count is 0.
+   */
+  void countPartitionsWithState(Column<?> column, String state,
+      Map<String, Integer> partitionCount) {
+    for (int entry = 0; entry < _entryCount; entry++) {
+      if (!column.isSet(entry)) {
+        continue;
+      }
+      String instanceName = _dictionary.getName(_entryInstance[entry]);
+      Object value = column.get(entry);
+      String entryState = value instanceof Message ? ((Message) value).getToState()
+          : value == null ? null : value.toString();
+      int count = partitionCount.getOrDefault(instanceName, 0);
+      if (entryState == null ? state == null : entryState.equals(state)) {
+        count++;
+      }
+      partitionCount.put(instanceName, count);
+    }
+  }
+
+  /**
+   * Compare the current states of the partition with the ones in the other table. Since the states
+   * are compared by the ids, the tables must share the same name dictionary.
+   * @param other the other table, null if the other table has no value
+   * @return true if any instance has a different current state, or only has the current state in
+   * one of the tables
+   */
+  boolean isCurrentStateChanged(Partition partition, ResourceStateTable other) {
+    Integer row = _partitionRows.get(partition);
+    Integer otherRow = other == null ? null : other._partitionRows.get(partition);
+    int stateCount = 0;
+    if (row != null) {
+      for (int entry = _firstEntry[row]; entry != NO_ENTRY; entry = _nextEntry[entry]) {
+        if (!_currentState.isSet(entry)) {
+          continue;
+        }
+        stateCount++;
+        int otherEntry =
+            otherRow == null ? NO_ENTRY : other.findEntry(otherRow, _entryInstance[entry]);
+        if (otherEntry == NO_ENTRY || !other._currentState.isSet(otherEntry)
+            || other._currentState._stateIds[otherEntry] != _currentState._stateIds[entry]) {
+          return true;
+        }
+      }
+    }
+    int otherStateCount = 0;
+    if (otherRow != null) {
+      for (int entry = other._firstEntry[otherRow]; entry != NO_ENTRY;
+          entry = other._nextEntry[entry]) {
+        if (other._currentState.isSet(entry)) {
+          otherStateCount++;
+        }
+      }
+    }
+    return stateCount != otherStateCount;
+  }
+
+  /**
+   * @return the read-only (partition -> instance -> value) view of the column
+   */
+  <V> Map<Partition, Map<String, V>> getResourceView(Column<V> column) {
+    return new ResourceView<>(column);
+  }
+
+  /**
+   * @return the read-only (instance -> value) view of the column for the partition
+   */
+  <V> Map<String, V> getPartitionView(Column<V> column, Partition partition) {
+    Integer row = _partitionRows.get(partition);
+    if (row == null || !hasValue(row, column)) {
+      return Collections.emptyMap();
+    }
+    return new PartitionView<>(column, row);
+  }
+
+  private boolean hasValue(int row, Column<?> column) {
+    if (column._setCount == 0) {
+      return false;
+    }
+    for (int entry = _firstEntry[row]; entry != NO_ENTRY; entry = _nextEntry[entry]) {
+      if (column.isSet(entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int findEntry(Partition partition, String instanceName) {
+    Integer row = _partitionRows.get(partition);
+    return row == null ? NO_ENTRY : findEntry(row, _dictionary.getId(instanceName));
+  }
+
+  private int findEntry(int row, int instanceId) {
+    if (instanceId == NameDictionary.NO_ID) {
+      return NO_ENTRY;
+    }
+    for (int entry = _firstEntry[row]; entry != NO_ENTRY; entry = _nextEntry[entry]) {
+      if (_entryInstance[entry] == instanceId) {
+        return entry;
+      }
+    }
+    return NO_ENTRY;
+  }
+
+  private int getOrCreateEntry(Partition partition, String instanceName) {
+    Integer row = _partitionRows.get(partition);
+    if (row == null) {
+      row = _partitionCount++;
+      if (row == _partitions.length) {
+        int capacity = _partitions.length * 2;
+        _partitions = Arrays.copyOf(_partitions, capacity);
+        _firstEntry = Arrays.copyOf(_firstEntry, capacity);
+        _lastEntry = Arrays.copyOf(_lastEntry, capacity);
+      }
+      _partitions[row] = partition;
+      _firstEntry[row] = NO_ENTRY;
+      _lastEntry[row] = NO_ENTRY;
+      _partitionRows.put(partition, row);
+    }
+    int instanceId = _dictionary.getOrCreateId(instanceName);
+    int entry = findEntry(row, instanceId);
+    if (entry != NO_ENTRY) {
+      return entry;
+    }
+
+    entry = _entryCount++;
+    if (entry == _entryInstance.length) {
+      int capacity = _entryInstance.length * 2;
+      _entryInstance = Arrays.copyOf(_entryInstance, capacity);
+      _nextEntry = Arrays.copyOf(_nextEntry, capacity);
+      if (_endTime != null) {
+        int oldCapacity = _endTime.length;
+        _endTime = Arrays.copyOf(_endTime, capacity);
+        Arrays.fill(_endTime, oldCapacity, capacity, -1L);
+      }
+      for (Column<?> column : _columns) {
+        column.grow(capacity);
+      }
+    }
+    _entryInstance[entry] = instanceId;
+    _nextEntry[entry] = NO_ENTRY;
+    if (_lastEntry[row] == NO_ENTRY) {
+      _firstEntry[row] = entry;
+    } else {
+      _nextEntry[_lastEntry[row]] = entry;
+    }
+    _lastEntry[row] = entry;
+    return entry;
+  }
+
+  /**
+   * A column of the values of the entries. The column array is allocated on the first update, so
+   * the columns that are rarely used, such as the cancellation messages, cost nothing.
+   */
+  abstract class Column<V> {
+    private int _setCount = 0;
+
+    abstract boolean isSet(int entry);
+
+    abstract V get(int entry);
+
+    abstract void grow(int capacity);
+
+    V get(Partition partition, String instanceName) {
+      int entry = findEntry(partition, instanceName);
+      return entry != NO_ENTRY && isSet(entry) ? get(entry) : null;
+    }
+
+    void set(Partition partition, String instanceName, V value) {
+      int entry = getOrCreateEntry(partition, instanceName);
+      if (!isSet(entry)) {
+        _setCount++;
+      }
+      doSet(entry, value);
+    }
+
+    protected abstract void doSet(int entry, V value);
+  }
+
+  /**
+   * A column of the state names, which are kept as ids.
+   */
+  class StateColumn extends Column<String> {
+    private static final int UNSET = -1;
+    private static final int NULL_STATE = -2;
+    private int[] _stateIds;
+
+    @Override
+    boolean isSet(int entry) {
+      return _stateIds != null && _stateIds[entry] != UNSET;
+    }
+
+    @Override
+    String get(int entry) {
+      int stateId = _stateIds[entry];
+      return stateId == NULL_STATE ? null : _dictionary.getName(stateId);
+    }
+
+    @Override
+    void grow(int capacity) {
+      if (_stateIds != null) {
+        int oldCapacity = _stateIds.length;
+        _stateIds = Arrays.copyOf(_stateIds, capacity);
+        Arrays.fill(_stateIds, oldCapacity, capacity, UNSET);
+      }
+    }
+
+    @Override
+    protected void doSet(int entry, String state) {
+      if (_stateIds == null) {
+        _stateIds = new int[_entryInstance.length];
+        Arrays.fill(_stateIds, UNSET);
+        _columns.add(this);
+      }
+      _stateIds[entry] = state == null ? NULL_STATE : _dictionary.getOrCreateId(state);
+    }
+  }
+
+  /**
+   * A column of the object values.
+   */
+  class ValueColumn<V> extends Column<V> {
+    private Object[] _values;
+
+    @Override
+    boolean isSet(int entry) {
+      return _values != null && _values[entry] != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V get(int entry) {
+      Object value = _values[entry];
+      return value == NULL_VALUE ? null : (V) value;
+    }
+
+    @Override
+    void grow(int capacity) {
+      if (_values != null) {
+        _values = Arrays.copyOf(_values, capacity);
+      }
+    }
+
+    @Override
+    protected void doSet(int entry, V value) {
+      if (_values == null) {
+        _values = new Object[_entryInstance.length];
+        _columns.add(this);
+      }
+      _values[entry] = value == null ? NULL_VALUE : value;
+    }
+  }
+
+  /**
+   * The read-only (instance -> value) view of a column for a partition.
+   */
+  private class PartitionView<V> extends AbstractMap<String, V> {
+    private final Column<V> _column;
+    private final int _row;
+
+    PartitionView(Column<V> column, int row) {
+      _column = column;
+      _row = row;
+    }
+
+    @Override
+    public V get(Object key) {
+      int entry = findEntry(key);
+      return entry == NO_ENTRY ? null : _column.get(entry);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return findEntry(key) != NO_ENTRY;
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+      return new AbstractSet<Entry<String, V>>() {
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+          return new Iterator<Entry<String, V>>() {
+            private int _entry = nextSetEntry(_firstEntry[_row]);
+
+            @Override
+            public boolean hasNext() {
+              return _entry != NO_ENTRY;
+            }
+
+            @Override
+            public Entry<String, V> next() {
+              if (_entry == NO_ENTRY) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, V> next =
+                  new SimpleImmutableEntry<>(_dictionary.getName(_entryInstance[_entry]),
+                      _column.get(_entry));
+              _entry = nextSetEntry(_nextEntry[_entry]);
+              return next;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          int size = 0;
+          for (int entry = nextSetEntry(_firstEntry[_row]); entry != NO_ENTRY;
+              entry = nextSetEntry(_nextEntry[entry])) {
+            size++;
+          }
+          return size;
+        }
+      };
+    }
+
+    private int findEntry(Object key) {
+      if (!(key instanceof String)) {
+        return NO_ENTRY;
+      }
+      int entry = ResourceStateTable.this.findEntry(_row, _dictionary.getId((String) key));
+      return entry != NO_ENTRY && _column.isSet(entry) ? entry : NO_ENTRY;
+    }
+
+    private int nextSetEntry(int entry) {
+      while (entry != NO_ENTRY && !_column.isSet(entry)) {
+        entry = _nextEntry[entry];
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * The read-only (partition -> instance -> value) view of a column.
+   */
+  private class ResourceView<V> extends AbstractMap<Partition, Map<String, V>> {
+    private final Column<V> _column;
+
+    ResourceView(Column<V> column) {
+      _column = column;
+    }
+
+    @Override
+    public Map<String, V> get(Object key) {
+      Integer row = key instanceof Partition ? _partitionRows.get(key) : null;
+      return row == null || !hasValue(row, _column) ? null : new PartitionView<>(_column, row);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      Integer row = key instanceof Partition ? _partitionRows.get(key) : null;
+      return row != null && hasValue(row, _column);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return _column._setCount == 0;
+    }
+
+    @Override
+    public Set<Entry<Partition, Map<String, V>>> entrySet() {
+      return new AbstractSet<Entry<Partition, Map<String, V>>>() {
+        @Override
+        public Iterator<Entry<Partition, Map<String, V>>> iterator() {
+          return new Iterator<Entry<Partition, Map<String, V>>>() {
+            private int _row = nextRow(0);
+
+            @Override
+            public boolean hasNext() {
+              return _row < _partitionCount;
+            }
+
+            @Override
+            public Entry<Partition, Map<String, V>> next() {
+              if (_row >= _partitionCount) {
+                throw new NoSuchElementException();
+              }
+              Entry<Partition, Map<String, V>> next =
+                  new SimpleImmutableEntry<>(_partitions[_row], new PartitionView<>(_column, _row));
+              _row = nextRow(_row + 1);
+              return next;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          int size = 0;
+          for (int row = nextRow(0); row < _partitionCount; row = nextRow(row + 1)) {
+            size++;
+          }
+          return size;
+        }
+      };
+    }
+
+    private int nextRow(int row) {
+      while (row < _partitionCount && !hasValue(row, _column)) {
+        row++;
+      }
+      return row;
+    }
+  }
+}
@@ -99,6 +99,43 @@ class StateTransitionThrottleController {
     }
   }
 
+  private StateTransitionThrottleController(boolean throttleEnabled) {
+    _pendingTransitionAllowedInCluster = new HashMap<>();
+    _pendingTransitionAllowedPerInstance = new HashMap<>();
+    _pendingTransitionAllowedPerResource = new HashMap<>();
+    _throttleEnabled = throttleEnabled;
+  }
+
+  /**
+   * Check if the throttle quota is only set at the resource level. In this case, the resources
+   * never share any quota, so they can be throttled independently.
+   * @return true if there is no cluster level or instance level quota
+   */
+  protected boolean isResourceQuotaIndependent() {
+    return _pendingTransitionAllowedInCluster.isEmpty()
+        && _pendingTransitionAllowedPerInstance.isEmpty();
+  }
+
+  /**
+   * Create a throttle controller that only has the resource level quota of the given resource.
+   * The quota is copied, so the returned controller can be charged independently of this one.
+   * This is only equivalent to charging this controller if the resource quota is independent.
+   * @see #isResourceQuotaIndependent()
+   * @param resourceName the resource to throttle
+   * @return the throttle controller that only contains the quota of the resource
+   */
+  protected StateTransitionThrottleController getResourcePartition(String resourceName) {
+    StateTransitionThrottleController partition =
+        new StateTransitionThrottleController(_throttleEnabled);
+    Map<StateTransitionThrottleConfig.RebalanceType, Long> resourceQuota =
+        _pendingTransitionAllowedPerResource.get(resourceName);
+    if (resourceQuota != null) {
+      partition._pendingTransitionAllowedPerResource.put(resourceName,
+          new HashMap<>(resourceQuota));
+    }
+    return partition;
+  }
+
   /**
    * Returns the flag that indicates throttling is applied at any level (cluster, resource, and
    * instance).
@@ -30,11 +30,13 @@ import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixManager;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.controller.common.PartitionStateMap;
+import org.apache.helix.controller.dataproviders.ControllerDataSnapshot;
 import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
 import org.apache.helix.controller.pipeline.AbstractAsyncBaseStage;
 import org.apache.helix.controller.pipeline.AsyncWorkerType;
 import org.apache.helix.model.ClusterConfig;
 import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
 import org.apache.helix.model.Partition;
 import org.apache.helix.model.Resource;
 import org.slf4j.Logger;
@@ -51,7 +53,8 @@ public class TargetExteralViewCalcStage extends AbstractAsyncBaseStage {
   @Override
   public void execute(final ClusterEvent event) throws Exception {
     ResourceControllerDataProvider cache = event.getAttribute(AttributeName.ControllerDataProvider.name());
-    ClusterConfig clusterConfig = cache.getClusterConfig();
+    ControllerDataSnapshot snapshot = getDataSnapshot(event);
+    ClusterConfig clusterConfig = snapshot.getClusterConfig();
     if (!clusterConfig.isTargetExternalViewEnabled()) {
       return;
     }
@@ -77,7 +80,8 @@ public class TargetExteralViewCalcStage extends AbstractAsyncBaseStage {
     List<ExternalView> targetExternalViews = new ArrayList<>();
 
     for (String resourceName : bestPossibleAssignments.resourceSet()) {
-      if (cache.getIdealState(resourceName) == null || cache.getIdealState(resourceName).isExternalViewDisabled()) {
+      IdealState idealState = snapshot.getIdealState(resourceName);
+      if (idealState == null || idealState.isExternalViewDisabled()) {
         continue;
       }
       Resource resource = resourceMap.get(resourceName);
@@ -96,7 +100,7 @@ public class TargetExteralViewCalcStage extends AbstractAsyncBaseStage {
           targetExternalView = new ExternalView(resourceName);
           targetExternalView.getRecord()
               .getSimpleFields()
-              .putAll(cache.getIdealState(resourceName).getRecord().getSimpleFields());
+              .putAll(idealState.getRecord().getSimpleFields());
           needPersist = true;
         }
 
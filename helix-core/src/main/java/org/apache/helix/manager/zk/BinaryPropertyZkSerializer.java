@@ -0,0 +1,103 @@
+package org.apache.helix.manager.zk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.helix.HelixException;
+import org.apache.helix.PropertyPathBuilder;
+import org.apache.helix.PropertyType;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordBinarySerializer;
+import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
+import org.apache.helix.zookeeper.zkclient.serialize.PathBasedZkSerializer;
+import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
+
+/**
+ * The path based serializer that writes the ZNRecords of the selected property types, e.g.
+ * EXTERNALVIEW and CURRENTSTATES, by {@link ZNRecordBinarySerializer}, and the other data by the
+ * default serializer.
+ * Since the ZNRecord serializers auto-detect the layout on read, the data written in either
+ * layout can be read regardless of the property types that are selected by the reader.
+ */
+public class BinaryPropertyZkSerializer implements PathBasedZkSerializer {
+  private final ZkSerializer _defaultSerializer;
+  private final ZkSerializer _binarySerializer = new ZNRecordBinarySerializer();
+  private final List<PropertyType> _binaryPropertyTypes;
+
+  public BinaryPropertyZkSerializer(ZkSerializer defaultSerializer,
+      Collection<PropertyType> binaryPropertyTypes) {
+    _defaultSerializer = defaultSerializer;
+    _binaryPropertyTypes = binaryPropertyTypes.isEmpty() ? Collections.emptyList()
+        : new ArrayList<>(EnumSet.copyOf(binaryPropertyTypes));
+  }
+
+  /**
+   * Parse the comma separated property type names, e.g. "EXTERNALVIEW,CURRENTSTATES".
+   * @throws HelixException if any of the names is not a property type.
+   */
+  public static List<PropertyType> parsePropertyTypes(String propertyTypes) {
+    List<PropertyType> types = new ArrayList<>();
+    if (propertyTypes == null) {
+      return types;
+    }
+    for (String typeName : propertyTypes.split(",")) {
+      typeName = typeName.trim();
+      if (typeName.isEmpty()) {
+        continue;
+      }
+      try {
+        types.add(PropertyType.valueOf(typeName));
+      } catch (IllegalArgumentException e) {
+        throw new HelixException("Invalid property type for the binary serializer: " + typeName,
+            e);
+      }
+    }
+    return types;
+  }
+
+  private boolean isBinaryPath(String path) {
+    for (PropertyType type : _binaryPropertyTypes) {
+      if (PropertyPathBuilder.isPathOfType(type, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public byte[] serialize(Object data, String path) throws ZkMarshallingError {
+    if (isBinaryPath(path)) {
+      return _binarySerializer.serialize(data);
+    }
+    return _defaultSerializer.serialize(data);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes, String path) throws ZkMarshallingError {
+    if (isBinaryPath(path)) {
+      return _binarySerializer.deserialize(bytes);
+    }
+    return _defaultSerializer.deserialize(bytes);
+  }
+}
@@ -91,6 +91,11 @@ public class CallbackEventExecutor {
         _futureCallBackProcessEvent =
             _threadPoolExecutor.submit(new CallbackProcessor(handler, event));
       } else {
+        NotificationContext pendingEvent = _callBackEventQueue.get(eventType);
+        if (pendingEvent != null) {
+          // The pending event is replaced by the new one, so keep its changed paths.
+          event.mergeDirtyPaths(pendingEvent);
+        }
         _callBackEventQueue.put(eventType, event);
       }
     }
@@ -0,0 +1,231 @@
+package org.apache.helix.manager.zk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The engine of the group commits, which merges the concurrent updates of the same key into a
+ * single write.
+ *
+ * Each key has its own queue of pending updates, so the updates of different keys never wait for
+ * each other except for the write permits. The committing thread that wins the key drains all the
+ * pending updates of the key and writes them in one batch. The other committing threads wait on
+ * the completion futures of their updates. The queue of a key is removed once no thread is
+ * committing to the key.
+ *
+ * The number of the concurrent writes is bounded by twice the number of the cores by default, so
+ * the updates that arrive while the writes are in progress are merged into the next writes instead
+ * of issuing more ZK requests. The batching efficiency is reported by
+ * {@link #getAverageUpdatesPerWrite()}, which the data accessors expose.
+ *
+ * @param <U> the type of the updates
+ */
+public class GroupCommitEngine<U> {
+  private static final Logger LOG = LoggerFactory.getLogger(GroupCommitEngine.class);
+  // The writes mostly wait for the ZK round trips, so allow more writes than the cores.
+  private static final int DEFAULT_MAX_CONCURRENT_WRITES =
+      Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+  /**
+   * Write the pending updates of a key.
+   */
+  public interface BatchWriter<U> {
+    /**
+     * @param key the key of the updates
+     * @param updates the updates in the commit order
+     * @return true if the updates have been written
+     */
+    boolean write(String key, List<U> updates);
+  }
+
+  private static class Entry<U> {
+    final U _update;
+    final CompletableFuture<Boolean> _result = new CompletableFuture<>();
+
+    Entry(U update) {
+      _update = update;
+    }
+  }
+
+  private static class KeyQueue<U> {
+    final AtomicBoolean _running = new AtomicBoolean(false);
+    final ConcurrentLinkedQueue<Entry<U>> _pending = new ConcurrentLinkedQueue<>();
+    // The number of the threads that are committing to the key. Only updated in the map compute.
+    int _refCount = 0;
+  }
+
+  private final ConcurrentHashMap<String, KeyQueue<U>> _keyQueues = new ConcurrentHashMap<>();
+  private final Semaphore _writePermits;
+  private final AtomicLong _writeCount = new AtomicLong();
+  private final AtomicLong _updateCount = new AtomicLong();
+
+  public GroupCommitEngine() {
+    this(DEFAULT_MAX_CONCURRENT_WRITES);
+  }
+
+  /**
+   * @param maxConcurrentWrites the max number of the keys that are written at the same time
+   */
+  public GroupCommitEngine(int maxConcurrentWrites) {
+    if (maxConcurrentWrites < 1) {
+      throw new IllegalArgumentException(
+          "The max concurrent writes must be positive: " + maxConcurrentWrites);
+    }
+    _writePermits = new Semaphore(maxConcurrentWrites);
+  }
+
+  /**
+   * Commit the update of the key, and wait until it is written.
+   * @param key the key of the update
+   * @param update the update
+   * @param writer the writer of the update, which might also write the pending updates of the
+   *          other threads
+   * @return true if the update has been written
+   */
+  public boolean commit(String key, U update, BatchWriter<U> writer) {
+    Entry<U> entry = new Entry<>(update);
+    KeyQueue<U> queue = acquireQueue(key);
+    try {
+      queue._pending.add(entry);
+      // Keep writing while there are pending updates, since the other threads could have
+      // enqueued their updates after the last drain while this thread was still writing.
+      while (queue._running.compareAndSet(false, true)) {
+        try {
+          writePending(key, queue, writer);
+        } finally {
+          queue._running.set(false);
+        }
+        if (queue._pending.isEmpty()) {
+          break;
+        }
+      }
+      return entry._result.get();
+    } catch (InterruptedException e) {
+      LOG.error("Interrupted while committing the update of " + key, e);
+      // Restore interrupt status
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      LOG.error("Fail to commit the update of " + key, e);
+      return false;
+    } finally {
+      releaseQueue(key, queue);
+    }
+  }
+
+  /**
+   * @return the number of the writes
+   */
+  public long getWriteCount() {
+    return _writeCount.get();
+  }
+
+  /**
+   * @return the number of the updates that have been written
+   */
+  public long getCommittedUpdateCount() {
+    return _updateCount.get();
+  }
+
+  /**
+   * @return the average number of the updates that are merged into a write, which is 0 if there
+   * is no write yet
+   */
+  public double getAverageUpdatesPerWrite() {
+    long writeCount = _writeCount.get();
+    return writeCount == 0 ? 0 : (double) _updateCount.get() / writeCount;
+  }
+
+  /**
+   * @return the number of the updates of the key that are waiting to be written
+   */
+  int getPendingUpdateCount(String key) {
+    KeyQueue<U> queue = _keyQueues.get(key);
+    return queue == null ? 0 : queue._pending.size();
+  }
+
+  private void writePending(String key, KeyQueue<U> queue, BatchWriter<U> writer) {
+    // Take the permit before draining, so the updates that arrive meanwhile join this write.
+    _writePermits.acquireUninterruptibly();
+    try {
+      List<Entry<U>> entries = new ArrayList<>();
+      for (Entry<U> entry = queue._pending.poll(); entry != null;
+          entry = queue._pending.poll()) {
+        entries.add(entry);
+      }
+      if (entries.isEmpty()) {
+        return;
+      }
+      List<U> updates = new ArrayList<>(entries.size());
+      for (Entry<U> entry : entries) {
+        updates.add(entry._update);
+      }
+
+      boolean success;
+      try {
+        success = writer.write(key, updates);
+      } catch (RuntimeException e) {
+        LOG.error("Fail to write " + updates.size() + " updates of " + key, e);
+        success = false;
+      }
+      _writeCount.incrementAndGet();
+      _updateCount.addAndGet(entries.size());
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Group committed {} updates of {}, success: {}", entries.size(), key, success);
+      }
+      for (Entry<U> entry : entries) {
+        entry._result.complete(success);
+      }
+    } finally {
+      _writePermits.release();
+    }
+  }
+
+  private KeyQueue<U> acquireQueue(String key) {
+    return _keyQueues.compute(key, (k, queue) -> {
+      if (queue == null) {
+        queue = new KeyQueue<>();
+      }
+      queue._refCount++;
+      return queue;
+    });
+  }
+
+  private void releaseQueue(String key, KeyQueue<U> queue) {
+    _keyQueues.computeIfPresent(key, (k, current) -> {
+      if (current != queue) {
+        return current;
+      }
+      return --current._refCount == 0 ? null : current;
+    });
+  }
+}
@@ -401,6 +401,30 @@ public class ZKHelixDataAccessor implements HelixDataAccessor {
     return childNames;
   }
 
+  @Override
+  public List<List<String>> getChildNames(List<PropertyKey> keys) {
+    if (keys == null || keys.size() == 0) {
+      return Collections.emptyList();
+    }
+
+    int options = constructOptions(keys.get(0).getType());
+    List<String> parentPaths = new ArrayList<>(keys.size());
+    for (PropertyKey key : keys) {
+      if (constructOptions(key.getType()) != options) {
+        // The keys are listed in a batch only if they have the same options.
+        return HelixDataAccessor.super.getChildNames(keys);
+      }
+      parentPaths.add(key.getPath());
+    }
+    List<List<String>> childNamesList = _baseDataAccessor.getChildNames(parentPaths, options);
+    for (int i = 0; i < childNamesList.size(); i++) {
+      if (childNamesList.get(i) == null) {
+        childNamesList.set(i, Collections.<String>emptyList());
+      }
+    }
+    return childNamesList;
+  }
+
   @Deprecated
   @Override
   public <T extends HelixProperty> List<T> getChildValues(PropertyKey key) {
@@ -598,6 +622,14 @@ public class ZKHelixDataAccessor implements HelixDataAccessor {
     return _baseDataAccessor;
   }
 
+  /**
+   * @return the average number of the state updates that are merged into a ZK write by the group
+   * commit of this accessor, which is 0 if there is no write yet
+   */
+  public double getGroupCommitAverageUpdatesPerWrite() {
+    return _groupCommit.getAverageUpdatesPerWrite();
+  }
+
   @Override
   public <T extends HelixProperty> boolean[] updateChildren(List<String> paths,
       List<DataUpdater<ZNRecord>> updaters, int options) {
@@ -90,8 +90,10 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.helix.util.HelixUtil;
 import org.apache.helix.zookeeper.api.client.HelixZkClient;
 import org.apache.helix.zookeeper.api.client.RealmAwareZkClient;
+import org.apache.helix.zookeeper.constant.ZkSystemPropertyKeys;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.helix.zookeeper.datamodel.serializer.ChainedPathZkSerializer;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordPooledStreamingSerializer;
 import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordSerializer;
 import org.apache.helix.zookeeper.impl.factory.DedicatedZkClientFactory;
 import org.apache.helix.zookeeper.impl.factory.HelixZkClientFactory;
@@ -99,6 +101,7 @@ import org.apache.helix.zookeeper.impl.factory.SharedZkClientFactory;
 import org.apache.helix.zookeeper.zkclient.IZkStateListener;
 import org.apache.helix.zookeeper.zkclient.exception.ZkInterruptedException;
 import org.apache.helix.zookeeper.zkclient.serialize.PathBasedZkSerializer;
+import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
 import org.apache.zookeeper.Watcher.Event.EventType;
 import org.apache.zookeeper.Watcher.Event.KeeperState;
 import org.slf4j.Logger;
@@ -699,6 +702,13 @@ public class ZKHelixManager implements HelixManager, IZkStateListener {
     return _realmAwareZkConnectionConfig;
   }
 
+  /**
+   * @return the HelixManagerProperty that this manager is created with
+   */
+  public HelixManagerProperty getHelixManagerProperty() {
+    return _helixManagerProperty;
+  }
+
   @Override
   public String getInstanceName() {
     return _instanceName;
@@ -1429,8 +1439,14 @@ public class ZKHelixManager implements HelixManager, IZkStateListener {
    */
   private RealmAwareZkClient createSingleRealmZkClient() {
     final String shardingKey = HelixUtil.clusterNameToShardingKey(_clusterName);
-    PathBasedZkSerializer zkSerializer =
-        ChainedPathZkSerializer.builder(new ZNRecordSerializer()).build();
+    ZkSerializer znRecordSerializer =
+        Boolean.getBoolean(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_POOLED_BUFFER_ENABLED)
+            ? new ZNRecordPooledStreamingSerializer() : new ZNRecordSerializer();
+    List<PropertyType> binaryPropertyTypes = BinaryPropertyZkSerializer.parsePropertyTypes(
+        System.getProperty(SystemPropertyKeys.ZK_SERIALIZER_BINARY_PROPERTY_TYPES));
+    PathBasedZkSerializer zkSerializer = binaryPropertyTypes.isEmpty()
+        ? ChainedPathZkSerializer.builder(znRecordSerializer).build()
+        : new BinaryPropertyZkSerializer(znRecordSerializer, binaryPropertyTypes);
 
     // If the user supplied RealmAwareZkConnectionConfig, then use it. Only create the connection
     // config if nothing is given
@@ -118,6 +118,19 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
 
   private static Logger LOG = LoggerFactory.getLogger(ZkBaseDataAccessor.class);
 
+  // The max number of the async requests of a batch read that are in flight at the same time, so
+  // a large batch does not flood the ZK server and the client's outgoing queue.
+  private static final int MAX_ASYNC_REQUESTS_IN_FLIGHT = HelixUtil.getSystemPropertyAsInt(
+      SystemPropertyKeys.ZK_BASE_DATA_ACCESSOR_MAX_ASYNC_REQUESTS_IN_FLIGHT, 1000);
+
+  // The default of whether the batch creates, sets and removes are first written in multi-ops, and
+  // only the paths that fail are written individually.
+  private static final boolean MULTI_OP_BATCH_ENABLED_DEFAULT = Boolean.parseBoolean(
+      System.getProperty(SystemPropertyKeys.ZK_BASE_DATA_ACCESSOR_MULTI_OP_BATCH_ENABLED, "false"));
+  // Stay below the default 1MB jute.maxbuffer of the ZK server.
+  private static final int MULTI_OP_MAX_BYTES = HelixUtil.getSystemPropertyAsInt(
+      SystemPropertyKeys.ZK_BASE_DATA_ACCESSOR_MULTI_OP_MAX_BYTES, 1000 * 1024);
+
   private final RealmAwareZkClient _zkClient;
 
   // true if ZkBaseDataAccessor was instantiated with a RealmAwareZkClient, false otherwise
@@ -125,6 +138,8 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
   // ZkClient
   private final boolean _usesExternalZkClient;
 
+  private volatile boolean _multiOpBatchEnabled = MULTI_OP_BATCH_ENABLED_DEFAULT;
+
   /**
    * @deprecated it is recommended to use the builder constructor {@link Builder}
    * instead to avoid having to manually create and maintain a RealmAwareZkClient
@@ -525,6 +540,7 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
           continue;
         }
 
+        waitForRequestInFlight(cbList, i);
         String path = paths.get(i);
         cbList[i] = new ZkAsyncCallbacks.GetDataCallbackHandler();
         _zkClient.asyncGetData(path, cbList[i]);
@@ -675,6 +691,67 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
     }
   }
 
+  /**
+   * async getChildNames
+   * @return the child names for each parent path, null if the parent path doesn't exist
+   */
+  @Override
+  public List<List<String>> getChildNames(List<String> parentPaths, int options) {
+    if (parentPaths == null || parentPaths.size() == 0) {
+      return Collections.emptyList();
+    }
+
+    long startT = System.nanoTime();
+
+    try {
+      ZkAsyncCallbacks.GetChildrenCallbackHandler[] cbList =
+          new ZkAsyncCallbacks.GetChildrenCallbackHandler[parentPaths.size()];
+      for (int i = 0; i < parentPaths.size(); i++) {
+        waitForRequestInFlight(cbList, i);
+        cbList[i] = new ZkAsyncCallbacks.GetChildrenCallbackHandler();
+        _zkClient.asyncGetChildren(parentPaths.get(i), cbList[i]);
+      }
+
+      List<List<String>> childNamesList = new ArrayList<>(parentPaths.size());
+      for (int i = 0; i < cbList.length; i++) {
+        ZkAsyncCallbacks.GetChildrenCallbackHandler cb = cbList[i];
+        cb.waitForSuccess();
+        if (Code.get(cb.getRc()) == Code.OK) {
+          List<String> childNames = new ArrayList<>(cb._children);
+          Collections.sort(childNames);
+          childNamesList.add(childNames);
+        } else if (Code.get(cb.getRc()) == Code.NONODE) {
+          childNamesList.add(null);
+        } else {
+          throw new HelixMetaDataAccessException(String
+              .format("Failed to get children of node %s, return code: %s", parentPaths.get(i),
+                  Code.get(cb.getRc())));
+        }
+      }
+      return childNamesList;
+    } finally {
+      long endT = System.nanoTime();
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("getChildren_async, size: " + parentPaths.size() + ", paths: " + parentPaths
+            .get(0) + ",... time: " + (endT - startT) + " ns");
+      }
+    }
+  }
+
+  /**
+   * Wait for the earliest request in flight to complete if the number of the requests in flight
+   * reaches the limit.
+   * @param cbList the callbacks of the issued requests, in the order of the requests
+   * @param next the index of the next request to issue
+   */
+  private static void waitForRequestInFlight(ZkAsyncCallbacks.DefaultCallback[] cbList,
+      int next) {
+    int earliest = next - MAX_ASYNC_REQUESTS_IN_FLIGHT;
+    if (earliest >= 0 && cbList[earliest] != null) {
+      cbList[earliest].waitForSuccess();
+    }
+  }
+
   /**
    * sync exists
    */
@@ -827,13 +904,23 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
 
     long startT = System.nanoTime();
     try {
+      ZkMultiOpWriter<T> multiOpWriter = getMultiOpWriter(paths);
+      if (multiOpWriter != null) {
+        boolean[] created = multiOpWriter.create(paths, records, mode);
+        for (int i = 0; i < created.length; i++) {
+          success[i] = created[i];
+          needCreate[i] = !created[i];
+        }
+      }
 
       ZkAsyncCallbacks.CreateCallbackHandler[] cbList =
           create(paths, records, needCreate, pathsCreated, options);
 
       for (int i = 0; i < cbList.length; i++) {
         ZkAsyncCallbacks.CreateCallbackHandler cb = cbList[i];
-        success[i] = (Code.get(cb.getRc()) == Code.OK);
+        if (cb != null) {
+          success[i] = (Code.get(cb.getRc()) == Code.OK);
+        }
       }
 
       return success;
@@ -853,7 +940,57 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
    */
   @Override
   public boolean[] setChildren(List<String> paths, List<T> records, int options) {
-    return set(paths, records, null, null, options);
+    ZkMultiOpWriter<T> multiOpWriter = getMultiOpWriter(paths);
+    if (multiOpWriter == null || AccessOption.getMode(options) == null) {
+      return set(paths, records, null, null, options);
+    }
+
+    boolean[] success = multiOpWriter.set(paths, records);
+    List<Integer> remaining = getUnwritten(success);
+    if (!remaining.isEmpty()) {
+      List<String> remainingPaths = new ArrayList<>(remaining.size());
+      List<T> remainingRecords = new ArrayList<>(remaining.size());
+      for (int i : remaining) {
+        remainingPaths.add(paths.get(i));
+        remainingRecords.add(records.get(i));
+      }
+      boolean[] remainingSuccess = set(remainingPaths, remainingRecords, null, null, options);
+      for (int i = 0; i < remaining.size(); i++) {
+        success[remaining.get(i)] = remainingSuccess[i];
+      }
+    }
+    return success;
+  }
+
+  /**
+   * @return the writer that packs the batch writes of the paths into multi-ops, or null if the
+   * batch writes are done by the individual async requests
+   */
+  private ZkMultiOpWriter<T> getMultiOpWriter(List<String> paths) {
+    // The federated client does not support the multi-op, and a single path has nothing to batch.
+    if (!_multiOpBatchEnabled || paths == null || paths.size() < 2
+        || _zkClient instanceof FederatedZkClient) {
+      return null;
+    }
+    return new ZkMultiOpWriter<>(_zkClient, MULTI_OP_MAX_BYTES);
+  }
+
+  /**
+   * Enable or disable packing the batch creates, sets and removes of this accessor into multi-ops.
+   * The default is set by {@link SystemPropertyKeys#ZK_BASE_DATA_ACCESSOR_MULTI_OP_BATCH_ENABLED}.
+   */
+  void setMultiOpBatchEnabled(boolean multiOpBatchEnabled) {
+    _multiOpBatchEnabled = multiOpBatchEnabled;
+  }
+
+  private static List<Integer> getUnwritten(boolean[] written) {
+    List<Integer> unwritten = new ArrayList<>();
+    for (int i = 0; i < written.length; i++) {
+      if (!written[i]) {
+        unwritten.add(i);
+      }
+    }
+    return unwritten;
   }
 
   /**
@@ -1188,6 +1325,7 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
       ZkAsyncCallbacks.ExistsCallbackHandler[] cbList =
           new ZkAsyncCallbacks.ExistsCallbackHandler[paths.size()];
       for (int i = 0; i < paths.size(); i++) {
+        waitForRequestInFlight(cbList, i);
         String path = paths.get(i);
         cbList[i] = new ZkAsyncCallbacks.ExistsCallbackHandler();
         _zkClient.asyncExists(path, cbList[i]);
@@ -1227,7 +1365,15 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
     long startT = System.nanoTime();
 
     try {
+      ZkMultiOpWriter<T> multiOpWriter = getMultiOpWriter(paths);
+      if (multiOpWriter != null) {
+        success = multiOpWriter.delete(paths);
+      }
+
       for (int i = 0; i < paths.size(); i++) {
+        if (success[i]) {
+          continue;
+        }
         String path = paths.get(i);
         cbList[i] = new ZkAsyncCallbacks.DeleteCallbackHandler();
         _zkClient.asyncDelete(path, cbList[i]);
@@ -1235,6 +1381,9 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
 
       for (int i = 0; i < cbList.length; i++) {
         ZkAsyncCallbacks.DeleteCallbackHandler cb = cbList[i];
+        if (cb == null) {
+          continue;
+        }
         cb.waitForSuccess();
         success[i] = (cb.getRc() == 0);
       }
@@ -1306,9 +1455,20 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
   }
 
   public static class Builder<T> extends GenericBaseDataAccessorBuilder<Builder<T>> {
+    private boolean _multiOpBatchEnabled = MULTI_OP_BATCH_ENABLED_DEFAULT;
+
     public Builder() {
     }
 
+    /**
+     * Sets whether the batch creates, sets and removes are first written in ZK multi-ops. The
+     * default is set by {@link SystemPropertyKeys#ZK_BASE_DATA_ACCESSOR_MULTI_OP_BATCH_ENABLED}.
+     */
+    public Builder<T> setMultiOpBatchEnabled(boolean multiOpBatchEnabled) {
+      _multiOpBatchEnabled = multiOpBatchEnabled;
+      return this;
+    }
+
     /**
      * Returns a <code>ZkBaseDataAccessor</code> instance.
      * <p>
@@ -1320,9 +1480,11 @@ public class ZkBaseDataAccessor<T> implements BaseDataAccessor<T> {
       validate();
       // Initialize ZkBaseDataAccessor with usesExternalZkClient = false so that
       // ZkBaseDataAccessor::close() would close ZkClient as well to prevent thread leakage
-      return new ZkBaseDataAccessor<>(
+      ZkBaseDataAccessor<T> accessor = new ZkBaseDataAccessor<>(
           createZkClient(_realmMode, _realmAwareZkConnectionConfig, _realmAwareZkClientConfig,
               _zkAddress), false);
+      accessor.setMultiOpBatchEnabled(_multiOpBatchEnabled);
+      return accessor;
     }
   }
 
@@ -19,7 +19,6 @@ package org.apache.helix.manager.zk;
  * under the License.
  */
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,10 +40,12 @@ import org.apache.helix.SystemPropertyKeys;
 import org.apache.helix.msdcommon.exception.InvalidRoutingDataException;
 import org.apache.helix.zookeeper.api.client.HelixZkClient;
 import org.apache.helix.zookeeper.api.client.RealmAwareZkClient;
+import org.apache.helix.zookeeper.compression.CompressionCodec;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.helix.zookeeper.impl.client.FederatedZkClient;
 import org.apache.helix.zookeeper.impl.factory.DedicatedZkClientFactory;
-import org.apache.helix.zookeeper.util.GZipCompressionUtil;
+import org.apache.helix.zookeeper.util.ZNRecordUtil;
 import org.apache.helix.zookeeper.zkclient.DataUpdater;
 import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
 import org.apache.helix.zookeeper.zkclient.exception.ZkNoNodeException;
@@ -71,18 +72,35 @@ public class ZkBucketDataAccessor implements BucketDataAccessor, AutoCloseable {
 
   private final int _bucketSize;
   private final long _versionTTLms;
+  private final CompressionCodec _compressionCodec;
   private ZkSerializer _zkSerializer;
   private RealmAwareZkClient _zkClient;
   private ZkBaseDataAccessor<byte[]> _zkBaseDataAccessor;
   private Map<String, ScheduledFuture> _gcTaskFutureMap = new HashMap<>();
 
   /**
-   * Constructor that allows a custom bucket size.
+   * Constructor that allows a custom bucket size. The data is compressed by the default codec,
+   * which is configured by the system property "zk.serializer.znrecord.compression.codec".
    * @param zkAddr
    * @param bucketSize
    * @param versionTTLms in ms
    */
   public ZkBucketDataAccessor(String zkAddr, int bucketSize, long versionTTLms) {
+    this(zkAddr, bucketSize, versionTTLms,
+        CompressionCodecs.getCodec(ZNRecordUtil.getDefaultCompressionCodecSpec()));
+  }
+
+  /**
+   * Constructor that allows a custom bucket size and compression codec.
+   * Note that the data written by any codec can be read, so the codec can be changed at any time as
+   * long as all the readers support the codec.
+   * @param zkAddr
+   * @param bucketSize
+   * @param versionTTLms in ms
+   * @param compressionCodec the codec to compress the data
+   */
+  public ZkBucketDataAccessor(String zkAddr, int bucketSize, long versionTTLms,
+      CompressionCodec compressionCodec) {
     _zkClient = createRealmAwareZkClient(zkAddr);
     _zkClient.setZkSerializer(new ZkSerializer() {
       @Override
@@ -102,6 +120,7 @@ public class ZkBucketDataAccessor implements BucketDataAccessor, AutoCloseable {
     _zkSerializer = new ZNRecordJacksonSerializer();
     _bucketSize = bucketSize;
     _versionTTLms = versionTTLms;
+    _compressionCodec = compressionCodec;
   }
 
   /**
@@ -169,7 +188,7 @@ public class ZkBucketDataAccessor implements BucketDataAccessor, AutoCloseable {
     // Take the ZNRecord and serialize it (get byte[])
     byte[] serializedRecord = _zkSerializer.serialize(value.getRecord());
     // Compress the byte[]
-    byte[] compressedRecord = GZipCompressionUtil.compress(serializedRecord);
+    byte[] compressedRecord = CompressionCodecs.compress(serializedRecord, _compressionCodec);
     // Compute N - number of buckets
     int numBuckets = (compressedRecord.length + _bucketSize - 1) / _bucketSize;
 
@@ -323,10 +342,9 @@ public class ZkBucketDataAccessor implements BucketDataAccessor, AutoCloseable {
     }
 
     // Decompress the byte array
-    ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(compressedRecord);
     byte[] serializedRecord;
     try {
-      serializedRecord = GZipCompressionUtil.uncompress(byteArrayInputStream);
+      serializedRecord = CompressionCodecs.uncompress(compressedRecord);
     } catch (IOException e) {
       throw new HelixException(String.format("Failed to decompress path: %s!", path), e);
     }
@@ -308,6 +308,14 @@ public class ZkCacheBaseDataAccessor<T> implements HelixPropertyStore<T> {
     // return _baseAccessor.update(serverPath, updater, options);
   }
 
+  /**
+   * @return the average number of the updates that are merged into a ZK write by the group commit
+   * of the uncached paths, which is 0 if there is no write yet
+   */
+  public double getGroupCommitAverageUpdatesPerWrite() {
+    return _groupCommit.getAverageUpdatesPerWrite();
+  }
+
   @Override
   public boolean exists(String path, int options) {
     String clientPath = path;
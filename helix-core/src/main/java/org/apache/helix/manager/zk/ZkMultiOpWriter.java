@@ -0,0 +1,201 @@
+package org.apache.helix.manager.zk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.helix.zookeeper.api.client.RealmAwareZkClient;
+import org.apache.helix.zookeeper.datamodel.SessionAwareZNRecord;
+import org.apache.helix.zookeeper.zkclient.exception.ZkException;
+import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.ZooDefs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write a batch of znodes with ZK multi-ops, so many small writes take a few round trips instead
+ * of one request per znode. The ops are packed into multi-ops that are no larger than the max
+ * size, since a multi-op is sent as a single request and is bounded by the jute.maxbuffer of
+ * the server.
+ *
+ * A multi-op is a transaction, so if any op in it fails, none of its ops is applied. The paths of
+ * a failed multi-op, and the paths that cannot be batched, are reported as not written, so the
+ * caller can fall back to the individual writes, which also handle the missing parent nodes and
+ * the other errors.
+ */
+class ZkMultiOpWriter<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(ZkMultiOpWriter.class);
+  // The estimated size of the request header, the op header and the ACL of an op.
+  private static final int OP_OVERHEAD_BYTES = 64;
+
+  private final RealmAwareZkClient _zkClient;
+  private final int _maxMultiOpBytes;
+
+  /**
+   * @param zkClient the client that supports the multi-op
+   * @param maxMultiOpBytes the max estimated size of a multi-op
+   */
+  ZkMultiOpWriter(RealmAwareZkClient zkClient, int maxMultiOpBytes) {
+    _zkClient = zkClient;
+    _maxMultiOpBytes = maxMultiOpBytes;
+  }
+
+  /**
+   * Create the nodes. The parent nodes are not created.
+   * @param paths the paths of the nodes
+   * @param records the records of the nodes, or null to create the nodes without data
+   * @param mode the create mode
+   * @return true for the paths that have been created
+   */
+  boolean[] create(List<String> paths, List<T> records, CreateMode mode) {
+    MultiOpBatch batch = new MultiOpBatch(paths.size());
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.get(i);
+      T record = records == null ? null : records.get(i);
+      byte[] data = serialize(path, record);
+      if (record == null || data != null) {
+        batch.add(i, Op.create(path, data, ZooDefs.Ids.OPEN_ACL_UNSAFE, mode), path, data);
+      }
+    }
+    return batch.commit();
+  }
+
+  /**
+   * Set the data of the nodes regardless of their versions. The nodes that do not exist are not
+   * created.
+   * @return true for the paths that have been set
+   */
+  boolean[] set(List<String> paths, List<T> records) {
+    MultiOpBatch batch = new MultiOpBatch(paths.size());
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.get(i);
+      byte[] data = serialize(path, records.get(i));
+      if (data != null) {
+        batch.add(i, Op.setData(path, data, -1), path, data);
+      }
+    }
+    return batch.commit();
+  }
+
+  /**
+   * Delete the nodes, which must not have any child.
+   * @return true for the paths that have been deleted
+   */
+  boolean[] delete(List<String> paths) {
+    MultiOpBatch batch = new MultiOpBatch(paths.size());
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.get(i);
+      batch.add(i, Op.delete(path, -1), path, null);
+    }
+    return batch.commit();
+  }
+
+  /**
+   * @return the serialized record, or null if the record cannot be batched. A session aware record
+   * is not batched, since the multi-op does not check the expected session.
+   */
+  private byte[] serialize(String path, T record) {
+    if (record == null || (record instanceof SessionAwareZNRecord
+        && ((SessionAwareZNRecord) record).getExpectedSessionId() != null)) {
+      return null;
+    }
+    try {
+      return _zkClient.serialize(record, path);
+    } catch (ZkMarshallingError e) {
+      LOG.warn("Failed to serialize the record of {}, it will be written individually.", path, e);
+      return null;
+    }
+  }
+
+  private class MultiOpBatch {
+    private final boolean[] _written;
+    private final List<Op> _ops = new ArrayList<>();
+    private final List<Integer> _indices = new ArrayList<>();
+    private int _bytes = 0;
+
+    MultiOpBatch(int size) {
+      _written = new boolean[size];
+    }
+
+    void add(int index, Op op, String path, byte[] data) {
+      int bytes = OP_OVERHEAD_BYTES + path.getBytes(StandardCharsets.UTF_8).length
+          + (data == null ? 0 : data.length);
+      if (bytes > _maxMultiOpBytes) {
+        // Too large for any multi-op, leave it to the individual write.
+        return;
+      }
+      if (_bytes + bytes > _maxMultiOpBytes) {
+        execute();
+      }
+      _ops.add(op);
+      _indices.add(index);
+      _bytes += bytes;
+    }
+
+    boolean[] commit() {
+      execute();
+      return _written;
+    }
+
+    private void execute() {
+      if (_ops.isEmpty()) {
+        return;
+      }
+      try {
+        List<OpResult> results = _zkClient.multi(_ops);
+        for (int i = 0; i < results.size(); i++) {
+          _written[_indices.get(i)] = !(results.get(i) instanceof OpResult.ErrorResult);
+        }
+      } catch (ZkException e) {
+        // None of the ops has been applied.
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Multi-op of {} ops failed at {}, they will be written individually.",
+              _ops.size(), getFailedPath(e), e);
+        }
+      } finally {
+        _ops.clear();
+        _indices.clear();
+        _bytes = 0;
+      }
+    }
+
+    private String getFailedPath(ZkException e) {
+      if (e.getCause() instanceof KeeperException) {
+        List<OpResult> results = ((KeeperException) e.getCause()).getResults();
+        for (int i = 0; results != null && i < results.size(); i++) {
+          OpResult result = results.get(i);
+          if (result instanceof OpResult.ErrorResult
+              && ((OpResult.ErrorResult) result).getErr()
+              != KeeperException.Code.RUNTIMEINCONSISTENCY.intValue()
+              && ((OpResult.ErrorResult) result).getErr() != KeeperException.Code.OK.intValue()) {
+            return _ops.get(i).getPath();
+          }
+        }
+      }
+      return null;
+    }
+  }
+}
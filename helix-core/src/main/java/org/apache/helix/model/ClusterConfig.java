@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableMap;
@@ -110,6 +111,19 @@ public class ClusterConfig extends HelixProperty {
     //
     // Default to be true.
     GLOBAL_REBALANCE_ASYNC_MODE,
+    // The max number of threads that the WAGED rebalancer uses to calculate the baseline. If the
+    // value is larger than 1, the cluster is split into the independent groups of resources and
+    // instances according to the instance group tags, and the groups are calculated concurrently.
+    // Note that the evenness is then evaluated within each group instead of the whole cluster.
+    //
+    // Default to be 1, which means the baseline is calculated for the whole cluster at once.
+    GLOBAL_REBALANCE_BASELINE_PARALLELISM,
+    // If enabled, the WAGED rebalancer persists the assignment changes as a delta log on top of the
+    // latest checkpoint, instead of rewriting the complete assignment for every change. The delta
+    // log is compacted into a new checkpoint periodically.
+    //
+    // Default to be false.
+    GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED,
 
     /**
      * Configure the abnormal partition states resolver classes for the corresponding state model.
@@ -134,7 +148,39 @@ public class ClusterConfig extends HelixProperty {
     // offline for more than this specified time period, and users call purge participant API,
     // then the node will be removed.
     // The unit is milliseconds.
-    OFFLINE_DURATION_FOR_PURGE_MS
+    OFFLINE_DURATION_FOR_PURGE_MS,
+
+    // If enabled, the controller only reloads the cluster data under the paths that are notified
+    // as changed, instead of checking the stats of all the cached data on every refresh.
+    //
+    // Default to be false.
+    INCREMENTAL_DATA_REFRESH_ENABLED,
+    // The interval of the full refresh when the incremental data refresh is enabled. The full
+    // refresh reconciles any change that might not be notified.
+    // The unit is milliseconds.
+    INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL,
+
+    // The max number of threads that the controller uses to calculate the best possible states and
+    // the intermediate states of the resources that are not rebalanced by the WAGED rebalancer.
+    // If the value is larger than 1, the resources that use the built-in rebalancers are
+    // calculated concurrently.
+    //
+    // Default to be 1, which means the resources are calculated one by one.
+    RESOURCE_REBALANCE_PARALLELISM,
+
+    // If enabled, the controller only recomputes the external view partitions whose current
+    // states have changed since the last pipeline run, and only writes the external views that
+    // are patched.
+    //
+    // Default to be false.
+    EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED,
+
+    // If enabled, the controller publishes the changed partitions of every external view it
+    // writes as a bounded log of ExternalViewChange records, so the spectators can patch their
+    // cached external views instead of re-reading them.
+    //
+    // Default to be false.
+    EXTERNAL_VIEW_CHANGE_FEED_ENABLED
   }
 
   public enum GlobalRebalancePreferenceKey {
@@ -167,6 +213,14 @@ public class ClusterConfig extends HelixProperty {
   private final static int MAX_REBALANCE_PREFERENCE = 1000;
   private final static int MIN_REBALANCE_PREFERENCE = 0;
   public final static boolean DEFAULT_GLOBAL_REBALANCE_ASYNC_MODE_ENABLED = true;
+  public final static int DEFAULT_GLOBAL_REBALANCE_BASELINE_PARALLELISM = 1;
+  public final static boolean DEFAULT_GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED = false;
+  public final static boolean DEFAULT_INCREMENTAL_DATA_REFRESH_ENABLED = false;
+  public final static long DEFAULT_INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL =
+      TimeUnit.MINUTES.toMillis(5);
+  public final static int DEFAULT_RESOURCE_REBALANCE_PARALLELISM = 1;
+  public final static boolean DEFAULT_EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED = false;
+  public final static boolean DEFAULT_EXTERNAL_VIEW_CHANGE_FEED_ENABLED = false;
   private static final int GLOBAL_TARGET_TASK_THREAD_POOL_SIZE_NOT_SET = -1;
   private static final int OFFLINE_NODE_TIME_OUT_FOR_MAINTENANCE_MODE_NOT_SET = -1;
 
@@ -933,6 +987,43 @@ public class ClusterConfig extends HelixProperty {
         DEFAULT_GLOBAL_REBALANCE_ASYNC_MODE_ENABLED);
   }
 
+  /**
+   * Set the max number of threads that are used to calculate the global baseline.
+   * @param parallelism the max number of threads, must be positive. 1 to calculate the baseline
+   *                    for the whole cluster at once.
+   */
+  public void setGlobalRebalanceBaselineParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(
+          "The global rebalance baseline parallelism must be positive: " + parallelism);
+    }
+    _record.setIntField(ClusterConfigProperty.GLOBAL_REBALANCE_BASELINE_PARALLELISM.name(),
+        parallelism);
+  }
+
+  public int getGlobalRebalanceBaselineParallelism() {
+    int parallelism = _record
+        .getIntField(ClusterConfigProperty.GLOBAL_REBALANCE_BASELINE_PARALLELISM.name(),
+            DEFAULT_GLOBAL_REBALANCE_BASELINE_PARALLELISM);
+    return parallelism < 1 ? DEFAULT_GLOBAL_REBALANCE_BASELINE_PARALLELISM : parallelism;
+  }
+
+  /**
+   * Set whether the WAGED rebalancer persists the assignment changes as a delta log.
+   * @param enabled true to persist the delta of the assignments, false to persist the complete
+   *                assignments.
+   */
+  public void setGlobalRebalanceAssignmentDeltaPersist(boolean enabled) {
+    _record.setBooleanField(
+        ClusterConfigProperty.GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED.name(), enabled);
+  }
+
+  public boolean isGlobalRebalanceAssignmentDeltaPersistEnabled() {
+    return _record.getBooleanField(
+        ClusterConfigProperty.GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED.name(),
+        DEFAULT_GLOBAL_REBALANCE_ASSIGNMENT_DELTA_PERSIST_ENABLED);
+  }
+
   /**
    * Set the time out window for offline nodes during maintenance mode. If an offline node has been
    * offline for more than this specified time period, it's treated as offline for the rest of
@@ -981,6 +1072,95 @@ public class ClusterConfig extends HelixProperty {
             OFFLINE_DURATION_FOR_PURGE_NOT_SET);
   }
 
+  /**
+   * Enable or disable the incremental data refresh of the controller.
+   * @param enabled true to only reload the data under the changed paths
+   */
+  public void setIncrementalDataRefreshEnabled(boolean enabled) {
+    _record.setBooleanField(ClusterConfigProperty.INCREMENTAL_DATA_REFRESH_ENABLED.name(),
+        enabled);
+  }
+
+  public boolean isIncrementalDataRefreshEnabled() {
+    return _record.getBooleanField(ClusterConfigProperty.INCREMENTAL_DATA_REFRESH_ENABLED.name(),
+        DEFAULT_INCREMENTAL_DATA_REFRESH_ENABLED);
+  }
+
+  /**
+   * Set the interval of the full refresh when the incremental data refresh is enabled.
+   * @param interval interval in milliseconds, must be positive
+   */
+  public void setIncrementalDataRefreshReconciliationInterval(long interval) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException(
+          "Incremental data refresh reconciliation interval must be positive.");
+    }
+    _record.setLongField(
+        ClusterConfigProperty.INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL.name(), interval);
+  }
+
+  /**
+   * Get the interval of the full refresh when the incremental data refresh is enabled.
+   * @return interval in milliseconds
+   */
+  public long getIncrementalDataRefreshReconciliationInterval() {
+    return _record.getLongField(
+        ClusterConfigProperty.INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL.name(),
+        DEFAULT_INCREMENTAL_DATA_REFRESH_RECONCILIATION_INTERVAL);
+  }
+
+  /**
+   * Set the max number of threads that are used to calculate the best possible states and the
+   * intermediate states of the resources.
+   * @param parallelism the max number of threads, must be positive. 1 to calculate the resources
+   *                    one by one.
+   */
+  public void setResourceRebalanceParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(
+          "The resource rebalance parallelism must be positive: " + parallelism);
+    }
+    _record.setIntField(ClusterConfigProperty.RESOURCE_REBALANCE_PARALLELISM.name(), parallelism);
+  }
+
+  public int getResourceRebalanceParallelism() {
+    int parallelism = _record
+        .getIntField(ClusterConfigProperty.RESOURCE_REBALANCE_PARALLELISM.name(),
+            DEFAULT_RESOURCE_REBALANCE_PARALLELISM);
+    return parallelism < 1 ? DEFAULT_RESOURCE_REBALANCE_PARALLELISM : parallelism;
+  }
+
+  /**
+   * Enable or disable the delta computation of the external views.
+   * @param enabled true to only patch the external view partitions whose current states have
+   *                changed since the last pipeline run
+   */
+  public void setExternalViewDeltaComputationEnabled(boolean enabled) {
+    _record.setBooleanField(ClusterConfigProperty.EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED.name(),
+        enabled);
+  }
+
+  public boolean isExternalViewDeltaComputationEnabled() {
+    return _record.getBooleanField(
+        ClusterConfigProperty.EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED.name(),
+        DEFAULT_EXTERNAL_VIEW_DELTA_COMPUTATION_ENABLED);
+  }
+
+  /**
+   * Enable or disable the external view change feed.
+   * @param enabled true to publish the changed partitions of the external views as
+   *                {@link ExternalViewChange} records
+   */
+  public void setExternalViewChangeFeedEnabled(boolean enabled) {
+    _record.setBooleanField(ClusterConfigProperty.EXTERNAL_VIEW_CHANGE_FEED_ENABLED.name(),
+        enabled);
+  }
+
+  public boolean isExternalViewChangeFeedEnabled() {
+    return _record.getBooleanField(ClusterConfigProperty.EXTERNAL_VIEW_CHANGE_FEED_ENABLED.name(),
+        DEFAULT_EXTERNAL_VIEW_CHANGE_FEED_ENABLED);
+  }
+
   /**
    * Set the abnormal state resolver class map.
    * @param resolverMap - the resolver map
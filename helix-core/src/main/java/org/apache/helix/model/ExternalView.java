@@ -41,7 +41,8 @@ public class ExternalView extends HelixProperty {
     GROUP_ROUTING_ENABLED,
     MIN_ACTIVE_REPLICAS,
     STATE_MODEL_DEF_REF,
-    REPLICAS
+    REPLICAS,
+    CHANGE_SEQUENCE
   }
 
   /**
@@ -159,6 +160,22 @@ public class ExternalView extends HelixProperty {
     return _record.getSimpleField(ExternalViewProperty.REPLICAS.name());
   }
 
+  /**
+   * Get the sequence of the last {@link ExternalViewChange} that is applied to this view
+   * @return the change sequence, or 0 if the view is not published with the change feed
+   */
+  public long getChangeSequence() {
+    return _record.getLongField(ExternalViewProperty.CHANGE_SEQUENCE.name(), 0L);
+  }
+
+  /**
+   * Set the sequence of the last {@link ExternalViewChange} that is applied to this view
+   * @param sequence the change sequence
+   */
+  public void setChangeSequence(long sequence) {
+    _record.setLongField(ExternalViewProperty.CHANGE_SEQUENCE.name(), sequence);
+  }
+
   @Override
   public boolean isValid() {
     return true;
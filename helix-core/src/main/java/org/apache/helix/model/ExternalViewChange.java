@@ -0,0 +1,201 @@
+package org.apache.helix.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.helix.HelixProperty;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+
+/**
+ * The partitions that are changed by one write of an {@link ExternalView}. The controller
+ * publishes the changes as a bounded log per resource, and a spectator that has cached the
+ * previous view can patch it instead of re-reading the whole view.
+ *
+ * The change that produces the view of change sequence N is stored as the child named
+ * {@link #getChangeId(long)} of N, so the children are listed in the sequence order.
+ */
+public class ExternalViewChange extends HelixProperty {
+  // The number of the latest changes that are kept for each resource.
+  public static final int MAX_CHANGE_LOG_SIZE = 100;
+
+  private static final int CHANGE_ID_LENGTH = 10;
+
+  public enum ExternalViewChangeProperty {
+    SEQUENCE,
+    REMOVED_PARTITIONS
+  }
+
+  /**
+   * Instantiate an external view change
+   * @param resource the name of the resource
+   * @param sequence the change sequence of the external view that the change produces
+   */
+  public ExternalViewChange(String resource, long sequence) {
+    super(new ZNRecord(resource));
+    _record.setLongField(ExternalViewChangeProperty.SEQUENCE.name(), sequence);
+    _record.setListField(ExternalViewChangeProperty.REMOVED_PARTITIONS.name(),
+        new ArrayList<String>());
+  }
+
+  /**
+   * Instantiate an external view change with a pre-populated record
+   * @param record ZNRecord corresponding to an external view change
+   */
+  public ExternalViewChange(ZNRecord record) {
+    super(record);
+  }
+
+  /**
+   * Compute the change from the previous external view to the current one. Only the map fields
+   * are compared, so the change is complete only if the other fields are the same.
+   * @param previousView the previous external view
+   * @param currentView the current external view
+   * @return the change that produces the current view, with the current change sequence
+   */
+  public static ExternalViewChange compute(ExternalView previousView, ExternalView currentView) {
+    ExternalViewChange change =
+        new ExternalViewChange(currentView.getResourceName(), currentView.getChangeSequence());
+    Map<String, Map<String, String>> previousMapFields = previousView.getRecord().getMapFields();
+    for (Map.Entry<String, Map<String, String>> entry : currentView.getRecord().getMapFields()
+        .entrySet()) {
+      Map<String, String> previousStateMap = previousMapFields.get(entry.getKey());
+      // The unchanged state maps are usually shared with the previous view.
+      if (previousStateMap != entry.getValue()
+          && !Objects.equals(previousStateMap, entry.getValue())) {
+        change.setStateMap(entry.getKey(), entry.getValue());
+      }
+    }
+    for (String partition : previousMapFields.keySet()) {
+      if (!currentView.getRecord().getMapFields().containsKey(partition)) {
+        change.addRemovedPartition(partition);
+      }
+    }
+    return change;
+  }
+
+  /**
+   * Get the child name of the change that produces the view of the given change sequence
+   * @param sequence the change sequence
+   * @return the zero-padded change id
+   */
+  public static String getChangeId(long sequence) {
+    return String.format("%0" + CHANGE_ID_LENGTH + "d", sequence);
+  }
+
+  /**
+   * Parse the change sequence from the child name of a change
+   * @param changeId the change id
+   * @return the change sequence, or -1 if the name is not a change id
+   */
+  public static long parseChangeId(String changeId) {
+    try {
+      return Long.parseLong(changeId);
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  /**
+   * Get the resource of the changed external view
+   * @return the name of the resource
+   */
+  public String getResourceName() {
+    return _record.getId();
+  }
+
+  /**
+   * Get the change sequence of the external view that this change produces
+   * @return the change sequence
+   */
+  public long getSequence() {
+    return _record.getLongField(ExternalViewChangeProperty.SEQUENCE.name(), -1L);
+  }
+
+  /**
+   * Set the new (instance, state) pairs of a changed or added partition
+   * @param partitionName the partition
+   * @param stateMap (instance, state) pairs
+   */
+  public void setStateMap(String partitionName, Map<String, String> stateMap) {
+    _record.setMapField(partitionName, stateMap);
+  }
+
+  /**
+   * Get the changed or added partitions
+   * @return a set of partition names
+   */
+  public Set<String> getChangedPartitions() {
+    return _record.getMapFields().keySet();
+  }
+
+  /**
+   * Add a partition that is removed from the external view
+   * @param partitionName the partition
+   */
+  public void addRemovedPartition(String partitionName) {
+    List<String> removedPartitions =
+        _record.getListField(ExternalViewChangeProperty.REMOVED_PARTITIONS.name());
+    if (removedPartitions == null) {
+      removedPartitions = new ArrayList<>();
+      _record.setListField(ExternalViewChangeProperty.REMOVED_PARTITIONS.name(),
+          removedPartitions);
+    }
+    removedPartitions.add(partitionName);
+  }
+
+  /**
+   * Get the partitions that are removed from the external view
+   * @return a list of partition names
+   */
+  public List<String> getRemovedPartitions() {
+    List<String> removedPartitions =
+        _record.getListField(ExternalViewChangeProperty.REMOVED_PARTITIONS.name());
+    return removedPartitions == null ? Collections.<String>emptyList() : removedPartitions;
+  }
+
+  /**
+   * Apply this change to the view that it is computed from. The state maps of the unchanged
+   * partitions are shared with the base view.
+   * @param baseView the external view of the previous change sequence
+   * @return a new external view of this change sequence
+   */
+  public ExternalView applyTo(ExternalView baseView) {
+    ExternalView view = new ExternalView(baseView.getResourceName());
+    ZNRecord record = view.getRecord();
+    record.getSimpleFields().putAll(baseView.getRecord().getSimpleFields());
+    record.getListFields().putAll(baseView.getRecord().getListFields());
+    record.getMapFields().putAll(baseView.getRecord().getMapFields());
+    record.getMapFields().keySet().removeAll(getRemovedPartitions());
+    record.getMapFields().putAll(_record.getMapFields());
+    view.setChangeSequence(getSequence());
+    return view;
+  }
+
+  @Override
+  public boolean isValid() {
+    return getSequence() > 0;
+  }
+}
@@ -41,7 +41,10 @@ public class ClusterEventMonitor extends DynamicMBeanProvider {
   private static final String CLUSTEREVENT_DN_KEY = "ClusterEventStatus";
   private static final String EVENT_DN_KEY = "eventName";
   private static final String PHASE_DN_KEY = "phaseName";
+  // The event name of the monitors that aggregate all the event types.
+  public static final String DEFAULT_EVENT_NAME = "ClusterEvent";
 
+  private final String _eventName;
   private final String _phaseName;
 
   private SimpleDynamicMetric<Long> _totalDuration;
@@ -53,6 +56,18 @@ public class ClusterEventMonitor extends DynamicMBeanProvider {
   private ClusterStatusMonitor _clusterStatusMonitor;
 
   public ClusterEventMonitor(ClusterStatusMonitor clusterStatusMonitor, String phaseName) {
+    this(clusterStatusMonitor, DEFAULT_EVENT_NAME, phaseName);
+  }
+
+  /**
+   * Create a monitor of a certain phase of a single event type.
+   * @param clusterStatusMonitor the cluster status monitor
+   * @param eventName the event type name
+   * @param phaseName the phase name
+   */
+  public ClusterEventMonitor(ClusterStatusMonitor clusterStatusMonitor, String eventName,
+      String phaseName) {
+    _eventName = eventName;
     _phaseName = phaseName;
     _clusterStatusMonitor = clusterStatusMonitor;
 
@@ -65,6 +80,7 @@ public class ClusterEventMonitor extends DynamicMBeanProvider {
 
   public ClusterEventMonitor(ClusterStatusMonitor clusterStatusMonitor, String phaseName,
       int histogramTimeWindowMs) {
+    _eventName = DEFAULT_EVENT_NAME;
     _phaseName = phaseName;
     _clusterStatusMonitor = clusterStatusMonitor;
 
@@ -88,13 +104,18 @@ public class ClusterEventMonitor extends DynamicMBeanProvider {
 
   @Override
   public String getSensorName() {
-    return String.format("%s.%s.%s.%s", CLUSTEREVENT_DN_KEY, _clusterStatusMonitor.getClusterName(),
-        ClusterStatusMonitor.DEFAULT_TAG, _phaseName);
+    if (DEFAULT_EVENT_NAME.equals(_eventName)) {
+      return String.format("%s.%s.%s.%s", CLUSTEREVENT_DN_KEY,
+          _clusterStatusMonitor.getClusterName(), ClusterStatusMonitor.DEFAULT_TAG, _phaseName);
+    }
+    return String.format("%s.%s.%s.%s.%s", CLUSTEREVENT_DN_KEY,
+        _clusterStatusMonitor.getClusterName(), ClusterStatusMonitor.DEFAULT_TAG, _eventName,
+        _phaseName);
   }
 
   private String getBeanName() {
     return String.format("%s,%s=%s,%s=%s", _clusterStatusMonitor.clusterBeanName(), EVENT_DN_KEY,
-        "ClusterEvent", PHASE_DN_KEY, _phaseName);
+        _eventName, PHASE_DN_KEY, _phaseName);
   }
 
   public ClusterEventMonitor register() throws JMException {
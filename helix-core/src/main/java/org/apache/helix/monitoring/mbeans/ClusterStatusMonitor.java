@@ -329,7 +329,21 @@ public class ClusterStatusMonitor implements ClusterStatusMonitorMBean {
    * @param duration
    */
   public void updateClusterEventDuration(String phase, long duration) {
-    ClusterEventMonitor monitor = getOrCreateClusterEventMonitor(phase);
+    ClusterEventMonitor monitor =
+        getOrCreateClusterEventMonitor(ClusterEventMonitor.DEFAULT_EVENT_NAME, phase);
+    if (monitor != null) {
+      monitor.reportDuration(duration);
+    }
+  }
+
+  /**
+   * Update the duration of handling a cluster event of a certain type in a certain phase.
+   * @param eventType the cluster event type
+   * @param phase
+   * @param duration
+   */
+  public void updateClusterEventDuration(String eventType, String phase, long duration) {
+    ClusterEventMonitor monitor = getOrCreateClusterEventMonitor(eventType, phase);
     if (monitor != null) {
       monitor.reportDuration(duration);
     }
@@ -352,23 +366,26 @@ public class ClusterStatusMonitor implements ClusterStatusMonitorMBean {
     return _customizedViewMonitor;
   }
 
-  private ClusterEventMonitor getOrCreateClusterEventMonitor(String phase) {
+  private ClusterEventMonitor getOrCreateClusterEventMonitor(String eventName, String phase) {
+    // Keep the phase as the key of the aggregated monitors.
+    String monitorKey = ClusterEventMonitor.DEFAULT_EVENT_NAME.equals(eventName) ? phase
+        : String.format("%s.%s", eventName, phase);
     try {
-      if (!_clusterEventMonitorMap.containsKey(phase)) {
+      if (!_clusterEventMonitorMap.containsKey(monitorKey)) {
         synchronized (_clusterEventMonitorMap) {
-          if (!_clusterEventMonitorMap.containsKey(phase)) {
-            ClusterEventMonitor monitor = new ClusterEventMonitor(this, phase);
+          if (!_clusterEventMonitorMap.containsKey(monitorKey)) {
+            ClusterEventMonitor monitor = new ClusterEventMonitor(this, eventName, phase);
             monitor.register();
-            _clusterEventMonitorMap.put(phase, monitor);
+            _clusterEventMonitorMap.put(monitorKey, monitor);
           }
         }
       }
     } catch (JMException e) {
       LOG.error("Failed to register ClusterEventMonitorMbean for cluster " + _clusterName
-          + " and phase type: " + phase, e);
+          + ", event type: " + eventName + " and phase type: " + phase, e);
     }
 
-    return _clusterEventMonitorMap.get(phase);
+    return _clusterEventMonitorMap.get(monitorKey);
   }
 
   /**
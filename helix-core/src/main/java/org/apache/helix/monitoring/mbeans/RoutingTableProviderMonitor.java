@@ -49,6 +49,7 @@ public class RoutingTableProviderMonitor extends DynamicMBeanProvider {
   private SimpleDynamicMetric<Long> _dataRefreshCounter;
   private HistogramDynamicMetric _dataRefreshLatencyGauge;
   private HistogramDynamicMetric _statePropLatencyGauge;
+  private HistogramDynamicMetric _dataStalenessGauge;
 
   public RoutingTableProviderMonitor(final PropertyType propertyType, String clusterName) {
     _propertyType = propertyType;
@@ -69,6 +70,11 @@ public class RoutingTableProviderMonitor extends DynamicMBeanProvider {
           new Histogram(
               new SlidingTimeWindowArrayReservoir(getResetIntervalInMs(), TimeUnit.MILLISECONDS)));
     }
+    if (propertyType.equals(PropertyType.EXTERNALVIEW)
+        || propertyType.equals(PropertyType.TARGETEXTERNALVIEW)) {
+      _dataStalenessGauge = new HistogramDynamicMetric("DataStalenessGauge", new Histogram(
+          new SlidingTimeWindowArrayReservoir(getResetIntervalInMs(), TimeUnit.MILLISECONDS)));
+    }
   }
 
   @Override
@@ -98,6 +104,17 @@ public class RoutingTableProviderMonitor extends DynamicMBeanProvider {
     }
   }
 
+  /**
+   * Record the time from the change of the source data to the publish of the routing table that
+   * contains the change.
+   * @param staleness the staleness in ms
+   */
+  public void recordDataStaleness(long staleness) {
+    if (_dataStalenessGauge != null) {
+      _dataStalenessGauge.updateValue(staleness);
+    }
+  }
+
   @Override
   public RoutingTableProviderMonitor register() throws JMException {
     List<DynamicMetric<?, ?>> attributeList = new ArrayList<>();
@@ -108,6 +125,9 @@ public class RoutingTableProviderMonitor extends DynamicMBeanProvider {
     if (_statePropLatencyGauge != null) {
       attributeList.add(_statePropLatencyGauge);
     }
+    if (_dataStalenessGauge != null) {
+      attributeList.add(_dataStalenessGauge);
+    }
 
     doRegister(attributeList, MBEAN_DESCRIPTION, getMBeanName());
     return this;
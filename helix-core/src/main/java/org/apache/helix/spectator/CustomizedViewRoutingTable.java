@@ -65,6 +65,7 @@ public class CustomizedViewRoutingTable extends RoutingTable {
     _customizedStateType = customizedStateType;
     _customizedViews = new HashSet<>(customizedViews);
     refresh(_customizedViews);
+    freeze();
   }
 
   private void refresh(Collection<CustomizedView> customizedViewList) {
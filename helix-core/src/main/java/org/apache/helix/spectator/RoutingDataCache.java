@@ -29,6 +29,7 @@ import org.apache.helix.HelixConstants;
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixException;
 import org.apache.helix.PropertyType;
+import org.apache.helix.SystemPropertyKeys;
 import org.apache.helix.common.caches.BasicClusterDataCache;
 import org.apache.helix.common.caches.CurrentStateCache;
 import org.apache.helix.common.caches.CurrentStateSnapshot;
@@ -73,6 +74,8 @@ class RoutingDataCache extends BasicClusterDataCache {
         .forEach(customizedStateType -> _customizedViewCaches.put(customizedStateType,
             new CustomizedViewCache(clusterName, customizedStateType)));
     _targetExternalViewCache = new TargetExternalViewCache(clusterName);
+    _externalViewCache.setChangeFeedEnabled(
+        Boolean.getBoolean(SystemPropertyKeys.SPECTATOR_EXTERNAL_VIEW_CHANGE_FEED_ENABLED));
     requireFullRefresh();
   }
 
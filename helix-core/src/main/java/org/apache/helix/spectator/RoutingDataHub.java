@@ -0,0 +1,206 @@
+package org.apache.helix.spectator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.helix.HelixException;
+import org.apache.helix.HelixManager;
+import org.apache.helix.HelixManagerFactory;
+import org.apache.helix.InstanceType;
+import org.apache.helix.PropertyType;
+import org.apache.helix.manager.zk.ZKHelixManager;
+import org.apache.helix.zookeeper.api.client.RealmAwareZkClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A process-wide, reference-counted holder of the routing data of a (ZK address, cluster, source
+ * data types) combination. The hub owns one RoutingTableProvider that registers the listeners,
+ * refreshes the data cache and builds the routing tables, and the shared RoutingTableProviders
+ * serve the routing tables of the hub.
+ *
+ * The hub listens through its own spectator HelixManager, which is connected when the hub is
+ * created and disconnected when the last shared provider is shut down. So the routing data of the
+ * hub doesn't depend on the HelixManager of any shared provider staying connected.
+ */
+class RoutingDataHub {
+  private static final Logger LOG = LoggerFactory.getLogger(RoutingDataHub.class);
+  // <hub key, hub>, guarded by itself. A hub is added before it is created, so it is created
+  // outside of the lock, and the other acquires of the same key wait for the creation.
+  private static final Map<String, RoutingDataHub> HUBS = new HashMap<>();
+
+  private final String _hubKey;
+  // Completed once the manager and the provider are created, or completed exceptionally if the
+  // creation fails.
+  private final CompletableFuture<Void> _created = new CompletableFuture<>();
+  private HelixManager _helixManager;
+  private RoutingTableProvider _provider;
+  // The number of the shared providers that have not been shut down, guarded by HUBS
+  private int _refCount;
+
+  private RoutingDataHub(String hubKey) {
+    _hubKey = hubKey;
+  }
+
+  /**
+   * Get the hub of the cluster and the source data types, and create it if it does not exist.
+   * Every acquire must be paired with a release.
+   * @param helixManager the manager that provides the ZK address and the cluster name of the hub
+   * @param sourceDataTypeMap
+   * @return the hub
+   */
+  static RoutingDataHub acquire(HelixManager helixManager,
+      Map<PropertyType, List<String>> sourceDataTypeMap) {
+    if (helixManager == null) {
+      throw new HelixException("HelixManager is required to share the routing data!");
+    }
+    if (sourceDataTypeMap == null) {
+      throw new IllegalArgumentException(
+          "The sourceDataTypeMap of Routing Table Provider should not be null");
+    }
+    String hubKey = generateHubKey(helixManager, sourceDataTypeMap);
+    RoutingDataHub hub;
+    boolean toCreate = false;
+    synchronized (HUBS) {
+      hub = HUBS.get(hubKey);
+      if (hub == null) {
+        hub = new RoutingDataHub(hubKey);
+        HUBS.put(hubKey, hub);
+        toCreate = true;
+      }
+      hub._refCount++;
+    }
+    if (toCreate) {
+      hub.create(helixManager, sourceDataTypeMap);
+    }
+    try {
+      hub._created.join();
+    } catch (CompletionException e) {
+      synchronized (HUBS) {
+        hub._refCount--;
+      }
+      throw (HelixException) e.getCause();
+    }
+    return hub;
+  }
+
+  private void create(HelixManager helixManager,
+      Map<PropertyType, List<String>> sourceDataTypeMap) {
+    LOG.info("Create the routing data hub {}.", _hubKey);
+    HelixManager hubManager = createHubManager(helixManager);
+    try {
+      hubManager.connect();
+      _provider = new RoutingTableProvider(hubManager, sourceDataTypeMap);
+      _helixManager = hubManager;
+      _created.complete(null);
+    } catch (Exception e) {
+      hubManager.disconnect();
+      synchronized (HUBS) {
+        // So the later acquires of the key create a new hub.
+        HUBS.remove(_hubKey, this);
+      }
+      _created.completeExceptionally(
+          new HelixException("Failed to create the routing data hub " + _hubKey, e));
+    }
+  }
+
+  /**
+   * Create the manager of the hub with the connection settings of the given manager, including its
+   * ZkClient config, connection config and realm-aware settings if it is a ZKHelixManager.
+   */
+  private static HelixManager createHubManager(HelixManager helixManager) {
+    String instanceName = helixManager.getInstanceName() + "_RoutingDataHub";
+    if (helixManager instanceof ZKHelixManager) {
+      return HelixManagerFactory.getZKHelixManager(helixManager.getClusterName(), instanceName,
+          InstanceType.SPECTATOR, helixManager.getMetadataStoreConnectionString(), null,
+          ((ZKHelixManager) helixManager).getHelixManagerProperty());
+    }
+    return HelixManagerFactory.getZKHelixManager(helixManager.getClusterName(), instanceName,
+        InstanceType.SPECTATOR, helixManager.getMetadataStoreConnectionString());
+  }
+
+  /**
+   * Release the hub. The provider of the hub is shut down and the HelixManager of the hub is
+   * disconnected once all the acquires are released.
+   */
+  void release() {
+    synchronized (HUBS) {
+      if (--_refCount > 0) {
+        return;
+      }
+      HUBS.remove(_hubKey);
+    }
+    LOG.info("Shut down the routing data hub {}.", _hubKey);
+    try {
+      _provider.shutdown();
+    } finally {
+      _helixManager.disconnect();
+    }
+  }
+
+  RoutingTableProvider getProvider() {
+    return _provider;
+  }
+
+  HelixManager getHelixManager() {
+    return _helixManager;
+  }
+
+  static int getHubCount() {
+    synchronized (HUBS) {
+      return HUBS.size();
+    }
+  }
+
+  private static String generateHubKey(HelixManager helixManager,
+      Map<PropertyType, List<String>> sourceDataTypeMap) {
+    // Sort the source data types, so the key does not depend on the order of the input.
+    Map<PropertyType, List<String>> sortedSourceDataTypeMap = new TreeMap<>();
+    for (Map.Entry<PropertyType, List<String>> entry : sourceDataTypeMap.entrySet()) {
+      List<String> stateTypes = new ArrayList<>(entry.getValue());
+      stateTypes.sort(null);
+      sortedSourceDataTypeMap.put(entry.getKey(), stateTypes);
+    }
+    return String.format("%s/%s%s", getConnectionString(helixManager),
+        helixManager.getClusterName(), sortedSourceDataTypeMap);
+  }
+
+  private static String getConnectionString(HelixManager helixManager) {
+    String connectionString = helixManager.getMetadataStoreConnectionString();
+    if (connectionString == null && helixManager instanceof ZKHelixManager) {
+      // The manager connects by the ZkConnectionConfig instead of a ZK address.
+      RealmAwareZkClient.RealmAwareZkConnectionConfig connectionConfig =
+          ((ZKHelixManager) helixManager).getRealmAwareZkConnectionConfig();
+      if (connectionConfig != null) {
+        connectionString = String.format("%s:%s:%s", connectionConfig.getZkRealmShardingKey(),
+            connectionConfig.getRoutingDataSourceType(),
+            connectionConfig.getRoutingDataSourceEndpoint());
+      }
+    }
+    return connectionString;
+  }
+}
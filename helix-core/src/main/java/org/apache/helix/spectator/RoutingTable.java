@@ -20,11 +20,13 @@ package org.apache.helix.spectator;
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +43,9 @@ import org.slf4j.LoggerFactory;
 /**
  * A class to consume ExternalViews or CustomizedViews of a cluster and provide
  * {resource, partition, state} to {instances} map function.
+ *
+ * Once a RoutingTable is initialized, the instances of every {resource, partition, state} are
+ * kept in an immutable list sorted by the instance id, so the lookups do not allocate.
  */
 class RoutingTable {
   private static final Logger logger = LoggerFactory.getLogger(RoutingTable.class);
@@ -79,6 +84,7 @@ class RoutingTable {
     this(Collections.<ExternalView> emptyList(),
         instanceConfigs, liveInstances, PropertyType.CURRENTSTATES);
     refresh(currentStateMap);
+    freeze();
   }
 
   public RoutingTable(Collection<ExternalView> externalViews,
@@ -97,40 +103,152 @@ class RoutingTable {
     _instanceConfigs = new HashSet<>(instanceConfigs);
     _externalViews = new HashSet<>(externalViews);
     refresh(_externalViews);
+    freeze();
+  }
+
+  /**
+   * Initialize the RoutingTable from the ExternalViews, reusing the routing information of the
+   * previous RoutingTable for the resources whose ExternalView has not changed. The ExternalView
+   * caches keep the same object while the ZNode is not changed, so an ExternalView is considered
+   * unchanged if it is the same object as in the previous RoutingTable. The resource groups that
+   * contain a changed resource are rebuilt from all their resources.
+   * If the previous RoutingTable is of another property type or was built with different
+   * InstanceConfigs, all the resources are rebuilt.
+   * The reused ResourceInfo and ResourceGroupInfo objects are shared by both RoutingTables. They
+   * are never modified after the RoutingTable that created them is initialized.
+   */
+  protected RoutingTable(RoutingTable previousTable, Collection<ExternalView> externalViews,
+      Collection<InstanceConfig> instanceConfigs, Collection<LiveInstance> liveInstances,
+      PropertyType propertyType) {
+    _propertyType = propertyType;
+    _resourceInfoMap = new HashMap<>();
+    _resourceGroupInfoMap = new HashMap<>();
+    _liveInstances = new HashSet<>(liveInstances);
+    _instanceConfigs = new HashSet<>(instanceConfigs);
+    _externalViews = new HashSet<>(externalViews);
+    if (previousTable != null && previousTable._propertyType == propertyType
+        && hasSameInstanceConfigs(previousTable, instanceConfigs)) {
+      refresh(_externalViews, previousTable);
+    } else {
+      refresh(_externalViews);
+    }
+    freeze();
   }
 
   private void refresh(Collection<ExternalView> externalViewList) {
-    Map<String, InstanceConfig> instanceConfigMap = new HashMap<>();
     if (externalViewList != null && !externalViewList.isEmpty()) {
-      for (InstanceConfig config : _instanceConfigs) {
-        instanceConfigMap.put(config.getId(), config);
+      Map<String, InstanceConfig> instanceConfigMap = getInstanceConfigMap();
+      for (ExternalView extView : externalViewList) {
+        addEntries(extView, instanceConfigMap, true, true);
       }
+    }
+  }
+
+  private void refresh(Collection<ExternalView> externalViewList, RoutingTable previousTable) {
+    Map<String, ExternalView> previousExternalViews = new HashMap<>();
+    for (ExternalView extView : previousTable._externalViews) {
+      previousExternalViews.put(extView.getId(), extView);
+    }
+    Map<String, InstanceConfig> instanceConfigMap = getInstanceConfigMap();
+    // The resource groups that contain a changed, added or removed resource.
+    Set<String> changedResourceGroups = new HashSet<>();
+    for (ExternalView extView : externalViewList) {
+      String resourceName = extView.getId();
+      ExternalView previousExtView = previousExternalViews.remove(resourceName);
+      if (previousExtView == extView) {
+        ResourceInfo resourceInfo = previousTable._resourceInfoMap.get(resourceName);
+        if (resourceInfo != null) {
+          _resourceInfoMap.put(resourceName, resourceInfo);
+        }
+        continue;
+      }
+      addEntries(extView, instanceConfigMap, true, false);
+      if (extView.isGroupRoutingEnabled()) {
+        changedResourceGroups.add(extView.getResourceGroupName());
+      }
+      if (previousExtView != null && previousExtView.isGroupRoutingEnabled()) {
+        changedResourceGroups.add(previousExtView.getResourceGroupName());
+      }
+    }
+    // The remaining previous ExternalViews are of the removed resources.
+    for (ExternalView removedExtView : previousExternalViews.values()) {
+      if (removedExtView.isGroupRoutingEnabled()) {
+        changedResourceGroups.add(removedExtView.getResourceGroupName());
+      }
+    }
+
+    for (Map.Entry<String, ResourceGroupInfo> entry : previousTable._resourceGroupInfoMap
+        .entrySet()) {
+      if (!changedResourceGroups.contains(entry.getKey())) {
+        _resourceGroupInfoMap.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (!changedResourceGroups.isEmpty()) {
       for (ExternalView extView : externalViewList) {
-        String resourceName = extView.getId();
-        for (String partitionName : extView.getPartitionSet()) {
-          Map<String, String> stateMap = extView.getStateMap(partitionName);
-          for (String instanceName : stateMap.keySet()) {
-            String currentState = stateMap.get(instanceName);
-            if (instanceConfigMap.containsKey(instanceName)) {
-              InstanceConfig instanceConfig = instanceConfigMap.get(instanceName);
-              if (extView.isGroupRoutingEnabled()) {
-                addEntry(resourceName, extView.getResourceGroupName(),
-                    extView.getInstanceGroupTag(), partitionName, currentState, instanceConfig);
-              } else {
-                addEntry(resourceName, partitionName, currentState, instanceConfig);
-              }
-            } else {
-              logger.warn(
-                  "Participant {} is not found with proper configuration information. It might already be removed from the cluster. "
-                      + "Skip recording partition assignment entry: Partition {}, Participant {}, State {}.",
-                  instanceName, partitionName, instanceName, stateMap.get(instanceName));
-            }
+        if (extView.isGroupRoutingEnabled()
+            && changedResourceGroups.contains(extView.getResourceGroupName())) {
+          addEntries(extView, instanceConfigMap, false, true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the entries of the ExternalView to the resource and/or the resource group.
+   */
+  private void addEntries(ExternalView extView, Map<String, InstanceConfig> instanceConfigMap,
+      boolean addToResource, boolean addToResourceGroup) {
+    String resourceName = extView.getId();
+    boolean addToGroup = addToResourceGroup && extView.isGroupRoutingEnabled();
+    for (String partitionName : extView.getPartitionSet()) {
+      Map<String, String> stateMap = extView.getStateMap(partitionName);
+      for (String instanceName : stateMap.keySet()) {
+        String currentState = stateMap.get(instanceName);
+        if (instanceConfigMap.containsKey(instanceName)) {
+          InstanceConfig instanceConfig = instanceConfigMap.get(instanceName);
+          if (addToResource) {
+            addEntry(resourceName, partitionName, currentState, instanceConfig);
+          }
+          if (addToGroup) {
+            addEntry(extView.getResourceGroupName(), extView.getInstanceGroupTag(),
+                partitionName, currentState, instanceConfig);
           }
+        } else if (addToResource) {
+          logger.warn(
+              "Participant {} is not found with proper configuration information. It might already be removed from the cluster. "
+                  + "Skip recording partition assignment entry: Partition {}, Participant {}, State {}.",
+              instanceName, partitionName, instanceName, stateMap.get(instanceName));
         }
       }
     }
   }
 
+  private Map<String, InstanceConfig> getInstanceConfigMap() {
+    Map<String, InstanceConfig> instanceConfigMap = new HashMap<>();
+    for (InstanceConfig config : _instanceConfigs) {
+      instanceConfigMap.put(config.getId(), config);
+    }
+    return instanceConfigMap;
+  }
+
+  /**
+   * @return true if the InstanceConfig objects are the same as the ones of the previous table.
+   */
+  private static boolean hasSameInstanceConfigs(RoutingTable previousTable,
+      Collection<InstanceConfig> instanceConfigs) {
+    Set<InstanceConfig> previousConfigs = Collections.newSetFromMap(new IdentityHashMap<>());
+    previousConfigs.addAll(previousTable._instanceConfigs);
+    if (previousConfigs.size() != instanceConfigs.size()) {
+      return false;
+    }
+    for (InstanceConfig config : instanceConfigs) {
+      if (!previousConfigs.contains(config)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void refresh(Map<String, Map<String, Map<String, CurrentState>>> currentStateMap) {
     Map<String, InstanceConfig> instanceConfigMap = new HashMap<>();
     if (currentStateMap != null && !currentStateMap.isEmpty()) {
@@ -168,6 +286,20 @@ class RoutingTable {
     }
   }
 
+  /**
+   * Sort the instances and make the routing information immutable. It must be called after all
+   * the entries are added. The routing information that is shared with the previous RoutingTable
+   * is already frozen.
+   */
+  protected void freeze() {
+    for (ResourceInfo resourceInfo : _resourceInfoMap.values()) {
+      resourceInfo.freeze();
+    }
+    for (ResourceGroupInfo resourceGroupInfo : _resourceGroupInfoMap.values()) {
+      resourceGroupInfo.freeze();
+    }
+  }
+
   protected void addEntry(String resourceName, String partitionName, String state,
       InstanceConfig config) {
     if (!_resourceInfoMap.containsKey(resourceName)) {
@@ -178,12 +310,10 @@ class RoutingTable {
   }
 
   /**
-   * add an entry with a resource with resourceGrouping enabled.
+   * add an entry to a resource group.
    */
-  private void addEntry(String resourceName, String resourceGroupName, String resourceTag,
-      String partitionName, String state, InstanceConfig config) {
-    addEntry(resourceName, partitionName, state, config);
-
+  private void addEntry(String resourceGroupName, String resourceTag, String partitionName,
+      String state, InstanceConfig config) {
     if (!_resourceGroupInfoMap.containsKey(resourceGroupName)) {
       _resourceGroupInfoMap.put(resourceGroupName, new ResourceGroupInfo());
     }
@@ -309,7 +439,7 @@ class RoutingTable {
     if (instanceList == null) {
       instanceList = Collections.emptyList();
     }
-    return Collections.unmodifiableList(instanceList);
+    return instanceList;
   }
 
   /**
@@ -399,6 +529,8 @@ class RoutingTable {
     Map<String, PartitionInfo> partitionInfoMap;
     // stores the Set of Instances in a given state
     Map<String, Set<InstanceConfig>> stateInfoMap;
+    // true if no entry can be added anymore
+    boolean frozen;
 
     public ResourceInfo() {
       partitionInfoMap = new HashMap<>();
@@ -426,6 +558,19 @@ class RoutingTable {
     PartitionInfo get(String stateUnitKey) {
       return partitionInfoMap.get(stateUnitKey);
     }
+
+    void freeze() {
+      if (frozen) {
+        return;
+      }
+      for (Map.Entry<String, Set<InstanceConfig>> entry : stateInfoMap.entrySet()) {
+        entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+      }
+      for (PartitionInfo partitionInfo : partitionInfoMap.values()) {
+        partitionInfo.freeze();
+      }
+      frozen = true;
+    }
   }
 
   /**
@@ -483,6 +628,13 @@ class RoutingTable {
 
       return resourceInfo.get(stateUnitKey);
     }
+
+    void freeze() {
+      aggregatedResourceInfo.freeze();
+      for (ResourceInfo resourceInfo : tagToResourceMap.values()) {
+        resourceInfo.freeze();
+      }
+    }
   }
 
   class PartitionInfo {
@@ -507,6 +659,17 @@ class RoutingTable {
     boolean containsState(String state) {
       return stateInfoMap.containsKey(state);
     }
+
+    /**
+     * Replace the instance lists by the immutable lists that are sorted by the instance id.
+     */
+    void freeze() {
+      for (Map.Entry<String, List<InstanceConfig>> entry : stateInfoMap.entrySet()) {
+        InstanceConfig[] instances = entry.getValue().toArray(new InstanceConfig[0]);
+        Arrays.sort(instances, INSTANCE_CONFIG_COMPARATOR);
+        entry.setValue(Collections.unmodifiableList(Arrays.asList(instances)));
+      }
+    }
   }
 
   private static Comparator<InstanceConfig> INSTANCE_CONFIG_COMPARATOR =
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.management.JMException;
@@ -44,6 +45,7 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.NotificationContext;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.PropertyType;
+import org.apache.helix.SystemPropertyKeys;
 import org.apache.helix.api.listeners.ConfigChangeListener;
 import org.apache.helix.api.listeners.CurrentStateChangeListener;
 import org.apache.helix.api.listeners.CustomizedViewChangeListener;
@@ -64,6 +66,7 @@ import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.InstanceConfig;
 import org.apache.helix.model.LiveInstance;
 import org.apache.helix.monitoring.mbeans.RoutingTableProviderMonitor;
+import org.apache.helix.util.HelixUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,11 +77,18 @@ public class RoutingTableProvider
   private static final Logger logger = LoggerFactory.getLogger(RoutingTableProvider.class);
   private static final long DEFAULT_PERIODIC_REFRESH_INTERVAL = 300000L; // 5 minutes
   private final Map<String, AtomicReference<RoutingTable>> _routingTableRefMap;
+  // The only routing table reference if there is a single source data type, otherwise null.
+  private final AtomicReference<RoutingTable> _defaultRoutingTableRef;
   private final HelixManager _helixManager;
   private final RouterUpdater _routerUpdater;
   private final Map<PropertyType, List<String>> _sourceDataTypeMap;
   private final Map<RoutingTableChangeListener, ListenerContext> _routingTableChangeListenerMap;
   private final Map<PropertyType, RoutingTableProviderMonitor> _monitorMap;
+  // For the shared providers, the hub that refreshes the routing tables and the listener that
+  // forwards the routing table changes of the hub. Null otherwise. A shared provider has no
+  // HelixManager and RouterUpdater of its own, and ignores the change callbacks.
+  private final RoutingDataHub _routingDataHub;
+  private final RoutingTableChangeListener _hubListener;
 
   // For periodic refresh
   private long _lastRefreshTimestamp;
@@ -94,7 +104,7 @@ public class RoutingTableProvider
 
 
   public RoutingTableProvider() {
-    this(null);
+    this((HelixManager) null);
   }
 
   public RoutingTableProvider(HelixManager helixManager) throws HelixException {
@@ -140,6 +150,8 @@ public class RoutingTableProvider
 
     validateSourceDataTypeMap(sourceDataTypeMap);
 
+    _routingDataHub = null;
+    _hubListener = null;
     _routingTableRefMap = new HashMap<>();
     _helixManager = helixManager;
     _sourceDataTypeMap = sourceDataTypeMap;
@@ -172,6 +184,9 @@ public class RoutingTableProvider
       }
     }
 
+    _defaultRoutingTableRef = _routingTableRefMap.size() == 1
+        ? _routingTableRefMap.values().iterator().next() : null;
+
     // Start Monitoring
     _monitorMap = new HashMap<>();
 
@@ -217,6 +232,62 @@ public class RoutingTableProvider
     }
   }
 
+  /**
+   * Initialize a shared RoutingTableProvider, which serves the routing tables of the hub instead of
+   * listening and refreshing by itself. Its change callbacks are no-ops, so a client of the shared
+   * provider cannot trigger a refresh of the hub for the other shared providers.
+   * @param routingDataHub the acquired hub
+   */
+  private RoutingTableProvider(RoutingDataHub routingDataHub) {
+    RoutingTableProvider hubProvider = routingDataHub.getProvider();
+    _routingDataHub = routingDataHub;
+    _routingTableRefMap = hubProvider._routingTableRefMap;
+    _defaultRoutingTableRef = hubProvider._defaultRoutingTableRef;
+    _helixManager = null;
+    _routerUpdater = null;
+    _sourceDataTypeMap = hubProvider._sourceDataTypeMap;
+    _routingTableChangeListenerMap = new ConcurrentHashMap<>();
+    _monitorMap = Collections.emptyMap();
+    _isPeriodicRefreshEnabled = false;
+    _hubListener = (routingTableSnapshot, context) -> {
+      for (Map.Entry<RoutingTableChangeListener, ListenerContext> entry
+          : _routingTableChangeListenerMap.entrySet()) {
+        entry.getKey().onRoutingTableChange(routingTableSnapshot, entry.getValue().getContext());
+      }
+    };
+    hubProvider.addRoutingTableChangeListener(_hubListener, null);
+  }
+
+  /**
+   * Create a RoutingTableProvider that shares the routing data with the other shared
+   * RoutingTableProviders of the same ZK address, cluster and source data type in this process.
+   * The listeners, the data cache and the routing tables are created once for all of them, and
+   * released when the last one is shut down. They listen through a spectator HelixManager of their
+   * own, so the given HelixManager only provides the ZK address and the cluster name.
+   * @param helixManager
+   * @param sourceDataType
+   * @return a shared RoutingTableProvider
+   * @throws HelixException
+   */
+  public static RoutingTableProvider createShared(HelixManager helixManager,
+      PropertyType sourceDataType) throws HelixException {
+    return createShared(helixManager, ImmutableMap.of(sourceDataType, Collections.emptyList()));
+  }
+
+  /**
+   * Create a RoutingTableProvider that shares the routing data with the other shared
+   * RoutingTableProviders of the same ZK address, cluster and source data types in this process.
+   * @see #createShared(HelixManager, PropertyType)
+   * @param helixManager
+   * @param sourceDataTypeMap
+   * @return a shared RoutingTableProvider
+   * @throws HelixException
+   */
+  public static RoutingTableProvider createShared(HelixManager helixManager,
+      Map<PropertyType, List<String>> sourceDataTypeMap) throws HelixException {
+    return new RoutingTableProvider(RoutingDataHub.acquire(helixManager, sourceDataTypeMap));
+  }
+
   /**
    * A method that adds the ChangeListeners to HelixManager
    */
@@ -320,6 +391,13 @@ public class RoutingTableProvider
    * Shutdown current RoutingTableProvider. Once it is shutdown, it should never be reused.
    */
   public void shutdown() {
+    if (_routingDataHub != null) {
+      // Only the first shutdown of a shared provider releases the hub.
+      if (_routingDataHub.getProvider().removeRoutingTableChangeListener(_hubListener) != null) {
+        _routingDataHub.release();
+      }
+      return;
+    }
     if (_periodicRefreshExecutor != null) {
       _periodicRefreshExecutor.purge();
       _periodicRefreshExecutor.shutdown();
@@ -433,7 +511,14 @@ public class RoutingTableProvider
     _routingTableChangeListenerMap.put(routingTableChangeListener, new ListenerContext(context));
     logger.info("Attach RoutingTableProviderChangeListener {}.",
         routingTableChangeListener.getClass().getName());
-    if (isTriggerCallback) {
+    if (isTriggerCallback && _routingDataHub != null) {
+      // The routing tables of the hub are kept up to date by the hub, so notify the new listener
+      // of the current routing tables without refreshing them.
+      for (AtomicReference<RoutingTable> routingTableRef : _routingTableRefMap.values()) {
+        routingTableChangeListener
+            .onRoutingTableChange(new RoutingTableSnapshot(routingTableRef.get()), context);
+      }
+    } else if (isTriggerCallback) {
       logger.info("Force triggering a callback for the new listener in routing table provider");
       final NotificationContext periodicRefreshContext = new NotificationContext(_helixManager);
       periodicRefreshContext.setType(NotificationContext.Type.PERIODIC_REFRESH);
@@ -479,6 +564,27 @@ public class RoutingTableProvider
         .getInstancesForResource(resourceName, partitionName, state);
   }
 
+  /**
+   * returns the instances for {resource,partition} pair that are in a specific {state}, sorted by
+   * the instance id. The result is the same as
+   * {@link #getInstancesForResource(String, String, String)}, but this method is meant for the
+   * per-request routing: the routing table is resolved without any key lookup, and the returned
+   * list is pre-computed when the routing table is refreshed, so no object is allocated.
+   * It is only supported if the provider has a single source data type.
+   * @param resourceName
+   * @param partitionName
+   * @param state
+   * @return an immutable list, empty if there is no instance in the given state
+   */
+  public List<InstanceConfig> lookupInstances(String resourceName, String partitionName,
+      String state) {
+    if (_defaultRoutingTableRef == null) {
+      throw new HelixException("There is none or more than one RoutingTableSnapshot");
+    }
+    return _defaultRoutingTableRef.get()
+        .getInstancesForResource(resourceName, partitionName, state);
+  }
+
   /**
    * returns the instances for {resource group,partition} pair in all resources belongs to the given
    * resource group that are in a specific {state}.
@@ -635,6 +741,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = false)
   public void onExternalViewChange(List<ExternalView> externalViewList,
       NotificationContext changeContext) {
+    if (isSharedProvider("onExternalViewChange")) {
+      return;
+    }
     HelixConstants.ChangeType changeType = changeContext.getChangeType();
     if (changeType != null && !_sourceDataTypeMap.containsKey(changeType.getPropertyType())) {
       logger.warn(
@@ -672,6 +781,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = false)
   public void onInstanceConfigChange(List<InstanceConfig> configs,
       NotificationContext changeContext) {
+    if (isSharedProvider("onInstanceConfigChange")) {
+      return;
+    }
     _routerUpdater.queueEvent(changeContext, ClusterEventType.InstanceConfigChange,
         HelixConstants.ChangeType.INSTANCE_CONFIG);
   }
@@ -686,6 +798,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = true)
   public void onLiveInstanceChange(List<LiveInstance> liveInstances,
       NotificationContext changeContext) {
+    if (isSharedProvider("onLiveInstanceChange")) {
+      return;
+    }
     if (_sourceDataTypeMap.containsKey(PropertyType.CURRENTSTATES)) {
       // Go though the live instance list and update CurrentState listeners
       updateCurrentStatesListeners(liveInstances, changeContext);
@@ -698,6 +813,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = false)
   public void onStateChange(String instanceName, List<CurrentState> statesInfo,
       NotificationContext changeContext) {
+    if (isSharedProvider("onStateChange")) {
+      return;
+    }
     if (_sourceDataTypeMap.containsKey(PropertyType.CURRENTSTATES)) {
       _routerUpdater.queueEvent(changeContext, ClusterEventType.CurrentStateChange,
           HelixConstants.ChangeType.CURRENT_STATE);
@@ -711,6 +829,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = false)
   public void onCustomizedViewChange(List<CustomizedView> customizedViewList,
       NotificationContext changeContext) {
+    if (isSharedProvider("onCustomizedViewChange")) {
+      return;
+    }
     if (_sourceDataTypeMap.containsKey(PropertyType.CUSTOMIZEDVIEW)) {
       _routerUpdater.queueEvent(changeContext, ClusterEventType.CustomizedViewChange,
           HelixConstants.ChangeType.CUSTOMIZED_VIEW);
@@ -724,6 +845,9 @@ public class RoutingTableProvider
   @PreFetch(enabled = false)
   public void onCustomizedViewRootChange(List<String> customizedViewTypes,
       NotificationContext changeContext) {
+    if (isSharedProvider("onCustomizedViewRootChange")) {
+      return;
+    }
     logger.info(
         "Registering the CustomizedView listeners again due to the CustomizedView root change.");
     List<String> userRequestedTypes =
@@ -800,6 +924,21 @@ public class RoutingTableProvider
     }
   }
 
+  /**
+   * The routing tables of a shared provider are refreshed by its hub only, so the change callbacks
+   * and the refreshes of a shared provider are ignored.
+   * @param method the ignored method
+   * @return true if this is a shared provider
+   */
+  private boolean isSharedProvider(String method) {
+    if (_routingDataHub == null) {
+      return false;
+    }
+    logger.warn("Ignore {} of a shared RoutingTableProvider, the routing tables are refreshed by"
+        + " the routing data hub.", method);
+    return true;
+  }
+
   private void reset() {
     logger.info("Resetting the routing table.");
     RoutingTable newRoutingTable;
@@ -818,16 +957,24 @@ public class RoutingTableProvider
   protected void refreshExternalView(Collection<ExternalView> externalViews,
       Collection<InstanceConfig> instanceConfigs, Collection<LiveInstance> liveInstances,
       String referenceKey) {
+    if (isSharedProvider("refreshExternalView")) {
+      return;
+    }
     long startTime = System.currentTimeMillis();
-    PropertyType propertyType = _routingTableRefMap.get(referenceKey).get().getPropertyType();
-    RoutingTable newRoutingTable =
-        new RoutingTable(externalViews, instanceConfigs, liveInstances, propertyType);
+    RoutingTable previousRoutingTable = _routingTableRefMap.get(referenceKey).get();
+    // Only the resources whose ExternalView has changed are rebuilt, the routing information of
+    // the other resources is shared with the previous routing table.
+    RoutingTable newRoutingTable = new RoutingTable(previousRoutingTable, externalViews,
+        instanceConfigs, liveInstances, previousRoutingTable.getPropertyType());
     resetRoutingTableAndNotify(startTime, newRoutingTable, referenceKey);
   }
 
   protected void refreshCustomizedView(Collection<CustomizedView> customizedViews,
       Collection<InstanceConfig> instanceConfigs, Collection<LiveInstance> liveInstances,
       String referenceKey) {
+    if (isSharedProvider("refreshCustomizedView")) {
+      return;
+    }
     long startTime = System.currentTimeMillis();
     PropertyType propertyType = _routingTableRefMap.get(referenceKey).get().getPropertyType();
     String customizedStateType = _routingTableRefMap.get(referenceKey).get().getStateType();
@@ -839,6 +986,9 @@ public class RoutingTableProvider
   protected void refreshCurrentState(Map<String, Map<String, Map<String, CurrentState>>> currentStateMap,
       Collection<InstanceConfig> instanceConfigs, Collection<LiveInstance> liveInstances,
       String referenceKey) {
+    if (isSharedProvider("refreshCurrentState")) {
+      return;
+    }
     long startTime = System.currentTimeMillis();
     RoutingTable newRoutingTable =
         new RoutingTable(currentStateMap, instanceConfigs, liveInstances);
@@ -879,31 +1029,43 @@ public class RoutingTableProvider
   private class RouterUpdater extends ClusterEventProcessor {
     private final RoutingDataCache _dataCache;
     private final Map<PropertyType, List<String>> _sourceDataTypeMap;
+    // The refresh policy, see SystemPropertyKeys.ROUTING_TABLE_REFRESH_MIN_INTERVAL_MS and
+    // SystemPropertyKeys.ROUTING_TABLE_REFRESH_MAX_STALENESS_MS.
+    private final long _minRefreshIntervalMs;
+    private final long _maxStalenessMs;
+    // The notification time of the oldest change that is not refreshed yet, 0 if none.
+    private final AtomicLong _firstPendingChangeTime = new AtomicLong();
+    private long _lastRefreshEndTime;
+    // The views of the last routing tables, to find the changed views for the staleness metric.
+    private final Map<PropertyType, Map<String, ExternalView>> _lastExternalViewMaps =
+        new HashMap<>();
 
     public RouterUpdater(String clusterName, Map<PropertyType, List<String>> sourceDataTypeMap) {
       super(clusterName, "Helix-RouterUpdater-event_process");
       _sourceDataTypeMap = sourceDataTypeMap;
       _dataCache = new RoutingDataCache(clusterName, _sourceDataTypeMap);
+      _minRefreshIntervalMs = HelixUtil
+          .getSystemPropertyAsLong(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MIN_INTERVAL_MS, 0L);
+      _maxStalenessMs = HelixUtil
+          .getSystemPropertyAsLong(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MAX_STALENESS_MS, 0L);
     }
 
     @Override
     protected void handleEvent(ClusterEvent event) {
       NotificationContext changeContext = event.getAttribute(AttributeName.changeContext.name());
-      HelixConstants.ChangeType changeType = changeContext.getChangeType();
 
       // Set cluster event id for later processing methods and it also helps debug.
       _dataCache.setClusterEventId(event.getEventId());
-
-      if (changeContext == null || changeContext.getType() != NotificationContext.Type.CALLBACK) {
-        _dataCache.requireFullRefresh();
-      } else {
-        _dataCache.notifyDataChange(changeType, changeContext.getPathChanged());
-      }
+      recordDataChange(changeContext);
 
       // session has expired clean up the routing table
       if (changeContext.getType() == NotificationContext.Type.FINALIZE) {
         reset();
+        _lastExternalViewMaps.clear();
       } else {
+        if (!coalesceEvents()) {
+          return;
+        }
         // refresh routing table.
         HelixManager manager = event.getAttribute(AttributeName.helixmanager.name());
         if (manager == null) {
@@ -925,6 +1087,7 @@ public class RoutingTableProvider
             refreshExternalView(_dataCache.getExternalViews().values(),
                 _dataCache.getInstanceConfigMap().values(), _dataCache.getLiveInstances().values(),
                 keyReference);
+            recordDataStaleness(propertyType, _dataCache.getExternalViews());
           }
             break;
           case TARGETEXTERNALVIEW: {
@@ -932,6 +1095,7 @@ public class RoutingTableProvider
             refreshExternalView(_dataCache.getTargetExternalViews().values(),
                 _dataCache.getInstanceConfigMap().values(), _dataCache.getLiveInstances().values(),
                 keyReference);
+            recordDataStaleness(propertyType, _dataCache.getTargetExternalViews());
           }
               break;
             case CUSTOMIZEDVIEW:
@@ -954,6 +1118,81 @@ public class RoutingTableProvider
 
           _monitorMap.get(propertyType).increaseDataRefreshCounters(startTime);
         }
+        _lastRefreshEndTime = System.currentTimeMillis();
+      }
+    }
+
+    private void recordDataChange(NotificationContext changeContext) {
+      if (changeContext == null || changeContext.getType() != NotificationContext.Type.CALLBACK) {
+        _dataCache.requireFullRefresh();
+      } else {
+        _dataCache.notifyDataChange(changeContext.getChangeType(), changeContext.getPathChanged());
+      }
+    }
+
+    /**
+     * Wait until the refresh is due, which is the min refresh interval after the last refresh,
+     * but no later than the max staleness after the oldest pending change. Then take the events
+     * that have arrived meanwhile, so their changes are refreshed together.
+     * @return false if the updater is interrupted
+     */
+    private boolean coalesceEvents() {
+      if (_minRefreshIntervalMs <= 0) {
+        _firstPendingChangeTime.set(0L);
+        return true;
+      }
+      long refreshTime = _lastRefreshEndTime + _minRefreshIntervalMs;
+      long firstPendingChangeTime = _firstPendingChangeTime.get();
+      if (_maxStalenessMs > 0 && firstPendingChangeTime > 0) {
+        refreshTime = Math.min(refreshTime, firstPendingChangeTime + _maxStalenessMs);
+      }
+      try {
+        long delay;
+        while ((delay = refreshTime - System.currentTimeMillis()) > 0) {
+          Thread.sleep(delay);
+        }
+        _firstPendingChangeTime.set(0L);
+        // A session expiration is left in the queue, so the routing table is reset after this
+        // refresh.
+        ClusterEvent pendingEvent;
+        while ((pendingEvent = _eventQueue.peek()) != null) {
+          NotificationContext changeContext =
+              pendingEvent.getAttribute(AttributeName.changeContext.name());
+          if (changeContext.getType() == NotificationContext.Type.FINALIZE) {
+            break;
+          }
+          _dataCache.setClusterEventId(_eventQueue.take().getEventId());
+          recordDataChange(changeContext);
+        }
+      } catch (InterruptedException e) {
+        logger.warn("RouterUpdater is interrupted while coalescing the events", e);
+        interrupt();
+        return false;
+      }
+      return true;
+    }
+
+    /**
+     * Record the staleness of the views that are changed since the last routing table, from the
+     * modified time of the view to now.
+     */
+    private void recordDataStaleness(PropertyType propertyType,
+        Map<String, ExternalView> externalViewMap) {
+      Map<String, ExternalView> lastExternalViewMap =
+          _lastExternalViewMaps.put(propertyType, new HashMap<>(externalViewMap));
+      // The views of the first routing table are not changes.
+      if (lastExternalViewMap == null) {
+        return;
+      }
+      long currentTime = System.currentTimeMillis();
+      for (ExternalView externalView : externalViewMap.values()) {
+        long modifiedTime = externalView.getStat().getModifiedTime();
+        // Skip the views that are not changed, and the views that appear to be changed later than
+        // now because of the clock difference.
+        if (lastExternalViewMap.get(externalView.getId()) != externalView && modifiedTime > 0
+            && modifiedTime <= currentTime) {
+          _monitorMap.get(propertyType).recordDataStaleness(currentTime - modifiedTime);
+        }
       }
     }
 
@@ -1004,6 +1243,7 @@ public class RoutingTableProvider
     public void queueEvent(NotificationContext context, ClusterEventType eventType,
         HelixConstants.ChangeType changeType) {
       ClusterEvent event = new ClusterEvent(_clusterName, eventType);
+      _firstPendingChangeTime.compareAndSet(0L, System.currentTimeMillis());
 
       // Null check for manager in the following line is done in handleEvent()
       event.addAttribute(AttributeName.helixmanager.name(), context.getManager());
@@ -57,4 +57,23 @@ public class TestPropertyPathBuilder {
     AssertJUnit.assertEquals(actual, "/test_cluster/CONTROLLER/MESSAGES");
 
   }
+
+  @Test
+  public void testIsPathOfType() {
+    AssertJUnit.assertTrue(PropertyPathBuilder
+        .isPathOfType(PropertyType.EXTERNALVIEW, "/test_cluster/EXTERNALVIEW/resource"));
+    AssertJUnit.assertTrue(
+        PropertyPathBuilder.isPathOfType(PropertyType.EXTERNALVIEW, "/test_cluster/EXTERNALVIEW"));
+    AssertJUnit.assertFalse(PropertyPathBuilder
+        .isPathOfType(PropertyType.EXTERNALVIEW, "/test_cluster/IDEALSTATES/resource"));
+    AssertJUnit.assertFalse(PropertyPathBuilder
+        .isPathOfType(PropertyType.EXTERNALVIEW, "/test_cluster/EXTERNALVIEW/resource/extra"));
+
+    String currentStatePath = PropertyPathBuilder
+        .instanceCurrentState("test_cluster", "instanceName1", "sessionId", "resource");
+    AssertJUnit.assertTrue(
+        PropertyPathBuilder.isPathOfType(PropertyType.CURRENTSTATES, currentStatePath));
+    AssertJUnit.assertFalse(
+        PropertyPathBuilder.isPathOfType(PropertyType.TASKCURRENTSTATES, currentStatePath));
+  }
 }
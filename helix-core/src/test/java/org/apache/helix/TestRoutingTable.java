@@ -250,6 +250,42 @@ public class TestRoutingTable {
     }
   }
 
+  @Test()
+  public void testLookupInstances() {
+    RoutingTableProvider routingTable = new RoutingTableProvider();
+
+    try {
+      ZNRecord record = new ZNRecord("TESTDB");
+      add(record, "TESTDB_0", "localhost_8901", "SLAVE");
+      add(record, "TESTDB_0", "localhost_8900", "SLAVE");
+      add(record, "TESTDB_1", "localhost_8901", "MASTER");
+      routingTable.onExternalViewChange(
+          Collections.singletonList(new ExternalView(record)), changeContext);
+
+      List<InstanceConfig> instances = routingTable.lookupInstances("TESTDB", "TESTDB_0", "SLAVE");
+      Assert.assertEquals(instances.size(), 2);
+      // The instances are sorted by the instance id.
+      Assert.assertEquals(instances.get(0).getInstanceName(), "localhost_8900");
+      Assert.assertEquals(instances.get(1).getInstanceName(), "localhost_8901");
+      Assert.assertEquals(instances,
+          routingTable.getInstancesForResource("TESTDB", "TESTDB_0", "SLAVE"));
+      // The list is pre-computed, so every lookup returns the same immutable object.
+      Assert.assertSame(routingTable.lookupInstances("TESTDB", "TESTDB_0", "SLAVE"), instances);
+      try {
+        instances.clear();
+        Assert.fail("The routing table should not be modifiable.");
+      } catch (UnsupportedOperationException e) {
+        // expected
+      }
+
+      Assert.assertTrue(routingTable.lookupInstances("TESTDB", "TESTDB_1", "SLAVE").isEmpty());
+      Assert.assertTrue(routingTable.lookupInstances("TESTDB", "TESTDB_2", "MASTER").isEmpty());
+      Assert.assertTrue(routingTable.lookupInstances("NONEXIST", "TESTDB_0", "MASTER").isEmpty());
+    } finally {
+      routingTable.shutdown();
+    }
+  }
+
   @Test()
   public void testMultiThread() throws Exception {
     final RoutingTableProvider routingTable = new RoutingTableProvider();
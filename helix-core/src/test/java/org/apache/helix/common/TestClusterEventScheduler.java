@@ -0,0 +1,154 @@
+package org.apache.helix.common;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.helix.NotificationContext;
+import org.apache.helix.controller.stages.AttributeName;
+import org.apache.helix.controller.stages.ClusterEvent;
+import org.apache.helix.controller.stages.ClusterEventType;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class TestClusterEventScheduler {
+  private final ExecutorService _executor = Executors.newSingleThreadExecutor();
+
+  @AfterClass
+  public void afterClass() {
+    _executor.shutdownNow();
+  }
+
+  @Test
+  public void testMergeEvents() throws Exception {
+    ClusterEventScheduler scheduler = new ClusterEventScheduler(0, Long.MAX_VALUE);
+
+    ClusterEvent event1 = new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange);
+    event1.setCreationTime(100L);
+    event1.addAttribute("attr1", 1);
+    event1.addAttribute("attr2", 1);
+    NotificationContext context1 = new NotificationContext(null);
+    context1.setPathChanged("/TestCluster/INSTANCES/instance0/CURRENTSTATES");
+    event1.addAttribute(AttributeName.changeContext.name(), context1);
+    scheduler.put(event1);
+
+    ClusterEvent event2 = new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange);
+    event2.setCreationTime(200L);
+    event2.addAttribute("attr2", 2);
+    NotificationContext context2 = new NotificationContext(null);
+    context2.setPathChanged("/TestCluster/INSTANCES/instance1/CURRENTSTATES");
+    event2.addAttribute(AttributeName.changeContext.name(), context2);
+    scheduler.put(event2);
+    Assert.assertEquals(scheduler.size(), 1);
+
+    ClusterEvent event = take(scheduler);
+    Assert.assertSame(event, event2);
+    // The attributes of the newer event take precedence.
+    Assert.assertEquals((int) event.getAttribute("attr1"), 1);
+    Assert.assertEquals((int) event.getAttribute("attr2"), 2);
+    // The queue latency is measured from the first event.
+    Assert.assertEquals(event.getCreationTime(), 100L);
+    NotificationContext mergedContext = event.getAttribute(AttributeName.changeContext.name());
+    Assert.assertEquals(mergedContext.getDirtyPaths(),
+        ImmutableSet.of("/TestCluster/INSTANCES/instance0/CURRENTSTATES",
+            "/TestCluster/INSTANCES/instance1/CURRENTSTATES"));
+    // The original context is not modified.
+    Assert.assertEquals(context2.getDirtyPaths().size(), 1);
+    Assert.assertTrue(scheduler.isEmpty());
+  }
+
+  @Test
+  public void testPriority() throws Exception {
+    ClusterEventScheduler scheduler = new ClusterEventScheduler(0, Long.MAX_VALUE);
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.PeriodicalRebalance));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.ResourceConfigChange));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.IdealStateChange));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.LiveInstanceChange));
+    Assert.assertEquals(scheduler.size(), 5);
+    Assert.assertEquals(scheduler.peek().getEventType(), ClusterEventType.CurrentStateChange);
+
+    // The high priority events first, then the events of the same priority in the arrival order.
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.CurrentStateChange);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.LiveInstanceChange);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.ResourceConfigChange);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.IdealStateChange);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.PeriodicalRebalance);
+    Assert.assertTrue(scheduler.isEmpty());
+  }
+
+  @Test
+  public void testStarvation() throws Exception {
+    long maxPriorityDelay = 100L;
+    ClusterEventScheduler scheduler = new ClusterEventScheduler(0, maxPriorityDelay);
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.PeriodicalRebalance));
+    Thread.sleep(maxPriorityDelay * 2);
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    // The periodic event has waited for too long, so it is taken first.
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.PeriodicalRebalance);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.CurrentStateChange);
+  }
+
+  @Test
+  public void testDebounce() throws Exception {
+    long debounceWindow = 500L;
+    ClusterEventScheduler scheduler = new ClusterEventScheduler(debounceWindow, Long.MAX_VALUE);
+
+    // A single event is not delayed.
+    long startTime = System.currentTimeMillis();
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    take(scheduler);
+    Assert.assertTrue(System.currentTimeMillis() - startTime < debounceWindow);
+
+    // A burst is held until it is quiet for the debounce window.
+    startTime = System.currentTimeMillis();
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    // The other event types are not blocked by the burst.
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.IdealStateChange));
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.IdealStateChange);
+    Assert.assertEquals(take(scheduler).getEventType(), ClusterEventType.CurrentStateChange);
+    Assert.assertTrue(System.currentTimeMillis() - startTime >= debounceWindow);
+
+    // A continuous burst is held for at most the max debounce windows.
+    startTime = System.currentTimeMillis();
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+    Future<ClusterEvent> future = _executor.submit(scheduler::take);
+    while (!future.isDone()) {
+      scheduler.put(new ClusterEvent("TestCluster", ClusterEventType.CurrentStateChange));
+      Thread.sleep(debounceWindow / 10);
+    }
+    long delay = System.currentTimeMillis() - startTime;
+    Assert.assertTrue(delay >= debounceWindow, "Delay " + delay);
+    Assert.assertTrue(delay < 2 * ClusterEventScheduler.MAX_DEBOUNCE_WINDOWS * debounceWindow,
+        "Delay " + delay);
+  }
+
+  private ClusterEvent take(ClusterEventScheduler scheduler) throws Exception {
+    // The take() waits indefinitely, stop waiting after 30 seconds for the test.
+    return _executor.submit(scheduler::take).get(30, TimeUnit.SECONDS);
+  }
+}
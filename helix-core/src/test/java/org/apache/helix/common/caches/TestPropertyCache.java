@@ -19,7 +19,10 @@ package org.apache.helix.common.caches;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.google.common.collect.ImmutableList;
@@ -29,11 +32,17 @@ import org.apache.helix.HelixProperty;
 import org.apache.helix.PropertyKey;
 import org.apache.helix.common.controllers.ControlContextProvider;
 import org.apache.helix.model.InstanceConfig;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyListOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -116,6 +125,85 @@ public class TestPropertyCache {
         new PropertyKey.Builder("fake").instance("instance2"));
   }
 
+  @Test(description = "Unit test for incremental cache refresh based on the changed paths")
+  public void testIncrementalRefresh() {
+    final PropertyKey.Builder keyBuilder = new PropertyKey.Builder("fake");
+    final Map<String, InstanceConfig> zkData = new HashMap<>();
+    zkData.put("instance0", new InstanceConfig("instance0"));
+    zkData.put("instance1", new InstanceConfig("instance1"));
+    HelixDataAccessor accessor = mock(HelixDataAccessor.class);
+    when(accessor.keyBuilder()).thenReturn(keyBuilder);
+    when(accessor.getChildNames(any(PropertyKey.class))).thenAnswer(new Answer<List<String>>() {
+      @Override
+      public List<String> answer(InvocationOnMock invocation) {
+        return new ArrayList<>(zkData.keySet());
+      }
+    });
+    when(accessor.getProperty(anyListOf(PropertyKey.class), anyBoolean()))
+        .thenAnswer(new Answer<List<InstanceConfig>>() {
+          @Override
+          public List<InstanceConfig> answer(InvocationOnMock invocation) {
+            List<InstanceConfig> properties = new ArrayList<>();
+            for (Object key : (List<?>) invocation.getArguments()[0]) {
+              String[] params = ((PropertyKey) key).getParams();
+              properties.add(zkData.get(params[params.length - 1]));
+            }
+            return properties;
+          }
+        });
+
+    // No stat, so the cached objects are always reloaded when their stats are checked.
+    when(accessor.getPropertyStats(anyListOf(PropertyKey.class)))
+        .thenAnswer(new Answer<List<HelixProperty.Stat>>() {
+          @Override
+          public List<HelixProperty.Stat> answer(InvocationOnMock invocation) {
+            return new ArrayList<>(Collections.<HelixProperty.Stat>nCopies(
+                ((List<?>) invocation.getArguments()[0]).size(), null));
+          }
+        });
+
+    PropertyCache<InstanceConfig> propertyCache = new PropertyCache<>(
+        MOCK_CONTROL_CONTEXT_PROVIDER, "mock property cache",
+        new PropertyCache.PropertyCacheKeyFuncs<InstanceConfig>() {
+          @Override
+          public PropertyKey getRootKey(HelixDataAccessor accessor) {
+            return keyBuilder.instanceConfigs();
+          }
+
+          @Override
+          public PropertyKey getObjPropertyKey(HelixDataAccessor accessor, String objName) {
+            return keyBuilder.instanceConfig(objName);
+          }
+
+          @Override
+          public String getObjName(InstanceConfig obj) {
+            return obj.getInstanceName();
+          }
+        }, true);
+    // The changed paths are unknown, so all the objects are listed.
+    propertyCache.refresh(accessor, null);
+    Assert.assertEquals(propertyCache.getPropertyMap().keySet(), zkData.keySet());
+    verify(accessor, times(1)).getChildNames(any(PropertyKey.class));
+
+    // Only the changed object is reloaded, without listing the objects.
+    InstanceConfig instance0 = propertyCache.getPropertyByName("instance0");
+    InstanceConfig updatedInstance1 = new InstanceConfig("instance1");
+    updatedInstance1.setHostName("newHost");
+    zkData.put("instance1", updatedInstance1);
+    propertyCache.refresh(accessor,
+        Collections.singleton(keyBuilder.instanceConfig("instance1").getPath()));
+    Assert.assertSame(propertyCache.getPropertyByName("instance0"), instance0);
+    Assert.assertSame(propertyCache.getPropertyByName("instance1"), updatedInstance1);
+    verify(accessor, times(1)).getChildNames(any(PropertyKey.class));
+
+    // The objects are listed again if the children of the root have changed.
+    zkData.put("instance2", new InstanceConfig("instance2"));
+    propertyCache.refresh(accessor,
+        Collections.singleton(keyBuilder.instanceConfigs().getPath()));
+    Assert.assertEquals(propertyCache.getPropertyMap().keySet(), zkData.keySet());
+    verify(accessor, times(2)).getChildNames(any(PropertyKey.class));
+  }
+
   @Test(description = "First set the property cache and update the object from caller")
   public void testDefensiveCopyOnDataUpdate() {
     @SuppressWarnings("unchecked")
@@ -131,6 +219,29 @@ public class TestPropertyCache {
     Assert.assertTrue(propertyCache.getPropertyMap().isEmpty());
   }
 
+  @Test(description = "The snapshot is not changed by the later update of the cache")
+  public void testSnapshotCopyOnWrite() {
+    @SuppressWarnings("unchecked")
+    PropertyCache.PropertyCacheKeyFuncs<HelixProperty> keyFuncs =
+        mock(PropertyCache.PropertyCacheKeyFuncs.class);
+    when(keyFuncs.getObjName(any(HelixProperty.class))).thenReturn("id1");
+    PropertyCache<HelixProperty> propertyCache =
+        new PropertyCache<>(MOCK_CONTROL_CONTEXT_PROVIDER, "mock property cache", keyFuncs,
+            false);
+    propertyCache.setPropertyMap(ImmutableMap.of("id0", new HelixProperty("id0")));
+
+    Map<String, HelixProperty> snapshot = propertyCache.getPropertyMapSnapshot();
+    // Taking another snapshot of the unchanged cache does not copy the map.
+    Assert.assertEquals(propertyCache.getPropertyMapSnapshot(), snapshot);
+
+    propertyCache.setProperty(new HelixProperty("id1"));
+    propertyCache.deletePropertyByName("id0");
+    Assert.assertEquals(snapshot.keySet(), Collections.singleton("id0"));
+    Assert.assertEquals(propertyCache.getPropertyMap().keySet(), Collections.singleton("id1"));
+    Assert.assertEquals(propertyCache.getPropertyMapSnapshot().keySet(),
+        Collections.singleton("id1"));
+  }
+
   //TODO investigate if deep copy is needed for PropertyCache
   @Test(enabled = false, description = "First set the property cache and mutate the object from caller")
   public void testDefensiveCopyOnDataMutate() {
@@ -0,0 +1,206 @@
+package org.apache.helix.controller.rebalancer.waged;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.helix.BucketDataAccessor;
+import org.apache.helix.HelixProperty;
+import org.apache.helix.model.Partition;
+import org.apache.helix.model.ResourceAssignment;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.zkclient.exception.ZkNoNodeException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestAssignmentMetadataStoreDeltaPersist {
+  private static final String CLUSTER_NAME = "TestCluster";
+  private static final String BASELINE_PATH = "/TestCluster/ASSIGNMENT_METADATA/BASELINE";
+  private static final String BASELINE_DELTA_PATH = BASELINE_PATH + "_DELTA";
+  private static final int RESOURCE_COUNT = 10;
+
+  private InMemoryBucketDataAccessor _dataAccessor;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    _dataAccessor = new InMemoryBucketDataAccessor();
+  }
+
+  @Test
+  public void testPersistDelta() {
+    AssignmentMetadataStore store = createStore(true);
+    Map<String, ResourceAssignment> assignment = getAssignment(RESOURCE_COUNT, "instance0");
+    Assert.assertTrue(store.persistBaseline(assignment));
+    // The first write is a checkpoint
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 1);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH), 0);
+
+    // Change one resource and remove another one
+    Map<String, ResourceAssignment> newAssignment = new HashMap<>(assignment);
+    newAssignment.put("Resource0", getResourceAssignment("Resource0", "instance1"));
+    newAssignment.remove("Resource1");
+    Assert.assertTrue(store.persistBaseline(newAssignment));
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 1);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH), 1);
+    ZNRecord delta = _dataAccessor.read(BASELINE_DELTA_PATH).getRecord();
+    Assert.assertEquals(delta.getSimpleFields().keySet(), Collections.singleton("Resource0"));
+    Assert.assertEquals(delta.getListField("REMOVED_RESOURCES"),
+        Collections.singletonList("Resource1"));
+
+    // A new store reconstructs the assignment from the checkpoint and the delta log
+    Assert.assertEquals(createStore(false).getBaseline(), newAssignment);
+  }
+
+  @Test
+  public void testCompaction() {
+    AssignmentMetadataStore store = createStore(true);
+    store.persistBaseline(getAssignment(RESOURCE_COUNT, "instance0"));
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 1);
+
+    // Changing more than half of the resources triggers the compaction
+    Map<String, ResourceAssignment> newAssignment = getAssignment(RESOURCE_COUNT, "instance1");
+    store.persistBaseline(newAssignment);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 2);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH), 0);
+    Assert.assertEquals(createStore(false).getBaseline(), newAssignment);
+
+    // Too many delta writes trigger the compaction
+    for (int i = 0; i < AssignmentMetadataStore.MAX_DELTA_SEQUENCE; i++) {
+      newAssignment = new HashMap<>(newAssignment);
+      newAssignment.put("Resource0", getResourceAssignment("Resource0", "instance" + i));
+      store.persistBaseline(newAssignment);
+    }
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 2);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH),
+        AssignmentMetadataStore.MAX_DELTA_SEQUENCE);
+    newAssignment = new HashMap<>(newAssignment);
+    newAssignment.put("Resource1", getResourceAssignment("Resource1", "instance2"));
+    store.persistBaseline(newAssignment);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 3);
+    Assert.assertEquals(createStore(false).getBaseline(), newAssignment);
+  }
+
+  @Test
+  public void testIgnoreStaleDelta() {
+    AssignmentMetadataStore store = createStore(true);
+    store.persistBaseline(getAssignment(RESOURCE_COUNT, "instance0"));
+    Map<String, ResourceAssignment> newAssignment = getAssignment(RESOURCE_COUNT, "instance0");
+    newAssignment.put("Resource0", getResourceAssignment("Resource0", "instance1"));
+    store.persistBaseline(newAssignment);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH), 1);
+
+    // Disable the delta persist mode. The complete assignment is written, and the delta log that
+    // was written before becomes stale.
+    store.setDeltaPersistEnabled(false);
+    newAssignment = getAssignment(RESOURCE_COUNT, "instance0");
+    newAssignment.put("Resource1", getResourceAssignment("Resource1", "instance1"));
+    store.persistBaseline(newAssignment);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 2);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_DELTA_PATH), 1);
+    Assert.assertEquals(createStore(true).getBaseline(), newAssignment);
+
+    // Re-enable the delta persist mode. A new checkpoint is written before any delta.
+    store.setDeltaPersistEnabled(true);
+    newAssignment = new HashMap<>(newAssignment);
+    newAssignment.put("Resource2", getResourceAssignment("Resource2", "instance1"));
+    store.persistBaseline(newAssignment);
+    Assert.assertEquals(_dataAccessor.getWriteCount(BASELINE_PATH), 3);
+    Assert.assertEquals(createStore(true).getBaseline(), newAssignment);
+  }
+
+  @Test
+  public void testClearAssignmentMetadata() {
+    AssignmentMetadataStore store = createStore(true);
+    store.persistBaseline(getAssignment(RESOURCE_COUNT, "instance0"));
+    store.persistBestPossibleAssignment(getAssignment(RESOURCE_COUNT, "instance0"));
+    store.clearAssignmentMetadata();
+    AssignmentMetadataStore newStore = createStore(true);
+    Assert.assertTrue(newStore.getBaseline().isEmpty());
+    Assert.assertTrue(newStore.getBestPossibleAssignment().isEmpty());
+  }
+
+  private AssignmentMetadataStore createStore(boolean deltaPersistEnabled) {
+    AssignmentMetadataStore store = new AssignmentMetadataStore(_dataAccessor, CLUSTER_NAME);
+    store.setDeltaPersistEnabled(deltaPersistEnabled);
+    return store;
+  }
+
+  private Map<String, ResourceAssignment> getAssignment(int resourceCount, String instance) {
+    Map<String, ResourceAssignment> assignment = new HashMap<>();
+    for (int i = 0; i < resourceCount; i++) {
+      String resource = "Resource" + i;
+      assignment.put(resource, getResourceAssignment(resource, instance));
+    }
+    return assignment;
+  }
+
+  private ResourceAssignment getResourceAssignment(String resource, String instance) {
+    ResourceAssignment assignment = new ResourceAssignment(resource);
+    assignment.addReplicaMap(new Partition(resource + "_0"),
+        Collections.singletonMap(instance, "MASTER"));
+    return assignment;
+  }
+
+  /**
+   * Keep the latest written record of each path in memory.
+   */
+  private static class InMemoryBucketDataAccessor implements BucketDataAccessor {
+    private final Map<String, HelixProperty> _records = new HashMap<>();
+    private final Map<String, Integer> _writeCounts = new HashMap<>();
+
+    @Override
+    public <T extends HelixProperty> boolean compressedBucketWrite(String path, T value) {
+      // Copy the record, so the test data won't be changed by the writer afterwards.
+      _records.put(path, new HelixProperty(new ZNRecord(value.getRecord())));
+      _writeCounts.merge(path, 1, Integer::sum);
+      return true;
+    }
+
+    @Override
+    public <T extends HelixProperty> HelixProperty compressedBucketRead(String path,
+        Class<T> helixPropertySubType) {
+      return read(path);
+    }
+
+    @Override
+    public void compressedBucketDelete(String path) {
+      _records.remove(path);
+    }
+
+    @Override
+    public void disconnect() {
+    }
+
+    HelixProperty read(String path) {
+      HelixProperty property = _records.get(path);
+      if (property == null) {
+        throw new ZkNoNodeException(path);
+      }
+      return property;
+    }
+
+    int getWriteCount(String path) {
+      return _writeCounts.getOrDefault(path, 0);
+    }
+  }
+}
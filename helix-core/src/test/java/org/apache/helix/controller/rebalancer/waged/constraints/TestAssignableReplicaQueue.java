@@ -0,0 +1,220 @@
+package org.apache.helix.controller.rebalancer.waged.constraints;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.helix.controller.rebalancer.waged.model.AssignableNode;
+import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterModel;
+import org.apache.helix.model.ResourceAssignment;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestAssignableReplicaQueue {
+  private static final String[] CAPACITY_KEYS = {"CPU", "MEMORY", "DISK"};
+
+  @Test
+  public void testPollingOrderMatchesFullScan() {
+    for (long seed = 0; seed < 10; seed++) {
+      List<AssignableReplicaWithScore> replicas = generateReplicas(seed, 20, 16);
+      Map<String, Integer> remainingCapacity = generateRemainingCapacity(replicas, 1.2f);
+      Assert.assertEquals(pollWithQueue(replicas, new HashMap<>(remainingCapacity)),
+          pollWithFullScan(replicas, new HashMap<>(remainingCapacity)));
+    }
+  }
+
+  @Test
+  public void testPollingOrderWithExhaustedCapacity() {
+    // Part of the replicas cannot fit into the remaining capacity, so they are scored with the
+    // max value and shall be placed first.
+    List<AssignableReplicaWithScore> replicas = generateReplicas(100, 10, 10);
+    Map<String, Integer> remainingCapacity = generateRemainingCapacity(replicas, 0.5f);
+    Assert.assertEquals(pollWithQueue(replicas, new HashMap<>(remainingCapacity)),
+        pollWithFullScan(replicas, new HashMap<>(remainingCapacity)));
+  }
+
+  @Test
+  public void testPollingOrderWithPriorityTies() {
+    // All the replicas have the same weight and score, so the order is decided by the state
+    // priority and then by the replica hash, the same as the full scan.
+    Map<String, Integer> weight = new HashMap<>();
+    for (String key : CAPACITY_KEYS) {
+      weight.put(key, 10);
+    }
+    List<AssignableReplica> replicas = new ArrayList<>();
+    for (int r = 0; r < 3; r++) {
+      String resourceName = "Resource" + r;
+      for (int p = 0; p < 4; p++) {
+        String partitionName = resourceName + "_" + p;
+        replicas.add(mockReplica(resourceName, partitionName, "SLAVE", 2, weight));
+        replicas.add(mockReplica(resourceName, partitionName, "MASTER", 1, weight));
+      }
+    }
+    List<AssignableReplicaWithScore> replicasWithScore =
+        toReplicasWithScore(replicas, new HashMap<>(), new HashMap<>());
+    Map<String, Integer> remainingCapacity = generateRemainingCapacity(replicasWithScore, 2f);
+
+    List<String> queueOrder = pollWithQueue(replicasWithScore, new HashMap<>(remainingCapacity));
+    Assert.assertEquals(queueOrder,
+        pollWithFullScan(replicasWithScore, new HashMap<>(remainingCapacity)));
+    // The top state replicas are polled before the secondary replicas.
+    for (int i = 0; i < 12; i++) {
+      Assert.assertTrue(queueOrder.get(i).endsWith("MASTER"), queueOrder.get(i));
+      Assert.assertTrue(queueOrder.get(i + 12).endsWith("SLAVE"), queueOrder.get(i + 12));
+    }
+  }
+
+  private List<String> pollWithQueue(List<AssignableReplicaWithScore> replicas,
+      Map<String, Integer> remainingCapacity) {
+    List<String> order = new ArrayList<>();
+    AssignableReplicaQueue queue = new AssignableReplicaQueue(replicas, remainingCapacity);
+    while (!queue.isEmpty()) {
+      AssignableReplica replica = queue.poll();
+      order.add(replica.toString());
+      queue.updateRemainingCapacity(replica);
+    }
+    return order;
+  }
+
+  /**
+   * The reference implementation that re-scores all the pending replicas for every placement.
+   */
+  private List<String> pollWithFullScan(List<AssignableReplicaWithScore> replicas,
+      Map<String, Integer> remainingCapacity) {
+    List<String> order = new ArrayList<>();
+    Set<AssignableReplicaWithScore> pendingReplicas = new HashSet<>(replicas);
+    while (!pendingReplicas.isEmpty()) {
+      AssignableReplicaWithScore next = null;
+      for (AssignableReplicaWithScore replica : pendingReplicas) {
+        replica.computeScore(remainingCapacity);
+        if (next == null || replica.compareTo(next) < 0) {
+          next = replica;
+        }
+      }
+      pendingReplicas.remove(next);
+      order.add(next.toString());
+      for (Map.Entry<String, Integer> usage : next.getCapacity().entrySet()) {
+        remainingCapacity.put(usage.getKey(),
+            remainingCapacity.get(usage.getKey()) - usage.getValue());
+      }
+    }
+    return order;
+  }
+
+  private Map<String, Integer> generateRemainingCapacity(List<AssignableReplicaWithScore> replicas,
+      float ratio) {
+    Map<String, Integer> totalUsage = new HashMap<>();
+    for (String key : CAPACITY_KEYS) {
+      totalUsage.put(key, 0);
+    }
+    for (AssignableReplicaWithScore replica : replicas) {
+      replica.getCapacity().forEach((key, value) -> totalUsage.merge(key, value, Integer::sum));
+    }
+    Map<String, Integer> remainingCapacity = new HashMap<>();
+    totalUsage.forEach((key, value) -> remainingCapacity.put(key, (int) (value * ratio)));
+    return remainingCapacity;
+  }
+
+  /**
+   * Generate the replicas of a MasterSlave like model with 1 top state replica and 2 secondary
+   * replicas per partition. Most partitions use the default resource weight, and some partitions
+   * have customized weight.
+   */
+  private List<AssignableReplicaWithScore> generateReplicas(long seed, int resourceCount,
+      int partitionCount) {
+    Random random = new Random(seed);
+    Map<String, ResourceAssignment> bestPossibleAssignment = new HashMap<>();
+    Map<String, ResourceAssignment> baselineAssignment = new HashMap<>();
+    List<AssignableReplica> replicas = new ArrayList<>();
+    for (int r = 0; r < resourceCount; r++) {
+      String resourceName = "Resource" + r;
+      if (random.nextInt(3) == 0) {
+        bestPossibleAssignment.put(resourceName, new ResourceAssignment(resourceName));
+      }
+      if (random.nextInt(3) == 0) {
+        baselineAssignment.put(resourceName, new ResourceAssignment(resourceName));
+      }
+      Map<String, Integer> defaultWeight = generateWeight(random);
+      for (int p = 0; p < partitionCount; p++) {
+        String partitionName = resourceName + "_" + p;
+        Map<String, Integer> weight =
+            random.nextInt(10) == 0 ? generateWeight(random) : defaultWeight;
+        replicas.add(mockReplica(resourceName, partitionName, "MASTER", 1, weight));
+        replicas.add(mockReplica(resourceName, partitionName, "SLAVE", 2, weight));
+        replicas.add(mockReplica(resourceName, partitionName, "SLAVE", 2, weight));
+      }
+    }
+    return toReplicasWithScore(replicas, bestPossibleAssignment, baselineAssignment);
+  }
+
+  private List<AssignableReplicaWithScore> toReplicasWithScore(List<AssignableReplica> replicas,
+      Map<String, ResourceAssignment> bestPossibleAssignment,
+      Map<String, ResourceAssignment> baselineAssignment) {
+    ClusterContext clusterContext = mock(ClusterContext.class);
+    when(clusterContext.getBestPossibleAssignment()).thenReturn(bestPossibleAssignment);
+    when(clusterContext.getBaselineAssignment()).thenReturn(baselineAssignment);
+    Map<String, AssignableNode> nodes = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      nodes.put("Instance" + i, mock(AssignableNode.class));
+    }
+    ClusterModel clusterModel = mock(ClusterModel.class);
+    when(clusterModel.getContext()).thenReturn(clusterContext);
+    when(clusterModel.getAssignableNodes()).thenReturn(nodes);
+
+    List<AssignableReplicaWithScore> replicasWithScore = new ArrayList<>();
+    for (AssignableReplica replica : replicas) {
+      replicasWithScore.add(new AssignableReplicaWithScore(replica, clusterModel));
+    }
+    return replicasWithScore;
+  }
+
+  private Map<String, Integer> generateWeight(Random random) {
+    Map<String, Integer> weight = new HashMap<>();
+    for (String key : CAPACITY_KEYS) {
+      // Some of the resources do not use all the capacity keys.
+      weight.put(key, random.nextInt(4) == 0 ? 0 : random.nextInt(100) + 1);
+    }
+    return weight;
+  }
+
+  private AssignableReplica mockReplica(String resourceName, String partitionName,
+      String state, int statePriority, Map<String, Integer> weight) {
+    AssignableReplica replica = mock(AssignableReplica.class);
+    when(replica.getResourceName()).thenReturn(resourceName);
+    when(replica.getPartitionName()).thenReturn(partitionName);
+    when(replica.getReplicaState()).thenReturn(state);
+    when(replica.getStatePriority()).thenReturn(statePriority);
+    when(replica.getCapacity()).thenReturn(weight);
+    when(replica.toString())
+        .thenReturn(AssignableReplica.generateReplicaKey(resourceName, partitionName, state));
+    return replica;
+  }
+}
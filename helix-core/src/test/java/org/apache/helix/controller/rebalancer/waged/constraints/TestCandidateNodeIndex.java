@@ -0,0 +1,135 @@
+package org.apache.helix.controller.rebalancer.waged.constraints;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.helix.controller.rebalancer.waged.model.AssignableNode;
+import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestCandidateNodeIndex {
+  private static final String RESOURCE = "Resource";
+  private static final String PARTITION = "Partition";
+  private static final String TAG = "Tag";
+
+  private AssignableNode _node1;
+  private AssignableNode _node2;
+  private AssignableNode _node3;
+  private List<AssignableNode> _nodes;
+  private AssignableReplica _replica;
+  private ClusterContext _clusterContext;
+
+  @BeforeMethod
+  public void setUp() {
+    _node1 = mockNode("node1", "zone1", ImmutableSet.of(TAG));
+    _node2 = mockNode("node2", "zone1", Collections.emptySet());
+    _node3 = mockNode("node3", "zone2", ImmutableSet.of(TAG));
+    _nodes = ImmutableList.of(_node1, _node2, _node3);
+    _replica = mock(AssignableReplica.class);
+    when(_replica.getResourceName()).thenReturn(RESOURCE);
+    when(_replica.getPartitionName()).thenReturn(PARTITION);
+    when(_replica.getResourceMaxPartitionsPerInstance()).thenReturn(-1);
+    _clusterContext = mock(ClusterContext.class);
+    when(_clusterContext.getPartitionsForResourceAndFaultZone(anyString(), anyString()))
+        .thenReturn(Collections.emptySet());
+  }
+
+  @Test
+  public void testPruneByGroupTag() {
+    when(_replica.hasResourceInstanceGroupTag()).thenReturn(true);
+    when(_replica.getResourceInstanceGroupTag()).thenReturn(TAG);
+    CandidateNodeIndex index =
+        new CandidateNodeIndex(_nodes, ImmutableList.of(new ValidGroupTagConstraint()));
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext),
+        ImmutableList.of(_node1, _node3));
+
+    when(_replica.getResourceInstanceGroupTag()).thenReturn("UnknownTag");
+    Assert.assertTrue(index.getCandidateNodes(_replica, _clusterContext).isEmpty());
+  }
+
+  @Test
+  public void testPruneBySamePartitionAndFaultZone() {
+    CandidateNodeIndex index = new CandidateNodeIndex(_nodes,
+        ImmutableList.of(new SamePartitionOnInstanceConstraint(), new FaultZoneAwareConstraint()));
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext), _nodes);
+
+    // Assign the partition to node1, then zone1 contains the partition.
+    when(_node1.getAssignedPartitionsByResource(RESOURCE)).thenReturn(ImmutableSet.of(PARTITION));
+    when(_clusterContext.getPartitionsForResourceAndFaultZone(RESOURCE, "zone1"))
+        .thenReturn(ImmutableSet.of(PARTITION));
+    index.recordAssignment(_replica, _node1);
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext),
+        ImmutableList.of(_node3));
+  }
+
+  @Test
+  public void testPruneByPartitionLimit() {
+    when(_node2.getMaxPartition()).thenReturn(1);
+    when(_node2.getAssignedReplicaCount()).thenReturn(1);
+    when(_replica.getResourceMaxPartitionsPerInstance()).thenReturn(1);
+    CandidateNodeIndex index =
+        new CandidateNodeIndex(_nodes, ImmutableList.of(new NodeMaxPartitionLimitConstraint()));
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext),
+        ImmutableList.of(_node1, _node3));
+
+    // Reach the resource level limit on node3.
+    when(_node3.getAssignedPartitionsByResource(RESOURCE)).thenReturn(ImmutableSet.of(PARTITION));
+    index.recordAssignment(_replica, _node3);
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext),
+        ImmutableList.of(_node1));
+  }
+
+  @Test
+  public void testNoPruningWithoutConstraints() {
+    when(_replica.hasResourceInstanceGroupTag()).thenReturn(true);
+    when(_replica.getResourceInstanceGroupTag()).thenReturn("UnknownTag");
+    when(_node2.getMaxPartition()).thenReturn(0);
+    CandidateNodeIndex index = new CandidateNodeIndex(_nodes,
+        ImmutableList.of(new NodeCapacityConstraint(), new ReplicaActivateConstraint()));
+    Assert.assertEquals(index.getCandidateNodes(_replica, _clusterContext), _nodes);
+  }
+
+  private AssignableNode mockNode(String instanceName, String faultZone,
+      Set<String> tags) {
+    AssignableNode node = mock(AssignableNode.class);
+    when(node.getInstanceName()).thenReturn(instanceName);
+    when(node.hasFaultZone()).thenReturn(true);
+    when(node.getFaultZone()).thenReturn(faultZone);
+    when(node.getInstanceTags()).thenReturn(new HashSet<>(tags));
+    when(node.getAssignedPartitionsMap()).thenReturn(ImmutableMap.of());
+    when(node.getAssignedPartitionsByResource(anyString())).thenReturn(Collections.emptySet());
+    when(node.getMaxPartition()).thenReturn(-1);
+    return node;
+  }
+}
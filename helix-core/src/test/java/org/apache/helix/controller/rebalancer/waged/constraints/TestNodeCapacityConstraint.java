@@ -23,12 +23,13 @@ import static org.mockito.Mockito.when;
 
 import org.apache.helix.controller.rebalancer.waged.model.AssignableNode;
 import org.apache.helix.controller.rebalancer.waged.model.AssignableReplica;
+import org.apache.helix.controller.rebalancer.waged.model.CapacityKeyIndex;
 import org.apache.helix.controller.rebalancer.waged.model.ClusterContext;
 import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableList;
 
 public class TestNodeCapacityConstraint {
   private final AssignableReplica _testReplica = Mockito.mock(AssignableReplica.class);
@@ -39,16 +40,20 @@ public class TestNodeCapacityConstraint {
   @Test
   public void testConstraintValidWhenNodeHasEnoughSpace() {
     String key = "testKey";
-    when(_testNode.getRemainingCapacity()).thenReturn(ImmutableMap.of(key,  10));
-    when(_testReplica.getCapacity()).thenReturn(ImmutableMap.of(key, 5));
+    CapacityKeyIndex capacityKeyIndex = new CapacityKeyIndex(ImmutableList.of(key));
+    when(_testNode.getCapacityKeyIndex()).thenReturn(capacityKeyIndex);
+    when(_testNode.getRemainingCapacity(0)).thenReturn(10);
+    when(_testReplica.getCapacity(capacityKeyIndex)).thenReturn(new int[] {5});
     Assert.assertTrue(_constraint.isAssignmentValid(_testNode, _testReplica, _clusterContext));
   }
 
   @Test
   public void testConstraintInValidWhenNodeHasInsufficientSpace() {
     String key = "testKey";
-    when(_testNode.getRemainingCapacity()).thenReturn(ImmutableMap.of(key,  1));
-    when(_testReplica.getCapacity()).thenReturn(ImmutableMap.of(key, 5));
+    CapacityKeyIndex capacityKeyIndex = new CapacityKeyIndex(ImmutableList.of(key));
+    when(_testNode.getCapacityKeyIndex()).thenReturn(capacityKeyIndex);
+    when(_testNode.getRemainingCapacity(0)).thenReturn(1);
+    when(_testReplica.getCapacity(capacityKeyIndex)).thenReturn(new int[] {5});
     Assert.assertFalse(_constraint.isAssignmentValid(_testNode, _testReplica, _clusterContext));
   }
 }
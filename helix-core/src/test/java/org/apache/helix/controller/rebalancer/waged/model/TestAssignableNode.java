@@ -283,4 +283,32 @@ public class TestAssignableNode extends AbstractTestClusterModel {
 
     new AssignableNode(testClusterConfig, testInstanceConfig, _testInstanceId);
   }
+
+  @Test
+  public void testCapacityArrays() throws IOException {
+    ResourceControllerDataProvider testCache = setupClusterDataCache();
+    Set<AssignableReplica> assignmentSet = generateReplicas(testCache);
+    CapacityKeyIndex capacityKeyIndex =
+        CapacityKeyIndex.fromClusterConfig(testCache.getClusterConfig());
+    AssignableNode assignableNode = new AssignableNode(testCache.getClusterConfig(),
+        capacityKeyIndex, testCache.getInstanceConfigMap().get(_testInstanceId), _testInstanceId);
+    assignableNode.assignInitBatch(assignmentSet);
+
+    Map<String, Integer> remainingCapacity = assignableNode.getRemainingCapacity();
+    Assert.assertEquals(capacityKeyIndex.size(), remainingCapacity.size());
+    for (int i = 0; i < capacityKeyIndex.size(); i++) {
+      Assert.assertEquals(assignableNode.getRemainingCapacity(i),
+          (int) remainingCapacity.get(capacityKeyIndex.getCapacityKey(i)));
+    }
+    for (AssignableReplica replica : assignmentSet) {
+      // The replicas that are created with an equal index share the same capacity array.
+      int[] replicaCapacity = replica.getCapacity(capacityKeyIndex);
+      Assert.assertSame(replicaCapacity, replica.getCapacity(capacityKeyIndex));
+      Assert.assertEquals(replicaCapacity, capacityKeyIndex.toArray(replica.getCapacity()));
+      Assert.assertEquals(assignableNode.getGeneralProjectedHighestUtilization(replicaCapacity),
+          assignableNode.getGeneralProjectedHighestUtilization(replica.getCapacity()));
+      Assert.assertEquals(assignableNode.getTopStateProjectedHighestUtilization(replicaCapacity),
+          assignableNode.getTopStateProjectedHighestUtilization(replica.getCapacity()));
+    }
+  }
 }
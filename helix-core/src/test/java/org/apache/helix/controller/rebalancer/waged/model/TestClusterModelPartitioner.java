@@ -0,0 +1,162 @@
+package org.apache.helix.controller.rebalancer.waged.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.helix.model.ClusterConfig;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.ResourceConfig;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestClusterModelPartitioner {
+  private static final String TAG_A = "TagA";
+  private static final String TAG_B = "TagB";
+
+  private ClusterConfig _clusterConfig;
+  private Set<AssignableNode> _nodes;
+
+  @BeforeMethod
+  public void setUp() {
+    _clusterConfig = new ClusterConfig("testCluster");
+    _clusterConfig.setInstanceCapacityKeys(ImmutableList.of("item1", "item2"));
+    _clusterConfig.setDefaultInstanceCapacityMap(ImmutableMap.of("item1", 100, "item2", 100));
+    _clusterConfig.setDefaultPartitionWeightMap(ImmutableMap.of("item1", 1, "item2", 1));
+    _nodes = new HashSet<>();
+    _nodes.add(createNode("nodeA1", TAG_A));
+    _nodes.add(createNode("nodeA2", TAG_A));
+    _nodes.add(createNode("nodeB1", TAG_B));
+    _nodes.add(createNode("nodeB2", TAG_B));
+  }
+
+  @Test
+  public void testPartitionByTag() {
+    Set<AssignableReplica> replicas = new HashSet<>();
+    replicas.addAll(createReplicas("ResourceA", TAG_A));
+    replicas.addAll(createReplicas("ResourceB", TAG_B));
+    List<ClusterModel> subModels =
+        ClusterModelPartitioner.partition(createClusterModel(replicas));
+
+    Assert.assertEquals(subModels.size(), 2);
+    Map<String, Set<String>> nodesByResource = new HashMap<>();
+    for (ClusterModel subModel : subModels) {
+      Assert.assertEquals(subModel.getAssignableReplicaMap().size(), 1);
+      String resourceName = subModel.getAssignableReplicaMap().keySet().iterator().next();
+      Assert.assertEquals(subModel.getAssignableReplicaMap().get(resourceName).size(), 4);
+      nodesByResource.put(resourceName, subModel.getAssignableNodes().keySet());
+      // The context only contains the estimation of the sub-model.
+      Assert.assertEquals(subModel.getContext().getEstimatedMaxPartitionCount(), 2);
+    }
+    Assert.assertEquals(nodesByResource.get("ResourceA"), ImmutableSet.of("nodeA1", "nodeA2"));
+    Assert.assertEquals(nodesByResource.get("ResourceB"), ImmutableSet.of("nodeB1", "nodeB2"));
+  }
+
+  @Test
+  public void testNoPartitionWithUntaggedResource() {
+    Set<AssignableReplica> replicas = new HashSet<>();
+    replicas.addAll(createReplicas("ResourceA", TAG_A));
+    replicas.addAll(createReplicas("ResourceB", TAG_B));
+    replicas.addAll(createReplicas("ResourceC", null));
+    ClusterModel clusterModel = createClusterModel(replicas);
+    List<ClusterModel> subModels = ClusterModelPartitioner.partition(clusterModel);
+    Assert.assertEquals(subModels.size(), 1);
+    Assert.assertSame(subModels.get(0), clusterModel);
+  }
+
+  @Test
+  public void testNoPartitionWithAssignmentAcrossTags() {
+    Set<AssignableReplica> replicas = new HashSet<>();
+    List<AssignableReplica> replicasA = createReplicas("ResourceA", TAG_A);
+    // A replica of ResourceA is still on a node with TagB, so the two groups are connected.
+    getNode("nodeB1").assignInitBatch(Collections.singleton(replicasA.get(0)));
+    replicas.addAll(replicasA.subList(1, replicasA.size()));
+    replicas.addAll(createReplicas("ResourceB", TAG_B));
+
+    List<ClusterModel> subModels =
+        ClusterModelPartitioner.partition(createClusterModel(replicas));
+    Assert.assertEquals(subModels.size(), 1);
+  }
+
+  @Test
+  public void testPartitionWithAllocatedReplicas() {
+    Set<AssignableReplica> replicas = new HashSet<>();
+    replicas.addAll(createReplicas("ResourceA", TAG_A));
+    List<AssignableReplica> replicasB = createReplicas("ResourceB", TAG_B);
+    AssignableNode nodeB1 = getNode("nodeB1");
+    nodeB1.assignInitBatch(Collections.singleton(replicasB.get(0)));
+    replicas.addAll(replicasB.subList(1, replicasB.size()));
+
+    List<ClusterModel> subModels =
+        ClusterModelPartitioner.partition(createClusterModel(replicas));
+    Assert.assertEquals(subModels.size(), 2);
+    ClusterModel subModelB = subModels.stream()
+        .filter(model -> model.getAssignableReplicaMap().containsKey("ResourceB")).findFirst()
+        .get();
+    Assert.assertEquals(subModelB.getAssignableReplicaMap().get("ResourceB").size(), 3);
+    Assert.assertEquals(subModelB.getContext().getAssignmentForFaultZoneMap()
+            .get(nodeB1.getFaultZone()).get("ResourceB"),
+        Collections.singleton(replicasB.get(0).getPartitionName()));
+  }
+
+  private ClusterModel createClusterModel(Set<AssignableReplica> toBeAssignedReplicas) {
+    Set<AssignableReplica> allReplicas = new HashSet<>(toBeAssignedReplicas);
+    _nodes.forEach(node -> allReplicas.addAll(node.getAssignedReplicas()));
+    ClusterContext context =
+        new ClusterContext(allReplicas, _nodes, Collections.emptyMap(), Collections.emptyMap());
+    context.setAssignmentForFaultZoneMap(ClusterModelProvider.mapAssignmentToFaultZone(_nodes));
+    return new ClusterModel(context, toBeAssignedReplicas, _nodes);
+  }
+
+  private AssignableNode getNode(String instanceName) {
+    return _nodes.stream().filter(node -> node.getInstanceName().equals(instanceName))
+        .findFirst().get();
+  }
+
+  private AssignableNode createNode(String instanceName, String tag) {
+    InstanceConfig instanceConfig = new InstanceConfig(instanceName);
+    instanceConfig.addTag(tag);
+    instanceConfig.setZoneId(instanceName);
+    return new AssignableNode(_clusterConfig, instanceConfig, instanceName);
+  }
+
+  // Create 2 partitions with 2 replicas for each partition.
+  private List<AssignableReplica> createReplicas(String resourceName, String tag) {
+    ResourceConfig.Builder builder = new ResourceConfig.Builder(resourceName);
+    if (tag != null) {
+      builder.setInstanceGroupTag(tag);
+    }
+    ResourceConfig resourceConfig = builder.build();
+    return ImmutableList.of("MASTER", "SLAVE").stream().flatMap(
+        state -> ImmutableList.of(resourceName + "_0", resourceName + "_1").stream().map(
+            partition -> new AssignableReplica(_clusterConfig, resourceConfig, partition, state,
+                state.equals("MASTER") ? 1 : 2))).collect(Collectors.toList());
+  }
+}
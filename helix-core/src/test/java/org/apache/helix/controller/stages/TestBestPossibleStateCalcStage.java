@@ -19,6 +19,7 @@ package org.apache.helix.controller.stages;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +76,46 @@ public class TestBestPossibleStateCalcStage extends BaseStageTest {
         + new Date(System.currentTimeMillis()));
   }
 
+  @Test
+  public void testParallelResourceRebalance() {
+    String[] resources = new String[] {
+        "testResourceName_0", "testResourceName_1", "testResourceName_2", "testResourceName_3"
+    };
+    int numPartition = 5;
+
+    ClusterConfig clusterConfig = new ClusterConfig(_clusterName);
+    clusterConfig.setResourceRebalanceParallelism(3);
+    setClusterConfig(clusterConfig);
+    setupIdealState(5, resources, numPartition, 1, RebalanceMode.SEMI_AUTO,
+        BuiltInStateModelDefinitions.MasterSlave.name());
+    setupLiveInstances(5);
+    setupStateModel();
+
+    Map<String, Resource> resourceMap =
+        getResourceMap(resources, numPartition, BuiltInStateModelDefinitions.MasterSlave.name());
+    event.addAttribute(AttributeName.RESOURCES.name(), resourceMap);
+    event.addAttribute(AttributeName.RESOURCES_TO_REBALANCE.name(), resourceMap);
+    event.addAttribute(AttributeName.CURRENT_STATE.name(), new CurrentStateOutput());
+    event.addAttribute(AttributeName.ControllerDataProvider.name(),
+        new ResourceControllerDataProvider());
+
+    runStage(event, new ReadClusterDataStage());
+    runStage(event, new BestPossibleStateCalcStage());
+
+    BestPossibleStateOutput output =
+        event.getAttribute(AttributeName.BEST_POSSIBLE_STATE.name());
+    Assert.assertEquals(output.getResourceStatesMap().keySet(), resourceMap.keySet());
+    for (String resourceName : resources) {
+      for (int p = 0; p < numPartition; p++) {
+        Partition partition = new Partition(resourceName + "_" + p);
+        Assert.assertEquals(output.getInstanceStateMap(resourceName, partition)
+            .get("localhost_" + (p + 1) % 5), "MASTER");
+        Assert.assertEquals(output.getPreferenceList(resourceName, partition.getPartitionName()),
+            Collections.singletonList("localhost_" + (p + 1) % 5));
+      }
+    }
+  }
+
   /*
    * Tests the pipeline detects offline instances exceed the threshold and auto enters maintenance,
    * the maintenance rebalancer is used immediately. No bootstraps in the best possible output.
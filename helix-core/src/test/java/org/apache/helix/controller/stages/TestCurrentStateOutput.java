@@ -0,0 +1,141 @@
+package org.apache.helix.controller.stages;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.helix.controller.common.NameDictionary;
+import org.apache.helix.model.Message;
+import org.apache.helix.model.Partition;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestCurrentStateOutput {
+  private static final String RESOURCE = "db0";
+  private static final String STATE_MODEL = "MasterSlave";
+
+  @Test
+  public void testStateViews() {
+    CurrentStateOutput output = new CurrentStateOutput();
+    output.setResourceStateModelDef(RESOURCE, STATE_MODEL);
+    // Enough partitions and replicas to grow the columns.
+    for (int p = 0; p < 20; p++) {
+      Partition partition = new Partition(RESOURCE + "_" + p);
+      for (int i = 0; i < 3; i++) {
+        output.setCurrentState(RESOURCE, partition, "instance" + (p + i) % 5,
+            i == 0 ? "MASTER" : "SLAVE");
+        output.setEndTime(RESOURCE, partition, "instance" + (p + i) % 5, (long) p);
+      }
+    }
+    Partition partition = new Partition(RESOURCE + "_0");
+    output.setCurrentState(RESOURCE, partition, "instance0", "SLAVE");
+    output.setRequestedState(RESOURCE, partition, "instance1", "DROPPED");
+    output.setInfo(RESOURCE, partition, "instance1", "info");
+    output.setCurrentState(RESOURCE, partition, "instance9", null);
+
+    Map<String, String> expected = new HashMap<>();
+    expected.put("instance0", "SLAVE");
+    expected.put("instance1", "SLAVE");
+    expected.put("instance2", "SLAVE");
+    expected.put("instance9", null);
+    Assert.assertEquals(output.getCurrentStateMap(RESOURCE, partition), expected);
+    Assert.assertEquals(output.getCurrentStateMap(RESOURCE).get(partition), expected);
+    Assert.assertTrue(output.getCurrentStateMap(RESOURCE, partition).containsKey("instance9"));
+    Assert.assertFalse(output.getCurrentStateMap(RESOURCE, partition).containsKey("instance3"));
+    Assert.assertEquals(output.getCurrentStateMap(RESOURCE).size(), 20);
+    Assert.assertEquals(output.getCurrentState(RESOURCE, partition, "instance1"), "SLAVE");
+    Assert.assertEquals(output.getRequestedState(RESOURCE, partition, "instance1"), "DROPPED");
+    Assert.assertNull(output.getRequestedState(RESOURCE, partition, "instance0"));
+    Assert.assertEquals(output.getInfo(RESOURCE, partition, "instance1"), "info");
+    Assert.assertEquals(output.getEndTime(RESOURCE, new Partition(RESOURCE + "_7"), "instance8"),
+        Long.valueOf(7));
+    Assert.assertEquals(output.getEndTime(RESOURCE, partition, "instance9"), Long.valueOf(-1));
+    Assert.assertEquals(output.getEndTime("unknown", partition, "instance0"), Long.valueOf(-1));
+
+    // The unknown resources and partitions
+    Assert.assertTrue(output.getCurrentStateMap("unknown").isEmpty());
+    Assert.assertTrue(output.getCurrentStateMap(RESOURCE, new Partition("unknown")).isEmpty());
+    Assert.assertNull(output.getCurrentState(RESOURCE, partition, "unknown"));
+
+    // The pending messages are not set yet.
+    Assert.assertTrue(output.getPendingMessageMap(RESOURCE).isEmpty());
+    Assert.assertTrue(output.getPendingMessageMap(RESOURCE, partition).isEmpty());
+    Assert.assertTrue(output.getPendingStateMap(RESOURCE, partition).isEmpty());
+  }
+
+  @Test
+  public void testMessageViews() {
+    CurrentStateOutput output = new CurrentStateOutput();
+    output.setResourceStateModelDef(RESOURCE, STATE_MODEL);
+    Partition partition0 = new Partition(RESOURCE + "_0");
+    Partition partition1 = new Partition(RESOURCE + "_1");
+    output.setCurrentState(RESOURCE, partition0, "instance0", "SLAVE");
+    output.setCurrentState(RESOURCE, partition0, "instance1", "SLAVE");
+    Message message = new Message(Message.MessageType.STATE_TRANSITION, "msg0");
+    message.setToState("MASTER");
+    output.setPendingMessage(RESOURCE, partition1, "instance0", message);
+    Message relayMessage = new Message(Message.MessageType.RELAYED_MESSAGE, "msg1");
+    output.setPendingRelayMessage(RESOURCE, partition1, "instance1", relayMessage);
+
+    // The partition that only has pending messages is not in the current state map.
+    Assert.assertEquals(output.getCurrentStateMap(RESOURCE).keySet(), ImmutableSet.of(partition0));
+    Assert.assertEquals(output.getPendingMessageMap(RESOURCE),
+        ImmutableMap.of(partition1, ImmutableMap.of("instance0", message)));
+    Assert.assertEquals(output.getPendingStateMap(RESOURCE, partition1),
+        ImmutableMap.of("instance0", "MASTER"));
+    Assert.assertEquals(output.getPendingRelayMessageMap(RESOURCE, partition1),
+        ImmutableMap.of("instance1", relayMessage));
+    Assert.assertSame(output.getPendingMessage(RESOURCE, partition1, "instance0"), message);
+    Assert.assertNull(output.getPendingMessage(RESOURCE, partition1, "instance1"));
+    Assert.assertNull(output.getCancellationMessage(RESOURCE, partition1, "instance0"));
+    Assert.assertEquals(output.getCurrentStateMappedPartitions(RESOURCE),
+        ImmutableSet.of(partition0, partition1));
+
+    Assert.assertEquals(output.getPartitionCountWithCurrentState(STATE_MODEL, "SLAVE"),
+        ImmutableMap.of("instance0", 1, "instance1", 1));
+    Assert.assertEquals(output.getPartitionCountWithPendingState(STATE_MODEL, "MASTER"),
+        ImmutableMap.of("instance0", 1));
+    Assert.assertEquals(output.getPartitionCountWithPendingState(STATE_MODEL, "SLAVE"),
+        ImmutableMap.of("instance0", 0));
+    Assert.assertTrue(output.getPartitionCountWithCurrentState("OnlineOffline", "SLAVE").isEmpty());
+
+    Assert.assertEquals(output.getAssignment(ImmutableSet.of(RESOURCE)).get(RESOURCE)
+        .getReplicaMap(partition0), ImmutableMap.of("instance0", "SLAVE", "instance1", "SLAVE"));
+  }
+
+  @Test
+  public void testSharedNameDictionary() {
+    NameDictionary dictionary = new NameDictionary();
+    CurrentStateOutput output1 = new CurrentStateOutput(dictionary);
+    CurrentStateOutput output2 = new CurrentStateOutput(dictionary);
+    Partition partition = new Partition(RESOURCE + "_0");
+    output1.setCurrentState(RESOURCE, partition, "instance0", "MASTER");
+    int size = dictionary.size();
+    output2.setCurrentState(RESOURCE, partition, "instance0", "MASTER");
+    // The names are interned once.
+    Assert.assertEquals(dictionary.size(), size);
+    Assert.assertEquals(dictionary.getName(dictionary.getId("instance0")), "instance0");
+    Assert.assertEquals(dictionary.getId("unknown"), NameDictionary.NO_ID);
+    Assert.assertEquals(output2.getCurrentStateMap(RESOURCE), output1.getCurrentStateMap(RESOURCE));
+  }
+}
@@ -19,17 +19,23 @@ package org.apache.helix.controller.stages;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.helix.HelixDataAccessor;
 import org.apache.helix.HelixManager;
 import org.apache.helix.TestHelper;
 import org.apache.helix.ZkUnitTestBase;
+import org.apache.helix.common.caches.ExternalViewCache;
 import org.apache.helix.controller.dataproviders.ResourceControllerDataProvider;
 import org.apache.helix.controller.pipeline.Pipeline;
 import org.apache.helix.manager.zk.ZKHelixDataAccessor;
 import org.apache.helix.manager.zk.ZkBaseDataAccessor;
+import org.apache.helix.model.ClusterConfig;
 import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.ExternalViewChange;
+import org.apache.helix.model.Partition;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -87,4 +93,175 @@ public class TestExternalViewStage extends ZkUnitTestBase {
     deleteLiveInstances(clusterName);
     deleteCluster(clusterName);
   }
+
+  @Test
+  public void testDeltaComputedExternalViews() throws Exception {
+    String clusterName = "CLUSTER_" + TestHelper.getTestMethodName();
+
+    HelixDataAccessor accessor =
+        new ZKHelixDataAccessor(clusterName, new ZkBaseDataAccessor<>(_gZkClient));
+    HelixManager manager = new DummyClusterManager(clusterName, accessor);
+
+    setupIdealState(clusterName, new int[] {
+        0, 1
+    }, new String[] {
+        "TestDB"
+    }, 2, 2);
+    setupLiveInstances(clusterName, new int[] {
+        0, 1
+    });
+    setupStateModel(clusterName);
+    ClusterConfig clusterConfig = new ClusterConfig(clusterName);
+    clusterConfig.setExternalViewDeltaComputationEnabled(true);
+    accessor.setProperty(accessor.keyBuilder().clusterConfig(), clusterConfig);
+
+    ClusterEvent event = new ClusterEvent(ClusterEventType.Unknown);
+    ResourceControllerDataProvider cache = new ResourceControllerDataProvider(clusterName);
+    event.addAttribute(AttributeName.helixmanager.name(), manager);
+    event.addAttribute(AttributeName.ControllerDataProvider.name(), cache);
+
+    ExternalViewComputeStage externalViewComputeStage = new ExternalViewComputeStage();
+    Pipeline dataRefresh = new Pipeline();
+    dataRefresh.addStage(new ReadClusterDataStage());
+    runPipeline(event, dataRefresh, false);
+    runStage(event, new ResourceComputationStage());
+
+    // The first computation is a full computation
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "MASTER", "SLAVE"));
+    runStage(event, externalViewComputeStage);
+    ExternalView externalView = accessor.getProperty(accessor.keyBuilder().externalView("TestDB"));
+    Assert.assertEquals(externalView.getStateMap("TestDB_0").get("localhost_0"), "MASTER");
+    Assert.assertEquals(externalView.getStateMap("TestDB_1").get("localhost_1"), "SLAVE");
+    Map<String, String> unchangedStateMap =
+        cache.getExternalViews().get("TestDB").getStateMap("TestDB_1");
+
+    // Only TestDB_0 is changed, so only its state map is patched
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "SLAVE", "SLAVE"));
+    runStage(event, externalViewComputeStage);
+    ExternalView patchedView = accessor.getProperty(accessor.keyBuilder().externalView("TestDB"));
+    Assert.assertEquals(patchedView.getStateMap("TestDB_0").get("localhost_0"), "SLAVE");
+    Assert.assertEquals(patchedView.getStateMap("TestDB_0").get("localhost_1"), "SLAVE");
+    Assert.assertEquals(patchedView.getStateMap("TestDB_1"), unchangedStateMap);
+    Assert.assertEquals(patchedView.getRecord(),
+        cache.getExternalViews().get("TestDB").getRecord());
+    Assert.assertSame(cache.getExternalViews().get("TestDB").getStateMap("TestDB_1"),
+        unchangedStateMap);
+
+    // No current state is changed, so the external view is not written
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "SLAVE", "SLAVE"));
+    runStage(event, externalViewComputeStage);
+    Assert.assertEquals(
+        accessor.getProperty(accessor.keyBuilder().externalView("TestDB")).getStat().getVersion(),
+        patchedView.getStat().getVersion());
+
+    if (manager.isConnected()) {
+      manager.disconnect(); // For DummyClusterManager, this is not necessary
+    }
+    deleteLiveInstances(clusterName);
+    deleteCluster(clusterName);
+  }
+
+  @Test
+  public void testExternalViewChangeFeed() throws Exception {
+    String clusterName = "CLUSTER_" + TestHelper.getTestMethodName();
+
+    HelixDataAccessor accessor =
+        new ZKHelixDataAccessor(clusterName, new ZkBaseDataAccessor<>(_gZkClient));
+    HelixManager manager = new DummyClusterManager(clusterName, accessor);
+
+    setupIdealState(clusterName, new int[] {
+        0, 1
+    }, new String[] {
+        "TestDB"
+    }, 2, 2);
+    setupLiveInstances(clusterName, new int[] {
+        0, 1
+    });
+    setupStateModel(clusterName);
+    ClusterConfig clusterConfig = new ClusterConfig(clusterName);
+    clusterConfig.setExternalViewChangeFeedEnabled(true);
+    accessor.setProperty(accessor.keyBuilder().clusterConfig(), clusterConfig);
+
+    ClusterEvent event = new ClusterEvent(ClusterEventType.Unknown);
+    ResourceControllerDataProvider cache = new ResourceControllerDataProvider(clusterName);
+    event.addAttribute(AttributeName.helixmanager.name(), manager);
+    event.addAttribute(AttributeName.ControllerDataProvider.name(), cache);
+
+    ExternalViewComputeStage externalViewComputeStage = new ExternalViewComputeStage();
+    Pipeline dataRefresh = new Pipeline();
+    dataRefresh.addStage(new ReadClusterDataStage());
+    runPipeline(event, dataRefresh, false);
+    runStage(event, new ResourceComputationStage());
+
+    // The first view has no previous view to compute the change from
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "MASTER", "SLAVE"));
+    runStage(event, externalViewComputeStage);
+    ExternalView externalView = accessor.getProperty(accessor.keyBuilder().externalView("TestDB"));
+    Assert.assertEquals(externalView.getChangeSequence(), 1L);
+    Assert.assertTrue(
+        accessor.getChildNames(accessor.keyBuilder().externalViewChanges("TestDB")).isEmpty());
+
+    ExternalViewCache spectatorCache = new ExternalViewCache(clusterName);
+    spectatorCache.setChangeFeedEnabled(true);
+    spectatorCache.refresh(accessor);
+    ExternalView cachedView = spectatorCache.getExternalViewMap().get("TestDB");
+    Assert.assertEquals(cachedView.getChangeSequence(), 1L);
+
+    // Only TestDB_0 is changed, so the change only contains TestDB_0
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "SLAVE", "SLAVE"));
+    runStage(event, externalViewComputeStage);
+    ExternalViewChange change =
+        accessor.getProperty(accessor.keyBuilder().externalViewChange("TestDB", 2L));
+    Assert.assertEquals(change.getSequence(), 2L);
+    Assert.assertEquals(change.getChangedPartitions(), Collections.singleton("TestDB_0"));
+    Assert.assertTrue(change.getRemovedPartitions().isEmpty());
+
+    // The spectator patches the cached view, so the unchanged state map is kept
+    spectatorCache.refresh(accessor);
+    externalView = accessor.getProperty(accessor.keyBuilder().externalView("TestDB"));
+    ExternalView patchedView = spectatorCache.getExternalViewMap().get("TestDB");
+    Assert.assertEquals(patchedView.getRecord(), externalView.getRecord());
+    Assert.assertEquals(patchedView.getStat(), externalView.getStat());
+    Assert.assertSame(patchedView.getStateMap("TestDB_1"), cachedView.getStateMap("TestDB_1"));
+
+    // If a change is missing, the spectator falls back to read the whole view
+    event.addAttribute(AttributeName.CURRENT_STATE.name(),
+        createCurrentStateOutput(cache, "SLAVE", "MASTER"));
+    runStage(event, externalViewComputeStage);
+    accessor.removeProperty(accessor.keyBuilder().externalViewChange("TestDB", 3L));
+    spectatorCache.refresh(accessor);
+    externalView = accessor.getProperty(accessor.keyBuilder().externalView("TestDB"));
+    Assert.assertEquals(externalView.getChangeSequence(), 3L);
+    Assert.assertEquals(spectatorCache.getExternalViewMap().get("TestDB").getRecord(),
+        externalView.getRecord());
+
+    if (manager.isConnected()) {
+      manager.disconnect(); // For DummyClusterManager, this is not necessary
+    }
+    deleteLiveInstances(clusterName);
+    deleteCluster(clusterName);
+  }
+
+  /**
+   * Create the current states of the 2 partitions of TestDB, where localhost_0 is in the given
+   * state of TestDB_0 and localhost_1 is in the given state of TestDB_1. The other replicas are
+   * SLAVE.
+   */
+  private CurrentStateOutput createCurrentStateOutput(ResourceControllerDataProvider cache,
+      String partition0State, String partition1State) {
+    CurrentStateOutput currentStateOutput = new CurrentStateOutput(cache.getNameDictionary());
+    currentStateOutput.setResourceStateModelDef("TestDB", "MasterSlave");
+    Partition partition0 = new Partition("TestDB_0");
+    Partition partition1 = new Partition("TestDB_1");
+    currentStateOutput.setCurrentState("TestDB", partition0, "localhost_0", partition0State);
+    currentStateOutput.setCurrentState("TestDB", partition0, "localhost_1", "SLAVE");
+    currentStateOutput.setCurrentState("TestDB", partition1, "localhost_0", "SLAVE");
+    currentStateOutput.setCurrentState("TestDB", partition1, "localhost_1", partition1State);
+    return currentStateOutput;
+  }
 }
@@ -166,6 +166,41 @@ public class TestStateTransitionThrottleController {
         loadResourceLevelQuota - 1);
   }
 
+  @Test
+  public void testResourcePartition() {
+    String otherResource = "db1";
+    ClusterConfig clusterConfig = new ClusterConfig("config");
+    clusterConfig.setStateTransitionThrottleConfigs(ImmutableList.of(
+        new StateTransitionThrottleConfig(ANY, StateTransitionThrottleConfig.ThrottleScope.RESOURCE,
+            2)));
+    StateTransitionThrottleController controller = new StateTransitionThrottleController(
+        ImmutableSet.of(RESOURCE, otherResource), clusterConfig, ImmutableSet.of(INSTANCE));
+    Assert.assertTrue(controller.isResourceQuotaIndependent());
+
+    StateTransitionThrottleController partition = controller.getResourcePartition(RESOURCE);
+    Assert.assertTrue(partition.isThrottleEnabled());
+    Assert.assertEquals(partition._pendingTransitionAllowedPerResource.keySet(),
+        ImmutableSet.of(RESOURCE));
+    partition.chargeResource(ANY, RESOURCE);
+    partition.chargeResource(ANY, RESOURCE);
+    Assert.assertTrue(partition.shouldThrottleForResource(ANY, RESOURCE));
+    // Charging the partition does not change the quota of the original controller.
+    Assert.assertFalse(controller.shouldThrottleForResource(ANY, RESOURCE));
+    Assert.assertEquals(
+        (long) controller._pendingTransitionAllowedPerResource.get(RESOURCE).get(ANY), 2L);
+
+    // The cluster or instance level quota is shared by all the resources.
+    for (StateTransitionThrottleConfig.ThrottleScope scope : ImmutableList
+        .of(StateTransitionThrottleConfig.ThrottleScope.CLUSTER,
+            StateTransitionThrottleConfig.ThrottleScope.INSTANCE)) {
+      clusterConfig.setStateTransitionThrottleConfigs(
+          ImmutableList.of(new StateTransitionThrottleConfig(ANY, scope, 2)));
+      controller = new StateTransitionThrottleController(ImmutableSet.of(RESOURCE, otherResource),
+          clusterConfig, ImmutableSet.of(INSTANCE));
+      Assert.assertFalse(controller.isResourceQuotaIndependent());
+    }
+  }
+
   // The inner class just to fetch the protected fields of {@link StateTransitionThrottleController}
   private static class StateTransitionThrottleControllerAccessor
       extends StateTransitionThrottleController {
@@ -0,0 +1,130 @@
+package org.apache.helix.integration.spectator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.helix.HelixManager;
+import org.apache.helix.HelixManagerFactory;
+import org.apache.helix.InstanceType;
+import org.apache.helix.NotificationContext;
+import org.apache.helix.PropertyType;
+import org.apache.helix.SystemPropertyKeys;
+import org.apache.helix.TestHelper;
+import org.apache.helix.common.ZkTestBase;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.LiveInstance;
+import org.apache.helix.spectator.RoutingTableProvider;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TestRoutingTableProviderRefreshPolicy extends ZkTestBase {
+  private static final String CLUSTER_NAME = CLUSTER_PREFIX + "_" + TestHelper.getTestClassName();
+  private static final long MIN_REFRESH_INTERVAL_MS = 3000L;
+  private static final long MAX_STALENESS_MS = 500L;
+
+  private HelixManager _spectator;
+  private CountingRoutingTableProvider _routingTableProvider;
+
+  private static class CountingRoutingTableProvider extends RoutingTableProvider {
+    private volatile int _refreshCount = 0;
+
+    CountingRoutingTableProvider(HelixManager helixManager) {
+      super(helixManager, PropertyType.EXTERNALVIEW, false, 0L);
+    }
+
+    @Override
+    protected void refreshExternalView(Collection<ExternalView> externalViews,
+        Collection<InstanceConfig> instanceConfigs, Collection<LiveInstance> liveInstances,
+        String referenceKey) {
+      super.refreshExternalView(externalViews, instanceConfigs, liveInstances, referenceKey);
+      _refreshCount++;
+    }
+
+    int getRefreshCount() {
+      return _refreshCount;
+    }
+  }
+
+  @BeforeClass
+  public void beforeClass() throws Exception {
+    _gSetupTool.addCluster(CLUSTER_NAME, true);
+    _spectator = HelixManagerFactory
+        .getZKHelixManager(CLUSTER_NAME, "spectator", InstanceType.SPECTATOR, ZK_ADDR);
+    _spectator.connect();
+
+    System.setProperty(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MIN_INTERVAL_MS,
+        String.valueOf(MIN_REFRESH_INTERVAL_MS));
+    System.setProperty(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MAX_STALENESS_MS,
+        String.valueOf(MAX_STALENESS_MS));
+    try {
+      _routingTableProvider = new CountingRoutingTableProvider(_spectator);
+    } finally {
+      System.clearProperty(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MIN_INTERVAL_MS);
+      System.clearProperty(SystemPropertyKeys.ROUTING_TABLE_REFRESH_MAX_STALENESS_MS);
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    _routingTableProvider.shutdown();
+    _spectator.disconnect();
+    deleteCluster(CLUSTER_NAME);
+  }
+
+  @Test
+  public void testCoalescedRefresh() throws Exception {
+    // Wait for the initial refreshes, so the next change is refreshed immediately.
+    Assert.assertTrue(TestHelper.verify(() -> _routingTableProvider.getRefreshCount() > 0,
+        TestHelper.WAIT_DURATION));
+    Thread.sleep(MIN_REFRESH_INTERVAL_MS);
+    int refreshCount = _routingTableProvider.getRefreshCount();
+    _routingTableProvider.onInstanceConfigChange(null, createContext());
+    Assert.assertTrue(TestHelper.verify(
+        () -> _routingTableProvider.getRefreshCount() == refreshCount + 1,
+        TestHelper.WAIT_DURATION));
+
+    // A burst of changes right after the refresh is coalesced into one refresh, which is delayed
+    // by the max staleness instead of the min refresh interval.
+    long burstTime = System.currentTimeMillis();
+    _routingTableProvider.onInstanceConfigChange(null, createContext());
+    _routingTableProvider.onLiveInstanceChange(Collections.emptyList(), createContext());
+    _routingTableProvider.onExternalViewChange(Collections.emptyList(), createContext());
+    Thread.sleep(MAX_STALENESS_MS / 2);
+    Assert.assertEquals(_routingTableProvider.getRefreshCount(), refreshCount + 1);
+    Assert.assertTrue(TestHelper.verify(
+        () -> _routingTableProvider.getRefreshCount() == refreshCount + 2,
+        TestHelper.WAIT_DURATION));
+    Assert.assertTrue(System.currentTimeMillis() - burstTime < MIN_REFRESH_INTERVAL_MS);
+
+    Thread.sleep(MAX_STALENESS_MS * 2);
+    Assert.assertEquals(_routingTableProvider.getRefreshCount(), refreshCount + 2);
+  }
+
+  private NotificationContext createContext() {
+    NotificationContext context = new NotificationContext(_spectator);
+    context.setType(NotificationContext.Type.PERIODIC_REFRESH);
+    return context;
+  }
+}
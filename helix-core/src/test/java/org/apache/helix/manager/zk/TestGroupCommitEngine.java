@@ -0,0 +1,141 @@
+package org.apache.helix.manager.zk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.PropertyKey;
+import org.apache.helix.TestHelper;
+import org.apache.helix.mock.MockBaseDataAccessor;
+import org.apache.helix.model.CurrentState;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestGroupCommitEngine {
+  @Test
+  public void testMergePendingUpdates() throws Exception {
+    GroupCommitEngine<String> engine = new GroupCommitEngine<>(2);
+    List<List<String>> writes = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    CountDownLatch firstWriteBlocker = new CountDownLatch(1);
+    GroupCommitEngine.BatchWriter<String> writer = (key, updates) -> {
+      writes.add(new ArrayList<>(updates));
+      if (updates.contains("a1")) {
+        firstWriteStarted.countDown();
+        try {
+          firstWriteBlocker.await();
+        } catch (InterruptedException e) {
+          return false;
+        }
+      }
+      return !updates.contains("fail");
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<Boolean> a1 = executor.submit(() -> engine.commit("a", "a1", writer));
+      Assert.assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+      Future<Boolean> a2 = executor.submit(() -> engine.commit("a", "a2", writer));
+      Assert.assertTrue(TestHelper
+          .verify(() -> engine.getPendingUpdateCount("a") == 1, TestHelper.WAIT_DURATION));
+      Future<Boolean> a3 = executor.submit(() -> engine.commit("a", "a3", writer));
+      Assert.assertTrue(TestHelper
+          .verify(() -> engine.getPendingUpdateCount("a") == 2, TestHelper.WAIT_DURATION));
+
+      // The other key is not blocked by the write of key a.
+      Assert.assertTrue(executor.submit(() -> engine.commit("b", "b1", writer)).get());
+      Assert.assertFalse(executor.submit(() -> engine.commit("b", "fail", writer)).get());
+
+      firstWriteBlocker.countDown();
+      Assert.assertTrue(a1.get());
+      Assert.assertTrue(a2.get());
+      Assert.assertTrue(a3.get());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // The pending updates of key a are merged into one write in the commit order.
+    Assert.assertEquals(writes, Arrays.asList(Collections.singletonList("a1"),
+        Collections.singletonList("b1"), Collections.singletonList("fail"),
+        Arrays.asList("a2", "a3")));
+    Assert.assertEquals(engine.getWriteCount(), 4);
+    Assert.assertEquals(engine.getCommittedUpdateCount(), 5);
+    Assert.assertEquals(engine.getAverageUpdatesPerWrite(), 1.25);
+    Assert.assertEquals(engine.getPendingUpdateCount("a"), 0);
+  }
+
+  @Test
+  public void testConcurrentCommits() throws Exception {
+    GroupCommitEngine<Integer> engine = new GroupCommitEngine<>();
+    int[] sums = new int[4];
+    GroupCommitEngine.BatchWriter<Integer> writer = (key, updates) -> {
+      int index = Integer.parseInt(key);
+      // Each key is written by one thread at a time, so no synchronization is needed.
+      int sum = sums[index];
+      for (int update : updates) {
+        sum += update;
+      }
+      sums[index] = sum;
+      return true;
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 4000; i++) {
+        String key = String.valueOf(i % 4);
+        results.add(executor.submit(() -> engine.commit(key, 1, writer)));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (int sum : sums) {
+      Assert.assertEquals(sum, 1000);
+    }
+    Assert.assertEquals(engine.getCommittedUpdateCount(), 4000);
+    Assert.assertTrue(engine.getWriteCount() <= 4000);
+  }
+
+  @Test
+  public void testAccessorReportsBatching() {
+    ZKHelixDataAccessor accessor =
+        new ZKHelixDataAccessor("TestCluster", new MockBaseDataAccessor());
+    Assert.assertEquals(accessor.getGroupCommitAverageUpdatesPerWrite(), 0.0);
+    PropertyKey key = accessor.keyBuilder().currentState("localhost_12918", "session_0", "TestDB");
+    for (int i = 0; i < 2; i++) {
+      CurrentState currentState = new CurrentState("TestDB");
+      currentState.setState("TestDB_" + i, "ONLINE");
+      Assert.assertTrue(accessor.updateProperty(key, currentState));
+    }
+    // The sequential updates are not merged.
+    Assert.assertEquals(accessor.getGroupCommitAverageUpdatesPerWrite(), 1.0);
+  }
+}
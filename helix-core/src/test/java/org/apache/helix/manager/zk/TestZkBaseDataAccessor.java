@@ -21,6 +21,7 @@ package org.apache.helix.manager.zk;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -626,4 +627,143 @@ public class TestZkBaseDataAccessor extends ZkUnitTestBase {
         + new Date(System.currentTimeMillis()));
   }
 
+  @Test
+  public void testAsyncGetChildNames() {
+    String root = _rootPath;
+    ZkBaseDataAccessor<ZNRecord> accessor = new ZkBaseDataAccessor<>(_gZkClient);
+
+    List<String> parentPaths = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      String instanceName = "host_" + i;
+      parentPaths.add(PropertyPathBuilder.instanceMessage(root, instanceName));
+      for (int j = 0; j < i; j++) {
+        String msgId = "msg_" + j;
+        Assert.assertTrue(accessor
+            .create(PropertyPathBuilder.instanceMessage(root, instanceName, msgId),
+                new ZNRecord(msgId), AccessOption.PERSISTENT));
+      }
+    }
+    // The parent path that does not exist
+    parentPaths.add(PropertyPathBuilder.instanceMessage(root, "host_3"));
+
+    List<List<String>> childNamesList = accessor.getChildNames(parentPaths, 0);
+    Assert.assertEquals(childNamesList.size(), parentPaths.size());
+    // host_0 has no message, so its parent path is not created
+    Assert.assertNull(childNamesList.get(0));
+    Assert.assertEquals(childNamesList.get(1), ImmutableList.of("msg_0"));
+    Assert.assertEquals(childNamesList.get(2), ImmutableList.of("msg_0", "msg_1"));
+    Assert.assertNull(childNamesList.get(3));
+    for (int i = 1; i < 3; i++) {
+      Assert.assertEquals(childNamesList.get(i), accessor.getChildNames(parentPaths.get(i), 0));
+    }
+  }
+
+  @Test
+  public void testMultiOpBatchCreateChildrenWithExistingNode() {
+    ZkBaseDataAccessor<ZNRecord> accessor = createMultiOpBatchAccessor();
+    List<String> paths = getBatchPaths(3);
+    List<ZNRecord> records = getBatchRecords(paths, "value");
+    ZNRecord existingRecord = new ZNRecord("node_1");
+    existingRecord.setSimpleField("key", "existing");
+    Assert.assertTrue(accessor.create(paths.get(1), existingRecord, AccessOption.PERSISTENT));
+
+    // The multi-op fails on node_1, so all the nodes fall back to the individual creates.
+    boolean[] success = accessor.createChildren(paths, records, AccessOption.PERSISTENT);
+    Assert.assertEquals(success, new boolean[] {
+        true, false, true
+    });
+    for (int i = 0; i < paths.size(); i++) {
+      ZNRecord record = _gZkClient.readData(paths.get(i));
+      Assert.assertEquals(record.getSimpleField("key"), i == 1 ? "existing" : "value_" + i);
+    }
+  }
+
+  @Test
+  public void testMultiOpBatchSetChildrenOnMissingNodes() {
+    ZkBaseDataAccessor<ZNRecord> accessor = createMultiOpBatchAccessor();
+    List<String> paths = getBatchPaths(3);
+    Assert.assertTrue(
+        accessor.create(paths.get(0), new ZNRecord("node_0"), AccessOption.PERSISTENT));
+
+    // The multi-op fails on the missing nodes, and the individual sets create them.
+    boolean[] success =
+        accessor.setChildren(paths, getBatchRecords(paths, "value"), AccessOption.PERSISTENT);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true
+    });
+    for (int i = 0; i < paths.size(); i++) {
+      ZNRecord record = _gZkClient.readData(paths.get(i));
+      Assert.assertEquals(record.getSimpleField("key"), "value_" + i);
+    }
+
+    // All the nodes exist now, so the multi-op sets them.
+    success =
+        accessor.setChildren(paths, getBatchRecords(paths, "newValue"), AccessOption.PERSISTENT);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true
+    });
+    for (int i = 0; i < paths.size(); i++) {
+      ZNRecord record = _gZkClient.readData(paths.get(i));
+      Assert.assertEquals(record.getSimpleField("key"), "newValue_" + i);
+    }
+  }
+
+  @Test
+  public void testMultiOpBatchRemove() {
+    ZkBaseDataAccessor<ZNRecord> accessor = createMultiOpBatchAccessor();
+    List<String> paths = getBatchPaths(4);
+    boolean[] success = accessor
+        .createChildren(paths.subList(0, 3), getBatchRecords(paths.subList(0, 3), "value"),
+            AccessOption.PERSISTENT);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true
+    });
+
+    // node_3 does not exist, so the multi-op fails and the nodes are removed individually.
+    success = accessor.remove(paths, 0);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true, false
+    });
+    for (String path : paths) {
+      Assert.assertFalse(_gZkClient.exists(path));
+    }
+
+    success = accessor.createChildren(paths, getBatchRecords(paths, "value"),
+        AccessOption.PERSISTENT);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true, true
+    });
+    success = accessor.remove(paths, 0);
+    Assert.assertEquals(success, new boolean[] {
+        true, true, true, true
+    });
+    Assert.assertEquals(_gZkClient.getChildren("/" + _rootPath + "/batch"),
+        Collections.emptyList());
+  }
+
+  private ZkBaseDataAccessor<ZNRecord> createMultiOpBatchAccessor() {
+    ZkBaseDataAccessor<ZNRecord> accessor = new ZkBaseDataAccessor<>(_gZkClient);
+    accessor.setMultiOpBatchEnabled(true);
+    // The multi-op does not create the parent.
+    _gZkClient.createPersistent("/" + _rootPath + "/batch", true);
+    return accessor;
+  }
+
+  private List<String> getBatchPaths(int count) {
+    List<String> paths = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      paths.add(String.format("/%s/batch/node_%d", _rootPath, i));
+    }
+    return paths;
+  }
+
+  private List<ZNRecord> getBatchRecords(List<String> paths, String valuePrefix) {
+    List<ZNRecord> records = new ArrayList<>();
+    for (int i = 0; i < paths.size(); i++) {
+      ZNRecord record = new ZNRecord("node_" + i);
+      record.setSimpleField("key", valuePrefix + "_" + i);
+      records.add(record);
+    }
+    return records;
+  }
 }
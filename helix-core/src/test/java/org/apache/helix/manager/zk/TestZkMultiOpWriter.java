@@ -0,0 +1,123 @@
+package org.apache.helix.manager.zk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.helix.TestHelper;
+import org.apache.helix.ZkUnitTestBase;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.zookeeper.CreateMode;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class TestZkMultiOpWriter extends ZkUnitTestBase {
+  private final String _rootPath = "/" + TestHelper.getTestClassName();
+
+  @AfterMethod
+  public void afterMethod() {
+    if (_gZkClient.exists(_rootPath)) {
+      _gZkClient.deleteRecursively(_rootPath);
+    }
+  }
+
+  @Test
+  public void testWriteInMultiOps() {
+    _gZkClient.createPersistent(_rootPath);
+    List<String> paths = new ArrayList<>();
+    List<ZNRecord> records = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      paths.add(_rootPath + "/node_" + i);
+      ZNRecord record = new ZNRecord("node_" + i);
+      record.setSimpleField("key", "value_" + i);
+      records.add(record);
+    }
+    // Small enough so the ops are packed into several multi-ops.
+    int maxMultiOpBytes = 3 * (_gZkClient.serialize(records.get(0), paths.get(0)).length + 128);
+    ZkMultiOpWriter<ZNRecord> writer = new ZkMultiOpWriter<>(_gZkClient, maxMultiOpBytes);
+
+    assertAllWritten(writer.create(paths, records, CreateMode.PERSISTENT));
+    for (int i = 0; i < 10; i++) {
+      ZNRecord record = _gZkClient.readData(paths.get(i));
+      Assert.assertEquals(record.getSimpleField("key"), "value_" + i);
+      records.get(i).setSimpleField("key", "newValue_" + i);
+    }
+
+    assertAllWritten(writer.set(paths, records));
+    for (int i = 0; i < 10; i++) {
+      ZNRecord record = _gZkClient.readData(paths.get(i));
+      Assert.assertEquals(record.getSimpleField("key"), "newValue_" + i);
+    }
+
+    assertAllWritten(writer.delete(paths));
+    Assert.assertEquals(_gZkClient.getChildren(_rootPath), Collections.emptyList());
+  }
+
+  @Test
+  public void testFailedMultiOp() {
+    _gZkClient.createPersistent(_rootPath);
+    List<String> paths = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      paths.add(_rootPath + "/node_" + i);
+    }
+    _gZkClient.createPersistent(paths.get(1));
+    // Each multi-op has 3 ops.
+    int opBytes = 64 + paths.get(0).length();
+    ZkMultiOpWriter<ZNRecord> writer = new ZkMultiOpWriter<>(_gZkClient, 3 * opBytes);
+
+    // The first multi-op fails because node_1 exists, so none of its nodes is created.
+    boolean[] created = writer.create(paths, null, CreateMode.PERSISTENT);
+    Assert.assertEquals(created, new boolean[] {
+        false, false, false, true, true, true
+    });
+    Assert.assertFalse(_gZkClient.exists(paths.get(0)));
+    Assert.assertFalse(_gZkClient.exists(paths.get(2)));
+
+    // The nodes of a missing parent are not created, since the multi-op does not create parents.
+    List<String> childPaths = Collections.singletonList(_rootPath + "/missing/node");
+    Assert.assertEquals(writer.create(childPaths, null, CreateMode.PERSISTENT), new boolean[] {
+        false
+    });
+
+    // Setting or deleting a missing node fails its multi-op.
+    List<ZNRecord> records = new ArrayList<>();
+    for (String path : paths) {
+      records.add(new ZNRecord(path.substring(path.lastIndexOf('/') + 1)));
+    }
+    int dataBytes = _gZkClient.serialize(records.get(0), paths.get(0)).length;
+    Assert.assertEquals(new ZkMultiOpWriter<ZNRecord>(_gZkClient, 3 * (opBytes + dataBytes))
+        .set(paths, records), new boolean[] {
+        false, false, false, true, true, true
+    });
+    Assert.assertEquals(writer.delete(paths), new boolean[] {
+        false, false, false, true, true, true
+    });
+    Assert.assertTrue(_gZkClient.exists(paths.get(1)));
+  }
+
+  private void assertAllWritten(boolean[] written) {
+    for (boolean pathWritten : written) {
+      Assert.assertTrue(pathWritten);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.apache.helix.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.datamodel.serializer.LazyFieldMap;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordBinarySerializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestLazyPropertyFields {
+
+  private static ZNRecord readBinaryRecord(String id) {
+    ZNRecord record = new ZNRecord(id);
+    for (int i = 0; i < 10; i++) {
+      Map<String, String> stateMap = new HashMap<>();
+      stateMap.put("localhost_" + i, "MASTER");
+      stateMap.put("localhost_" + (i + 1), "SLAVE");
+      record.setMapField(id + "_" + i, stateMap);
+      record.setListField(id + "_" + i, new ArrayList<>(stateMap.keySet()));
+    }
+    ZNRecordBinarySerializer serializer = new ZNRecordBinarySerializer();
+    return (ZNRecord) serializer.deserialize(serializer.serialize(record));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void verifyUnparsedFields(ZNRecord source, ZNRecord copy, String id) {
+    Assert.assertTrue(copy.getMapFields() instanceof LazyFieldMap);
+    Assert.assertTrue(copy.getListFields() instanceof LazyFieldMap);
+    LazyFieldMap<Map<String, String>> mapFields =
+        (LazyFieldMap<Map<String, String>>) copy.getMapFields();
+    LazyFieldMap<?> listFields = (LazyFieldMap<?>) copy.getListFields();
+    Assert.assertEquals(mapFields.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertFalse(mapFields.isMaterialized(id + "_" + i));
+      Assert.assertFalse(listFields.isMaterialized(id + "_" + i));
+    }
+
+    // Only the accessed field of the copy is parsed.
+    Assert.assertEquals(copy.getMapField(id + "_0"), source.getMapField(id + "_0"));
+    Assert.assertTrue(mapFields.isMaterialized(id + "_0"));
+    Assert.assertFalse(mapFields.isMaterialized(id + "_1"));
+
+    // The copy is modified independently of the source record.
+    copy.getMapFields().remove(id + "_2");
+    Assert.assertTrue(source.getMapFields().containsKey(id + "_2"));
+    Assert.assertFalse(
+        ((LazyFieldMap<?>) source.getMapFields()).isMaterialized(id + "_3"));
+  }
+
+  @Test
+  public void testExternalViewKeepsUnparsedFields() {
+    ZNRecord record = readBinaryRecord("testResource");
+    ExternalView externalView = new ExternalView(record);
+    verifyUnparsedFields(record, externalView.getRecord(), "testResource");
+    Assert.assertEquals(externalView.getPartitionSet().size(), 9);
+  }
+
+  @Test
+  public void testCurrentStateKeepsUnparsedFields() {
+    ZNRecord record = readBinaryRecord("testResource");
+    CurrentState currentState = new CurrentState(record);
+    verifyUnparsedFields(record, currentState.getRecord(), "testResource");
+    Assert.assertEquals(currentState.getRecord().getMapFields().size(), 9);
+  }
+}
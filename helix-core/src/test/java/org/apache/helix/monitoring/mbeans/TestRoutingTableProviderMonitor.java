@@ -124,6 +124,11 @@ public class TestRoutingTableProviderMonitor {
     Assert.assertTrue(newLatency >= latency);
     Assert.assertEquals((long) _beanServer.getAttribute(name, "DataRefreshCounter"), 2);
 
+    Assert.assertEquals((long) _beanServer.getAttribute(name, "DataStalenessGauge.Max"), 0);
+    monitor.recordDataStaleness(20);
+    monitor.recordDataStaleness(10);
+    Assert.assertEquals((long) _beanServer.getAttribute(name, "DataStalenessGauge.Max"), 20);
+
     monitor.unregister();
   }
 
@@ -143,6 +148,15 @@ public class TestRoutingTableProviderMonitor {
     statelatency = (long) _beanServer.getAttribute(name, "StatePropagationLatencyGauge.Max");
     Assert.assertEquals(statelatency, 10);
 
+    // DataStalenessGauge only apply for the external views
+    try {
+      _beanServer.getAttribute(name, "DataStalenessGauge.Max");
+      Assert.fail();
+    } catch (AttributeNotFoundException ex) {
+      // Expected AttributeNotFoundException because the metric does not exist in
+      // MBean server.
+    }
+
     monitor.unregister();
   }
 }
@@ -26,6 +26,7 @@ import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 
+import org.apache.helix.zookeeper.datamodel.serializer.SerializationBufferPool;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -165,6 +166,19 @@ public class TestZkClientMonitor {
         (long) _beanServer.getAttribute(currentStateName, dataPropagationLatencyGaugeAttr), 5);
     Assert.assertEquals(
         (long) _beanServer.getAttribute(idealStateName, dataPropagationLatencyGaugeAttr), 0);
+
+    monitor.recordSerialization(5, -1, 1000);
+    Assert.assertEquals((long) _beanServer.getAttribute(name, "SerializeCounter"), 1);
+
+    // The counters of the serialization buffer pool are read from the pool.
+    SerializationBufferPool.release(SerializationBufferPool.acquire());
+    Assert.assertEquals(
+        (long) _beanServer.getAttribute(name, "SerializationBufferAcquireCounter"),
+        SerializationBufferPool.getAcquireCount());
+    Assert.assertEquals((long) _beanServer.getAttribute(name, "SerializationBufferReuseCounter"),
+        SerializationBufferPool.getReuseCount());
+    Assert.assertTrue(
+        (long) _beanServer.getAttribute(name, "SerializationBufferAllocatedBytesCounter") > 0);
   }
 
   @Test
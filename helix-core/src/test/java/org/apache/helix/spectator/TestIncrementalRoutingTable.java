@@ -0,0 +1,143 @@
+package org.apache.helix.spectator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.helix.PropertyType;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.LiveInstance;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestIncrementalRoutingTable {
+  private static final String RESOURCE_GROUP = "testGroup";
+  private static final int PARTITION_COUNT = 4;
+
+  private final List<InstanceConfig> _instanceConfigs = createInstanceConfigs(3);
+  private final List<LiveInstance> _liveInstances = Collections.emptyList();
+
+  @Test
+  public void testReuseUnchangedResources() {
+    ExternalView evA = createExternalView("A", null, null, "MASTER");
+    ExternalView evB = createExternalView("B", RESOURCE_GROUP, "tagB", "MASTER");
+    ExternalView evC = createExternalView("C", RESOURCE_GROUP, "tagC", "MASTER");
+    ExternalView evD = createExternalView("D", "otherGroup", "tagD", "MASTER");
+    RoutingTable previousTable = new RoutingTable(null, Arrays.asList(evA, evB, evC, evD),
+        _instanceConfigs, _liveInstances, PropertyType.EXTERNALVIEW);
+
+    // B is changed and C is removed, A and D are not changed.
+    ExternalView newEvB = createExternalView("B", RESOURCE_GROUP, "tagB", "SLAVE");
+    List<ExternalView> newExternalViews = Arrays.asList(evA, newEvB, evD);
+    RoutingTable newTable = new RoutingTable(previousTable, newExternalViews, _instanceConfigs,
+        _liveInstances, PropertyType.EXTERNALVIEW);
+
+    Assert.assertSame(newTable.get("A"), previousTable.get("A"));
+    Assert.assertNotSame(newTable.get("B"), previousTable.get("B"));
+    Assert.assertNull(newTable.get("C"));
+    Assert.assertNotSame(newTable.getResourceGroup(RESOURCE_GROUP),
+        previousTable.getResourceGroup(RESOURCE_GROUP));
+    Assert.assertSame(newTable.getResourceGroup("otherGroup"),
+        previousTable.getResourceGroup("otherGroup"));
+    // The previous table is not changed.
+    Assert.assertEquals(previousTable.getInstancesForResource("B", "MASTER").size(), 3);
+    Assert.assertEquals(previousTable.getInstancesForResource("C", "MASTER").size(), 3);
+
+    assertSameRouting(newTable,
+        new RoutingTable(newExternalViews, _instanceConfigs, _liveInstances));
+  }
+
+  @Test
+  public void testRebuildOnInstanceConfigChange() {
+    ExternalView evA = createExternalView("A", null, null, "MASTER");
+    RoutingTable previousTable = new RoutingTable(null, Collections.singletonList(evA),
+        _instanceConfigs, _liveInstances, PropertyType.EXTERNALVIEW);
+
+    List<InstanceConfig> newInstanceConfigs = createInstanceConfigs(3);
+    RoutingTable newTable = new RoutingTable(previousTable, Collections.singletonList(evA),
+        newInstanceConfigs, _liveInstances, PropertyType.EXTERNALVIEW);
+
+    Assert.assertNotSame(newTable.get("A"), previousTable.get("A"));
+    Assert.assertTrue(newTable.getInstancesForResource("A", "MASTER")
+        .containsAll(newInstanceConfigs));
+  }
+
+  private void assertSameRouting(RoutingTable table, RoutingTable expectedTable) {
+    Assert.assertEquals(new HashSet<>(table.getResources()),
+        new HashSet<>(expectedTable.getResources()));
+    for (String resource : expectedTable.getResources()) {
+      for (String state : Arrays.asList("MASTER", "SLAVE")) {
+        Assert.assertEquals(table.getInstancesForResource(resource, state),
+            expectedTable.getInstancesForResource(resource, state));
+        for (int p = 0; p < PARTITION_COUNT; p++) {
+          Assert.assertEquals(table.getInstancesForResource(resource, resource + "_" + p, state),
+              expectedTable.getInstancesForResource(resource, resource + "_" + p, state));
+        }
+      }
+    }
+    for (String state : Arrays.asList("MASTER", "SLAVE")) {
+      Assert.assertEquals(table.getInstancesForResourceGroup(RESOURCE_GROUP, state),
+          expectedTable.getInstancesForResourceGroup(RESOURCE_GROUP, state));
+      Assert.assertEquals(
+          table.getInstancesForResourceGroup(RESOURCE_GROUP, state, Arrays.asList("tagB", "tagC")),
+          expectedTable
+              .getInstancesForResourceGroup(RESOURCE_GROUP, state, Arrays.asList("tagB", "tagC")));
+    }
+  }
+
+  private ExternalView createExternalView(String resource, String resourceGroup, String tag,
+      String state) {
+    ExternalView externalView = new ExternalView(resource);
+    if (resourceGroup != null) {
+      externalView.getRecord().setSimpleField(
+          ExternalView.ExternalViewProperty.GROUP_ROUTING_ENABLED.name(), "true");
+      externalView.getRecord().setSimpleField(
+          ExternalView.ExternalViewProperty.RESOURCE_GROUP_NAME.name(), resourceGroup);
+      externalView.getRecord().setSimpleField(
+          ExternalView.ExternalViewProperty.INSTANCE_GROUP_TAG.name(), tag);
+    }
+    for (int p = 0; p < PARTITION_COUNT; p++) {
+      Map<String, String> stateMap = new HashMap<>();
+      for (InstanceConfig config : _instanceConfigs) {
+        stateMap.put(config.getInstanceName(), state);
+      }
+      externalView.setStateMap(resource + "_" + p, stateMap);
+    }
+    return externalView;
+  }
+
+  private static List<InstanceConfig> createInstanceConfigs(int count) {
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      InstanceConfig config = new InstanceConfig("localhost_" + (12918 + i));
+      config.setHostName("localhost");
+      config.setPort(String.valueOf(12918 + i));
+      instanceConfigs.add(config);
+    }
+    return instanceConfigs;
+  }
+}
@@ -0,0 +1,257 @@
+package org.apache.helix.spectator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.helix.HelixConstants;
+import org.apache.helix.HelixException;
+import org.apache.helix.HelixManager;
+import org.apache.helix.HelixManagerFactory;
+import org.apache.helix.HelixManagerProperty;
+import org.apache.helix.HelixPropertyFactory;
+import org.apache.helix.InstanceType;
+import org.apache.helix.NotificationContext;
+import org.apache.helix.PropertyType;
+import org.apache.helix.TestHelper;
+import org.apache.helix.common.ZkTestBase;
+import org.apache.helix.integration.manager.ClusterControllerManager;
+import org.apache.helix.integration.manager.MockParticipantManager;
+import org.apache.helix.manager.zk.ZKHelixManager;
+import org.apache.helix.api.listeners.RoutingTableChangeListener;
+import org.apache.helix.model.BuiltInStateModelDefinitions;
+import org.apache.helix.model.ExternalView;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TestRoutingDataHub extends ZkTestBase {
+  private static final String TEST_DB = "TestDB";
+  private static final int PARTICIPANT_NUMBER = 3;
+  private final String CLUSTER_NAME = CLUSTER_PREFIX + "_" + getShortClassName();
+
+  private final List<MockParticipantManager> _participants = new ArrayList<>();
+  private ClusterControllerManager _controller;
+  private HelixManager _spectator;
+
+  @BeforeClass
+  public void beforeClass() throws Exception {
+    _gSetupTool.addCluster(CLUSTER_NAME, true);
+    List<String> instances = new ArrayList<>();
+    for (int i = 0; i < PARTICIPANT_NUMBER; i++) {
+      String instance = PARTICIPANT_PREFIX + "_" + (12918 + i);
+      _gSetupTool.addInstanceToCluster(CLUSTER_NAME, instance);
+      instances.add(instance);
+      MockParticipantManager participant =
+          new MockParticipantManager(ZK_ADDR, CLUSTER_NAME, instance);
+      participant.syncStart();
+      _participants.add(participant);
+    }
+    createDBInSemiAuto(_gSetupTool, CLUSTER_NAME, TEST_DB, instances,
+        BuiltInStateModelDefinitions.MasterSlave.name(), 10, PARTICIPANT_NUMBER);
+    _controller = new ClusterControllerManager(ZK_ADDR, CLUSTER_NAME, CONTROLLER_PREFIX + "_0");
+    _controller.syncStart();
+
+    _spectator = HelixManagerFactory
+        .getZKHelixManager(CLUSTER_NAME, "spectator", InstanceType.SPECTATOR, ZK_ADDR);
+    _spectator.connect();
+  }
+
+  @AfterClass
+  public void afterClass() {
+    _spectator.disconnect();
+    _controller.syncStop();
+    for (MockParticipantManager participant : _participants) {
+      participant.syncStop();
+    }
+    deleteCluster(CLUSTER_NAME);
+  }
+
+  @Test
+  public void testSharedRoutingTableProviders() throws Exception {
+    int hubCount = RoutingDataHub.getHubCount();
+    RoutingTableProvider provider =
+        RoutingTableProvider.createShared(_spectator, PropertyType.EXTERNALVIEW);
+    RoutingTableProvider sharedProvider =
+        RoutingTableProvider.createShared(_spectator, PropertyType.EXTERNALVIEW);
+    RoutingTableProvider currentStateProvider =
+        RoutingTableProvider.createShared(_spectator, PropertyType.CURRENTSTATES);
+    // The providers of the same source data type share one hub
+    Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount + 2);
+
+    try {
+      Assert.assertTrue(TestHelper.verify(
+          () -> !provider.getInstancesForResource(TEST_DB, "MASTER").isEmpty(),
+          TestHelper.WAIT_DURATION));
+      Assert.assertEquals(sharedProvider.getInstancesForResource(TEST_DB, "MASTER"),
+          provider.getInstancesForResource(TEST_DB, "MASTER"));
+      Assert.assertTrue(TestHelper.verify(
+          () -> !currentStateProvider.getInstancesForResource(TEST_DB, "MASTER").isEmpty(),
+          TestHelper.WAIT_DURATION));
+
+      // The routing table changes of the hub are forwarded to the listeners of every provider
+      AtomicInteger changeCount = new AtomicInteger();
+      sharedProvider.addRoutingTableChangeListener(
+          (routingTableSnapshot, context) -> changeCount.incrementAndGet(), null, true);
+      Assert.assertTrue(
+          TestHelper.verify(() -> changeCount.get() > 0, TestHelper.WAIT_DURATION));
+
+      // The hub is kept until all of its providers are shut down
+      provider.shutdown();
+      provider.shutdown();
+      Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount + 2);
+      Assert.assertFalse(sharedProvider.getInstancesForResource(TEST_DB, "MASTER").isEmpty());
+    } finally {
+      sharedProvider.shutdown();
+      currentStateProvider.shutdown();
+    }
+    Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount);
+  }
+
+  @Test
+  public void testSharedProviderIgnoresChangeCallbacks() throws Exception {
+    RoutingTableProvider sharedProvider =
+        RoutingTableProvider.createShared(_spectator, PropertyType.EXTERNALVIEW);
+    RoutingDataHub hub = RoutingDataHub.acquire(_spectator,
+        ImmutableMap.of(PropertyType.EXTERNALVIEW, Collections.emptyList()));
+    AtomicInteger hubRefreshCount = new AtomicInteger();
+    RoutingTableChangeListener hubListener =
+        (routingTableSnapshot, context) -> hubRefreshCount.incrementAndGet();
+    hub.getProvider().addRoutingTableChangeListener(hubListener, null);
+    try {
+      Assert.assertTrue(TestHelper.verify(
+          () -> !sharedProvider.getInstancesForResource(TEST_DB, "MASTER").isEmpty(),
+          TestHelper.WAIT_DURATION));
+      // Wait for the refreshes of the initial callbacks to settle down.
+      Thread.sleep(1000);
+      int refreshCount = hubRefreshCount.get();
+
+      NotificationContext context = new NotificationContext(_spectator);
+      context.setType(NotificationContext.Type.CALLBACK);
+      context.setChangeType(HelixConstants.ChangeType.EXTERNAL_VIEW);
+      ExternalView fakeExternalView = new ExternalView("FakeDB");
+      fakeExternalView.setState("FakeDB_0", PARTICIPANT_PREFIX + "_12918", "MASTER");
+      sharedProvider.onExternalViewChange(Collections.singletonList(fakeExternalView), context);
+      sharedProvider.onExternalViewChange(Collections.emptyList(), context);
+      sharedProvider.onInstanceConfigChange(Collections.emptyList(), context);
+      sharedProvider.onLiveInstanceChange(Collections.emptyList(), context);
+      sharedProvider.onStateChange(PARTICIPANT_PREFIX + "_12918", Collections.emptyList(),
+          context);
+
+      // The callbacks of the shared provider neither rebuild nor queue a refresh of the hub.
+      Thread.sleep(1000);
+      Assert.assertEquals(hubRefreshCount.get(), refreshCount);
+      Assert.assertFalse(hub.getProvider().getResources().contains("FakeDB"));
+      Assert.assertFalse(sharedProvider.getResources().contains("FakeDB"));
+      Assert.assertFalse(sharedProvider.getInstancesForResource(TEST_DB, "MASTER").isEmpty());
+
+      // The initial callback of a new listener is served from the routing table of the hub.
+      AtomicInteger changeCount = new AtomicInteger();
+      sharedProvider.addRoutingTableChangeListener(
+          (routingTableSnapshot, ctx) -> changeCount.incrementAndGet(), null, true);
+      Assert.assertEquals(changeCount.get(), 1);
+      Assert.assertEquals(hubRefreshCount.get(), refreshCount);
+    } finally {
+      hub.getProvider().removeRoutingTableChangeListener(hubListener);
+      hub.release();
+      sharedProvider.shutdown();
+    }
+  }
+
+  @Test
+  public void testFailedHubCreation() {
+    int hubCount = RoutingDataHub.getHubCount();
+    HelixManager missingClusterManager = HelixManagerFactory
+        .getZKHelixManager(CLUSTER_NAME + "_missing", "caller", InstanceType.SPECTATOR, ZK_ADDR);
+    for (int i = 0; i < 2; i++) {
+      try {
+        RoutingTableProvider.createShared(missingClusterManager, PropertyType.EXTERNALVIEW);
+        Assert.fail("The hub of a missing cluster should not be created.");
+      } catch (HelixException e) {
+        // expected
+      }
+      // The failed hub is removed, so the next acquire tries to create the hub again.
+      Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount);
+    }
+  }
+
+  @Test
+  public void testHubUsesCallerManagerProperty() {
+    HelixManagerProperty helixManagerProperty =
+        HelixPropertyFactory.getInstance().getHelixManagerProperty(ZK_ADDR, CLUSTER_NAME);
+    HelixManager callerManager = HelixManagerFactory
+        .getZKHelixManager(CLUSTER_NAME, "propertyCaller", InstanceType.SPECTATOR, ZK_ADDR, null,
+            helixManagerProperty);
+    int hubCount = RoutingDataHub.getHubCount();
+    RoutingDataHub hub = RoutingDataHub.acquire(callerManager,
+        ImmutableMap.of(PropertyType.CURRENTSTATES, Collections.emptyList()));
+    try {
+      Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount + 1);
+      // The manager of the hub is created with the connection settings of the caller.
+      HelixManager hubManager = hub.getHelixManager();
+      Assert.assertTrue(hubManager.isConnected());
+      Assert.assertEquals(hubManager.getMetadataStoreConnectionString(), ZK_ADDR);
+      Assert.assertSame(((ZKHelixManager) hubManager).getHelixManagerProperty(),
+          helixManagerProperty);
+    } finally {
+      hub.release();
+    }
+    Assert.assertEquals(RoutingDataHub.getHubCount(), hubCount);
+  }
+
+  @Test
+  public void testHubOutlivesCallerManager() throws Exception {
+    HelixManager callerManager = HelixManagerFactory
+        .getZKHelixManager(CLUSTER_NAME, "caller", InstanceType.SPECTATOR, ZK_ADDR);
+    callerManager.connect();
+    RoutingTableProvider provider =
+        RoutingTableProvider.createShared(callerManager, PropertyType.EXTERNALVIEW);
+    RoutingTableProvider sharedProvider =
+        RoutingTableProvider.createShared(_spectator, PropertyType.EXTERNALVIEW);
+    String newDB = TEST_DB + "_new";
+    try {
+      Assert.assertTrue(TestHelper.verify(
+          () -> !sharedProvider.getInstancesForResource(TEST_DB, "MASTER").isEmpty(),
+          TestHelper.WAIT_DURATION));
+
+      // The hub listens through its own manager, so the routing data is still refreshed after
+      // the manager of the provider that created the hub is disconnected.
+      callerManager.disconnect();
+      List<String> instances = new ArrayList<>();
+      for (MockParticipantManager participant : _participants) {
+        instances.add(participant.getInstanceName());
+      }
+      createDBInSemiAuto(_gSetupTool, CLUSTER_NAME, newDB, instances,
+          BuiltInStateModelDefinitions.MasterSlave.name(), 2, PARTICIPANT_NUMBER);
+      Assert.assertTrue(TestHelper.verify(
+          () -> !sharedProvider.getInstancesForResource(newDB, "MASTER").isEmpty(),
+          TestHelper.WAIT_DURATION));
+    } finally {
+      provider.shutdown();
+      sharedProvider.shutdown();
+      _gSetupTool.dropResourceFromCluster(CLUSTER_NAME, newDB);
+    }
+  }
+}
@@ -251,6 +251,8 @@ public interface RealmAwareZkClient {
 
   void asyncGetData(final String path, final ZkAsyncCallbacks.GetDataCallbackHandler cb);
 
+  void asyncGetChildren(final String path, final ZkAsyncCallbacks.GetChildrenCallbackHandler cb);
+
   void asyncExists(final String path, final ZkAsyncCallbacks.ExistsCallbackHandler cb);
 
   void asyncDelete(final String path, final ZkAsyncCallbacks.DeleteCallbackHandler cb);
@@ -0,0 +1,86 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The codec that compresses the serialized ZNRecords before they are written to the metadata
+ * store. A codec can be registered via {@link CompressionCodecs#registerCodec(CompressionCodec)},
+ * and then selected by its name.
+ */
+public interface CompressionCodec {
+  /**
+   * @return the name of the codec, which is used to select the codec.
+   */
+  String getName();
+
+  /**
+   * @return the ID of the codec, which is written to the header of the compressed data so the
+   *         reader can find the codec to uncompress the data. The ID must be unique.
+   */
+  byte getId();
+
+  /**
+   * @param length the length of the data to be compressed
+   * @return the max length of the compressed data, which is the min size of the output buffer.
+   */
+  int maxCompressedLength(int length);
+
+  /**
+   * Compress the data into the given output buffer, so the caller can reuse the buffers.
+   * @param data the buffer that contains the data to be compressed
+   * @param offset the offset of the data in the buffer
+   * @param length the length of the data
+   * @param output the output buffer, which must have at least
+   *               {@link #maxCompressedLength(int)} bytes after the output offset
+   * @param outputOffset the offset in the output buffer to write the compressed data
+   * @return the length of the compressed data without the header
+   * @throws IOException
+   */
+  int compress(byte[] data, int offset, int length, byte[] output, int outputOffset)
+      throws IOException;
+
+  /**
+   * Compress the data.
+   * @param data the data to be compressed
+   * @return the compressed data without the header
+   * @throws IOException
+   */
+  default byte[] compress(byte[] data) throws IOException {
+    byte[] output = new byte[maxCompressedLength(data.length)];
+    int compressedLength = compress(data, 0, data.length, output, 0);
+    return compressedLength == output.length ? output : Arrays.copyOf(output, compressedLength);
+  }
+
+  /**
+   * Uncompress the data.
+   * @param data the buffer that contains the compressed data
+   * @param offset the offset of the compressed data in the buffer
+   * @param length the length of the compressed data
+   * @param uncompressedLength the length of the original data
+   * @return the original data
+   * @throws IOException if the data is corrupted
+   */
+  byte[] uncompress(byte[] data, int offset, int length, int uncompressedLength)
+      throws IOException;
+}
@@ -0,0 +1,231 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+import org.apache.helix.zookeeper.constant.ZkSystemPropertyKeys;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.util.GZipCompressionUtil;
+
+/**
+ * The registry of the compression codecs, which also reads and writes the self-describing
+ * compressed data.
+ *
+ * Except for GZIP, the compressed data starts with a header:
+ * | magic (2 bytes) | format version (1 byte) | codec ID (1 byte) | uncompressed length (4 bytes) |
+ * The first magic byte is never a valid first byte of UTF-8 text, so the compressed data cannot be
+ * confused with the uncompressed JSON or the GZIP data.
+ * The GZIP data is written without the header, so the data can be read by the older readers that
+ * only support GZIP. For the same reason, the other codecs should only be enabled after all the
+ * readers of the data support them.
+ *
+ * The codec is selected by a spec, which is the codec name with an optional compression level,
+ * e.g. "gzip", "lz4", "deflate" or "deflate:1".
+ */
+public class CompressionCodecs {
+  public static final String DEFAULT_CODEC_SPEC = GZipCodec.NAME;
+  public static final CompressionCodec GZIP = new GZipCodec();
+
+  private static final byte[] MAGIC = new byte[] { (byte) 0xFE, (byte) 'H' };
+  private static final byte FORMAT_VERSION = 1;
+  static final int HEADER_LENGTH = 8;
+  private static final String LEVEL_DELIMITER = ":";
+  // The max uncompressed length that a header may declare, so a corrupted header cannot make the
+  // codec allocate a huge output buffer. The bucket data accessor splits a compressed record into
+  // multiple znodes, so the limit is a multiple of the znode size limit.
+  private static final int MAX_UNCOMPRESSED_LENGTH = Integer
+      .getInteger(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_UNCOMPRESSED_SIZE_LIMIT_BYTES,
+          (int) Math.min(Integer.MAX_VALUE, 100L * Integer
+              .getInteger(ZkSystemPropertyKeys.JUTE_MAXBUFFER, ZNRecord.SIZE_LIMIT)));
+
+  private static final Map<Byte, CompressionCodec> CODECS_BY_ID = new ConcurrentHashMap<>();
+  private static final Map<String, CompressionCodec> CODECS_BY_NAME = new ConcurrentHashMap<>();
+  // The deflate codecs by the compression level, so all the specs of a level share one codec and
+  // its per-thread deflaters. There are at most 11 levels.
+  private static final Map<Integer, CompressionCodec> DEFLATE_CODECS_BY_LEVEL =
+      new ConcurrentHashMap<>();
+
+  static {
+    DeflateCodec deflateCodec = new DeflateCodec();
+    registerCodec(GZIP);
+    registerCodec(deflateCodec);
+    registerCodec(new LZ4Codec());
+    DEFLATE_CODECS_BY_LEVEL.put(deflateCodec.getLevel(), deflateCodec);
+  }
+
+  private CompressionCodecs() {
+  }
+
+  /**
+   * Register a custom codec.
+   * @param codec the codec, whose name and ID must not conflict with the registered codecs.
+   */
+  public static synchronized void registerCodec(CompressionCodec codec) {
+    if (CODECS_BY_ID.containsKey(codec.getId()) || CODECS_BY_NAME.containsKey(codec.getName())) {
+      throw new IllegalArgumentException(String
+          .format("Codec %s with ID %d conflicts with a registered codec.", codec.getName(),
+              codec.getId()));
+    }
+    CODECS_BY_ID.put(codec.getId(), codec);
+    CODECS_BY_NAME.put(codec.getName(), codec);
+  }
+
+  /**
+   * Get the codec by the spec.
+   * @param spec the codec name, optionally followed by ":" and the compression level. The level
+   *             is only supported by the deflate codec.
+   * @return the codec
+   * @throws IllegalArgumentException if the spec is invalid or the codec is not registered.
+   */
+  public static CompressionCodec getCodec(String spec) {
+    if (spec == null) {
+      throw new IllegalArgumentException("The compression codec is not specified.");
+    }
+    String[] nameAndLevel = spec.trim().split(LEVEL_DELIMITER, 2);
+    String name = nameAndLevel[0].trim();
+    if (nameAndLevel.length == 2) {
+      if (!DeflateCodec.NAME.equals(name)) {
+        throw new IllegalArgumentException(
+            "The compression level is not supported by the codec: " + spec);
+      }
+      int level;
+      try {
+        level = Integer.parseInt(nameAndLevel[1].trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid compression level: " + spec, e);
+      }
+      if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED
+          || level > Deflater.BEST_COMPRESSION)) {
+        throw new IllegalArgumentException("Invalid compression level: " + spec);
+      }
+      return DEFLATE_CODECS_BY_LEVEL.computeIfAbsent(level, DeflateCodec::new);
+    }
+    CompressionCodec codec = CODECS_BY_NAME.get(name);
+    if (codec == null) {
+      throw new IllegalArgumentException("Unknown compression codec: " + spec);
+    }
+    return codec;
+  }
+
+  /**
+   * Compress the data and add the header if required.
+   * @param data the data to be compressed
+   * @param codec the codec to compress the data
+   * @return the compressed data that can be uncompressed by {@link #uncompress(byte[])}.
+   * @throws IOException
+   */
+  public static byte[] compress(byte[] data, CompressionCodec codec) throws IOException {
+    if (codec.getId() == GZipCodec.ID) {
+      return codec.compress(data);
+    }
+    byte[] output = new byte[maxCompressedLength(data.length, codec)];
+    int compressedLength = compress(data, 0, data.length, codec, output, 0);
+    return compressedLength == output.length ? output : Arrays.copyOf(output, compressedLength);
+  }
+
+  /**
+   * @param length the length of the data to be compressed
+   * @param codec the codec to compress the data
+   * @return the max length of the compressed data including the header.
+   */
+  public static int maxCompressedLength(int length, CompressionCodec codec) {
+    return codec.maxCompressedLength(length) + (codec.getId() == GZipCodec.ID ? 0 : HEADER_LENGTH);
+  }
+
+  /**
+   * Compress the data and add the header if required into the given output buffer.
+   * @param data the buffer that contains the data to be compressed
+   * @param offset the offset of the data in the buffer
+   * @param length the length of the data
+   * @param codec the codec to compress the data
+   * @param output the output buffer, which must have at least
+   *               {@link #maxCompressedLength(int, CompressionCodec)} bytes after the offset
+   * @param outputOffset the offset in the output buffer to write the compressed data
+   * @return the length of the compressed data including the header
+   * @throws IOException
+   */
+  public static int compress(byte[] data, int offset, int length, CompressionCodec codec,
+      byte[] output, int outputOffset) throws IOException {
+    if (codec.getId() == GZipCodec.ID) {
+      return codec.compress(data, offset, length, output, outputOffset);
+    }
+    output[outputOffset] = MAGIC[0];
+    output[outputOffset + 1] = MAGIC[1];
+    output[outputOffset + 2] = FORMAT_VERSION;
+    output[outputOffset + 3] = codec.getId();
+    output[outputOffset + 4] = (byte) (length >>> 24);
+    output[outputOffset + 5] = (byte) (length >>> 16);
+    output[outputOffset + 6] = (byte) (length >>> 8);
+    output[outputOffset + 7] = (byte) length;
+    return HEADER_LENGTH + codec
+        .compress(data, offset, length, output, outputOffset + HEADER_LENGTH);
+  }
+
+  /**
+   * @param bytes the data
+   * @return true if the data is compressed by any codec, false otherwise.
+   */
+  public static boolean isCompressed(byte[] bytes) {
+    return GZipCompressionUtil.isCompressed(bytes) || hasHeader(bytes);
+  }
+
+  /**
+   * Uncompress the data that is compressed by any registered codec.
+   * @param bytes the compressed data
+   * @return the original data
+   * @throws IOException if the data is not compressed, corrupted, or the codec is unknown.
+   */
+  public static byte[] uncompress(byte[] bytes) throws IOException {
+    if (GZipCompressionUtil.isCompressed(bytes)) {
+      return GZipCompressionUtil.uncompress(bytes, 0, bytes.length);
+    }
+    if (!hasHeader(bytes)) {
+      throw new IOException("The data is not compressed.");
+    }
+    if (bytes[2] != FORMAT_VERSION) {
+      throw new IOException("Unsupported compression format version: " + bytes[2]);
+    }
+    CompressionCodec codec = CODECS_BY_ID.get(bytes[3]);
+    if (codec == null) {
+      throw new IOException("Unknown compression codec ID: " + bytes[3]);
+    }
+    int uncompressedLength =
+        ((bytes[4] & 0xFF) << 24) | ((bytes[5] & 0xFF) << 16) | ((bytes[6] & 0xFF) << 8) | (
+            bytes[7] & 0xFF);
+    if (uncompressedLength < 0 || uncompressedLength > MAX_UNCOMPRESSED_LENGTH) {
+      throw new IOException(String
+          .format("Invalid uncompressed length: %d, the limit is %d.", uncompressedLength,
+              MAX_UNCOMPRESSED_LENGTH));
+    }
+    return codec
+        .uncompress(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, uncompressedLength);
+  }
+
+  private static boolean hasHeader(byte[] bytes) {
+    return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC[0]
+        && bytes[1] == MAGIC[1];
+  }
+}
@@ -0,0 +1,146 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The raw deflate codec with a configurable compression level. Compared with GZIP, it skips the
+ * GZIP header and checksum, and both the compression and the decompression are done with a single
+ * exactly sized output buffer.
+ */
+public class DeflateCodec implements CompressionCodec {
+  public static final String NAME = "deflate";
+  static final byte ID = 1;
+  private static final byte[] EMPTY_INPUT = new byte[0];
+
+  private final int _level;
+  // The deflater of each thread, which is reset after every use instead of being recreated.
+  private final ThreadLocal<Deflater> _deflater;
+
+  /**
+   * @param level the compression level, from {@link Deflater#BEST_SPEED} to
+   *              {@link Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}.
+   */
+  public DeflateCodec(int level) {
+    if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED
+        || level > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("Invalid deflate compression level: " + level);
+    }
+    _level = level;
+    _deflater = ThreadLocal.withInitial(() -> new Deflater(_level, true));
+  }
+
+  public DeflateCodec() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  public int getLevel() {
+    return _level;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  /**
+   * @return the upper bound of the raw deflate output. It covers the worst case of the stored
+   *         blocks, which take 5 extra bytes for every 16KB of the data.
+   */
+  static int maxDeflateLength(int length) {
+    return length + (length >> 8) + 64;
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return maxDeflateLength(length);
+  }
+
+  @Override
+  public int compress(byte[] data, int offset, int length, byte[] output, int outputOffset)
+      throws IOException {
+    return deflate(_deflater.get(), data, offset, length, output, outputOffset, output.length);
+  }
+
+  /**
+   * Deflate the data into the output buffer, and reset the deflater so it can be reused.
+   * @param outputEnd the end of the output buffer that can be written
+   * @return the length of the deflated data
+   */
+  static int deflate(Deflater deflater, byte[] data, int offset, int length, byte[] output,
+      int outputOffset, int outputEnd) throws IOException {
+    try {
+      deflater.setInput(data, offset, length);
+      deflater.finish();
+      int outputPosition = outputOffset;
+      while (!deflater.finished()) {
+        if (outputPosition == outputEnd) {
+          throw new IOException("The compressed data exceeds the output buffer.");
+        }
+        outputPosition += deflater.deflate(output, outputPosition, outputEnd - outputPosition);
+      }
+      return outputPosition - outputOffset;
+    } finally {
+      deflater.reset();
+      // Don't keep the reference to the input until the next use.
+      deflater.setInput(EMPTY_INPUT);
+    }
+  }
+
+  @Override
+  public byte[] uncompress(byte[] data, int offset, int length, int uncompressedLength)
+      throws IOException {
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(data, offset, length);
+      byte[] output = new byte[uncompressedLength];
+      int outputLength = 0;
+      while (outputLength < uncompressedLength) {
+        int inflated =
+            inflater.inflate(output, outputLength, uncompressedLength - outputLength);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput()
+            || inflater.needsDictionary())) {
+          break;
+        }
+        outputLength += inflated;
+      }
+      if (outputLength != uncompressedLength) {
+        throw new IOException(String
+            .format("Corrupted deflate data, expect %d bytes but got %d bytes.",
+                uncompressedLength, outputLength));
+      }
+      return output;
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupted deflate data.", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.helix.zookeeper.util.GZipCompressionUtil;
+
+/**
+ * The GZIP codec. For backward compatibility, the data compressed by this codec is written
+ * without the codec header, so it can be read by the readers that only support GZIP. The reader
+ * recognizes the data by the GZIP magic bytes.
+ */
+public class GZipCodec implements CompressionCodec {
+  public static final String NAME = "gzip";
+  // The ID is not written to the data
+  static final byte ID = 0;
+  // The GZIP header and trailer
+  private static final int GZIP_OVERHEAD = 18;
+  // The same header as GZIPOutputStream: the magic bytes, the deflate method and zeros for the
+  // other fields.
+  private static final byte[] GZIP_HEADER = new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+      0, 0, 0, 0, 0, 0, 0 };
+  // The CRC32 and the length of the uncompressed data
+  private static final int GZIP_TRAILER_LENGTH = 8;
+  // The deflater and the checksum of each thread, which are reset after every use instead of being
+  // recreated.
+  private static final ThreadLocal<Deflater> DEFLATER =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+  private static final ThreadLocal<CRC32> CRC = ThreadLocal.withInitial(CRC32::new);
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return DeflateCodec.maxDeflateLength(length) + GZIP_OVERHEAD;
+  }
+
+  @Override
+  public int compress(byte[] data, int offset, int length, byte[] output, int outputOffset)
+      throws IOException {
+    if (output.length - outputOffset < GZIP_OVERHEAD) {
+      throw new IOException("The compressed data exceeds the output buffer.");
+    }
+    System.arraycopy(GZIP_HEADER, 0, output, outputOffset, GZIP_HEADER.length);
+    int outputPosition = outputOffset + GZIP_HEADER.length;
+    outputPosition += DeflateCodec.deflate(DEFLATER.get(), data, offset, length, output,
+        outputPosition, output.length - GZIP_TRAILER_LENGTH);
+
+    CRC32 crc = CRC.get();
+    crc.reset();
+    crc.update(data, offset, length);
+    outputPosition = writeIntLE((int) crc.getValue(), output, outputPosition);
+    outputPosition = writeIntLE(length, output, outputPosition);
+    return outputPosition - outputOffset;
+  }
+
+  @Override
+  public byte[] compress(byte[] data) throws IOException {
+    return GZipCompressionUtil.compress(data);
+  }
+
+  @Override
+  public byte[] uncompress(byte[] data, int offset, int length, int uncompressedLength)
+      throws IOException {
+    return GZipCompressionUtil.uncompress(data, offset, length);
+  }
+
+  private static int writeIntLE(int value, byte[] output, int outputPosition) {
+    output[outputPosition++] = (byte) value;
+    output[outputPosition++] = (byte) (value >>> 8);
+    output[outputPosition++] = (byte) (value >>> 16);
+    output[outputPosition++] = (byte) (value >>> 24);
+    return outputPosition;
+  }
+}
@@ -0,0 +1,235 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java codec of the LZ4 block format. It trades the compression ratio for speed, which
+ * suits the serialized ZNRecords that contain many repeated instance names, partition names and
+ * states.
+ *
+ * The compressor is a greedy single pass matcher with a hash table of the 4 bytes sequences. The
+ * output follows the LZ4 block format, including the end of block restrictions, so it can also be
+ * decoded by the other LZ4 implementations.
+ */
+public class LZ4Codec implements CompressionCodec {
+  public static final String NAME = "lz4";
+  static final byte ID = 2;
+
+  private static final int MIN_MATCH = 4;
+  private static final int MAX_OFFSET = 0xFFFF;
+  // The last match must start at least 12 bytes before the end of the block.
+  private static final int MF_LIMIT = 12;
+  // The last 5 bytes are always literals.
+  private static final int LAST_LITERALS = 5;
+  private static final int HASH_LOG = 14;
+  // Accelerate the search when there is no match for a while, so the incompressible data is
+  // skipped quickly.
+  private static final int SKIP_TRIGGER = 6;
+  private static final int RUN_MASK = 0x0F;
+  private static final int ML_BITS = 4;
+  // The hash table of each thread, which is cleared before every use instead of being recreated.
+  private static final ThreadLocal<int[]> HASH_TABLE =
+      ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  @Override
+  public int compress(byte[] data, int offset, int length, byte[] output, int outputOffset) {
+    int end = offset + length;
+    int outputPos = outputOffset;
+    int anchor = offset;
+
+    if (length > MF_LIMIT) {
+      // The positions of the sequences relative to the offset, plus 1 so 0 means no position.
+      int[] hashTable = HASH_TABLE.get();
+      Arrays.fill(hashTable, 0);
+      int matchLimit = end - MF_LIMIT;
+      int matchEndLimit = end - LAST_LITERALS;
+      int pos = offset;
+      while (pos < matchLimit) {
+        int sequence = readInt(data, pos);
+        int hash = hash(sequence);
+        int ref = offset + hashTable[hash] - 1;
+        hashTable[hash] = pos - offset + 1;
+        if (ref < offset || pos - ref > MAX_OFFSET || readInt(data, ref) != sequence) {
+          pos += 1 + ((pos - anchor) >>> SKIP_TRIGGER);
+          continue;
+        }
+        // Extend the match backward and forward.
+        while (pos > anchor && ref > offset && data[pos - 1] == data[ref - 1]) {
+          pos--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while (pos + matchLength < matchEndLimit && data[pos + matchLength] == data[ref
+            + matchLength]) {
+          matchLength++;
+        }
+        outputPos =
+            writeSequence(data, anchor, pos - anchor, pos - ref, matchLength, output, outputPos);
+        pos += matchLength;
+        anchor = pos;
+        // Index the position before the match end to find the adjacent matches.
+        if (pos - 2 < matchLimit) {
+          hashTable[hash(readInt(data, pos - 2))] = pos - 2 - offset + 1;
+        }
+      }
+    }
+
+    // The last literals
+    int literalLength = end - anchor;
+    int tokenPos = outputPos++;
+    if (literalLength >= RUN_MASK) {
+      output[tokenPos] = (byte) (RUN_MASK << ML_BITS);
+      outputPos = writeLength(literalLength - RUN_MASK, output, outputPos);
+    } else {
+      output[tokenPos] = (byte) (literalLength << ML_BITS);
+    }
+    System.arraycopy(data, anchor, output, outputPos, literalLength);
+    outputPos += literalLength;
+    return outputPos - outputOffset;
+  }
+
+  @Override
+  public byte[] uncompress(byte[] data, int offset, int length, int uncompressedLength)
+      throws IOException {
+    byte[] output = new byte[uncompressedLength];
+    int pos = offset;
+    int end = offset + length;
+    int outputPos = 0;
+    try {
+      while (true) {
+        int token = data[pos++] & 0xFF;
+        int literalLength = token >>> ML_BITS;
+        if (literalLength == RUN_MASK) {
+          int b;
+          do {
+            b = data[pos++] & 0xFF;
+            literalLength += b;
+          } while (b == 0xFF);
+        }
+        if (literalLength > end - pos || literalLength > uncompressedLength - outputPos) {
+          throw new IOException("Corrupted LZ4 data, the literals exceed the boundary.");
+        }
+        System.arraycopy(data, pos, output, outputPos, literalLength);
+        pos += literalLength;
+        outputPos += literalLength;
+        if (pos == end) {
+          // The last sequence only contains the literals.
+          break;
+        }
+
+        int matchOffset = (data[pos++] & 0xFF) | ((data[pos++] & 0xFF) << 8);
+        int matchLength = token & RUN_MASK;
+        if (matchLength == RUN_MASK) {
+          int b;
+          do {
+            b = data[pos++] & 0xFF;
+            matchLength += b;
+          } while (b == 0xFF);
+        }
+        matchLength += MIN_MATCH;
+        int ref = outputPos - matchOffset;
+        if (matchOffset == 0 || ref < 0 || matchLength > uncompressedLength - outputPos) {
+          throw new IOException("Corrupted LZ4 data, invalid match.");
+        }
+        if (matchOffset >= matchLength) {
+          System.arraycopy(output, ref, output, outputPos, matchLength);
+          outputPos += matchLength;
+        } else {
+          // The match overlaps with the bytes to be written, so copy byte by byte.
+          for (int i = 0; i < matchLength; i++) {
+            output[outputPos++] = output[ref++];
+          }
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Corrupted LZ4 data, unexpected end of the data.", e);
+    }
+    if (outputPos != uncompressedLength) {
+      throw new IOException(String
+          .format("Corrupted LZ4 data, expect %d bytes but got %d bytes.", uncompressedLength,
+              outputPos));
+    }
+    return output;
+  }
+
+  private static int writeSequence(byte[] data, int literalPos, int literalLength,
+      int matchOffset, int matchLength, byte[] output, int outputPos) {
+    int tokenPos = outputPos++;
+    int token;
+    if (literalLength >= RUN_MASK) {
+      token = RUN_MASK << ML_BITS;
+      outputPos = writeLength(literalLength - RUN_MASK, output, outputPos);
+    } else {
+      token = literalLength << ML_BITS;
+    }
+    System.arraycopy(data, literalPos, output, outputPos, literalLength);
+    outputPos += literalLength;
+
+    output[outputPos++] = (byte) matchOffset;
+    output[outputPos++] = (byte) (matchOffset >>> 8);
+
+    int extraMatchLength = matchLength - MIN_MATCH;
+    if (extraMatchLength >= RUN_MASK) {
+      token |= RUN_MASK;
+      outputPos = writeLength(extraMatchLength - RUN_MASK, output, outputPos);
+    } else {
+      token |= extraMatchLength;
+    }
+    output[tokenPos] = (byte) token;
+    return outputPos;
+  }
+
+  private static int writeLength(int length, byte[] output, int outputPos) {
+    while (length >= 0xFF) {
+      output[outputPos++] = (byte) 0xFF;
+      length -= 0xFF;
+    }
+    output[outputPos++] = (byte) length;
+    return outputPos;
+  }
+
+  private static int readInt(byte[] data, int pos) {
+    return (data[pos] & 0xFF) | ((data[pos + 1] & 0xFF) << 8) | ((data[pos + 2] & 0xFF) << 16)
+        | ((data[pos + 3] & 0xFF) << 24);
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+}
@@ -51,6 +51,50 @@ public class ZkSystemPropertyKeys {
   public static final String ZK_SERIALIZER_ZNRECORD_WRITE_SIZE_LIMIT_BYTES =
       "zk.serializer.znrecord.write.size.limit.bytes";
 
+  /**
+   * This property selects the default codec that ZNRecord serializers and the bucket data accessor
+   * use to compress the data, e.g. "gzip", "lz4" or "deflate:1". A ZNRecord can override it with
+   * the simple field {@link org.apache.helix.zookeeper.datamodel.ZNRecord#COMPRESSION_CODEC_FIELD}.
+   * <p>
+   * The data compressed by the codecs other than gzip cannot be read by the readers that only
+   * support gzip, so only change the codec after all the readers are upgraded.
+   * <p>
+   * The default value is "gzip".
+   */
+  public static final String ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC =
+      "zk.serializer.znrecord.compression.codec";
+
+  /**
+   * This property defines the max uncompressed length in bytes that the header of the data
+   * compressed by the codecs other than gzip may declare. The output buffer is allocated by the
+   * declared length, so the data that declares a larger length is rejected as corrupted.
+   * <p>
+   * The default value is 100 times of {@link #JUTE_MAXBUFFER}.
+   */
+  public static final String ZK_SERIALIZER_ZNRECORD_UNCOMPRESSED_SIZE_LIMIT_BYTES =
+      "zk.serializer.znrecord.uncompressed.size.limit.bytes";
+
+  /**
+   * Setting this property to true in system properties makes the Helix manager serialize the
+   * ZNRecords by
+   * {@link org.apache.helix.zookeeper.datamodel.serializer.ZNRecordPooledStreamingSerializer},
+   * which reuses thread local buffers instead of allocating new buffers for every write.
+   * <p>
+   * The default value is "false" (disabled).
+   */
+  public static final String ZK_SERIALIZER_ZNRECORD_POOLED_BUFFER_ENABLED =
+      "zk.serializer.znrecord.pooled-buffer.enabled";
+
+  /**
+   * Setting this property to true in system properties makes ZkClient report the count, bytes,
+   * latency and allocated bytes of the serializations to its monitor. The allocated bytes are
+   * measured with the thread allocation counter of the JVM, which adds a cost to every write.
+   * <p>
+   * The default value is "false" (disabled).
+   */
+  public static final String ZK_SERIALIZATION_METRICS_ENABLED =
+      "zk.zkclient.serialization.metrics.enabled";
+
   /**
    * This property determines the behavior of ZkClient issuing an sync() to server upon new session
    * established.
@@ -61,6 +105,16 @@ public class ZkSystemPropertyKeys {
   public static final String ZK_AUTOSYNC_ENABLED =
       "zk.zkclient.autosync.enabled";
 
+  /**
+   * This property sets the number of the threads that ZkClient uses to deliver the data and child
+   * change events. The events are sharded by the hash of the path, so the events of one path are
+   * still delivered in order, while a slow listener only delays the paths on its own shard. The
+   * state change and session events are always delivered by a dedicated thread.
+   * <p>
+   * The default value is "0", which delivers all the events on the single event thread.
+   */
+  public static final String ZK_EVENT_THREAD_SHARD_COUNT = "zk.zkclient.eventThread.shardCount";
+
   /** System property key for jute.maxbuffer */
   public static final String JUTE_MAXBUFFER = "jute.maxbuffer";
 
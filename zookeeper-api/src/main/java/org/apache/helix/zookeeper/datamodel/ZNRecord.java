@@ -26,6 +26,7 @@ import java.util.TreeMap;
 
 import org.apache.helix.zookeeper.constant.ZkSystemPropertyKeys;
 import org.apache.helix.zookeeper.datamodel.serializer.JacksonPayloadSerializer;
+import org.apache.helix.zookeeper.datamodel.serializer.LazyFieldMap;
 import org.apache.helix.zookeeper.datamodel.serializer.PayloadSerializer;
 import org.codehaus.jackson.annotate.JsonCreator;
 import org.codehaus.jackson.annotate.JsonIgnore;
@@ -52,6 +53,14 @@ public class ZNRecord {
   @JsonIgnore
   public static final String ENABLE_COMPRESSION_BOOLEAN_FIELD = "enableCompression";
 
+  /**
+   * A field name in ZNRecord's simple fields to select the compression codec in ZNRecord
+   * serializers, e.g. "gzip", "lz4" or "deflate:1". If not set, the codec is selected by the system
+   * property {@link ZkSystemPropertyKeys#ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC}.
+   */
+  @JsonIgnore
+  public static final String COMPRESSION_CODEC_FIELD = "compressionCodec";
+
   /**
    * Default value for system property
    * {@link ZkSystemPropertyKeys#ZK_SERIALIZER_ZNRECORD_AUTO_COMPRESS_ENABLED}
@@ -108,11 +117,21 @@ public class ZNRecord {
    * @param record
    * @param id
    */
+  @SuppressWarnings("unchecked")
   public ZNRecord(ZNRecord record, String id) {
     this(id);
     simpleFields.putAll(record.getSimpleFields());
-    mapFields.putAll(record.getMapFields());
-    listFields.putAll(record.getListFields());
+    // Keep the lazily parsed fields unparsed, so the copy doesn't parse every field.
+    if (record.mapFields instanceof LazyFieldMap) {
+      mapFields = ((LazyFieldMap<Map<String, String>>) record.mapFields).copy();
+    } else {
+      mapFields.putAll(record.getMapFields());
+    }
+    if (record.listFields instanceof LazyFieldMap) {
+      listFields = ((LazyFieldMap<List<String>>) record.listFields).copy();
+    } else {
+      listFields.putAll(record.getListFields());
+    }
     if (record.rawPayload != null) {
       rawPayload = new byte[record.rawPayload.length];
       System.arraycopy(record.rawPayload, 0, rawPayload, 0, record.rawPayload.length);
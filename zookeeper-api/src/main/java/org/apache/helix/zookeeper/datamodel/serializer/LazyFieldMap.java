@@ -0,0 +1,208 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The fields of a ZNRecord that are parsed from the raw data on the first access. Until then, a
+ * field only holds its offset in the raw data, so a reader that accesses a few fields of a large
+ * record doesn't pay for parsing and keeping the others.
+ * The keys are known when the map is created, so the size, the key lookup and the key iteration
+ * don't parse any value.
+ * <p>
+ * Like the other ZNRecord fields, the map is not thread safe for the modifications. But the
+ * concurrent reads are safe, since parsing a value doesn't change the map.
+ */
+public class LazyFieldMap<V> extends AbstractMap<String, V> {
+  interface FieldParser<V> {
+    V parse(int offset);
+  }
+
+  private static final class LazyValue<V> {
+    private final int _offset;
+    private volatile V _value;
+
+    LazyValue(int offset) {
+      _offset = offset;
+    }
+  }
+
+  private final Map<String, Object> _fields;
+  private final FieldParser<V> _parser;
+  private Set<Entry<String, V>> _entrySet;
+
+  LazyFieldMap(int expectedSize, FieldParser<V> parser) {
+    _fields = new LinkedHashMap<>((int) (expectedSize / 0.75f) + 1);
+    _parser = parser;
+  }
+
+  /**
+   * Add a field that will be parsed from the given offset on the first access.
+   */
+  void putLazy(String key, int offset) {
+    _fields.put(key, new LazyValue<V>(offset));
+  }
+
+  /**
+   * Copy the map without parsing the fields. Like a copy of a plain map, the copy shares the
+   * values, including the ones parsed later, with this map.
+   */
+  public LazyFieldMap<V> copy() {
+    LazyFieldMap<V> copy = new LazyFieldMap<>(_fields.size(), _parser);
+    copy._fields.putAll(_fields);
+    return copy;
+  }
+
+  /**
+   * @return true if the field has been parsed or set.
+   */
+  public boolean isMaterialized(String key) {
+    Object value = _fields.get(key);
+    return !(value instanceof LazyValue) || ((LazyValue) value)._value != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V materialize(Object value) {
+    if (!(value instanceof LazyValue)) {
+      return (V) value;
+    }
+    LazyValue<V> lazyValue = (LazyValue<V>) value;
+    V parsed = lazyValue._value;
+    if (parsed == null) {
+      // Parsing is idempotent, so the racing readers may parse the same field without locking.
+      parsed = _parser.parse(lazyValue._offset);
+      lazyValue._value = parsed;
+    }
+    return parsed;
+  }
+
+  @Override
+  public int size() {
+    return _fields.size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return _fields.containsKey(key);
+  }
+
+  @Override
+  public V get(Object key) {
+    return materialize(_fields.get(key));
+  }
+
+  @Override
+  public V put(String key, V value) {
+    return materialize(_fields.put(key, value));
+  }
+
+  @Override
+  public V remove(Object key) {
+    return materialize(_fields.remove(key));
+  }
+
+  @Override
+  public void clear() {
+    _fields.clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return _fields.keySet();
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    if (_entrySet == null) {
+      _entrySet = new AbstractSet<Entry<String, V>>() {
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+          final Iterator<Entry<String, Object>> iter = _fields.entrySet().iterator();
+          return new Iterator<Entry<String, V>>() {
+            @Override
+            public boolean hasNext() {
+              return iter.hasNext();
+            }
+
+            @Override
+            public Entry<String, V> next() {
+              final Entry<String, Object> entry = iter.next();
+              // The value is parsed when it is read from the entry.
+              return new Entry<String, V>() {
+                @Override
+                public String getKey() {
+                  return entry.getKey();
+                }
+
+                @Override
+                public V getValue() {
+                  return materialize(entry.getValue());
+                }
+
+                @Override
+                public V setValue(V value) {
+                  return materialize(entry.setValue(value));
+                }
+
+                @Override
+                public boolean equals(Object o) {
+                  if (!(o instanceof Entry)) {
+                    return false;
+                  }
+                  Entry<?, ?> that = (Entry<?, ?>) o;
+                  return Objects.equals(getKey(), that.getKey())
+                      && Objects.equals(getValue(), that.getValue());
+                }
+
+                @Override
+                public int hashCode() {
+                  return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+                }
+              };
+            }
+
+            @Override
+            public void remove() {
+              iter.remove();
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return _fields.size();
+        }
+
+        @Override
+        public void clear() {
+          _fields.clear();
+        }
+      };
+    }
+    return _entrySet;
+  }
+}
@@ -0,0 +1,166 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+
+/**
+ * A thread local pool of the growable byte buffers that the serializers write to. Since a buffer
+ * is reused by the following serializations in the same thread, it is only allocated and grown
+ * when the data is larger than any data that has been serialized in the thread.
+ */
+public class SerializationBufferPool {
+  static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+  // The buffers larger than this size are dropped after use, so a few large records won't keep
+  // the memory of every thread.
+  static final int MAX_RETAINED_BUFFER_SIZE = 2 * ZNRecord.SIZE_LIMIT;
+  // A serialization uses up to 2 buffers, one for the serialized data and one for the compressed
+  // data.
+  private static final int MAX_POOLED_BUFFERS_PER_THREAD = 2;
+
+  private static final ThreadLocal<Deque<Buffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+  private static final LongAdder ACQUIRE_COUNTER = new LongAdder();
+  private static final LongAdder REUSE_COUNTER = new LongAdder();
+  private static final LongAdder ALLOCATED_BYTES_COUNTER = new LongAdder();
+
+  private SerializationBufferPool() {
+  }
+
+  /**
+   * Get an empty buffer of the current thread. The buffer must be released after use, and must
+   * not be shared with the other threads.
+   */
+  public static Buffer acquire() {
+    ACQUIRE_COUNTER.increment();
+    Buffer buffer = POOL.get().poll();
+    if (buffer == null) {
+      return new Buffer(INITIAL_BUFFER_SIZE);
+    }
+    REUSE_COUNTER.increment();
+    return buffer;
+  }
+
+  /**
+   * Return the buffer to the pool of the current thread.
+   */
+  public static void release(Buffer buffer) {
+    buffer.reset();
+    Deque<Buffer> pool = POOL.get();
+    if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE
+        && pool.size() < MAX_POOLED_BUFFERS_PER_THREAD) {
+      pool.push(buffer);
+    }
+  }
+
+  /**
+   * @return the total number of the acquired buffers.
+   */
+  public static long getAcquireCount() {
+    return ACQUIRE_COUNTER.sum();
+  }
+
+  /**
+   * @return the number of the acquired buffers that were reused from the pool.
+   */
+  public static long getReuseCount() {
+    return REUSE_COUNTER.sum();
+  }
+
+  /**
+   * @return the total bytes of the buffers that were allocated, including the growth.
+   */
+  public static long getAllocatedBytes() {
+    return ALLOCATED_BYTES_COUNTER.sum();
+  }
+
+  /**
+   * A growable byte buffer. Unlike {@link java.io.ByteArrayOutputStream}, the methods are not
+   * synchronized, and the underlying array can be accessed directly to avoid copying.
+   */
+  public static class Buffer extends OutputStream {
+    private byte[] _bytes;
+    private int _size;
+
+    private Buffer(int capacity) {
+      _bytes = new byte[capacity];
+      ALLOCATED_BYTES_COUNTER.add(capacity);
+    }
+
+    /**
+     * Make sure the buffer has at least the given capacity.
+     */
+    public void ensureCapacity(int capacity) {
+      if (capacity > _bytes.length) {
+        int newCapacity = Math.max(capacity, _bytes.length << 1);
+        if (newCapacity < 0) {
+          // Overflow
+          newCapacity = capacity;
+        }
+        _bytes = Arrays.copyOf(_bytes, newCapacity);
+        ALLOCATED_BYTES_COUNTER.add(newCapacity);
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(_size + 1);
+      _bytes[_size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(_size + len);
+      System.arraycopy(b, off, _bytes, _size, len);
+      _size += len;
+    }
+
+    /**
+     * @return the underlying array, which is only valid until the buffer is written or released.
+     */
+    public byte[] getBytes() {
+      return _bytes;
+    }
+
+    public int size() {
+      return _size;
+    }
+
+    public int capacity() {
+      return _bytes.length;
+    }
+
+    public void reset() {
+      _size = 0;
+    }
+
+    /**
+     * @return a copy of the written bytes.
+     */
+    public byte[] toByteArray() {
+      return Arrays.copyOf(_bytes, _size);
+    }
+  }
+}
@@ -0,0 +1,307 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+
+/**
+ * The compact binary layout of a ZNRecord. Every distinct string of the record, such as the
+ * partition, instance and state names that are repeated in the list and map fields, is written
+ * once into a dictionary at the head of the data, and is referenced by its index after that.
+ * All the integers are unsigned varints.
+ *
+ * <pre>
+ * header:     0xFE 'B' version
+ * dictionary: count, (UTF-8 length, UTF-8 bytes) * count
+ * record:     id ref
+ *             simple field count, (key ref, value ref) * count
+ *             list field count, (key ref, size, value ref * size) * count
+ *             map field count, (key ref, size, (key ref, value ref) * size) * count
+ *             raw payload length, raw payload bytes
+ * </pre>
+ * A string ref is 0 for null, or the dictionary index + 1.
+ * <p>
+ * On read, the list and map fields are only indexed by their offsets in the raw data, and each
+ * field is parsed on the first access. See {@link LazyFieldMap}.
+ */
+final class ZNRecordBinaryFormat {
+  private static final byte MAGIC_0 = (byte) 0xFE;
+  private static final byte MAGIC_1 = 'B';
+  private static final byte VERSION = 1;
+  private static final int HEADER_LENGTH = 3;
+
+  private ZNRecordBinaryFormat() {
+  }
+
+  /**
+   * @return true if the data is a ZNRecord in the binary layout. The JSON data starts with '{',
+   * and the compressed data starts with the gzip magic or the codec header, so they are never
+   * mistaken for the binary layout.
+   */
+  static boolean isBinaryFormat(byte[] bytes) {
+    return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0
+        && bytes[1] == MAGIC_1;
+  }
+
+  static void write(ZNRecord record, OutputStream out) throws IOException {
+    // Collect the strings first, so the dictionary can be written before the references.
+    Map<String, Integer> dictionary = new LinkedHashMap<>();
+    addString(dictionary, record.getId());
+    for (Map.Entry<String, String> entry : record.getSimpleFields().entrySet()) {
+      addString(dictionary, entry.getKey());
+      addString(dictionary, entry.getValue());
+    }
+    for (Map.Entry<String, List<String>> entry : record.getListFields().entrySet()) {
+      addString(dictionary, entry.getKey());
+      for (String value : entry.getValue()) {
+        addString(dictionary, value);
+      }
+    }
+    for (Map.Entry<String, Map<String, String>> entry : record.getMapFields().entrySet()) {
+      addString(dictionary, entry.getKey());
+      for (Map.Entry<String, String> mapEntry : entry.getValue().entrySet()) {
+        addString(dictionary, mapEntry.getKey());
+        addString(dictionary, mapEntry.getValue());
+      }
+    }
+
+    out.write(MAGIC_0);
+    out.write(MAGIC_1);
+    out.write(VERSION);
+    writeVarInt(out, dictionary.size());
+    for (String str : dictionary.keySet()) {
+      byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+    }
+
+    writeRef(out, dictionary, record.getId());
+    writeVarInt(out, record.getSimpleFields().size());
+    for (Map.Entry<String, String> entry : record.getSimpleFields().entrySet()) {
+      writeRef(out, dictionary, entry.getKey());
+      writeRef(out, dictionary, entry.getValue());
+    }
+    writeVarInt(out, record.getListFields().size());
+    for (Map.Entry<String, List<String>> entry : record.getListFields().entrySet()) {
+      writeRef(out, dictionary, entry.getKey());
+      writeVarInt(out, entry.getValue().size());
+      for (String value : entry.getValue()) {
+        writeRef(out, dictionary, value);
+      }
+    }
+    writeVarInt(out, record.getMapFields().size());
+    for (Map.Entry<String, Map<String, String>> entry : record.getMapFields().entrySet()) {
+      writeRef(out, dictionary, entry.getKey());
+      writeVarInt(out, entry.getValue().size());
+      for (Map.Entry<String, String> mapEntry : entry.getValue().entrySet()) {
+        writeRef(out, dictionary, mapEntry.getKey());
+        writeRef(out, dictionary, mapEntry.getValue());
+      }
+    }
+    byte[] rawPayload = record.getRawPayload();
+    if (rawPayload == null) {
+      writeVarInt(out, 0);
+    } else {
+      writeVarInt(out, rawPayload.length);
+      out.write(rawPayload);
+    }
+  }
+
+  static ZNRecord read(byte[] bytes) {
+    if (!isBinaryFormat(bytes)) {
+      throw new IllegalArgumentException("The data is not in the ZNRecord binary format.");
+    }
+    if (bytes[2] != VERSION) {
+      throw new IllegalArgumentException(
+          "Unsupported ZNRecord binary format version: " + bytes[2]);
+    }
+    Reader reader = new Reader(bytes, HEADER_LENGTH);
+    // Every string is decoded once, and the decoded instance is shared by all its references.
+    String[] dictionary = new String[reader.readLength()];
+    for (int i = 0; i < dictionary.length; i++) {
+      int length = reader.readLength();
+      dictionary[i] = new String(bytes, reader.take(length), length, StandardCharsets.UTF_8);
+    }
+
+    String id = reader.readRef(dictionary);
+    if (id == null) {
+      throw new IllegalStateException("ZNRecord id field is required!");
+    }
+    ZNRecord record = new ZNRecord(id);
+
+    int simpleFieldCount = reader.readLength();
+    Map<String, String> simpleFields = new HashMap<>(mapCapacity(simpleFieldCount));
+    for (int i = 0; i < simpleFieldCount; i++) {
+      simpleFields.put(reader.readRef(dictionary), reader.readRef(dictionary));
+    }
+    // Index the list and map fields, which are parsed on the first access. Indexing validates
+    // the data, so parsing a field later cannot fail.
+    int listFieldCount = reader.readLength();
+    LazyFieldMap<List<String>> listFields =
+        new LazyFieldMap<>(listFieldCount, offset -> readListField(bytes, dictionary, offset));
+    for (int i = 0; i < listFieldCount; i++) {
+      listFields.putLazy(reader.readRef(dictionary), reader.position());
+      int size = reader.readLength();
+      for (int j = 0; j < size; j++) {
+        reader.readRef(dictionary);
+      }
+    }
+    int mapFieldCount = reader.readLength();
+    LazyFieldMap<Map<String, String>> mapFields =
+        new LazyFieldMap<>(mapFieldCount, offset -> readMapField(bytes, dictionary, offset));
+    for (int i = 0; i < mapFieldCount; i++) {
+      mapFields.putLazy(reader.readRef(dictionary), reader.position());
+      int size = reader.readLength();
+      for (int j = 0; j < size * 2; j++) {
+        reader.readRef(dictionary);
+      }
+    }
+    int rawPayloadLength = reader.readLength();
+    byte[] rawPayload = null;
+    if (rawPayloadLength > 0) {
+      int offset = reader.take(rawPayloadLength);
+      rawPayload = new byte[rawPayloadLength];
+      System.arraycopy(bytes, offset, rawPayload, 0, rawPayloadLength);
+    }
+
+    record.setSimpleFields(simpleFields);
+    record.setListFields(listFields);
+    record.setMapFields(mapFields);
+    record.setRawPayload(rawPayload);
+    return record;
+  }
+
+  private static List<String> readListField(byte[] bytes, String[] dictionary, int offset) {
+    Reader reader = new Reader(bytes, offset);
+    int size = reader.readLength();
+    List<String> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(reader.readRef(dictionary));
+    }
+    return list;
+  }
+
+  private static Map<String, String> readMapField(byte[] bytes, String[] dictionary, int offset) {
+    Reader reader = new Reader(bytes, offset);
+    int size = reader.readLength();
+    Map<String, String> map = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(reader.readRef(dictionary), reader.readRef(dictionary));
+    }
+    return map;
+  }
+
+  private static void addString(Map<String, Integer> dictionary, String str) {
+    if (str != null) {
+      dictionary.putIfAbsent(str, dictionary.size());
+    }
+  }
+
+  private static void writeRef(OutputStream out, Map<String, Integer> dictionary, String str)
+      throws IOException {
+    writeVarInt(out, str == null ? 0 : dictionary.get(str) + 1);
+  }
+
+  private static void writeVarInt(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  private static int mapCapacity(int size) {
+    return (int) (size / 0.75f) + 1;
+  }
+
+  private static class Reader {
+    private final byte[] _bytes;
+    private int _position;
+
+    Reader(byte[] bytes, int position) {
+      _bytes = bytes;
+      _position = position;
+    }
+
+    int readVarInt() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        if (_position >= _bytes.length) {
+          throw new IllegalStateException("Unexpected end of the ZNRecord binary data.");
+        }
+        byte b = _bytes[_position++];
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("Malformed varint in the ZNRecord binary data.");
+    }
+
+    /**
+     * Read a length or a count, which must be covered by the remaining data. So the malformed
+     * data cannot trigger a huge allocation.
+     */
+    int readLength() {
+      int length = readVarInt();
+      if (length < 0 || length > _bytes.length - _position) {
+        throw new IllegalStateException("Invalid length " + length + " at position " + _position
+            + " of the ZNRecord binary data.");
+      }
+      return length;
+    }
+
+    String readRef(String[] dictionary) {
+      int ref = readVarInt();
+      if (ref < 0 || ref > dictionary.length) {
+        throw new IllegalStateException("Invalid string reference " + ref
+            + " in the ZNRecord binary data.");
+      }
+      return ref == 0 ? null : dictionary[ref - 1];
+    }
+
+    /**
+     * @return the offset of the next byte to read
+     */
+    int position() {
+      return _position;
+    }
+
+    /**
+     * Skip the given number of bytes.
+     * @return the offset of the skipped bytes
+     */
+    int take(int length) {
+      int offset = _position;
+      _position += length;
+      return offset;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+
+/**
+ * The serializer that writes the ZNRecords in a compact binary layout with a per-record string
+ * dictionary, instead of JSON. The partition, instance and state names, which are repeated many
+ * times in a large ExternalView or CurrentState, are only written once, so the data is much
+ * smaller and faster to parse.
+ * <p>
+ * The reader auto-detects the layout, so this serializer reads the JSON data, and
+ * {@link ZNRecordSerializer} and {@link ZNRecordStreamingSerializer} read the binary data.
+ * The compression and the write size limit apply in the same way as the JSON serializers.
+ * <p>
+ * The list and map fields of a deserialized record are parsed on the first access, so the readers
+ * that only need a few fields of a large record, and the caches that hold the records, don't pay
+ * for the fields that are never accessed.
+ * <p>
+ * Note the binary data cannot be read by the older Helix versions, so only enable it after all
+ * the readers are upgraded.
+ */
+public class ZNRecordBinarySerializer extends ZNRecordPooledStreamingSerializer {
+
+  /**
+   * @return true if the data, which is not compressed, is a ZNRecord in the binary layout.
+   */
+  public static boolean isBinaryFormat(byte[] bytes) {
+    return ZNRecordBinaryFormat.isBinaryFormat(bytes);
+  }
+
+  @Override
+  protected void writeRecord(ZNRecord record, OutputStream outputStream) throws IOException {
+    ZNRecordBinaryFormat.write(record, outputStream);
+    outputStream.close();
+  }
+}
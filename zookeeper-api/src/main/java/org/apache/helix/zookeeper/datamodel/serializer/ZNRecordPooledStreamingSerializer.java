@@ -0,0 +1,81 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+
+import org.apache.helix.zookeeper.compression.CompressionCodec;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.util.ZNRecordUtil;
+import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The streaming serializer that writes the ZNRecord fields into the thread local buffers of the
+ * {@link SerializationBufferPool}, and compresses the data from one pooled buffer to another with
+ * the thread local state of the codecs. So besides the returned byte array, a serialization only
+ * allocates the small objects of the JSON generator, which is useful when the records are
+ * serialized at a high rate, e.g. the current states during a rolling bounce.
+ * The output is the same as {@link ZNRecordStreamingSerializer}.
+ */
+public class ZNRecordPooledStreamingSerializer extends ZNRecordStreamingSerializer {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(ZNRecordPooledStreamingSerializer.class);
+
+  @Override
+  public byte[] serialize(Object data) throws ZkMarshallingError {
+    ZNRecord record = validateAndApplyListFieldBound(data);
+    byte[] serializedBytes;
+    boolean isCompressed = false;
+
+    SerializationBufferPool.Buffer buffer = SerializationBufferPool.acquire();
+    SerializationBufferPool.Buffer compressBuffer = null;
+    try {
+      writeRecord(record, buffer);
+      // apply compression if needed
+      if (ZNRecordUtil.shouldCompress(record, buffer.size())) {
+        CompressionCodec codec = ZNRecordUtil.getCompressionCodec(record);
+        compressBuffer = SerializationBufferPool.acquire();
+        compressBuffer
+            .ensureCapacity(CompressionCodecs.maxCompressedLength(buffer.size(), codec));
+        int compressedLength = CompressionCodecs
+            .compress(buffer.getBytes(), 0, buffer.size(), codec, compressBuffer.getBytes(), 0);
+        serializedBytes = Arrays.copyOf(compressBuffer.getBytes(), compressedLength);
+        isCompressed = true;
+      } else {
+        serializedBytes = buffer.toByteArray();
+      }
+    } catch (Exception e) {
+      LOG.error(
+          "Exception during data serialization. ZNRecord ID: {} will not be written to zk.",
+          record.getId(), e);
+      throw new ZkMarshallingError(e);
+    } finally {
+      SerializationBufferPool.release(buffer);
+      if (compressBuffer != null) {
+        SerializationBufferPool.release(compressBuffer);
+      }
+    }
+    checkWriteSizeLimit(record, serializedBytes.length, isCompressed);
+    return serializedBytes;
+  }
+}
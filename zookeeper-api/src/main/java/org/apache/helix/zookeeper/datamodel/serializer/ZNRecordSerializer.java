@@ -28,9 +28,9 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.helix.zookeeper.introspect.CodehausJacksonIntrospector;
-import org.apache.helix.zookeeper.util.GZipCompressionUtil;
 import org.apache.helix.zookeeper.util.ZNRecordUtil;
 import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
 import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
@@ -94,7 +94,8 @@ public class ZNRecordSerializer implements ZkSerializer {
       serializedBytes = baos.toByteArray();
       // apply compression if needed
       if (ZNRecordUtil.shouldCompress(record, serializedBytes.length)) {
-        serializedBytes = GZipCompressionUtil.compress(serializedBytes);
+        serializedBytes = CompressionCodecs
+            .compress(serializedBytes, ZNRecordUtil.getCompressionCodec(record));
         isCompressed = true;
       }
     } catch (Exception e) {
@@ -131,10 +132,14 @@ public class ZNRecordSerializer implements ZkSerializer {
     mapper.enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     try {
       //decompress the data if its already compressed
-      if (GZipCompressionUtil.isCompressed(bytes)) {
-        byte[] uncompressedBytes = GZipCompressionUtil.uncompress(bais);
+      byte[] uncompressedBytes = bytes;
+      if (CompressionCodecs.isCompressed(bytes)) {
+        uncompressedBytes = CompressionCodecs.uncompress(bytes);
         bais = new ByteArrayInputStream(uncompressedBytes);
       }
+      if (ZNRecordBinaryFormat.isBinaryFormat(uncompressedBytes)) {
+        return ZNRecordBinaryFormat.read(uncompressedBytes);
+      }
 
       return mapper.readValue(bais, ZNRecord.class);
     } catch (Exception e) {
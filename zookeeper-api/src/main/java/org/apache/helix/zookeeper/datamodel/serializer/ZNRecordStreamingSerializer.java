@@ -21,6 +21,8 @@ package org.apache.helix.zookeeper.datamodel.serializer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -28,8 +30,8 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
-import org.apache.helix.zookeeper.util.GZipCompressionUtil;
 import org.apache.helix.zookeeper.util.ZNRecordUtil;
 import org.apache.helix.zookeeper.zkclient.exception.ZkMarshallingError;
 import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
@@ -43,6 +45,8 @@ import org.slf4j.LoggerFactory;
 
 public class ZNRecordStreamingSerializer implements ZkSerializer {
   private static final Logger LOG = LoggerFactory.getLogger(ZNRecordStreamingSerializer.class);
+  // The factory is thread safe, and it recycles the internal buffers of the generators and parsers.
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
   private static int getListFieldBound(ZNRecord record) {
     int max = Integer.MAX_VALUE;
@@ -59,6 +63,36 @@ public class ZNRecordStreamingSerializer implements ZkSerializer {
 
   @Override
   public byte[] serialize(Object data) throws ZkMarshallingError {
+    ZNRecord record = validateAndApplyListFieldBound(data);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] serializedBytes;
+    boolean isCompressed = false;
+
+    try {
+      writeRecord(record, baos);
+      serializedBytes = baos.toByteArray();
+      // apply compression if needed
+      if (ZNRecordUtil.shouldCompress(record, serializedBytes.length)) {
+        serializedBytes = CompressionCodecs
+            .compress(serializedBytes, ZNRecordUtil.getCompressionCodec(record));
+        isCompressed = true;
+      }
+    } catch (Exception e) {
+      LOG.error(
+          "Exception during data serialization. ZNRecord ID: {} will not be written to zk.",
+          record.getId(), e);
+      throw new ZkMarshallingError(e);
+    }
+    checkWriteSizeLimit(record, serializedBytes.length, isCompressed);
+    return serializedBytes;
+  }
+
+  /**
+   * Check the type of the data and apply the retention policy on the list fields.
+   * @param data the data to be serialized
+   * @return the ZNRecord to be serialized
+   */
+  protected ZNRecord validateAndApplyListFieldBound(Object data) {
     if (!(data instanceof ZNRecord)) {
       // null is NOT an instance of any class
       LOG.error("Input object must be of type ZNRecord but it is " + data
@@ -78,106 +112,101 @@ public class ZNRecordStreamingSerializer implements ZkSerializer {
         }
       }
     }
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    byte[] serializedBytes;
-    boolean isCompressed = false;
-
-    try {
-      JsonFactory f = new JsonFactory();
-      JsonGenerator g = f.createJsonGenerator(baos);
-
-      g.writeStartObject();
-
-      // write id field
-      g.writeRaw("\n  ");
-      g.writeStringField("id", record.getId());
+    return record;
+  }
 
-      // write simepleFields
-      g.writeRaw("\n  ");
-      g.writeObjectFieldStart("simpleFields");
-      for (String key : record.getSimpleFields().keySet()) {
-        g.writeRaw("\n    ");
-        g.writeStringField(key, record.getSimpleField(key));
+  /**
+   * Stream the fields of the record into the output as JSON.
+   * @param record the record to be written
+   * @param outputStream the output, which is closed when the record is written
+   * @throws IOException
+   */
+  protected void writeRecord(ZNRecord record, OutputStream outputStream) throws IOException {
+    JsonGenerator g = JSON_FACTORY.createJsonGenerator(outputStream);
+
+    g.writeStartObject();
+
+    // write id field
+    g.writeRaw("\n  ");
+    g.writeStringField("id", record.getId());
+
+    // write simepleFields
+    g.writeRaw("\n  ");
+    g.writeObjectFieldStart("simpleFields");
+    for (String key : record.getSimpleFields().keySet()) {
+      g.writeRaw("\n    ");
+      g.writeStringField(key, record.getSimpleField(key));
+    }
+    g.writeRaw("\n  ");
+    g.writeEndObject(); // for simpleFields
+
+    // write listFields
+    g.writeRaw("\n  ");
+    g.writeObjectFieldStart("listFields");
+    for (String key : record.getListFields().keySet()) {
+      // g.writeStringField(key, record.getListField(key).toString());
+
+      // g.writeObjectFieldStart(key);
+      g.writeRaw("\n    ");
+      g.writeArrayFieldStart(key);
+      List<String> list = record.getListField(key);
+      for (String listValue : list) {
+        g.writeString(listValue);
       }
-      g.writeRaw("\n  ");
-      g.writeEndObject(); // for simpleFields
-
-      // write listFields
-      g.writeRaw("\n  ");
-      g.writeObjectFieldStart("listFields");
-      for (String key : record.getListFields().keySet()) {
-        // g.writeStringField(key, record.getListField(key).toString());
-
-        // g.writeObjectFieldStart(key);
-        g.writeRaw("\n    ");
-        g.writeArrayFieldStart(key);
-        List<String> list = record.getListField(key);
-        for (String listValue : list) {
-          g.writeString(listValue);
-        }
-        // g.writeEndObject();
-        g.writeEndArray();
+      // g.writeEndObject();
+      g.writeEndArray();
 
+    }
+    g.writeRaw("\n  ");
+    g.writeEndObject(); // for listFields
+
+    // write mapFields
+    g.writeRaw("\n  ");
+    g.writeObjectFieldStart("mapFields");
+    for (String key : record.getMapFields().keySet()) {
+      // g.writeStringField(key, record.getMapField(key).toString());
+      g.writeRaw("\n    ");
+      g.writeObjectFieldStart(key);
+      Map<String, String> map = record.getMapField(key);
+      for (String mapKey : map.keySet()) {
+        g.writeRaw("\n      ");
+        g.writeStringField(mapKey, map.get(mapKey));
       }
-      g.writeRaw("\n  ");
-      g.writeEndObject(); // for listFields
+      g.writeRaw("\n    ");
+      g.writeEndObject();
 
-      // write mapFields
-      g.writeRaw("\n  ");
-      g.writeObjectFieldStart("mapFields");
-      for (String key : record.getMapFields().keySet()) {
-        // g.writeStringField(key, record.getMapField(key).toString());
-        g.writeRaw("\n    ");
-        g.writeObjectFieldStart(key);
-        Map<String, String> map = record.getMapField(key);
-        for (String mapKey : map.keySet()) {
-          g.writeRaw("\n      ");
-          g.writeStringField(mapKey, map.get(mapKey));
-        }
-        g.writeRaw("\n    ");
-        g.writeEndObject();
+    }
+    g.writeRaw("\n  ");
+    g.writeEndObject(); // for mapFields
 
-      }
+    byte[] rawPayload = record.getRawPayload();
+    if (rawPayload != null && rawPayload.length > 0) {
+      // write rawPayload
       g.writeRaw("\n  ");
-      g.writeEndObject(); // for mapFields
+      g.writeStringField("rawPayload", new String(Base64.encodeBase64(rawPayload), "UTF-8"));
+    }
 
-      byte[] rawPayload = record.getRawPayload();
-      if (rawPayload != null && rawPayload.length > 0) {
-        // write rawPayload
-        g.writeRaw("\n  ");
-        g.writeStringField("rawPayload", new String(Base64.encodeBase64(rawPayload), "UTF-8"));
-      }
+    g.writeRaw("\n");
+    g.writeEndObject(); // for whole znrecord
 
-      g.writeRaw("\n");
-      g.writeEndObject(); // for whole znrecord
+    // important: will force flushing of output, close underlying output
+    // stream
+    g.close();
+  }
 
-      // important: will force flushing of output, close underlying output
-      // stream
-      g.close();
-      serializedBytes = baos.toByteArray();
-      // apply compression if needed
-      if (ZNRecordUtil.shouldCompress(record, serializedBytes.length)) {
-        serializedBytes = GZipCompressionUtil.compress(serializedBytes);
-        isCompressed = true;
-      }
-    } catch (Exception e) {
-      LOG.error(
-          "Exception during data serialization. ZNRecord ID: {} will not be written to zk.",
-          record.getId(), e);
-      throw new ZkMarshallingError(e);
-    }
-    // check size
+  /**
+   * @throws ZkMarshallingError if the size of the serialized data exceeds the write size limit.
+   */
+  protected void checkWriteSizeLimit(ZNRecord record, int serializedLength, boolean isCompressed) {
     int writeSizeLimit = ZNRecordUtil.getSerializerWriteSizeLimit();
-    if (serializedBytes.length > writeSizeLimit) {
+    if (serializedLength > writeSizeLimit) {
       LOG.error("Data size: {} is greater than {} bytes, is compressed: {}, ZNRecord.id: {}."
-              + " Data will not be written to Zookeeper.", serializedBytes.length, writeSizeLimit,
+              + " Data will not be written to Zookeeper.", serializedLength, writeSizeLimit,
           isCompressed, record.getId());
       throw new ZkMarshallingError(
-          "Data size: " + serializedBytes.length + " is greater than " + writeSizeLimit
+          "Data size: " + serializedLength + " is greater than " + writeSizeLimit
               + " bytes, is compressed: " + isCompressed + ", ZNRecord.id: " + record.getId());
     }
-
-    return serializedBytes;
   }
 
   @Override
@@ -198,12 +227,15 @@ public class ZNRecordStreamingSerializer implements ZkSerializer {
 
     try {
       // decompress the data if its already compressed
-      if (GZipCompressionUtil.isCompressed(bytes)) {
-        byte[] uncompressedBytes = GZipCompressionUtil.uncompress(bais);
+      byte[] uncompressedBytes = bytes;
+      if (CompressionCodecs.isCompressed(bytes)) {
+        uncompressedBytes = CompressionCodecs.uncompress(bytes);
         bais = new ByteArrayInputStream(uncompressedBytes);
       }
-      JsonFactory f = new JsonFactory();
-      JsonParser jp = f.createJsonParser(bais);
+      if (ZNRecordBinaryFormat.isBinaryFormat(uncompressedBytes)) {
+        return ZNRecordBinaryFormat.read(uncompressedBytes);
+      }
+      JsonParser jp = JSON_FACTORY.createJsonParser(bais);
 
       jp.nextToken(); // will return JsonToken.START_OBJECT (verify?)
       while (jp.nextToken() != JsonToken.END_OBJECT) {
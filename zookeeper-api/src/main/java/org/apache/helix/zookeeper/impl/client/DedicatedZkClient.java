@@ -386,6 +386,12 @@ public class DedicatedZkClient implements RealmAwareZkClient {
     _rawZkClient.asyncGetData(path, cb);
   }
 
+  @Override
+  public void asyncGetChildren(String path, ZkAsyncCallbacks.GetChildrenCallbackHandler cb) {
+    checkIfPathContainsShardingKey(path);
+    _rawZkClient.asyncGetChildren(path, cb);
+  }
+
   @Override
   public void asyncExists(String path, ZkAsyncCallbacks.ExistsCallbackHandler cb) {
     checkIfPathContainsShardingKey(path);
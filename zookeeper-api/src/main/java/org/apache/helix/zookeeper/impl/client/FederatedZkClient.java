@@ -376,6 +376,11 @@ public class FederatedZkClient implements RealmAwareZkClient {
     getZkClient(path).asyncGetData(path, cb);
   }
 
+  @Override
+  public void asyncGetChildren(String path, ZkAsyncCallbacks.GetChildrenCallbackHandler cb) {
+    getZkClient(path).asyncGetChildren(path, cb);
+  }
+
   @Override
   public void asyncExists(String path, ZkAsyncCallbacks.ExistsCallbackHandler cb) {
     getZkClient(path).asyncExists(path, cb);
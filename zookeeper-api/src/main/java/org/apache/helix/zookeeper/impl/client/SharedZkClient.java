@@ -422,6 +422,12 @@ public class SharedZkClient implements RealmAwareZkClient {
     _innerSharedZkClient.asyncGetData(path, cb);
   }
 
+  @Override
+  public void asyncGetChildren(String path, ZkAsyncCallbacks.GetChildrenCallbackHandler cb) {
+    checkIfPathContainsShardingKey(path);
+    _innerSharedZkClient.asyncGetChildren(path, cb);
+  }
+
   @Override
   public void asyncExists(String path, ZkAsyncCallbacks.ExistsCallbackHandler cb) {
     checkIfPathContainsShardingKey(path);
@@ -22,11 +22,18 @@ package org.apache.helix.zookeeper.util;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 
 public class GZipCompressionUtil {
+  private static final int BUFFER_SIZE = 8 * 1024;
+  // The GZIP trailer contains the CRC32 and the uncompressed size, 4 bytes each.
+  private static final int TRAILER_LENGTH = 8;
+  // The max compression ratio of deflate, which bounds a valid uncompressed size.
+  private static final int MAX_COMPRESSION_RATIO = 1032;
+
   /**
    * Compresses a byte array by applying GZIP compression
    * @param buffer
@@ -34,9 +41,11 @@ public class GZipCompressionUtil {
    * @throws IOException
    */
   public static byte[] compress(byte[] buffer) throws IOException {
-    ByteArrayOutputStream gzipByteArrayOutputStream = new ByteArrayOutputStream();
-    GZIPOutputStream gzipOutputStream = null;
-    gzipOutputStream = new GZIPOutputStream(gzipByteArrayOutputStream);
+    // Usually the serialized ZNRecords are compressed to less than 1/4 of the original size.
+    ByteArrayOutputStream gzipByteArrayOutputStream =
+        new ByteArrayOutputStream(Math.max(buffer.length / 4, 64));
+    GZIPOutputStream gzipOutputStream =
+        new GZIPOutputStream(gzipByteArrayOutputStream, BUFFER_SIZE);
     gzipOutputStream.write(buffer, 0, buffer.length);
     gzipOutputStream.close();
     byte[] compressedBytes = gzipByteArrayOutputStream.toByteArray();
@@ -44,8 +53,8 @@ public class GZipCompressionUtil {
   }
 
   public static byte[] uncompress(ByteArrayInputStream bais) throws IOException {
-    GZIPInputStream gzipInputStream = new GZIPInputStream(bais);
-    byte[] buffer = new byte[1024];
+    GZIPInputStream gzipInputStream = new GZIPInputStream(bais, BUFFER_SIZE);
+    byte[] buffer = new byte[BUFFER_SIZE];
     int length;
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     while ((length = gzipInputStream.read(buffer)) != -1) {
@@ -57,6 +66,52 @@ public class GZipCompressionUtil {
     return uncompressedBytes;
   }
 
+  /**
+   * Uncompresses the GZIP data into an output buffer that is sized by the uncompressed size in the
+   * GZIP trailer, so the output is not copied while growing.
+   * @param bytes the buffer that contains the GZIP data
+   * @param offset the offset of the GZIP data in the buffer
+   * @param length the length of the GZIP data
+   * @return the uncompressed bytes
+   * @throws IOException
+   */
+  public static byte[] uncompress(byte[] bytes, int offset, int length) throws IOException {
+    // The size in the trailer is the uncompressed size modulo 2^32. Note that the data may contain
+    // multiple GZIP members, so the size is only used as the initial buffer size.
+    int sizeHint = 0;
+    if (length >= TRAILER_LENGTH) {
+      int end = offset + length;
+      sizeHint = (bytes[end - 4] & 0xFF) | ((bytes[end - 3] & 0xFF) << 8)
+          | ((bytes[end - 2] & 0xFF) << 16) | ((bytes[end - 1] & 0xFF) << 24);
+    }
+    if (sizeHint <= 0 || sizeHint > (long) length * MAX_COMPRESSION_RATIO) {
+      sizeHint = BUFFER_SIZE;
+    }
+    byte[] output = new byte[sizeHint];
+    int outputLength = 0;
+    try (GZIPInputStream gzipInputStream = new GZIPInputStream(
+        new ByteArrayInputStream(bytes, offset, length), BUFFER_SIZE)) {
+      int read;
+      while (true) {
+        if (outputLength == output.length) {
+          // Check for the end of the data before growing the buffer.
+          int next = gzipInputStream.read();
+          if (next == -1) {
+            break;
+          }
+          output = Arrays.copyOf(output, output.length * 2);
+          output[outputLength++] = (byte) next;
+        }
+        read = gzipInputStream.read(output, outputLength, output.length - outputLength);
+        if (read == -1) {
+          break;
+        }
+        outputLength += read;
+      }
+    }
+    return outputLength == output.length ? output : Arrays.copyOf(output, outputLength);
+  }
+
   /*
    * Determines if a byte array is compressed. The java.util.zip GZip
    * implementaiton does not expose the GZip header so it is difficult to determine
@@ -19,14 +19,28 @@ package org.apache.helix.zookeeper.util;
  * under the License.
  */
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.helix.zookeeper.compression.CompressionCodec;
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
 import org.apache.helix.zookeeper.constant.ZkSystemPropertyKeys;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * This utility class contains various methods for manipulating ZNRecord.
  */
 public class ZNRecordUtil {
+  private static final Logger LOG = LoggerFactory.getLogger(ZNRecordUtil.class);
+
+  // The codecs of the resolved codec specs, including the gzip fallback of the invalid specs, so
+  // each spec is parsed and warned about once. The specs come from the records, so only a bounded
+  // number of them is cached.
+  private static final int MAX_CACHED_CODEC_SPECS = 1024;
+  private static final Map<String, CompressionCodec> CODECS_BY_SPEC = new ConcurrentHashMap<>();
 
   /**
    * Checks whether or not a serialized ZNRecord bytes should be compressed before being written to
@@ -62,4 +76,53 @@ public class ZNRecordUtil {
 
     return writeSizeLimit;
   }
+
+  /**
+   * Returns the codec to compress the serialized ZNRecord. The codec configured in the record
+   * takes precedence over the system property
+   * {@link ZkSystemPropertyKeys#ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC}. If the configured codec
+   * is invalid, the default gzip codec is used.
+   *
+   * @param record raw ZNRecord before being serialized
+   * @return the compression codec
+   */
+  public static CompressionCodec getCompressionCodec(ZNRecord record) {
+    String codecSpec = record.getSimpleField(ZNRecord.COMPRESSION_CODEC_FIELD);
+    if (codecSpec == null) {
+      codecSpec = getDefaultCompressionCodecSpec();
+    }
+    CompressionCodec codec = CODECS_BY_SPEC.get(codecSpec);
+    if (codec != null) {
+      return codec;
+    }
+
+    String invalidReason = null;
+    try {
+      codec = CompressionCodecs.getCodec(codecSpec);
+    } catch (IllegalArgumentException e) {
+      invalidReason = e.getMessage();
+      codec = CompressionCodecs.GZIP;
+    }
+    boolean firstResolved = CODECS_BY_SPEC.size() < MAX_CACHED_CODEC_SPECS
+        && CODECS_BY_SPEC.putIfAbsent(codecSpec, codec) == null;
+    if (invalidReason != null) {
+      if (firstResolved) {
+        LOG.warn("Invalid compression codec {} for ZNRecord {}, use {} instead. {}", codecSpec,
+            record.getId(), CompressionCodecs.DEFAULT_CODEC_SPEC, invalidReason);
+      } else {
+        LOG.debug("Invalid compression codec {} for ZNRecord {}, use {} instead. {}", codecSpec,
+            record.getId(), CompressionCodecs.DEFAULT_CODEC_SPEC, invalidReason);
+      }
+    }
+    return codec;
+  }
+
+  /**
+   * Returns the default compression codec spec that is configured by the system property
+   * {@link ZkSystemPropertyKeys#ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC}.
+   */
+  public static String getDefaultCompressionCodecSpec() {
+    return System.getProperty(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC,
+        CompressionCodecs.DEFAULT_CODEC_SPEC);
+  }
 }
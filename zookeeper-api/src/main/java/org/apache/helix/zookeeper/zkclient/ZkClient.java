@@ -19,6 +19,7 @@ package org.apache.helix.zookeeper.zkclient;
  * under the License.
  */
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Date;
@@ -96,6 +97,10 @@ public class ZkClient implements Watcher {
   private static final boolean SYNC_ON_SESSION = Boolean.parseBoolean(
       System.getProperty(ZkSystemPropertyKeys.ZK_AUTOSYNC_ENABLED, "true"));
   private static final String SYNC_PATH = "/";
+  private static final int EVENT_THREAD_SHARD_COUNT =
+      Integer.getInteger(ZkSystemPropertyKeys.ZK_EVENT_THREAD_SHARD_COUNT, 0);
+  private static final boolean SERIALIZATION_METRICS_ENABLED =
+      Boolean.getBoolean(ZkSystemPropertyKeys.ZK_SERIALIZATION_METRICS_ENABLED);
 
   private static AtomicLong UID = new AtomicLong(0);
   public final long _uid;
@@ -131,6 +136,9 @@ public class ZkClient implements Watcher {
   private PathBasedZkSerializer _pathBasedZkSerializer;
   private ZkClientMonitor _monitor;
 
+  // Used to measure the bytes allocated by the serialization. Null if the JVM doesn't support it.
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = initThreadMXBean();
+
   // To automatically retry the async operation, we need a separate thread other than the
   // ZkEventThread. Otherwise the retry request might block the normal event processing.
   protected final ZkAsyncRetryThread _asyncCallRetryThread;
@@ -1469,7 +1477,7 @@ public class ZkClient implements Watcher {
       for (final IZkDataListenerEntry listener : listeners) {
         _eventThread.send(new ZkEventThread.ZkEvent(
             "Data of " + path + " changed sent to " + listener.getDataListener()
-                + " prefetch data: " + listener.isPrefetchData()) {
+                + " prefetch data: " + listener.isPrefetchData(), null, path) {
           @Override
           public void run() throws Exception {
             if (!pathStatRecord.pathChecked()) {
@@ -1519,7 +1527,8 @@ public class ZkClient implements Watcher {
     try {
       final ZkPathStatRecord pathStatRecord = new ZkPathStatRecord(path);
       for (final IZkChildListener listener : childListeners) {
-        _eventThread.send(new ZkEventThread.ZkEvent("Children of " + path + " changed sent to " + listener) {
+        _eventThread.send(new ZkEventThread.ZkEvent(
+            "Children of " + path + " changed sent to " + listener, null, path) {
           @Override
           public void run() throws Exception {
             if (!pathStatRecord.pathChecked()) {
@@ -1787,7 +1796,45 @@ public class ZkClient implements Watcher {
   }
 
   public byte[] serialize(Object data, String path) {
-    return _pathBasedZkSerializer.serialize(data, path);
+    if (!SERIALIZATION_METRICS_ENABLED || _monitor == null) {
+      return _pathBasedZkSerializer.serialize(data, path);
+    }
+    long startAllocatedBytes = getCurrentThreadAllocatedBytes();
+    long startTime = System.nanoTime();
+    byte[] bytes = _pathBasedZkSerializer.serialize(data, path);
+    long latency = System.nanoTime() - startTime;
+    long allocatedBytes = startAllocatedBytes < 0 ? -1
+        : getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+    _monitor.recordSerialization(bytes == null ? 0 : bytes.length, allocatedBytes, latency);
+    return bytes;
+  }
+
+  private static com.sun.management.ThreadMXBean initThreadMXBean() {
+    try {
+      java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunThreadMXBean =
+            (com.sun.management.ThreadMXBean) threadMXBean;
+        if (sunThreadMXBean.isThreadAllocatedMemorySupported()
+            && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+          return sunThreadMXBean;
+        }
+      }
+    } catch (Throwable t) {
+      LOG.info("Thread allocated memory measurement is not supported.", t);
+    }
+    return null;
+  }
+
+  /**
+   * @return the bytes allocated by the current thread, or -1 if the JVM does not support the
+   * thread allocation measurement.
+   */
+  private static long getCurrentThreadAllocatedBytes() {
+    if (THREAD_MX_BEAN == null) {
+      return -1;
+    }
+    return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
   }
 
   @SuppressWarnings("unchecked")
@@ -2027,6 +2074,28 @@ public class ZkClient implements Watcher {
     }
   }
 
+  public void asyncGetChildren(final String path,
+      final ZkAsyncCallbacks.GetChildrenCallbackHandler cb) {
+    final long startT = System.currentTimeMillis();
+    try {
+      retryUntilConnected(() -> {
+        ((ZkConnection) getConnection()).getZookeeper().getChildren(path, null, cb,
+            new ZkAsyncRetryCallContext(_asyncCallRetryThread, cb, _monitor, startT, 0, true) {
+              @Override
+              protected void doRetry() {
+                asyncGetChildren(path, cb);
+              }
+            });
+        return null;
+      });
+    } catch (RuntimeException e) {
+      // Process callback to release caller from waiting
+      cb.processResult(KeeperException.Code.APIERROR.intValue(), path,
+          new ZkAsyncCallMonitorContext(_monitor, startT, 0, true), null);
+      throw e;
+    }
+  }
+
   public void asyncExists(final String path, final ZkAsyncCallbacks.ExistsCallbackHandler cb) {
     final long startT = System.currentTimeMillis();
     try {
@@ -2196,7 +2265,7 @@ public class ZkClient implements Watcher {
       setShutdownTrigger(false);
 
       IZkConnection zkConnection = getConnection();
-      _eventThread = new ZkEventThread(zkConnection.getServers());
+      _eventThread = new ZkEventThread(zkConnection.getServers(), EVENT_THREAD_SHARD_COUNT);
 
       if (_monitor != null) {
         boolean result = _monitor.setAndInitZkEventThreadMonitor(_eventThread);
@@ -2279,7 +2348,7 @@ public class ZkClient implements Watcher {
         _asyncCallRetryThread.join(2000);
       }
       _eventThread.interrupt();
-      _eventThread.join(2000);
+      _eventThread.joinAll(2000, TimeUnit.MILLISECONDS);
       if (isManagingZkConnection()) {
         LOG.info("Closing zkclient uid:{}, zk:{}", _uid, ((ZkConnection) connection).getZookeeper());
         connection.close();
@@ -19,9 +19,14 @@ package org.apache.helix.zookeeper.zkclient;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.helix.zookeeper.zkclient.exception.ZkInterruptedException;
 import org.slf4j.Logger;
@@ -35,14 +40,20 @@ import org.slf4j.LoggerFactory;
  * would stop the ZkClient from receiving events from {@link ZooKeeper} as soon as one of the listeners blocks (because
  * it is waiting for something). {@link ZkClient} would then for instance not be able to maintain it's connection state
  * anymore.
+ *
+ * If the event thread is created with shards, the events of a path are delivered by the shard
+ * thread that the path hashes to, so the events of one path are still delivered in order, but a
+ * slow listener does not delay the other shards. The events without a path, which are the state
+ * change and session events, are always delivered by this thread.
  */
 public class ZkEventThread extends Thread {
   private static Logger LOG = LoggerFactory.getLogger(ZkClient.class);
 
-  private BlockingQueue<ZkEvent> _events = new LinkedBlockingQueue<>();
+  private final EventLane _stateLane = new EventLane();
+  private final List<EventLane> _shardLanes;
+  private final List<Thread> _shardThreads;
 
   private long _totalEventCount = 0L;
-  private long _totalEventCountHandled = 0L;
 
   private static AtomicInteger _eventId = new AtomicInteger(0);
 
@@ -50,14 +61,20 @@ public class ZkEventThread extends Thread {
 
     private final String _description;
     private final String _sessionId;
+    private final String _path;
 
     public ZkEvent(String description) {
       this(description, null);
     }
 
     ZkEvent(String description, String sessionId) {
+      this(description, sessionId, null);
+    }
+
+    ZkEvent(String description, String sessionId, String path) {
       _description = description;
       _sessionId = sessionId;
+      _path = path;
     }
 
     public abstract void run() throws Exception;
@@ -81,34 +98,109 @@ public class ZkEventThread extends Thread {
     }
   }
 
-  ZkEventThread(String name) {
-    setDaemon(true);
-    setName("ZkClient-EventThread-" + getId() + "-" + name);
-  }
+  /**
+   * The queue of the events that are delivered by one thread, and its statistics.
+   */
+  private static class EventLane {
+    private final BlockingQueue<ZkEvent> _events = new LinkedBlockingQueue<>();
+    private final AtomicLong _handledEventCount = new AtomicLong(0L);
+    private final AtomicLong _handlingLatencyNs = new AtomicLong(0L);
 
-  @Override public void run() {
-    LOG.info("Starting ZkClient event thread.");
-    try {
-      while (!isInterrupted()) {
+    /**
+     * Deliver the events until the owner thread is interrupted.
+     */
+    void deliverEvents(Thread owner) throws InterruptedException {
+      while (!owner.isInterrupted()) {
         ZkEvent zkEvent = _events.take();
         int eventId = _eventId.incrementAndGet();
         if (LOG.isDebugEnabled()) {
           LOG.debug("Delivering event #" + eventId + " " + zkEvent);
         }
+        long startTime = System.nanoTime();
         try {
           zkEvent.run();
-          _totalEventCountHandled ++;
+          _handledEventCount.incrementAndGet();
         } catch (InterruptedException e) {
-          interrupt();
+          owner.interrupt();
         } catch (ZkInterruptedException e) {
-          interrupt();
+          owner.interrupt();
         } catch (Throwable e) {
           LOG.error("Error handling event " + zkEvent, e);
         }
+        _handlingLatencyNs.addAndGet(System.nanoTime() - startTime);
         if (LOG.isDebugEnabled()) {
           LOG.debug("Delivering event #" + eventId + " done");
         }
       }
+    }
+  }
+
+  ZkEventThread(String name) {
+    this(name, 0);
+  }
+
+  /**
+   * @param name the name of the event thread
+   * @param shardCount the number of the threads that deliver the events of the paths. If it is not
+   *                   positive, all the events are delivered by this thread.
+   */
+  ZkEventThread(String name, int shardCount) {
+    setDaemon(true);
+    setName("ZkClient-EventThread-" + getId() + "-" + name);
+    if (shardCount > 0) {
+      List<EventLane> shardLanes = new ArrayList<>(shardCount);
+      List<Thread> shardThreads = new ArrayList<>(shardCount);
+      for (int i = 0; i < shardCount; i++) {
+        EventLane lane = new EventLane();
+        Thread shardThread = new Thread(() -> runLane(lane), getName() + "-Shard-" + i);
+        shardThread.setDaemon(true);
+        shardLanes.add(lane);
+        shardThreads.add(shardThread);
+      }
+      _shardLanes = Collections.unmodifiableList(shardLanes);
+      _shardThreads = Collections.unmodifiableList(shardThreads);
+    } else {
+      _shardLanes = Collections.emptyList();
+      _shardThreads = Collections.emptyList();
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    for (Thread shardThread : _shardThreads) {
+      shardThread.start();
+    }
+    super.start();
+  }
+
+  @Override
+  public void interrupt() {
+    for (Thread shardThread : _shardThreads) {
+      shardThread.interrupt();
+    }
+    super.interrupt();
+  }
+
+  /**
+   * Wait for this thread and the shard threads to terminate.
+   * @param timeout the time to wait for each thread
+   * @param unit the time unit of the timeout
+   */
+  void joinAll(long timeout, TimeUnit unit) throws InterruptedException {
+    for (Thread shardThread : _shardThreads) {
+      shardThread.join(unit.toMillis(timeout));
+    }
+    join(unit.toMillis(timeout));
+  }
+
+  @Override public void run() {
+    runLane(_stateLane);
+  }
+
+  private static void runLane(EventLane lane) {
+    LOG.info("Starting ZkClient event thread.");
+    try {
+      lane.deliverEvents(Thread.currentThread());
     } catch (InterruptedException e) {
       LOG.info("Terminate ZkClient event thread.");
     }
@@ -121,16 +213,66 @@ public class ZkEventThread extends Thread {
       if (LOG.isDebugEnabled()) {
         LOG.debug("New event: " + event);
       }
-      _events.add(event);
+      getLane(event)._events.add(event);
       _totalEventCount ++;
     }
   }
 
+  private EventLane getLane(ZkEvent event) {
+    if (event._path == null || _shardLanes.isEmpty()) {
+      return _stateLane;
+    }
+    return _shardLanes.get(Math.floorMod(event._path.hashCode(), _shardLanes.size()));
+  }
+
   public long getPendingEventsCount() {
-    return _events.size();
+    long count = _stateLane._events.size();
+    for (EventLane lane : _shardLanes) {
+      count += lane._events.size();
+    }
+    return count;
   }
 
   public long getTotalEventCount() { return _totalEventCount; }
 
-  public long getTotalHandledEventCount() { return _totalEventCountHandled; }
+  public long getTotalHandledEventCount() {
+    long count = _stateLane._handledEventCount.get();
+    for (EventLane lane : _shardLanes) {
+      count += lane._handledEventCount.get();
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of the shard threads, 0 if all the events are delivered by this thread.
+   */
+  public int getShardCount() {
+    return _shardLanes.size();
+  }
+
+  /**
+   * @return the number of the pending events of the shard, or of the state lane if the shard is -1.
+   */
+  public long getPendingEventsCount(int shard) {
+    return getLane(shard)._events.size();
+  }
+
+  /**
+   * @return the number of the handled events of the shard, or of the state lane if the shard is -1.
+   */
+  public long getHandledEventCount(int shard) {
+    return getLane(shard)._handledEventCount.get();
+  }
+
+  /**
+   * @return the total time in milliseconds that the shard, or the state lane if the shard is -1,
+   *         spent handling the events.
+   */
+  public long getEventHandlingLatencyMs(int shard) {
+    return TimeUnit.NANOSECONDS.toMillis(getLane(shard)._handlingLatencyNs.get());
+  }
+
+  private EventLane getLane(int shard) {
+    return shard < 0 ? _stateLane : _shardLanes.get(shard);
+  }
 }
@@ -19,10 +19,12 @@ package org.apache.helix.zookeeper.zkclient.callback;
  * under the License.
  */
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.helix.zookeeper.zkclient.metric.ZkClientMonitor;
 import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.AsyncCallback.ChildrenCallback;
 import org.apache.zookeeper.AsyncCallback.DataCallback;
 import org.apache.zookeeper.AsyncCallback.StatCallback;
 import org.apache.zookeeper.AsyncCallback.StringCallback;
@@ -66,6 +68,31 @@ public class ZkAsyncCallbacks {
     }
   }
 
+  public static class GetChildrenCallbackHandler extends DefaultCallback
+      implements ChildrenCallback {
+    public List<String> _children;
+
+    @Override
+    public void processResult(int rc, String path, Object ctx, List<String> children) {
+      if (rc == 0) {
+        _children = children;
+      }
+      callback(rc, path, ctx);
+    }
+
+    @Override
+    public void handle() {
+      // TODO Auto-generated method stub
+    }
+
+    @Override
+    protected void recordFailure(int rc, String path, ZkAsyncCallMonitorContext monitor) {
+      if(rc != Code.NONODE.intValue()) {
+        monitor.recordFailure(path);
+      }
+    }
+  }
+
   public static class SetDataCallbackHandler extends DefaultCallback implements StatCallback {
     Stat _stat;
 
@@ -37,6 +37,7 @@ import org.apache.helix.monitoring.mbeans.dynamicMBeans.DynamicMBeanProvider;
 import org.apache.helix.monitoring.mbeans.dynamicMBeans.DynamicMetric;
 import org.apache.helix.monitoring.mbeans.dynamicMBeans.SimpleDynamicMetric;
 import org.apache.helix.monitoring.mbeans.exception.MetricException;
+import org.apache.helix.zookeeper.datamodel.serializer.SerializationBufferPool;
 import org.apache.helix.zookeeper.zkclient.ZkEventThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +63,11 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
   private SimpleDynamicMetric<Long> _expiredSessionCounter;
   private SimpleDynamicMetric<Long> _dataChangeEventCounter;
   private SimpleDynamicMetric<Long> _outstandingRequestGauge;
+  private SimpleDynamicMetric<Long> _serializeCounter;
+  private SimpleDynamicMetric<Long> _serializeBytesCounter;
+  private SimpleDynamicMetric<Long> _serializeLatencyMicrosCounter;
+  private SimpleDynamicMetric<Long> _serializeAllocatedBytesCounter;
+  private SerializationBufferPoolMetric _serializationBufferPoolMetric;
 
   private ZkThreadMetric _zkEventThreadMetric;
 
@@ -86,6 +92,12 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
     _expiredSessionCounter = new SimpleDynamicMetric("ExpiredSessionCounter", 0l);
     _dataChangeEventCounter = new SimpleDynamicMetric("DataChangeEventCounter", 0l);
     _outstandingRequestGauge = new SimpleDynamicMetric("OutstandingRequestGauge", 0l);
+    _serializeCounter = new SimpleDynamicMetric("SerializeCounter", 0l);
+    _serializeBytesCounter = new SimpleDynamicMetric("SerializeBytesCounter", 0l);
+    _serializeLatencyMicrosCounter = new SimpleDynamicMetric("SerializeLatencyMicrosCounter", 0l);
+    _serializeAllocatedBytesCounter =
+        new SimpleDynamicMetric("SerializeAllocatedBytesCounter", 0l);
+    _serializationBufferPoolMetric = new SerializationBufferPoolMetric();
 
     if (zkEventThread != null) {
       boolean result = setAndInitZkEventThreadMonitor(zkEventThread);
@@ -128,6 +140,11 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
     attributeList.add(_outstandingRequestGauge);
     attributeList.add(_stateChangeEventCounter);
     attributeList.add(_expiredSessionCounter);
+    attributeList.add(_serializeCounter);
+    attributeList.add(_serializeBytesCounter);
+    attributeList.add(_serializeLatencyMicrosCounter);
+    attributeList.add(_serializeAllocatedBytesCounter);
+    attributeList.add(_serializationBufferPoolMetric);
     if (_zkEventThreadMetric != null) {
       attributeList.add(_zkEventThreadMetric);
     }
@@ -190,6 +207,25 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
     }
   }
 
+  /**
+   * Record a serialization of the data that is written to ZK.
+   * @param dataSize the serialized data size in bytes
+   * @param allocatedBytes the bytes allocated by the serialization, or -1 if unknown
+   * @param latencyNanoSec the serialization latency in nanoseconds
+   */
+  public void recordSerialization(int dataSize, long allocatedBytes, long latencyNanoSec) {
+    synchronized (_serializeCounter) {
+      _serializeCounter.updateValue(_serializeCounter.getValue() + 1);
+      _serializeBytesCounter.updateValue(_serializeBytesCounter.getValue() + dataSize);
+      _serializeLatencyMicrosCounter
+          .updateValue(_serializeLatencyMicrosCounter.getValue() + latencyNanoSec / 1000);
+      if (allocatedBytes > 0) {
+        _serializeAllocatedBytesCounter
+            .updateValue(_serializeAllocatedBytesCounter.getValue() + allocatedBytes);
+      }
+    }
+  }
+
   public void recordDataPropagationLatency(String path, long latencyMilliSec) {
     if (null == path) {
       return;
@@ -271,7 +307,65 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
     recordAsync(path, 0, 0, true, accessType);
   }
 
+  /**
+   * The metric of the event thread. If the event thread delivers the path events by shards, the
+   * queue depth, the handled event count and the handling latency are also reported for the state
+   * lane and every shard, e.g. "StateLanePendingCallbackGauge" and "Shard0PendingCallbackGauge".
+   */
+  /**
+   * The counters of the process-wide {@link SerializationBufferPool}. They are read from the pool
+   * when the attributes are read, so they are the same on the monitors of all the ZkClients.
+   */
+  static class SerializationBufferPoolMetric extends DynamicMetric<String, Long> {
+    private static final String ACQUIRE_COUNTER = "SerializationBufferAcquireCounter";
+    private static final String REUSE_COUNTER = "SerializationBufferReuseCounter";
+    private static final String ALLOCATED_BYTES_COUNTER =
+        "SerializationBufferAllocatedBytesCounter";
+
+    SerializationBufferPoolMetric() {
+      super("SerializationBufferPool", "SerializationBufferPool");
+    }
+
+    @Override
+    protected Set<MBeanAttributeInfo> generateAttributeInfos(String metricName,
+        String metricObject) {
+      Set<MBeanAttributeInfo> attributeInfoSet = new HashSet<>();
+      for (String attributeName : Arrays
+          .asList(ACQUIRE_COUNTER, REUSE_COUNTER, ALLOCATED_BYTES_COUNTER)) {
+        attributeInfoSet.add(new MBeanAttributeInfo(attributeName, Long.TYPE.getName(),
+            DEFAULT_ATTRIBUTE_DESCRIPTION, true, false, false));
+      }
+      return attributeInfoSet;
+    }
+
+    @Override
+    public Object getAttributeValue(String attributeName) {
+      switch (attributeName) {
+      case ACQUIRE_COUNTER:
+        return SerializationBufferPool.getAcquireCount();
+      case REUSE_COUNTER:
+        return SerializationBufferPool.getReuseCount();
+      case ALLOCATED_BYTES_COUNTER:
+        return SerializationBufferPool.getAllocatedBytes();
+      default:
+        throw new MetricException("Unknown attribute name: " + attributeName);
+      }
+    }
+
+    @Override
+    public void updateValue(Long newValue) {
+      throw new UnsupportedOperationException("The counters are read from the pool.");
+    }
+  }
+
   class ZkThreadMetric extends DynamicMetric<ZkEventThread, ZkEventThread> {
+    private static final String STATE_LANE_PREFIX = "StateLane";
+    private static final String SHARD_PREFIX = "Shard";
+    private static final String LANE_PENDING_CALLBACK_GAUGE = "PendingCallbackGauge";
+    private static final String LANE_CALLBACK_HANDLED_COUNTER = "CallbackHandledCounter";
+    private static final String LANE_CALLBACK_HANDLING_LATENCY_COUNTER =
+        "CallbackHandlingLatencyMsCounter";
+
     public ZkThreadMetric(ZkEventThread eventThread) {
       super("ZkEventThead", eventThread);
     }
@@ -287,9 +381,23 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
       attributeInfoSet.add(
           new MBeanAttributeInfo("TotalCallbackHandledCounter", Long.TYPE.getName(),
               DEFAULT_ATTRIBUTE_DESCRIPTION, true, false, false));
+      if (eventThread.getShardCount() > 0) {
+        addLaneAttributeInfos(attributeInfoSet, STATE_LANE_PREFIX);
+        for (int shard = 0; shard < eventThread.getShardCount(); shard++) {
+          addLaneAttributeInfos(attributeInfoSet, SHARD_PREFIX + shard);
+        }
+      }
       return attributeInfoSet;
     }
 
+    private void addLaneAttributeInfos(Set<MBeanAttributeInfo> attributeInfoSet, String prefix) {
+      for (String attributeName : Arrays.asList(LANE_PENDING_CALLBACK_GAUGE,
+          LANE_CALLBACK_HANDLED_COUNTER, LANE_CALLBACK_HANDLING_LATENCY_COUNTER)) {
+        attributeInfoSet.add(new MBeanAttributeInfo(prefix + attributeName, Long.TYPE.getName(),
+            DEFAULT_ATTRIBUTE_DESCRIPTION, true, false, false));
+      }
+    }
+
     @Override
     public Object getAttributeValue(String attributeName) {
       switch (attributeName) {
@@ -299,6 +407,41 @@ public class ZkClientMonitor extends DynamicMBeanProvider {
         return getMetricObject().getTotalEventCount();
       case "TotalCallbackHandledCounter":
         return getMetricObject().getTotalHandledEventCount();
+      default:
+        return getLaneAttributeValue(attributeName);
+      }
+    }
+
+    private Object getLaneAttributeValue(String attributeName) {
+      int shard;
+      String laneAttributeName;
+      try {
+        if (attributeName.startsWith(STATE_LANE_PREFIX)) {
+          shard = -1;
+          laneAttributeName = attributeName.substring(STATE_LANE_PREFIX.length());
+        } else if (attributeName.startsWith(SHARD_PREFIX)) {
+          int end = SHARD_PREFIX.length();
+          while (end < attributeName.length() && Character.isDigit(attributeName.charAt(end))) {
+            end++;
+          }
+          shard = Integer.parseInt(attributeName.substring(SHARD_PREFIX.length(), end));
+          laneAttributeName = attributeName.substring(end);
+          if (shard >= getMetricObject().getShardCount()) {
+            throw new MetricException("Unknown attribute name: " + attributeName);
+          }
+        } else {
+          throw new MetricException("Unknown attribute name: " + attributeName);
+        }
+      } catch (NumberFormatException e) {
+        throw new MetricException("Unknown attribute name: " + attributeName);
+      }
+      switch (laneAttributeName) {
+      case LANE_PENDING_CALLBACK_GAUGE:
+        return getMetricObject().getPendingEventsCount(shard);
+      case LANE_CALLBACK_HANDLED_COUNTER:
+        return getMetricObject().getHandledEventCount(shard);
+      case LANE_CALLBACK_HANDLING_LATENCY_COUNTER:
+        return getMetricObject().getEventHandlingLatencyMs(shard);
       default:
         throw new MetricException("Unknown attribute name: " + attributeName);
       }
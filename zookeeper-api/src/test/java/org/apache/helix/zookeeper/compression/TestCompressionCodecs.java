@@ -0,0 +1,202 @@
+package org.apache.helix.zookeeper.compression;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.helix.zookeeper.constant.ZkSystemPropertyKeys;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordSerializer;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordStreamingSerializer;
+import org.apache.helix.zookeeper.util.GZipCompressionUtil;
+import org.apache.helix.zookeeper.util.ZNRecordUtil;
+import org.apache.helix.zookeeper.zkclient.serialize.ZkSerializer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestCompressionCodecs {
+  @DataProvider
+  public Object[][] codecSpecs() {
+    return new Object[][] { { "gzip" }, { "deflate" }, { "deflate:1" }, { "deflate:9" },
+        { "lz4" } };
+  }
+
+  @Test(dataProvider = "codecSpecs")
+  public void testRoundTrip(String codecSpec) throws IOException {
+    CompressionCodec codec = CompressionCodecs.getCodec(codecSpec);
+    Random random = new Random(codecSpec.hashCode());
+    for (int length : new int[] { 0, 1, 5, 12, 13, 100, 70000, 300000 }) {
+      byte[] randomData = new byte[length];
+      random.nextBytes(randomData);
+      verifyRoundTrip(randomData, codec);
+
+      byte[] repeatedData = new byte[length];
+      for (int i = 0; i < length; i++) {
+        repeatedData[i] = (byte) (i % 7 == 0 ? random.nextInt(3) : 'x');
+      }
+      verifyRoundTrip(repeatedData, codec);
+    }
+    verifyRoundTrip(serialize(createRecord()), codec);
+  }
+
+  @Test
+  public void testGzipBackwardCompatibility() throws IOException {
+    byte[] data = serialize(createRecord());
+    // The gzip data is written without the header, so it is the same as the legacy format.
+    byte[] compressed = CompressionCodecs.compress(data, CompressionCodecs.GZIP);
+    Assert.assertTrue(GZipCompressionUtil.isCompressed(compressed));
+    // The legacy gzip data can be read.
+    Assert.assertEquals(CompressionCodecs.uncompress(GZipCompressionUtil.compress(data)), data);
+
+    // The data compressed by the other codecs is not recognized as gzip data.
+    compressed = CompressionCodecs.compress(data, CompressionCodecs.getCodec("lz4"));
+    Assert.assertFalse(GZipCompressionUtil.isCompressed(compressed));
+    Assert.assertTrue(CompressionCodecs.isCompressed(compressed));
+    Assert.assertFalse(CompressionCodecs.isCompressed(data));
+  }
+
+  @Test
+  public void testCorruptedData() throws IOException {
+    byte[] data = serialize(createRecord());
+    for (String codecSpec : new String[] { "deflate", "lz4" }) {
+      byte[] compressed =
+          CompressionCodecs.compress(data, CompressionCodecs.getCodec(codecSpec));
+      try {
+        CompressionCodecs.uncompress(Arrays.copyOf(compressed, compressed.length / 2));
+        Assert.fail("Corrupted data should not be uncompressed.");
+      } catch (IOException e) {
+        // expected
+      }
+
+      // The header declares a huge uncompressed length, which is rejected before the output
+      // buffer is allocated.
+      compressed[4] = (byte) 0x7F;
+      try {
+        CompressionCodecs.uncompress(compressed);
+        Assert.fail("Corrupted data should not be uncompressed.");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().startsWith("Invalid uncompressed length"));
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidCodecSpec() {
+    for (String codecSpec : new String[] { "unknown", "lz4:1", "deflate:10", "deflate:x" }) {
+      try {
+        CompressionCodecs.getCodec(codecSpec);
+        Assert.fail("Codec spec " + codecSpec + " should be invalid.");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testCodecSpecsOfSameLevel() {
+    CompressionCodec codec = CompressionCodecs.getCodec("deflate:1");
+    for (String codecSpec : new String[] { "deflate: 1", " deflate:01 ", "deflate :1" }) {
+      Assert.assertSame(CompressionCodecs.getCodec(codecSpec), codec);
+    }
+    Assert.assertEquals(((DeflateCodec) codec).getLevel(), 1);
+    Assert.assertSame(CompressionCodecs.getCodec("deflate:-1"),
+        CompressionCodecs.getCodec("deflate"));
+    Assert.assertNotSame(CompressionCodecs.getCodec("deflate:9"), codec);
+  }
+
+  @Test
+  public void testInvalidRecordCodecSpec() {
+    ZNRecord record = createRecord();
+    record.setSimpleField(ZNRecord.COMPRESSION_CODEC_FIELD, "deflate:10");
+    // The invalid codec of the record falls back to gzip, which is remembered for the spec.
+    Assert.assertSame(ZNRecordUtil.getCompressionCodec(record), CompressionCodecs.GZIP);
+    Assert.assertSame(ZNRecordUtil.getCompressionCodec(record), CompressionCodecs.GZIP);
+
+    record.setSimpleField(ZNRecord.COMPRESSION_CODEC_FIELD, "deflate: 1");
+    Assert.assertSame(ZNRecordUtil.getCompressionCodec(record),
+        CompressionCodecs.getCodec("deflate:1"));
+  }
+
+  @Test
+  public void testSerializersWithCodec() {
+    String codecProperty =
+        System.getProperty(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC);
+    try {
+      System.setProperty(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC, "lz4");
+      for (ZkSerializer serializer : new ZkSerializer[] { new ZNRecordSerializer(),
+          new ZNRecordStreamingSerializer() }) {
+        ZNRecord record = createRecord();
+        record.setBooleanField(ZNRecord.ENABLE_COMPRESSION_BOOLEAN_FIELD, true);
+        // The codec of the system property
+        byte[] serialized = serializer.serialize(record);
+        Assert.assertFalse(GZipCompressionUtil.isCompressed(serialized));
+        Assert.assertTrue(CompressionCodecs.isCompressed(serialized));
+        Assert.assertEquals(serializer.deserialize(serialized), record);
+
+        // The codec of the record overrides the system property.
+        record.setSimpleField(ZNRecord.COMPRESSION_CODEC_FIELD, "gzip");
+        serialized = serializer.serialize(record);
+        Assert.assertTrue(GZipCompressionUtil.isCompressed(serialized));
+        Assert.assertEquals(serializer.deserialize(serialized), record);
+      }
+    } finally {
+      if (codecProperty == null) {
+        System.clearProperty(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC);
+      } else {
+        System.setProperty(ZkSystemPropertyKeys.ZK_SERIALIZER_ZNRECORD_COMPRESSION_CODEC,
+            codecProperty);
+      }
+    }
+  }
+
+  private void verifyRoundTrip(byte[] data, CompressionCodec codec) throws IOException {
+    byte[] compressed = CompressionCodecs.compress(data, codec);
+    Assert.assertTrue(CompressionCodecs.isCompressed(compressed));
+    Assert.assertEquals(CompressionCodecs.uncompress(compressed), data);
+
+    // The compression into a buffer, which reuses the thread local state of the codec.
+    byte[] output = new byte[codec.maxCompressedLength(data.length) + 1];
+    int compressedLength = codec.compress(data, 0, data.length, output, 1);
+    Assert.assertEquals(codec.uncompress(output, 1, compressedLength, data.length), data);
+  }
+
+  private static byte[] serialize(ZNRecord record) {
+    return new ZNRecordSerializer().serialize(record);
+  }
+
+  private static ZNRecord createRecord() {
+    ZNRecord record = new ZNRecord("TestDB");
+    Random random = new Random(1);
+    for (int p = 0; p < 1000; p++) {
+      Map<String, String> stateMap = new TreeMap<>();
+      for (int r = 0; r < 3; r++) {
+        stateMap.put("localhost_" + (12000 + random.nextInt(100)), r == 0 ? "MASTER" : "SLAVE");
+      }
+      record.setMapField("TestDB_" + p, stateMap);
+    }
+    return record;
+  }
+}
@@ -0,0 +1,140 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestZNRecordBinarySerializer {
+
+  private static ZNRecord createExternalView(int partitionCount, int instanceCount) {
+    ZNRecord record = new ZNRecord("testResource");
+    record.setSimpleField("BUCKET_SIZE", "0");
+    for (int i = 0; i < partitionCount; i++) {
+      Map<String, String> stateMap = new HashMap<>();
+      List<String> preferenceList = new ArrayList<>();
+      for (int j = 0; j < 3; j++) {
+        String instance = "localhost_" + ((i + j) % instanceCount);
+        stateMap.put(instance, j == 0 ? "MASTER" : "SLAVE");
+        preferenceList.add(instance);
+      }
+      record.setMapField("testResource_" + i, stateMap);
+      record.setListField("testResource_" + i, preferenceList);
+    }
+    return record;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    ZNRecordBinarySerializer serializer = new ZNRecordBinarySerializer();
+    ZNRecord record = createExternalView(1000, 20);
+    record.setListField("EMPTY", new ArrayList<>());
+    record.setListField("NULL_ITEM", Arrays.asList("a", null, "\u00e9\u4e2d"));
+    record.setRawPayload(new byte[] {1, 2, 3});
+    record.setSimpleField("NULL_VALUE", null);
+
+    byte[] bytes = serializer.serialize(record);
+    Assert.assertTrue(ZNRecordBinarySerializer.isBinaryFormat(bytes));
+    ZNRecord result = (ZNRecord) serializer.deserialize(bytes);
+    Assert.assertEquals(result, record);
+    Assert.assertEquals(result.getRawPayload(), record.getRawPayload());
+    Assert.assertNull(result.getSimpleField("NULL_VALUE"));
+    Assert.assertEquals(result.getListField("NULL_ITEM"), record.getListField("NULL_ITEM"));
+
+    // The repeated names are only written once.
+    byte[] jsonBytes = new ZNRecordStreamingSerializer().serialize(record);
+    Assert.assertTrue(bytes.length * 4 < jsonBytes.length,
+        "binary size: " + bytes.length + ", JSON size: " + jsonBytes.length);
+  }
+
+  @Test
+  public void testAutoDetectOnRead() {
+    ZNRecord record = createExternalView(100, 10);
+    byte[] binaryBytes = new ZNRecordBinarySerializer().serialize(record);
+    byte[] jsonBytes = new ZNRecordSerializer().serialize(record);
+
+    // The JSON serializers read the binary data, and the binary serializer reads the JSON data.
+    Assert.assertEquals(new ZNRecordSerializer().deserialize(binaryBytes), record);
+    Assert.assertEquals(new ZNRecordStreamingSerializer().deserialize(binaryBytes), record);
+    Assert.assertEquals(new ZNRecordBinarySerializer().deserialize(jsonBytes), record);
+  }
+
+  @Test
+  public void testCompression() throws IOException {
+    ZNRecord record = createExternalView(1000, 20);
+    record.setBooleanField(ZNRecord.ENABLE_COMPRESSION_BOOLEAN_FIELD, true);
+    byte[] bytes = new ZNRecordBinarySerializer().serialize(record);
+    Assert.assertTrue(CompressionCodecs.isCompressed(bytes));
+    Assert.assertTrue(ZNRecordBinarySerializer.isBinaryFormat(CompressionCodecs.uncompress(bytes)));
+    Assert.assertEquals(new ZNRecordBinarySerializer().deserialize(bytes), record);
+    Assert.assertEquals(new ZNRecordSerializer().deserialize(bytes), record);
+  }
+
+  @Test
+  public void testLazyFields() {
+    ZNRecord record = createExternalView(100, 10);
+    ZNRecord result =
+        (ZNRecord) new ZNRecordBinarySerializer().deserialize(
+            new ZNRecordBinarySerializer().serialize(record));
+    LazyFieldMap<Map<String, String>> mapFields =
+        (LazyFieldMap<Map<String, String>>) result.getMapFields();
+    Assert.assertEquals(mapFields.keySet(), record.getMapFields().keySet());
+    Assert.assertFalse(mapFields.isMaterialized("testResource_1"));
+
+    // Only the accessed field is parsed.
+    Assert.assertEquals(result.getMapField("testResource_1"),
+        record.getMapField("testResource_1"));
+    Assert.assertTrue(mapFields.isMaterialized("testResource_1"));
+    Assert.assertFalse(mapFields.isMaterialized("testResource_2"));
+
+    // The parsed field is kept, so the modification is not lost.
+    result.getMapField("testResource_1").put("localhost_9", "OFFLINE");
+    Assert.assertEquals(result.getMapField("testResource_1").get("localhost_9"), "OFFLINE");
+    result.setMapField("testResource_2", new HashMap<>());
+    Assert.assertTrue(result.getMapField("testResource_2").isEmpty());
+    result.getMapFields().remove("testResource_3");
+    Assert.assertEquals(result.getMapFields().size(), 99);
+    Assert.assertEquals(new ZNRecord(result).getMapFields(), result.getMapFields());
+  }
+
+  @Test
+  public void testMalformedData() {
+    byte[] bytes = new ZNRecordBinarySerializer().serialize(createExternalView(10, 5));
+    // Truncated data, or data that claims a huge dictionary, fails without a large allocation.
+    Assert.assertNull(
+        new ZNRecordBinarySerializer().deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+    byte[] corrupted = Arrays.copyOf(bytes, bytes.length);
+    corrupted[3] = (byte) 0xFF;
+    corrupted[4] = (byte) 0xFF;
+    corrupted[5] = (byte) 0xFF;
+    corrupted[6] = (byte) 0x7F;
+    Assert.assertNull(new ZNRecordBinarySerializer().deserialize(corrupted));
+  }
+}
@@ -0,0 +1,108 @@
+package org.apache.helix.zookeeper.datamodel.serializer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.helix.zookeeper.compression.CompressionCodecs;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestZNRecordPooledStreamingSerializer {
+
+  private static ZNRecord createRecord(int partitionCount) {
+    ZNRecord record = new ZNRecord("testRecord");
+    record.setSimpleField("STATE_MODEL_DEF_REF", "MasterSlave");
+    for (int i = 0; i < partitionCount; i++) {
+      String partition = "testResource_" + i;
+      record.setListField(partition, Arrays.asList("host_0", "host_1", "host_2"));
+      Map<String, String> stateMap = new HashMap<>();
+      stateMap.put("host_0", "MASTER");
+      stateMap.put("host_1", "SLAVE");
+      stateMap.put("host_2", "SLAVE");
+      record.setMapField(partition, stateMap);
+    }
+    return record;
+  }
+
+  @Test
+  public void testSameOutputAsStreamingSerializer() {
+    ZNRecordStreamingSerializer streamingSerializer = new ZNRecordStreamingSerializer();
+    ZNRecordPooledStreamingSerializer pooledSerializer = new ZNRecordPooledStreamingSerializer();
+
+    // Serialize the records of different sizes, so the pooled buffers are reused and grown.
+    for (int partitionCount : new int[] {1, 1000, 10, 0}) {
+      ZNRecord record = createRecord(partitionCount);
+      byte[] expected = streamingSerializer.serialize(record);
+      byte[] bytes = pooledSerializer.serialize(record);
+      Assert.assertEquals(bytes, expected);
+      Assert.assertEquals(pooledSerializer.deserialize(bytes), record);
+    }
+  }
+
+  @Test
+  public void testCompression() {
+    ZNRecordPooledStreamingSerializer serializer = new ZNRecordPooledStreamingSerializer();
+    for (String codec : new String[] {"gzip", "deflate", "lz4"}) {
+      ZNRecord record = createRecord(1000);
+      record.setBooleanField(ZNRecord.ENABLE_COMPRESSION_BOOLEAN_FIELD, true);
+      record.setSimpleField(ZNRecord.COMPRESSION_CODEC_FIELD, codec);
+      byte[] bytes = serializer.serialize(record);
+      Assert.assertTrue(CompressionCodecs.isCompressed(bytes));
+      Assert.assertEquals(serializer.deserialize(bytes), record);
+      Assert.assertEquals(new ZNRecordStreamingSerializer().deserialize(bytes), record);
+    }
+  }
+
+  @Test
+  public void testBufferReuse() {
+    SerializationBufferPool.Buffer buffer = SerializationBufferPool.acquire();
+    buffer.write(new byte[SerializationBufferPool.INITIAL_BUFFER_SIZE * 4], 0,
+        SerializationBufferPool.INITIAL_BUFFER_SIZE * 4);
+    SerializationBufferPool.release(buffer);
+
+    long reuseCount = SerializationBufferPool.getReuseCount();
+    long allocatedBytes = SerializationBufferPool.getAllocatedBytes();
+    SerializationBufferPool.Buffer reusedBuffer = SerializationBufferPool.acquire();
+    try {
+      Assert.assertSame(reusedBuffer, buffer);
+      Assert.assertEquals(reusedBuffer.size(), 0);
+      reusedBuffer.write(new byte[SerializationBufferPool.INITIAL_BUFFER_SIZE * 2], 0,
+          SerializationBufferPool.INITIAL_BUFFER_SIZE * 2);
+      Assert.assertEquals(SerializationBufferPool.getReuseCount(), reuseCount + 1);
+      // The grown buffer is reused, so nothing is allocated.
+      Assert.assertEquals(SerializationBufferPool.getAllocatedBytes(), allocatedBytes);
+    } finally {
+      SerializationBufferPool.release(reusedBuffer);
+    }
+
+    // The oversized buffer is not retained.
+    SerializationBufferPool.Buffer largeBuffer = SerializationBufferPool.acquire();
+    largeBuffer.ensureCapacity(SerializationBufferPool.MAX_RETAINED_BUFFER_SIZE + 1);
+    SerializationBufferPool.release(largeBuffer);
+    SerializationBufferPool.Buffer newBuffer = SerializationBufferPool.acquire();
+    Assert.assertNotSame(newBuffer, largeBuffer);
+    SerializationBufferPool.release(newBuffer);
+  }
+}
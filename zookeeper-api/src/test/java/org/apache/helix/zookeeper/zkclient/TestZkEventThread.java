@@ -0,0 +1,134 @@
+package org.apache.helix.zookeeper.zkclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.zookeeper.impl.TestHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestZkEventThread {
+  private static final int SHARD_COUNT = 4;
+
+  @Test
+  public void testSlowPathDoesNotBlockOtherShards() throws Exception {
+    ZkEventThread eventThread = new ZkEventThread("test", SHARD_COUNT);
+    eventThread.start();
+    try {
+      String slowPath = "/slow";
+      String fastPath = getPathOnOtherShard(slowPath);
+      CountDownLatch releaseSlowEvent = new CountDownLatch(1);
+      CountDownLatch fastEventHandled = new CountDownLatch(1);
+      CountDownLatch stateEventHandled = new CountDownLatch(1);
+
+      eventThread.send(new ZkEventThread.ZkEvent("slow event", null, slowPath) {
+        @Override
+        public void run() throws Exception {
+          releaseSlowEvent.await();
+        }
+      });
+      eventThread.send(new ZkEventThread.ZkEvent("fast event", null, fastPath) {
+        @Override
+        public void run() {
+          fastEventHandled.countDown();
+        }
+      });
+      eventThread.send(new ZkEventThread.ZkEvent("state event") {
+        @Override
+        public void run() {
+          stateEventHandled.countDown();
+        }
+      });
+
+      // The blocked shard delays neither the other shards nor the state lane.
+      Assert.assertTrue(fastEventHandled.await(3L, TimeUnit.SECONDS));
+      Assert.assertTrue(stateEventHandled.await(3L, TimeUnit.SECONDS));
+      Assert.assertTrue(TestHelper.verify(() -> eventThread.getHandledEventCount(-1) == 1L
+              && eventThread.getHandledEventCount(getShard(fastPath)) == 1L,
+          TestHelper.WAIT_DURATION));
+      Assert.assertEquals(eventThread.getHandledEventCount(getShard(slowPath)), 0L);
+
+      releaseSlowEvent.countDown();
+      Assert.assertTrue(TestHelper.verify(() -> eventThread.getTotalHandledEventCount() == 3L,
+          TestHelper.WAIT_DURATION));
+      Assert.assertEquals(eventThread.getPendingEventsCount(), 0L);
+      Assert.assertEquals(eventThread.getTotalEventCount(), 3L);
+    } finally {
+      eventThread.interrupt();
+      eventThread.joinAll(2000, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Test
+  public void testPerPathOrdering() throws Exception {
+    ZkEventThread eventThread = new ZkEventThread("test", SHARD_COUNT);
+    eventThread.start();
+    try {
+      int eventCount = 100;
+      int pathCount = 8;
+      List<List<Integer>> handledEvents = new ArrayList<>();
+      for (int p = 0; p < pathCount; p++) {
+        handledEvents.add(Collections.synchronizedList(new ArrayList<>()));
+      }
+      CountDownLatch allHandled = new CountDownLatch(eventCount * pathCount);
+      for (int i = 0; i < eventCount; i++) {
+        for (int p = 0; p < pathCount; p++) {
+          final int eventIndex = i;
+          final List<Integer> pathEvents = handledEvents.get(p);
+          eventThread.send(new ZkEventThread.ZkEvent("event " + i, null, "/path" + p) {
+            @Override
+            public void run() {
+              pathEvents.add(eventIndex);
+              allHandled.countDown();
+            }
+          });
+        }
+      }
+
+      Assert.assertTrue(allHandled.await(3L, TimeUnit.SECONDS));
+      for (List<Integer> pathEvents : handledEvents) {
+        for (int i = 0; i < eventCount; i++) {
+          Assert.assertEquals(pathEvents.get(i).intValue(), i);
+        }
+      }
+    } finally {
+      eventThread.interrupt();
+      eventThread.joinAll(2000, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static int getShard(String path) {
+    return Math.floorMod(path.hashCode(), SHARD_COUNT);
+  }
+
+  private static String getPathOnOtherShard(String path) {
+    for (int i = 0; ; i++) {
+      String otherPath = "/path" + i;
+      if (getShard(otherPath) != getShard(path)) {
+        return otherPath;
+      }
+    }
+  }
+}